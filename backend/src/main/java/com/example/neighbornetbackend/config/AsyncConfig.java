@@ -1,13 +1,20 @@
 package com.example.neighbornetbackend.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
 @Configuration
 public class AsyncConfig {
 
+    @Value("${app.executors.await-termination-seconds:20}")
+    private int awaitTerminationSeconds;
+
     @Bean(name = "notificationTaskExecutor")
     public AsyncTaskExecutor notificationTaskExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
@@ -18,4 +25,67 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+
+    /**
+     * Runs the notification dispatcher's long-lived queue consumers, one
+     * thread each.
+     */
+    @Bean(name = "notificationWorkerExecutor")
+    public AsyncTaskExecutor notificationWorkerExecutor(@Value("${app.notifications.workers:2}") int workers) {
+        return fixedPool("NotificationWorker-", workers, 0, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Image resizing and upload; a full queue runs the work on the uploading
+     * request thread.
+     */
+    @Bean(name = "imageDerivativeExecutor")
+    public AsyncTaskExecutor imageDerivativeExecutor(@Value("${app.images.workers:2}") int workers,
+                                                     @Value("${app.images.queue-capacity:100}") int queueCapacity) {
+        return fixedPool("ImageDerivatives-", workers, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Parallel PDF page-range extraction; a full queue runs the range on the
+     * calling thread.
+     */
+    @Bean(name = "textExtractionExecutor")
+    public AsyncTaskExecutor textExtractionExecutor(@Value("${app.extraction.workers:2}") int workers,
+                                                    @Value("${app.extraction.queue-capacity:16}") int queueCapacity) {
+        return fixedPool("TextExtraction-", workers, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Quiz generation jobs; a full queue rejects the job so the caller can
+     * answer 503.
+     */
+    @Bean(name = "quizGenerationExecutor")
+    public AsyncTaskExecutor quizGenerationExecutor(@Value("${app.quiz-generation.workers:4}") int workers,
+                                                    @Value("${app.quiz-generation.queue-capacity:20}") int queueCapacity) {
+        return fixedPool("QuizGeneration-", workers, queueCapacity, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Per-chunk Gemini calls of document quiz generation, shared by all
+     * requests; a full queue skips the chunk.
+     */
+    @Bean(name = "quizChunkExecutor")
+    public AsyncTaskExecutor quizChunkExecutor(@Value("${app.quiz-generation.max-concurrent-chunks:4}") int workers,
+                                               @Value("${app.quiz-generation.chunk-queue-capacity:100}") int queueCapacity) {
+        return fixedPool("QuizChunk-", workers, queueCapacity, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private ThreadPoolTaskExecutor fixedPool(String threadNamePrefix, int threads, int queueCapacity,
+                                             RejectedExecutionHandler rejectedExecutionHandler) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setRejectedExecutionHandler(rejectedExecutionHandler);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(awaitTerminationSeconds);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,45 +1,116 @@
 package com.example.neighbornetbackend.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpEntity;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
 public class CacheConfig {
+    public static final List<String> CACHE_NAMES = List.of(
+            "classes",
+            "popularClasses",
+            "userClasses",
+            "classFeedbacks",
+            "classRatings",
+            "relatedClasses",
+            "userStats",
+            "posts",
+            "postPages",
+            "comments",
+            "classesPage",
+            "recentClasses",
+            "userProfiles",
+            "followersData",
+            "userNotifications",
+            "unreadNotificationsCount",
+            "quizById",
+            "quizzesByClass",
+            "quizAttempts",
+            "adminClassStats",
+            "principals"
+    );
+
     @Bean
     @Primary
-    public CacheManager cacheManager() {
+    public CacheManager cacheManager(CacheProperties cacheProperties, CacheInvalidationBus invalidationBus) {
+        Set<String> names = new LinkedHashSet<>(CACHE_NAMES);
+        names.addAll(cacheProperties.getSpecs().keySet());
+
+        Map<String, InvalidatingCache> caches = new LinkedHashMap<>();
+        for (String name : names) {
+            String spec = cacheProperties.getSpecs().getOrDefault(name, cacheProperties.getDefaultSpec());
+            CaffeineCache local = new CaffeineCache(name, buildCache(spec).build(), true);
+            caches.put(name, new InvalidatingCache(local, invalidationBus));
+        }
+
+        invalidationBus.subscribe((cacheName, key) -> {
+            InvalidatingCache cache = caches.get(cacheName);
+            if (cache != null) {
+                cache.applyRemote(key);
+            }
+        });
+
         SimpleCacheManager cacheManager = new SimpleCacheManager();
-        cacheManager.setCaches(Arrays.asList(
-                new ConcurrentMapCache("classes"),
-                new ConcurrentMapCache("popularClasses"),
-                new ConcurrentMapCache("userClasses"),
-                new ConcurrentMapCache("classFeedbacks"),
-                new ConcurrentMapCache("classRatings"),
-                new ConcurrentMapCache("relatedClasses"),
-                new ConcurrentMapCache("userStats"),
-                new ConcurrentMapCache("recentActivities"),
-                new ConcurrentMapCache("posts"),
-                new ConcurrentMapCache("postPages"),
-                new ConcurrentMapCache("comments"),
-                new ConcurrentMapCache("classesPage"),
-                new ConcurrentMapCache("recentClasses"),
-                new ConcurrentMapCache("userProfiles"),
-                new ConcurrentMapCache("followersData"),
-                new ConcurrentMapCache("userNotifications"),
-                new ConcurrentMapCache("unreadNotificationsCount"),
-                new ConcurrentMapCache("quizById"),
-                new ConcurrentMapCache("quizzesByClass"),
-                new ConcurrentMapCache("quizAttempts"),
-                new ConcurrentMapCache("adminClassStats")
-        ));
+        cacheManager.setCaches(new ArrayList<Cache>(caches.values()));
         return cacheManager;
     }
-}
\ No newline at end of file
+
+    /**
+     * Exposes Caffeine statistics for the wrapped caches, which Boot's
+     * built-in provider does not recognise.
+     */
+    @Bean
+    @SuppressWarnings("unchecked")
+    public CacheMeterBinderProvider<InvalidatingCache> invalidatingCacheMeterBinderProvider() {
+        return (cache, tags) -> new CaffeineCacheMetrics<>(
+                (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache(),
+                cache.getName(), tags);
+    }
+
+    private static Caffeine<Object, Object> buildCache(String spec) {
+        Caffeine<Object, Object> builder = Caffeine.from(CaffeineSpec.parse(spec)).recordStats();
+        // maximumWeight needs a weigher; list-valued entries count by their element count
+        if (spec.contains("maximumWeight")) {
+            builder.weigher((key, value) -> weigh(value));
+        }
+        return builder;
+    }
+
+    static int weigh(Object value) {
+        if (value instanceof HttpEntity<?> entity) {
+            return weigh(entity.getBody());
+        }
+        if (value instanceof Collection<?> collection) {
+            return collection.size() + 1;
+        }
+        if (value instanceof Map<?, ?> map) {
+            return map.size() + 1;
+        }
+        if (value instanceof Slice<?> slice) {
+            return slice.getNumberOfElements() + 1;
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.neighbornetbackend.config;
+
+/**
+ * Carries cache evictions between backend nodes so every node's local
+ * caches drop entries that were invalidated elsewhere.
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * Announces that {@code key} was evicted from {@code cacheName}. A
+     * {@code null} key means the whole cache was cleared.
+     */
+    void publish(String cacheName, Object key);
+
+    /**
+     * Registers the listener that applies invalidations received from other
+     * nodes. Events published by this node are never delivered back to it.
+     */
+    void subscribe(Listener listener);
+
+    @FunctionalInterface
+    interface Listener {
+        void onInvalidation(String cacheName, Object key);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.neighbornetbackend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-cache Caffeine specs, e.g.
+ * {@code app.cache.specs.userProfiles=maximumSize=10000,expireAfterAccess=15m}.
+ * Caches without an entry use {@code app.cache.default-spec}.
+ */
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheProperties {
+    private String defaultSpec = "maximumSize=1000,expireAfterWrite=10m";
+    private Map<String, String> specs = new HashMap<>();
+
+    public String getDefaultSpec() {
+        return defaultSpec;
+    }
+
+    public void setDefaultSpec(String defaultSpec) {
+        this.defaultSpec = defaultSpec;
+    }
+
+    public Map<String, String> getSpecs() {
+        return specs;
+    }
+
+    public void setSpecs(Map<String, String> specs) {
+        this.specs = specs;
+    }
+}
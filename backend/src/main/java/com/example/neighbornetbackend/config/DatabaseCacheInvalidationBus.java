@@ -0,0 +1,229 @@
+package com.example.neighbornetbackend.config;
+
+import com.example.neighbornetbackend.model.CacheInvalidationEvent;
+import com.example.neighbornetbackend.repository.CacheInvalidationEventRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shares cache invalidations between nodes through the
+ * {@code cache_invalidation_events} table. Evictions are queued locally and
+ * written in one batch per poll; each node then reads the events written by
+ * the other nodes since its last poll.
+ *
+ * <p>Event ids are the sequence every node reads in. Inserts from concurrent
+ * transactions can commit out of id order, so the read position only moves
+ * past an id gap once the event after it has been visible to this node for
+ * {@code app.cache.invalidation.gap-timeout-ms}. That wait is timed with this
+ * node's own monotonic clock; timestamps written by other nodes are never
+ * compared. A node recognises its own events by their origin node id.</p>
+ *
+ * <p>Polling runs on the bus's own thread rather than the shared
+ * {@code @Scheduled} scheduler, so long scheduled jobs such as the search
+ * rebuild or the growth reconcile never hold back invalidations.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation.mode", havingValue = "database", matchIfMissing = true)
+public class DatabaseCacheInvalidationBus implements CacheInvalidationBus {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseCacheInvalidationBus.class);
+
+    private static final int POLL_BATCH_SIZE = 500;
+    private static final int MAX_KEY_LENGTH = 512;
+
+    private final CacheInvalidationEventRepository eventRepository;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Queue<CacheInvalidationEvent> outbox = new ConcurrentLinkedQueue<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    // Ids read past the settled position, with the System.nanoTime() at which each was first read
+    private final NavigableMap<Long, Long> readSinceSettled = new TreeMap<>();
+
+    @Value("${app.cache.invalidation.retention-hours:1}")
+    private long retentionHours;
+
+    @Value("${app.cache.invalidation.gap-timeout-ms:5000}")
+    private long gapTimeoutMs;
+
+    @Value("${app.cache.invalidation.poll-ms:1000}")
+    private long pollMs;
+
+    private volatile Long settledId = null;
+    private ScheduledExecutorService poller;
+
+    public DatabaseCacheInvalidationBus(CacheInvalidationEventRepository eventRepository) {
+        this.eventRepository = eventRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            settledId = eventRepository.findMaxId();
+        } catch (Exception e) {
+            logger.error("Error reading cache invalidation position: {}", e.getMessage());
+        }
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CacheInvalidationPoller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::poll, pollMs, pollMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (poller == null) {
+            return;
+        }
+        poller.shutdown();
+        try {
+            poller.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushOutbox();
+    }
+
+    @Override
+    public void publish(String cacheName, Object key) {
+        String encodedKey = null;
+        if (key != null) {
+            encodedKey = encodeKey(key);
+            if (encodedKey == null) {
+                // Composite keys cannot be rebuilt on the other side; clear the cache there instead
+                logger.debug("Publishing clear of {} for non-portable key type {}", cacheName, key.getClass().getName());
+            }
+        }
+        outbox.add(new CacheInvalidationEvent(cacheName, encodedKey, nodeId));
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public synchronized void poll() {
+        flushOutbox();
+        if (settledId == null) {
+            return;
+        }
+
+        try {
+            List<CacheInvalidationEvent> events = eventRepository.findAfter(settledId, PageRequest.of(0, POLL_BATCH_SIZE));
+            long now = System.nanoTime();
+            for (CacheInvalidationEvent event : events) {
+                if (readSinceSettled.putIfAbsent(event.getId(), now) == null && !nodeId.equals(event.getOriginNode())) {
+                    deliver(event.getCacheName(), decodeKey(event.getCacheKey()));
+                }
+            }
+            settle(now);
+        } catch (Exception e) {
+            logger.error("Error polling cache invalidations: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${app.cache.invalidation.cleanup-cron:0 5 * * * *}")
+    public void cleanup() {
+        try {
+            int deleted = eventRepository.deleteOlderThan(LocalDateTime.now().minusHours(retentionHours));
+            if (deleted > 0) {
+                logger.info("Deleted {} old cache invalidation events", deleted);
+            }
+        } catch (Exception e) {
+            logger.error("Error cleaning up cache invalidation events: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Moves the read position over every id that directly follows it, and
+     * over a gap once the id after the gap has been read for longer than the
+     * gap timeout; an id missing for that long was rolled back.
+     */
+    private void settle(long now) {
+        long gapTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(gapTimeoutMs);
+        long settled = settledId;
+        for (Map.Entry<Long, Long> read : readSinceSettled.entrySet()) {
+            if (read.getKey() != settled + 1 && now - read.getValue() < gapTimeoutNanos) {
+                break;
+            }
+            settled = read.getKey();
+        }
+        if (settled != settledId) {
+            readSinceSettled.headMap(settled, true).clear();
+            settledId = settled;
+        }
+    }
+
+    private void flushOutbox() {
+        List<CacheInvalidationEvent> batch = new ArrayList<>();
+        CacheInvalidationEvent event;
+        while ((event = outbox.poll()) != null) {
+            batch.add(event);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            eventRepository.saveAll(batch);
+        } catch (Exception e) {
+            logger.error("Error publishing {} cache invalidations: {}", batch.size(), e.getMessage());
+            outbox.addAll(batch);
+        }
+    }
+
+    private void deliver(String cacheName, Object key) {
+        for (Listener listener : listeners) {
+            try {
+                listener.onInvalidation(cacheName, key);
+            } catch (Exception e) {
+                logger.error("Error applying invalidation of {}: {}", cacheName, e.getMessage());
+            }
+        }
+    }
+
+    static String encodeKey(Object key) {
+        if (key instanceof String value) {
+            return value.length() + 2 <= MAX_KEY_LENGTH ? "s:" + value : null;
+        }
+        if (key instanceof Long value) {
+            return "l:" + value;
+        }
+        if (key instanceof Integer value) {
+            return "i:" + value;
+        }
+        return null;
+    }
+
+    static Object decodeKey(String encoded) {
+        if (encoded == null || encoded.length() < 2) {
+            return null;
+        }
+        String value = encoded.substring(2);
+        return switch (encoded.charAt(0)) {
+            case 's' -> value;
+            case 'l' -> Long.valueOf(value);
+            case 'i' -> Integer.valueOf(value);
+            default -> null;
+        };
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.neighbornetbackend.config;
 
 import com.google.auth.oauth2.GoogleCredentials;
+import com.google.auth.oauth2.ServiceAccountCredentials;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import com.google.firebase.auth.FirebaseAuth;
@@ -25,9 +26,14 @@ public class FirebaseConfig {
             Resource resource = new ClassPathResource(firebaseCredentialsPath);
             InputStream serviceAccount = resource.getInputStream();
 
-            FirebaseOptions options = FirebaseOptions.builder()
-                    .setCredentials(GoogleCredentials.fromStream(serviceAccount))
-                    .build();
+            GoogleCredentials credentials = GoogleCredentials.fromStream(serviceAccount);
+            FirebaseOptions.Builder builder = FirebaseOptions.builder()
+                    .setCredentials(credentials);
+            // Set explicitly so local ID token verification can read it from the options
+            if (credentials instanceof ServiceAccountCredentials serviceAccountCredentials) {
+                builder.setProjectId(serviceAccountCredentials.getProjectId());
+            }
+            FirebaseOptions options = builder.build();
 
             if (FirebaseApp.getApps().isEmpty()) {
                 FirebaseApp.initializeApp(options);
@@ -1,6 +1,7 @@
 package com.example.neighbornetbackend.config;
 
 import com.google.auth.oauth2.GoogleCredentials;
+import com.google.auth.oauth2.ServiceAccountCredentials;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import com.google.firebase.messaging.FirebaseMessaging;
@@ -17,9 +18,13 @@ public class FirebaseMessagingConfig {
         GoogleCredentials googleCredentials = GoogleCredentials
                 .fromStream(new ClassPathResource("firebase-service-account.json").getInputStream());
 
-        FirebaseOptions firebaseOptions = FirebaseOptions.builder()
-                .setCredentials(googleCredentials)
-                .build();
+        FirebaseOptions.Builder builder = FirebaseOptions.builder()
+                .setCredentials(googleCredentials);
+        // Whichever config initializes the default app first must set the project id for token verification
+        if (googleCredentials instanceof ServiceAccountCredentials serviceAccountCredentials) {
+            builder.setProjectId(serviceAccountCredentials.getProjectId());
+        }
+        FirebaseOptions firebaseOptions = builder.build();
 
         if (FirebaseApp.getApps().isEmpty()) {
             FirebaseApp.initializeApp(firebaseOptions);
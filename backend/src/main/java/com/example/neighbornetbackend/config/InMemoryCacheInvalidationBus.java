@@ -0,0 +1,48 @@
+package com.example.neighbornetbackend.config;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Delivers invalidations synchronously between all application contexts
+ * running in the same JVM. Used in place of the database bus for local
+ * development and multi-context tests.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation.mode", havingValue = "memory")
+public class InMemoryCacheInvalidationBus implements CacheInvalidationBus {
+    private static final List<InMemoryCacheInvalidationBus> NODES = new CopyOnWriteArrayList<>();
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public InMemoryCacheInvalidationBus() {
+        NODES.add(this);
+    }
+
+    @Override
+    public void publish(String cacheName, Object key) {
+        for (InMemoryCacheInvalidationBus node : NODES) {
+            if (node != this) {
+                node.deliver(cacheName, key);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    private void deliver(String cacheName, Object key) {
+        listeners.forEach(listener -> listener.onInvalidation(cacheName, key));
+    }
+
+    @PreDestroy
+    public void close() {
+        NODES.remove(this);
+    }
+}
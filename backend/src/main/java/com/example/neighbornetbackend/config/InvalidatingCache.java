@@ -0,0 +1,93 @@
+package com.example.neighbornetbackend.config;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Node-local cache that publishes every eviction and clear to the
+ * {@link CacheInvalidationBus}. Reads and writes stay local; peers simply
+ * drop their copy and reload it on the next miss.
+ */
+public class InvalidatingCache implements Cache {
+    private final Cache delegate;
+    private final CacheInvalidationBus bus;
+
+    public InvalidatingCache(Cache delegate, CacheInvalidationBus bus) {
+        this.delegate = delegate;
+        this.bus = bus;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return delegate.get(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        bus.publish(getName(), key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = delegate.evictIfPresent(key);
+        // Peers may hold the entry even when this node does not
+        bus.publish(getName(), key);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        bus.publish(getName(), null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean hadEntries = delegate.invalidate();
+        bus.publish(getName(), null);
+        return hadEntries;
+    }
+
+    /**
+     * Applies an invalidation received from another node without publishing it again.
+     */
+    void applyRemote(Object key) {
+        if (key == null) {
+            delegate.invalidate();
+        } else {
+            delegate.evictIfPresent(key);
+        }
+    }
+}
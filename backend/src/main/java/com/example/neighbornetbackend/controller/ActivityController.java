@@ -1,8 +1,8 @@
 package com.example.neighbornetbackend.controller;
 
 import com.example.neighbornetbackend.dto.ActivityResponse;
+import com.example.neighbornetbackend.dto.CursorPageResponse;
 import com.example.neighbornetbackend.service.ActivityService;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -30,4 +30,11 @@ public class ActivityController {
             return ResponseEntity.ok(List.of());
         }
     }
-}
\ No newline at end of file
+
+    @GetMapping("/feed")
+    public ResponseEntity<CursorPageResponse<ActivityResponse>> getActivityFeed(
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(activityService.getActivityFeed(before, size));
+    }
+}
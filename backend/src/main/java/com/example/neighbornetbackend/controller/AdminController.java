@@ -3,6 +3,7 @@ package com.example.neighbornetbackend.controller;
 import com.example.neighbornetbackend.dto.*;
 import com.example.neighbornetbackend.model.*;
 import com.example.neighbornetbackend.repository.*;
+import com.example.neighbornetbackend.service.GrowthRollupService;
 import com.example.neighbornetbackend.service.RefreshTokenService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -19,6 +20,8 @@ import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.stream.Collectors;
 
 @RestController
@@ -34,6 +37,7 @@ public class AdminController {
     private final PostRepository postRepository;
     private final ItemRepository itemRepository;
     private final TaskRepository taskRepository;
+    private final GrowthRollupService growthRollupService;
 
     public AdminController(
             AuthenticationManager authenticationManager,
@@ -43,7 +47,8 @@ public class AdminController {
             ClassRepository classRepository,
             PostRepository postRepository,
             ItemRepository itemRepository,
-            TaskRepository taskRepository) {
+            TaskRepository taskRepository,
+            GrowthRollupService growthRollupService) {
         this.authenticationManager = authenticationManager;
         this.tokenProvider = tokenProvider;
         this.userRepository = userRepository;
@@ -52,6 +57,7 @@ public class AdminController {
         this.postRepository = postRepository;
         this.itemRepository = itemRepository;
         this.taskRepository = taskRepository;
+        this.growthRollupService = growthRollupService;
     }
 
     @PostMapping("/login")
@@ -97,13 +103,14 @@ public class AdminController {
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     public ResponseEntity<?> getDashboardData() {
         try {
-            long totalUsers = userRepository.count();
+            Map<GrowthRollupService.Metric, Long> totals = growthRollupService.getTotals();
+            long totalUsers = totals.getOrDefault(GrowthRollupService.Metric.USERS, 0L);
 
-            long activeClasses = classRepository.count();
+            long activeClasses = totals.getOrDefault(GrowthRollupService.Metric.CLASSES, 0L);
 
-            long totalPosts = postRepository.count();
+            long totalPosts = totals.getOrDefault(GrowthRollupService.Metric.POSTS, 0L);
 
-            long totalItems = itemRepository.count();
+            long totalItems = totals.getOrDefault(GrowthRollupService.Metric.ITEMS, 0L);
 
             DashboardResponse.UserGrowthData userGrowth = getUserGrowthData();
 
@@ -126,22 +133,14 @@ public class AdminController {
     }
 
     private DashboardResponse.UserGrowthData getUserGrowthData() {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime oneWeekAgo = now.minusWeeks(1);
-        LocalDateTime oneMonthAgo = now.minusMonths(1);
-        LocalDateTime oneYearAgo = now.minusYears(1);
+        LocalDate today = growthRollupService.today();
+        NavigableMap<LocalDate, Long> newUsers =
+                growthRollupService.getDailyCounts(GrowthRollupService.Metric.USERS, today.minusYears(1));
 
-        long weeklyUsers = userRepository.countByCreatedDateBefore(now) -
-                userRepository.countByCreatedDateBefore(oneWeekAgo);
-
-        long monthlyUsers = userRepository.countByCreatedDateBefore(now) -
-                userRepository.countByCreatedDateBefore(oneMonthAgo);
-
-        long yearlyUsers = userRepository.countByCreatedDateBefore(now) -
-                userRepository.countByCreatedDateBefore(oneYearAgo);
-
-        long previousWeekUsers = userRepository.countByCreatedDateBefore(oneWeekAgo) -
-                userRepository.countByCreatedDateBefore(now.minusWeeks(2));
+        long weeklyUsers = sumAfter(newUsers, today.minusWeeks(1));
+        long monthlyUsers = sumAfter(newUsers, today.minusMonths(1));
+        long yearlyUsers = sumAfter(newUsers, today.minusYears(1));
+        long previousWeekUsers = sumAfter(newUsers, today.minusWeeks(2)) - weeklyUsers;
 
         double growthPercentage = previousWeekUsers == 0 ? 100 :
                 ((weeklyUsers - previousWeekUsers) / (double) previousWeekUsers) * 100;
@@ -154,40 +153,53 @@ public class AdminController {
                 .build();
     }
 
+    private static long sumAfter(NavigableMap<LocalDate, Long> dailyCounts, LocalDate date) {
+        return dailyCounts.tailMap(date, false).values().stream().mapToLong(Long::longValue).sum();
+    }
+
     @GetMapping("/dashboard/growth/{timeframe}")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     public ResponseEntity<?> getGrowthData(@PathVariable String timeframe) {
         try {
-            LocalDateTime now = LocalDateTime.now();
+            LocalDate today = growthRollupService.today();
             List<DashboardResponse.GrowthDataPoint> growthData = new ArrayList<>();
 
             switch (timeframe.toLowerCase()) {
-                case "weekly":
+                case "weekly": {
+                    NavigableMap<LocalDate, Long> totals = growthRollupService
+                            .getCumulativeCounts(GrowthRollupService.Metric.USERS, today.minusDays(6));
                     for (int i = 6; i >= 0; i--) {
-                        LocalDateTime date = now.minusDays(i);
-                        long userCount = userRepository.countByCreatedDateBefore(date);
+                        LocalDate date = today.minusDays(i);
+                        long userCount = totals.get(date);
                         String label = date.format(DateTimeFormatter.ISO_LOCAL_DATE);
                         growthData.add(new DashboardResponse.GrowthDataPoint(label, userCount));
                     }
                     break;
+                }
 
-                case "monthly":
+                case "monthly": {
+                    NavigableMap<LocalDate, Long> totals = growthRollupService
+                            .getCumulativeCounts(GrowthRollupService.Metric.USERS, today.minusWeeks(4));
                     for (int i = 4; i >= 0; i--) {
-                        LocalDateTime date = now.minusWeeks(i);
-                        long userCount = userRepository.countByCreatedDateBefore(date);
+                        LocalDate date = today.minusWeeks(i);
+                        long userCount = totals.get(date);
                         String label = "Week " + (5-i);
                         growthData.add(new DashboardResponse.GrowthDataPoint(label, userCount));
                     }
                     break;
+                }
 
-                case "yearly":
+                case "yearly": {
+                    NavigableMap<LocalDate, Long> totals = growthRollupService
+                            .getCumulativeCounts(GrowthRollupService.Metric.USERS, today.minusMonths(11));
                     for (int i = 11; i >= 0; i--) {
-                        LocalDateTime date = now.minusMonths(i);
-                        long userCount = userRepository.countByCreatedDateBefore(date);
+                        LocalDate date = today.minusMonths(i);
+                        long userCount = totals.get(date);
                         String label = date.format(DateTimeFormatter.ofPattern("MMM yyyy"));
                         growthData.add(new DashboardResponse.GrowthDataPoint(label, userCount));
                     }
                     break;
+                }
 
                 default:
                     return ResponseEntity.badRequest()
@@ -2,6 +2,7 @@ package com.example.neighbornetbackend.controller;
 
 import com.example.neighbornetbackend.dto.BorrowingAgreementRequest;
 import com.example.neighbornetbackend.dto.ConversationDTO;
+import com.example.neighbornetbackend.dto.CursorPageResponse;
 import com.example.neighbornetbackend.dto.ErrorResponse;
 import com.example.neighbornetbackend.model.BorrowingAgreement;
 import com.example.neighbornetbackend.model.ChatMessage;
@@ -18,6 +19,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
 import org.springframework.http.*;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
@@ -190,12 +192,31 @@ public class ChatController {
         return messages;
     }
 
+    @GetMapping("/messages/{senderId}/{receiverId}/page")
+    @ResponseBody
+    public CursorPageResponse<ChatMessage> findChatMessagesPage(
+            @PathVariable Long senderId,
+            @PathVariable Long receiverId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "50") int limit) {
+        return chatService.findChatMessagesPage(senderId, receiverId, before, limit);
+    }
+
     @GetMapping("/conversations/{userId}")
     @ResponseBody
     public List<ConversationDTO> getUserConversations(@PathVariable Long userId) {
         return conversationService.findConversationsForUser(userId);
     }
 
+    @GetMapping("/conversations/{userId}/page")
+    @ResponseBody
+    public Page<ConversationDTO> getUserConversationsPage(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return conversationService.findConversationsForUser(userId, Math.max(page, 0), Math.min(Math.max(size, 1), 100));
+    }
+
     @PutMapping("/messages/read/{senderId}/{receiverId}")
     @ResponseBody
     public void markMessagesAsRead(
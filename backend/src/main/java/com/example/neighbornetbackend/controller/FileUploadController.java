@@ -32,10 +32,11 @@ public class FileUploadController {
         Map<String, String> response = new HashMap<>();
 
         try {
-            String extractedText = fileProcessingService.extractTextFromFile(file);
+            FileProcessingService.ExtractedText extracted = fileProcessingService.extract(file);
 
-            if (extractedText.length() > 50000) {
-                extractedText = extractedText.substring(0, 50000) +
+            String extractedText = extracted.content();
+            if (extracted.truncated()) {
+                extractedText = extractedText +
                         "\n\n[Content truncated due to size. Processed " +
                         file.getSize() + " bytes in total]";
             }
@@ -1,7 +1,9 @@
 package com.example.neighbornetbackend.controller;
 
+import com.example.neighbornetbackend.dto.CursorPageResponse;
 import com.example.neighbornetbackend.dto.ErrorResponse;
 import com.example.neighbornetbackend.dto.ItemDTO;
+import com.example.neighbornetbackend.dto.ItemSummaryDTO;
 import com.example.neighbornetbackend.dto.ItemUpdateRequest;
 import com.example.neighbornetbackend.dto.RatingRequest;
 import com.example.neighbornetbackend.exception.ResourceNotFoundException;
@@ -78,6 +80,19 @@ public class ItemController {
         }
     }
 
+    @GetMapping("/catalog")
+    public ResponseEntity<CursorPageResponse<ItemSummaryDTO>> getCatalog(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String category) {
+        try {
+            return ResponseEntity.ok(itemService.getCatalogPage(cursor, size, category));
+        } catch (Exception e) {
+            logger.error("Error getting item catalog page", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping("/user")
     public ResponseEntity<List<ItemDTO>> getUserItems(@CurrentUser UserPrincipal currentUser) {
         return ResponseEntity.ok(itemService.getItemsByUser(currentUser.getId()));
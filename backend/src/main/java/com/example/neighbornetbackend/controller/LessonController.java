@@ -3,13 +3,21 @@ package com.example.neighbornetbackend.controller;
 import com.example.neighbornetbackend.dto.LessonResponse;
 import com.example.neighbornetbackend.dto.RatingRequest;
 import com.example.neighbornetbackend.dto.RatingResponse;
+import com.example.neighbornetbackend.dto.VideoUploadStatus;
 import com.example.neighbornetbackend.exception.ResourceNotFoundException;
+import com.example.neighbornetbackend.exception.UnauthorizedException;
+import com.example.neighbornetbackend.exception.UploadCapacityException;
+import com.example.neighbornetbackend.exception.UploadOffsetMismatchException;
 import com.example.neighbornetbackend.model.Lesson;
 import com.example.neighbornetbackend.security.CurrentUser;
 import com.example.neighbornetbackend.security.UserPrincipal;
 import com.example.neighbornetbackend.service.LessonService;
+import com.example.neighbornetbackend.service.LessonVideoDeliveryService;
 import com.example.neighbornetbackend.service.VideoStorageService;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpHeaders;
@@ -19,6 +27,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -32,12 +41,17 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/classes/{classId}/lessons")
 @CrossOrigin
 public class LessonController {
+    private static final Logger logger = LoggerFactory.getLogger(LessonController.class);
+
     private final LessonService lessonService;
     private final VideoStorageService videoStorageService;
+    private final LessonVideoDeliveryService videoDeliveryService;
 
-    public LessonController(LessonService lessonService, VideoStorageService videoStorageService) {
+    public LessonController(LessonService lessonService, VideoStorageService videoStorageService,
+                            LessonVideoDeliveryService videoDeliveryService) {
         this.lessonService = lessonService;
         this.videoStorageService = videoStorageService;
+        this.videoDeliveryService = videoDeliveryService;
     }
 
     @PostMapping(consumes = { "multipart/form-data" })
@@ -45,12 +59,14 @@ public class LessonController {
             @PathVariable Long classId,
             @RequestParam("title") String title,
             @RequestParam("description") String description,
-            @RequestParam("videoFile") MultipartFile videoFile,
-            @RequestParam(value = "parentLessonId", required = false) Long parentLessonId
+            @RequestParam(value = "videoFile", required = false) MultipartFile videoFile,
+            @RequestParam(value = "videoUploadId", required = false) String videoUploadId,
+            @RequestParam(value = "parentLessonId", required = false) Long parentLessonId,
+            @CurrentUser UserPrincipal currentUser
     ) {
         try {
             Lesson lesson = lessonService.createLesson(
-                    classId, title, description, videoFile, parentLessonId);
+                    classId, title, description, videoFile, videoUploadId, parentLessonId, currentUser.getId());
             return ResponseEntity.ok(LessonResponse.fromEntity(lesson));
         } catch (Exception e) {
             e.printStackTrace();
@@ -58,6 +74,65 @@ public class LessonController {
         }
     }
 
+    @PostMapping("/video-uploads")
+    public ResponseEntity<?> startVideoUpload(
+            @RequestParam("filename") String filename,
+            @RequestParam(value = "contentType", defaultValue = "video/mp4") String contentType,
+            @RequestParam("size") long size,
+            @CurrentUser UserPrincipal currentUser
+    ) {
+        try {
+            return ResponseEntity.ok(videoStorageService.startUpload(currentUser.getId(), filename, contentType, size));
+        } catch (UploadCapacityException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/video-uploads/{uploadId}")
+    public ResponseEntity<VideoUploadStatus> getVideoUploadStatus(@PathVariable String uploadId,
+                                                                  @CurrentUser UserPrincipal currentUser) {
+        try {
+            return ResponseEntity.ok(videoStorageService.getUploadStatus(uploadId, currentUser.getId()));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (UnauthorizedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+    }
+
+    /**
+     * Appends one chunk of a chunked upload. The body is the raw chunk bytes;
+     * {@code X-Chunk-CRC32C} carries its base64 big-endian CRC32C. A 409
+     * response carries the offset to resume from.
+     */
+    @PutMapping(value = "/video-uploads/{uploadId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> uploadVideoChunk(
+            @PathVariable String uploadId,
+            @RequestParam("offset") long offset,
+            @RequestHeader("X-Chunk-CRC32C") String crc32c,
+            HttpServletRequest request,
+            @CurrentUser UserPrincipal currentUser
+    ) {
+        try {
+            return ResponseEntity.ok(videoStorageService.writeChunk(uploadId, currentUser.getId(),
+                    offset, request.getContentLengthLong(), crc32c, request.getInputStream()));
+        } catch (UploadOffsetMismatchException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getStatus());
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (UnauthorizedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        } catch (UploadCapacityException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Failed to store video chunk"));
+        }
+    }
+
     @GetMapping
     public ResponseEntity<List<LessonResponse>> getLessons(@PathVariable Long classId) {
         List<LessonResponse> lessons = lessonService.getLessonsByClassId(classId)
@@ -69,19 +144,31 @@ public class LessonController {
 
 
     @GetMapping("/video/{filename:.+}")
-    public ResponseEntity<Resource> getVideo(
+    public ResponseEntity<?> getVideo(
             @PathVariable String filename,
-            HttpServletRequest request
+            HttpServletRequest request,
+            HttpServletResponse response
     ) {
         try {
-            String videoUrl = videoStorageService.getVideoUrl(filename);
+            if (videoDeliveryService.getMode() == LessonVideoDeliveryService.Mode.PROXY) {
+                videoDeliveryService.stream(filename, request.getHeader(HttpHeaders.RANGE),
+                        "HEAD".equalsIgnoreCase(request.getMethod()), response);
+                return null;
+            }
+
+            String videoUrl = videoDeliveryService.getRedirectUrl(filename);
 
             return ResponseEntity.status(HttpStatus.FOUND)
                     .location(URI.create(videoUrl))
                     .build();
 
+        } catch (IOException e) {
+            // Usually the player closed the connection while seeking
+            logger.debug("Video stream for {} ended early: {}", filename, e.getMessage());
+            return null;
         } catch (Exception e) {
-            return ResponseEntity.notFound().build();
+            logger.error("Error serving video {}: {}", filename, e.getMessage());
+            return response.isCommitted() ? null : ResponseEntity.notFound().build();
         }
     }
 
@@ -1,12 +1,14 @@
 package com.example.neighbornetbackend.controller;
 
 import com.example.neighbornetbackend.dto.*;
+import com.example.neighbornetbackend.exception.QuizGenerationCapacityException;
+import com.example.neighbornetbackend.exception.ResourceNotFoundException;
 import com.example.neighbornetbackend.security.CurrentUser;
 import com.example.neighbornetbackend.security.UserPrincipal;
-import com.example.neighbornetbackend.service.ContentProcessingService;
-import com.example.neighbornetbackend.service.GeminiService;
+import com.example.neighbornetbackend.service.QuizGenerationJobService;
 import com.example.neighbornetbackend.service.QuizService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,18 +19,15 @@ import jakarta.validation.Valid;
 @CrossOrigin
 public class QuizGenerationController {
 
-    private final GeminiService geminiService;
+    private final QuizGenerationJobService quizGenerationJobService;
     private final QuizService quizService;
-    private final ContentProcessingService contentProcessingService;
 
     @Autowired
     public QuizGenerationController(
-            GeminiService geminiService,
-            QuizService quizService,
-            ContentProcessingService contentProcessingService) {
-        this.geminiService = geminiService;
+            QuizGenerationJobService quizGenerationJobService,
+            QuizService quizService) {
+        this.quizGenerationJobService = quizGenerationJobService;
         this.quizService = quizService;
-        this.contentProcessingService = contentProcessingService;
     }
 
     @PostMapping("/preview")
@@ -36,17 +35,46 @@ public class QuizGenerationController {
             @PathVariable Long classId,
             @Valid @RequestBody QuizGenerationRequest request) {
 
-        QuizRequest generatedQuiz = geminiService.generateQuiz(request);
+        QuizRequest generatedQuiz = quizGenerationJobService.generate(request);
         return ResponseEntity.ok(generatedQuiz);
     }
 
+    @PostMapping("/jobs")
+    public ResponseEntity<QuizGenerationJobResponse> submitGenerationJob(
+            @PathVariable Long classId,
+            @Valid @RequestBody QuizGenerationRequest request,
+            @RequestParam(defaultValue = "false") boolean refresh,
+            @CurrentUser UserPrincipal currentUser) {
+
+        try {
+            QuizGenerationJobResponse job = quizGenerationJobService.submit(request, currentUser.getId(), refresh);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (QuizGenerationCapacityException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new QuizGenerationJobResponse(null, "FAILED", null, false, e.getMessage()));
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<QuizGenerationJobResponse> getGenerationJob(
+            @PathVariable Long classId,
+            @PathVariable String jobId,
+            @CurrentUser UserPrincipal currentUser) {
+
+        try {
+            return ResponseEntity.ok(quizGenerationJobService.getJob(jobId, currentUser.getId()));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @PostMapping
     public ResponseEntity<QuizResponse> generateAndSaveQuiz(
             @PathVariable Long classId,
             @Valid @RequestBody QuizGenerationRequest request,
             @CurrentUser UserPrincipal currentUser) {
 
-        QuizRequest generatedQuiz = geminiService.generateQuiz(request);
+        QuizRequest generatedQuiz = quizGenerationJobService.generate(request);
         QuizResponse savedQuiz = quizService.createQuiz(classId, generatedQuiz, currentUser.getId());
 
         return ResponseEntity.ok(savedQuiz);
@@ -57,17 +85,32 @@ public class QuizGenerationController {
             @PathVariable Long classId,
             @Valid @RequestBody ContentImportRequest request) {
 
-        QuizRequest generatedQuiz = contentProcessingService.generateQuizFromContent(request);
+        QuizRequest generatedQuiz = quizGenerationJobService.generateFromContent(request);
         return ResponseEntity.ok(generatedQuiz);
     }
 
+    @PostMapping("/from-content/jobs")
+    public ResponseEntity<QuizGenerationJobResponse> submitContentGenerationJob(
+            @PathVariable Long classId,
+            @Valid @RequestBody ContentImportRequest request,
+            @CurrentUser UserPrincipal currentUser) {
+
+        try {
+            QuizGenerationJobResponse job = quizGenerationJobService.submitFromContent(request, currentUser.getId());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (QuizGenerationCapacityException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new QuizGenerationJobResponse(null, "FAILED", null, false, e.getMessage()));
+        }
+    }
+
     @PostMapping("/from-content/save")
     public ResponseEntity<QuizResponse> generateFromContentAndSave(
             @PathVariable Long classId,
             @Valid @RequestBody ContentImportRequest request,
             @CurrentUser UserPrincipal currentUser) {
 
-        QuizRequest generatedQuiz = contentProcessingService.generateQuizFromContent(request);
+        QuizRequest generatedQuiz = quizGenerationJobService.generateFromContent(request);
         QuizResponse savedQuiz = quizService.createQuiz(classId, generatedQuiz, currentUser.getId());
 
         return ResponseEntity.ok(savedQuiz);
@@ -0,0 +1,79 @@
+package com.example.neighbornetbackend.controller;
+
+import com.example.neighbornetbackend.dto.ClassResponse;
+import com.example.neighbornetbackend.dto.ItemDTO;
+import com.example.neighbornetbackend.dto.PostDTO;
+import com.example.neighbornetbackend.dto.SearchPageResponse;
+import com.example.neighbornetbackend.security.CurrentUser;
+import com.example.neighbornetbackend.security.UserPrincipal;
+import com.example.neighbornetbackend.service.ClassService;
+import com.example.neighbornetbackend.service.ItemService;
+import com.example.neighbornetbackend.service.PostService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+    private static final Logger logger = LoggerFactory.getLogger(SearchController.class);
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final ClassService classService;
+    private final PostService postService;
+    private final ItemService itemService;
+
+    public SearchController(ClassService classService, PostService postService, ItemService itemService) {
+        this.classService = classService;
+        this.postService = postService;
+        this.itemService = itemService;
+    }
+
+    @GetMapping("/classes")
+    public ResponseEntity<SearchPageResponse<ClassResponse>> searchClasses(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            return ResponseEntity.ok(classService.searchClassesRanked(query, category, Math.max(page, 0), clampSize(size)));
+        } catch (Exception e) {
+            logger.error("Error searching classes for query: " + query, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/posts")
+    public ResponseEntity<SearchPageResponse<PostDTO>> searchPosts(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @CurrentUser UserPrincipal currentUser) {
+        try {
+            Long userId = currentUser != null ? currentUser.getId() : null;
+            return ResponseEntity.ok(postService.searchPostsRanked(query, Math.max(page, 0), clampSize(size), userId));
+        } catch (Exception e) {
+            logger.error("Error searching posts for query: " + query, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/items")
+    public ResponseEntity<SearchPageResponse<ItemDTO>> searchItems(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            return ResponseEntity.ok(itemService.searchItemsRanked(query, category, Math.max(page, 0), clampSize(size)));
+        } catch (Exception e) {
+            logger.error("Error searching items for query: " + query, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    private int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+}
@@ -3,6 +3,8 @@ package com.example.neighbornetbackend.controller;
 import com.example.neighbornetbackend.dto.*;
 import com.example.neighbornetbackend.model.User;
 import com.example.neighbornetbackend.repository.*;
+import com.example.neighbornetbackend.security.PrincipalCache;
+import com.example.neighbornetbackend.service.ConversationSummaryService;
 import com.example.neighbornetbackend.service.RefreshTokenService;
 import com.example.neighbornetbackend.service.UserDeletionService;
 import jakarta.persistence.EntityManager;
@@ -33,13 +35,18 @@ public class UserManagementController {
 
     private final UserRepository userRepository;
     private final UserDeletionService userDeletionService;
+    private final ConversationSummaryService conversationSummaryService;
+    private final PrincipalCache principalCache;
 
 
     public UserManagementController(
-            UserRepository userRepository, UserDeletionService userDeletionService,  PasswordEncoder passwordEncoder) {
+            UserRepository userRepository, UserDeletionService userDeletionService,  PasswordEncoder passwordEncoder,
+            ConversationSummaryService conversationSummaryService, PrincipalCache principalCache) {
         this.userRepository = userRepository;
         this.userDeletionService = userDeletionService;
         this.passwordEncoder = passwordEncoder;
+        this.conversationSummaryService = conversationSummaryService;
+        this.principalCache = principalCache;
     }
 
     @GetMapping("/stats")
@@ -116,6 +123,8 @@ public class UserManagementController {
         try {
             User user = userRepository.findById(userId)
                     .orElseThrow(() -> new RuntimeException("User not found"));
+            String previousUsername = user.getUsername();
+            String previousEmail = user.getEmail();
 
             updates.forEach((key, value) -> {
                 switch (key) {
@@ -150,6 +159,11 @@ public class UserManagementController {
             });
 
             User updatedUser = userRepository.save(user);
+            principalCache.invalidate(previousUsername, previousEmail,
+                    updatedUser.getUsername(), updatedUser.getEmail());
+            if (updates.containsKey("username")) {
+                conversationSummaryService.refreshPartnerSnapshot(updatedUser);
+            }
             UserResponse response = new UserResponse(
                     updatedUser.getId(),
                     updatedUser.getUsername(),
@@ -6,6 +6,7 @@ import com.example.neighbornetbackend.model.User;
 import com.example.neighbornetbackend.repository.UserRepository;
 import com.example.neighbornetbackend.security.CurrentUser;
 import com.example.neighbornetbackend.security.UserPrincipal;
+import com.example.neighbornetbackend.service.ConversationSummaryService;
 import com.example.neighbornetbackend.service.NotificationService;
 import com.example.neighbornetbackend.service.UserDeletionService;
 import com.example.neighbornetbackend.service.UserProfileStorageService;
@@ -42,13 +43,15 @@ public class UserProfileController {
     private final UserService userService;
     private final NotificationService notificationService;
     private final UserDeletionService userDeletionService;
+    private final ConversationSummaryService conversationSummaryService;
 
-    public UserProfileController(UserRepository userRepository, UserProfileStorageService userProfileStorageService, UserService userService, NotificationService notificationService, UserDeletionService userDeletionService) {
+    public UserProfileController(UserRepository userRepository, UserProfileStorageService userProfileStorageService, UserService userService, NotificationService notificationService, UserDeletionService userDeletionService, ConversationSummaryService conversationSummaryService) {
         this.userRepository = userRepository;
         this.userProfileStorageService = userProfileStorageService;
         this.userService = userService;
         this.notificationService = notificationService;
         this.userDeletionService = userDeletionService;
+        this.conversationSummaryService = conversationSummaryService;
     }
 
     @GetMapping("/profile-pictures/{filename:.+}")
@@ -97,6 +100,7 @@ public class UserProfileController {
             String profilePicturePath = userProfileStorageService.storeProfilePicture(file);
             user.setImageUrl(profilePicturePath);
             userRepository.save(user);
+            conversationSummaryService.refreshPartnerSnapshot(user);
 
             Map<String, String> response = new HashMap<>();
             response.put("imageUrl", profilePicturePath);
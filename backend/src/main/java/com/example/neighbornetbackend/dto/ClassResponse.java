@@ -126,6 +126,10 @@ public class ClassResponse {
         return thumbnailUrl;
     }
 
+    public ImageVariants getThumbnailVariants() {
+        return ImageVariants.of(thumbnailUrl);
+    }
+
     public void setThumbnailUrl(String thumbnailUrl) {
         this.thumbnailUrl = thumbnailUrl;
     }
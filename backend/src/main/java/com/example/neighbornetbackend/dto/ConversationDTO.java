@@ -51,7 +51,7 @@ public class ConversationDTO {
     public static class ParticipantDTO {
         private Long id;
         private String username;
-
+        private String imageUrl;
 
         public Long getId() {
             return id;
@@ -68,6 +68,14 @@ public class ConversationDTO {
         public void setUsername(String username) {
             this.username = username;
         }
+
+        public String getImageUrl() {
+            return imageUrl;
+        }
+
+        public void setImageUrl(String imageUrl) {
+            this.imageUrl = imageUrl;
+        }
     }
 
     public LocalDateTime getLastMessageTimestamp() {
@@ -0,0 +1,53 @@
+package com.example.neighbornetbackend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CursorPageResponse<T> {
+    private List<T> content = new ArrayList<>();
+    private Long nextCursor;
+    private boolean hasMore;
+    private int size;
+
+    public CursorPageResponse() {
+    }
+
+    public CursorPageResponse(List<T> content, Long nextCursor, boolean hasMore) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+        this.size = content.size();
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.neighbornetbackend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Responsive variants of an uploaded image. Processed images are stored as
+ * {@code <uuid>-r.<ext>} (or {@code -rw} when WebP copies were written too)
+ * with one {@code <name>_<width>.<ext>} copy per entry of {@link #WIDTHS}
+ * beside it, so the variant URLs follow from the image URL alone. Images
+ * uploaded before processing existed have no variants.
+ */
+public class ImageVariants {
+    public static final int[] WIDTHS = {160, 480, 1080};
+    public static final String MARKER = "-r";
+    public static final String WEBP_MARKER = "-rw";
+
+    private static final Pattern PROCESSED_NAME = Pattern.compile("^(.*/)?([0-9a-f\\-]{36}(-rw?))\\.(jpg|png)$");
+
+    private String thumbnailUrl;
+    private String srcset;
+    private String webpSrcset;
+
+    public ImageVariants() {
+    }
+
+    public ImageVariants(String thumbnailUrl, String srcset, String webpSrcset) {
+        this.thumbnailUrl = thumbnailUrl;
+        this.srcset = srcset;
+        this.webpSrcset = webpSrcset;
+    }
+
+    /**
+     * Returns the variants of the image at {@code imageUrl}, or {@code null}
+     * if it was not processed.
+     */
+    public static ImageVariants of(String imageUrl) {
+        if (imageUrl == null) {
+            return null;
+        }
+        Matcher matcher = PROCESSED_NAME.matcher(imageUrl);
+        if (!matcher.matches()) {
+            return null;
+        }
+        String prefix = matcher.group(1) != null ? matcher.group(1) : "";
+        String baseName = matcher.group(2);
+        String extension = matcher.group(4);
+        boolean hasWebp = WEBP_MARKER.equals(matcher.group(3));
+
+        return new ImageVariants(
+                prefix + variantFilename(baseName, WIDTHS[0], extension),
+                srcset(prefix, baseName, extension),
+                hasWebp ? srcset(prefix, baseName, "webp") : null);
+    }
+
+    public static List<ImageVariants> of(List<String> imageUrls) {
+        List<ImageVariants> variants = new ArrayList<>();
+        if (imageUrls != null) {
+            for (String imageUrl : imageUrls) {
+                variants.add(of(imageUrl));
+            }
+        }
+        return variants;
+    }
+
+    public static String variantFilename(String baseName, int width, String extension) {
+        return baseName + "_" + width + "." + extension;
+    }
+
+    /**
+     * Filenames of every variant stored beside {@code filename}; empty for
+     * unprocessed images.
+     */
+    public static List<String> variantFilenames(String filename) {
+        List<String> filenames = new ArrayList<>();
+        Matcher matcher = PROCESSED_NAME.matcher(filename);
+        if (matcher.matches()) {
+            for (int width : WIDTHS) {
+                filenames.add(variantFilename(matcher.group(2), width, matcher.group(4)));
+                if (WEBP_MARKER.equals(matcher.group(3))) {
+                    filenames.add(variantFilename(matcher.group(2), width, "webp"));
+                }
+            }
+        }
+        return filenames;
+    }
+
+    private static String srcset(String prefix, String baseName, String extension) {
+        StringBuilder srcset = new StringBuilder();
+        for (int width : WIDTHS) {
+            if (srcset.length() > 0) {
+                srcset.append(", ");
+            }
+            srcset.append(prefix).append(variantFilename(baseName, width, extension)).append(' ').append(width).append('w');
+        }
+        return srcset.toString();
+    }
+
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    public String getSrcset() {
+        return srcset;
+    }
+
+    public void setSrcset(String srcset) {
+        this.srcset = srcset;
+    }
+
+    public String getWebpSrcset() {
+        return webpSrcset;
+    }
+
+    public void setWebpSrcset(String webpSrcset) {
+        this.webpSrcset = webpSrcset;
+    }
+}
@@ -194,6 +194,10 @@ public class ItemDTO {
         return imageUrls != null ? imageUrls : new ArrayList<>();
     }
 
+    public List<ImageVariants> getImageVariants() {
+        return ImageVariants.of(imageUrls);
+    }
+
     public CreatorDTO getOwner() {
         return owner;
     }
@@ -0,0 +1,167 @@
+package com.example.neighbornetbackend.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ItemSummaryDTO {
+    private Long id;
+    private String name;
+    private String category;
+    private String location;
+    private Double latitude;
+    private Double longitude;
+    private LocalDate availableFrom;
+    private LocalDate availableUntil;
+    private LocalDateTime createdAt;
+    private CreatorDTO owner;
+    private CreatorDTO borrower;
+    private Long borrowingAgreementId;
+    private String expirationStatus;
+    private List<String> imageUrls = new ArrayList<>();
+
+    public ItemSummaryDTO() {
+    }
+
+    // Used by the JPQL constructor expression in ItemRepository.findCatalogPage
+    public ItemSummaryDTO(Long id, String name, String category, String location,
+                          Double latitude, Double longitude,
+                          LocalDate availableFrom, LocalDate availableUntil, LocalDateTime createdAt,
+                          Long ownerId, String ownerUsername, String ownerImageUrl,
+                          Long borrowerId, String borrowerUsername, String borrowerImageUrl,
+                          Long borrowingAgreementId) {
+        this.id = id;
+        this.name = name;
+        this.category = category;
+        this.location = location;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.availableFrom = availableFrom;
+        this.availableUntil = availableUntil;
+        this.createdAt = createdAt;
+        if (ownerId != null) {
+            this.owner = new CreatorDTO(ownerId, ownerUsername, ownerImageUrl, null);
+        }
+        if (borrowerId != null) {
+            this.borrower = new CreatorDTO(borrowerId, borrowerUsername, borrowerImageUrl, null);
+        }
+        this.borrowingAgreementId = borrowingAgreementId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public LocalDate getAvailableFrom() {
+        return availableFrom;
+    }
+
+    public void setAvailableFrom(LocalDate availableFrom) {
+        this.availableFrom = availableFrom;
+    }
+
+    public LocalDate getAvailableUntil() {
+        return availableUntil;
+    }
+
+    public void setAvailableUntil(LocalDate availableUntil) {
+        this.availableUntil = availableUntil;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public CreatorDTO getOwner() {
+        return owner;
+    }
+
+    public void setOwner(CreatorDTO owner) {
+        this.owner = owner;
+    }
+
+    public CreatorDTO getBorrower() {
+        return borrower;
+    }
+
+    public void setBorrower(CreatorDTO borrower) {
+        this.borrower = borrower;
+    }
+
+    public Long getBorrowingAgreementId() {
+        return borrowingAgreementId;
+    }
+
+    public void setBorrowingAgreementId(Long borrowingAgreementId) {
+        this.borrowingAgreementId = borrowingAgreementId;
+    }
+
+    public String getExpirationStatus() {
+        return expirationStatus;
+    }
+
+    public void setExpirationStatus(String expirationStatus) {
+        this.expirationStatus = expirationStatus;
+    }
+
+    public List<String> getImageUrls() {
+        return imageUrls;
+    }
+
+    public List<ImageVariants> getImageVariants() {
+        return ImageVariants.of(imageUrls);
+    }
+
+    public void setImageUrls(List<String> imageUrls) {
+        this.imageUrls = imageUrls;
+    }
+}
@@ -87,6 +87,10 @@ public class PostDTO {
         return imageUrl;
     }
 
+    public ImageVariants getImageVariants() {
+        return ImageVariants.of(imageUrl);
+    }
+
     public void setImageUrl(String imageUrl) {
         this.imageUrl = imageUrl;
     }
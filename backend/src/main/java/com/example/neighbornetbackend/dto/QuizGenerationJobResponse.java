@@ -0,0 +1,60 @@
+package com.example.neighbornetbackend.dto;
+
+public class QuizGenerationJobResponse {
+    private String jobId;
+    private String status; // PENDING, COMPLETED, FAILED
+    private QuizRequest quiz;
+    private boolean fallback;
+    private String message;
+
+    public QuizGenerationJobResponse() {
+    }
+
+    public QuizGenerationJobResponse(String jobId, String status, QuizRequest quiz, boolean fallback, String message) {
+        this.jobId = jobId;
+        this.status = status;
+        this.quiz = quiz;
+        this.fallback = fallback;
+        this.message = message;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public QuizRequest getQuiz() {
+        return quiz;
+    }
+
+    public void setQuiz(QuizRequest quiz) {
+        this.quiz = quiz;
+    }
+
+    public boolean isFallback() {
+        return fallback;
+    }
+
+    public void setFallback(boolean fallback) {
+        this.fallback = fallback;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.neighbornetbackend.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SearchPageResponse<T> {
+    private List<T> content = new ArrayList<>();
+    private long totalElements;
+    private int page;
+    private int size;
+    private Map<String, Long> facets = new LinkedHashMap<>();
+
+    public SearchPageResponse() {
+    }
+
+    public SearchPageResponse(List<T> content, long totalElements, int page, int size, Map<String, Long> facets) {
+        this.content = content;
+        this.totalElements = totalElements;
+        this.page = page;
+        this.size = size;
+        this.facets = facets;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(long totalElements) {
+        this.totalElements = totalElements;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public Map<String, Long> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<String, Long> facets) {
+        this.facets = facets;
+    }
+}
@@ -93,6 +93,10 @@ public class UserDTO {
         return imageUrl;
     }
 
+    public ImageVariants getImageVariants() {
+        return ImageVariants.of(imageUrl);
+    }
+
     public void setImageUrl(String imageUrl) {
         this.imageUrl = imageUrl;
     }
@@ -0,0 +1,60 @@
+package com.example.neighbornetbackend.dto;
+
+public class VideoUploadStatus {
+    private String uploadId;
+    private long receivedBytes;
+    private long totalBytes;
+    private boolean complete;
+    private String videoUrl;
+
+    public VideoUploadStatus() {
+    }
+
+    public VideoUploadStatus(String uploadId, long receivedBytes, long totalBytes, boolean complete, String videoUrl) {
+        this.uploadId = uploadId;
+        this.receivedBytes = receivedBytes;
+        this.totalBytes = totalBytes;
+        this.complete = complete;
+        this.videoUrl = videoUrl;
+    }
+
+    public String getUploadId() {
+        return uploadId;
+    }
+
+    public void setUploadId(String uploadId) {
+        this.uploadId = uploadId;
+    }
+
+    public long getReceivedBytes() {
+        return receivedBytes;
+    }
+
+    public void setReceivedBytes(long receivedBytes) {
+        this.receivedBytes = receivedBytes;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public void setTotalBytes(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+
+    public String getVideoUrl() {
+        return videoUrl;
+    }
+
+    public void setVideoUrl(String videoUrl) {
+        this.videoUrl = videoUrl;
+    }
+}
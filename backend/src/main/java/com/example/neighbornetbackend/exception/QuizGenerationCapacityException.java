@@ -0,0 +1,11 @@
+package com.example.neighbornetbackend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class QuizGenerationCapacityException extends RuntimeException {
+    public QuizGenerationCapacityException(String message) {
+        super(message);
+    }
+}
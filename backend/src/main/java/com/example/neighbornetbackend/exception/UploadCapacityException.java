@@ -0,0 +1,11 @@
+package com.example.neighbornetbackend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class UploadCapacityException extends RuntimeException {
+    public UploadCapacityException(String message) {
+        super(message);
+    }
+}
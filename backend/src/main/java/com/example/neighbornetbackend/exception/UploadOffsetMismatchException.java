@@ -0,0 +1,20 @@
+package com.example.neighbornetbackend.exception;
+
+import com.example.neighbornetbackend.dto.VideoUploadStatus;
+
+/**
+ * A chunk was sent for an offset other than the next expected byte. The
+ * status tells the client where to resume.
+ */
+public class UploadOffsetMismatchException extends RuntimeException {
+    private final VideoUploadStatus status;
+
+    public UploadOffsetMismatchException(VideoUploadStatus status) {
+        super("Expected chunk at offset " + status.getReceivedBytes());
+        this.status = status;
+    }
+
+    public VideoUploadStatus getStatus() {
+        return status;
+    }
+}
@@ -1,10 +1,12 @@
 package com.example.neighbornetbackend.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.example.neighbornetbackend.service.GrowthRollupListener;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(GrowthRollupListener.class)
 public class BorrowingAgreement {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
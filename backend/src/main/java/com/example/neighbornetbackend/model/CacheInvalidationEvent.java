@@ -0,0 +1,57 @@
+package com.example.neighbornetbackend.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "cache_invalidation_events",
+        indexes = @Index(name = "idx_cache_invalidation_created_at", columnList = "created_at"))
+public class CacheInvalidationEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "cache_name", nullable = false)
+    private String cacheName;
+
+    // Type-tagged key ("s:", "l:", "i:"); null clears the whole cache
+    @Column(name = "cache_key", length = 512)
+    private String cacheKey;
+
+    @Column(name = "origin_node", nullable = false, length = 64)
+    private String originNode;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public CacheInvalidationEvent() {
+    }
+
+    public CacheInvalidationEvent(String cacheName, String cacheKey, String originNode) {
+        this.cacheName = cacheName;
+        this.cacheKey = cacheKey;
+        this.originNode = originNode;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    public String getCacheKey() {
+        return cacheKey;
+    }
+
+    public String getOriginNode() {
+        return originNode;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -10,6 +10,9 @@ import java.time.ZoneId;
 import java.time.ZoneOffset;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_chat_pair_timestamp", columnList = "senderId, receiverId, timestamp")
+})
 public class ChatMessage {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
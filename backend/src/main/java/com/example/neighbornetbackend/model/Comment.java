@@ -34,10 +34,14 @@ public class Comment {
     @JoinTable(
             name = "comment_likes",
             joinColumns = @JoinColumn(name = "comment_id"),
-            inverseJoinColumns = @JoinColumn(name = "user_id")
+            inverseJoinColumns = @JoinColumn(name = "user_id"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_comment_likes_comment_user", columnNames = {"comment_id", "user_id"})
     )
     private List<User> likes = new ArrayList<>();
 
+    @Column(name = "like_count", nullable = false, columnDefinition = "int default 0")
+    private int likeCount = 0;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -90,4 +94,12 @@ public class Comment {
     public void setLikes(List<User> likes) {
         this.likes = likes;
     }
-}
\ No newline at end of file
+
+    public int getLikeCount() {
+        return likeCount;
+    }
+
+    public void setLikeCount(int likeCount) {
+        this.likeCount = likeCount;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.neighbornetbackend.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marker written in the same transaction as the initial community feed
+ * backfill. Its fixed primary key means only one node can ever insert it, so
+ * nodes starting together cannot both seed the feed.
+ */
+@Entity
+@Table(name = "community_feed_backfill")
+public class CommunityFeedBackfill {
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    public CommunityFeedBackfill() {
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+}
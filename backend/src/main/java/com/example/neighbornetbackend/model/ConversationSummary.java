@@ -0,0 +1,141 @@
+package com.example.neighbornetbackend.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "conversation_summaries",
+        uniqueConstraints = @UniqueConstraint(name = "uk_conversation_owner_partner", columnNames = {"owner_id", "partner_id"}),
+        indexes = @Index(name = "idx_conversation_owner_last_message", columnList = "owner_id, last_message_timestamp"))
+public class ConversationSummary {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "partner_id", nullable = false)
+    private Long partnerId;
+
+    @Column(name = "partner_username")
+    private String partnerUsername;
+
+    @Column(name = "partner_image_url", columnDefinition = "TEXT")
+    private String partnerImageUrl;
+
+    @Column(name = "last_message_id")
+    private Long lastMessageId;
+
+    @Column(name = "last_message", columnDefinition = "TEXT")
+    private String lastMessage;
+
+    @Column(name = "last_message_type")
+    private String lastMessageType;
+
+    @Column(name = "last_message_item_id")
+    private Long lastMessageItemId;
+
+    @Column(name = "last_message_timestamp")
+    private LocalDateTime lastMessageTimestamp;
+
+    @Column(name = "unread_count", nullable = false)
+    private int unreadCount = 0;
+
+    public ConversationSummary() {
+    }
+
+    public ConversationSummary(Long ownerId, Long partnerId) {
+        this.ownerId = ownerId;
+        this.partnerId = partnerId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(Long ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public Long getPartnerId() {
+        return partnerId;
+    }
+
+    public void setPartnerId(Long partnerId) {
+        this.partnerId = partnerId;
+    }
+
+    public String getPartnerUsername() {
+        return partnerUsername;
+    }
+
+    public void setPartnerUsername(String partnerUsername) {
+        this.partnerUsername = partnerUsername;
+    }
+
+    public String getPartnerImageUrl() {
+        return partnerImageUrl;
+    }
+
+    public void setPartnerImageUrl(String partnerImageUrl) {
+        this.partnerImageUrl = partnerImageUrl;
+    }
+
+    public Long getLastMessageId() {
+        return lastMessageId;
+    }
+
+    public void setLastMessageId(Long lastMessageId) {
+        this.lastMessageId = lastMessageId;
+    }
+
+    public String getLastMessage() {
+        return lastMessage;
+    }
+
+    public void setLastMessage(String lastMessage) {
+        this.lastMessage = lastMessage;
+    }
+
+    public String getLastMessageType() {
+        return lastMessageType;
+    }
+
+    public void setLastMessageType(String lastMessageType) {
+        this.lastMessageType = lastMessageType;
+    }
+
+    public Long getLastMessageItemId() {
+        return lastMessageItemId;
+    }
+
+    public void setLastMessageItemId(Long lastMessageItemId) {
+        this.lastMessageItemId = lastMessageItemId;
+    }
+
+    public LocalDateTime getLastMessageTimestamp() {
+        return lastMessageTimestamp;
+    }
+
+    public void setLastMessageTimestamp(LocalDateTime lastMessageTimestamp) {
+        this.lastMessageTimestamp = lastMessageTimestamp;
+    }
+
+    public int getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(int unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+}
@@ -2,6 +2,7 @@ package com.example.neighbornetbackend.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.example.neighbornetbackend.service.GrowthRollupListener;
 import jakarta.persistence.*;
 import org.hibernate.annotations.Type;
 import com.vladmihalcea.hibernate.type.json.JsonType;
@@ -11,6 +12,7 @@ import java.util.List;
 import java.util.ArrayList;
 
 @Entity
+@EntityListeners(GrowthRollupListener.class)
 @Table(name = "classes")
 public class CourseClass {
     @Id
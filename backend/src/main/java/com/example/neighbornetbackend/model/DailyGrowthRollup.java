@@ -0,0 +1,84 @@
+package com.example.neighbornetbackend.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * Number of users, classes, posts, items and borrowing agreements created on
+ * one day. Maintained by {@code GrowthRollupService}; the admin growth views
+ * are summed from these rows instead of counting the source tables.
+ */
+@Entity
+@Table(name = "daily_growth_rollups")
+public class DailyGrowthRollup {
+    @Id
+    @Column(name = "stat_date")
+    private LocalDate statDate;
+
+    @Column(name = "new_users", nullable = false, columnDefinition = "bigint default 0")
+    private long newUsers;
+
+    @Column(name = "new_classes", nullable = false, columnDefinition = "bigint default 0")
+    private long newClasses;
+
+    @Column(name = "new_posts", nullable = false, columnDefinition = "bigint default 0")
+    private long newPosts;
+
+    @Column(name = "new_items", nullable = false, columnDefinition = "bigint default 0")
+    private long newItems;
+
+    @Column(name = "new_borrows", nullable = false, columnDefinition = "bigint default 0")
+    private long newBorrows;
+
+    public DailyGrowthRollup() {
+    }
+
+    public LocalDate getStatDate() {
+        return statDate;
+    }
+
+    public void setStatDate(LocalDate statDate) {
+        this.statDate = statDate;
+    }
+
+    public long getNewUsers() {
+        return newUsers;
+    }
+
+    public void setNewUsers(long newUsers) {
+        this.newUsers = newUsers;
+    }
+
+    public long getNewClasses() {
+        return newClasses;
+    }
+
+    public void setNewClasses(long newClasses) {
+        this.newClasses = newClasses;
+    }
+
+    public long getNewPosts() {
+        return newPosts;
+    }
+
+    public void setNewPosts(long newPosts) {
+        this.newPosts = newPosts;
+    }
+
+    public long getNewItems() {
+        return newItems;
+    }
+
+    public void setNewItems(long newItems) {
+        this.newItems = newItems;
+    }
+
+    public long getNewBorrows() {
+        return newBorrows;
+    }
+
+    public void setNewBorrows(long newBorrows) {
+        this.newBorrows = newBorrows;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.neighbornetbackend.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Dashboard totals as they stood on a given day. One row is kept per day so
+ * period-over-period comparisons are read back instead of recounted.
+ */
+@Entity
+@Table(name = "dashboard_stats_rollups")
+public class DashboardStatsRollup {
+    @Id
+    @Column(name = "stat_date")
+    private LocalDate statDate;
+
+    @Column(name = "skills_shared", nullable = false)
+    private long skillsShared;
+
+    @Column(name = "items_borrowed", nullable = false)
+    private long itemsBorrowed;
+
+    @Column(name = "active_users", nullable = false)
+    private long activeUsers;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public DashboardStatsRollup() {
+    }
+
+    public DashboardStatsRollup(LocalDate statDate, long skillsShared, long itemsBorrowed, long activeUsers) {
+        this.statDate = statDate;
+        this.skillsShared = skillsShared;
+        this.itemsBorrowed = itemsBorrowed;
+        this.activeUsers = activeUsers;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public LocalDate getStatDate() {
+        return statDate;
+    }
+
+    public void setStatDate(LocalDate statDate) {
+        this.statDate = statDate;
+    }
+
+    public long getSkillsShared() {
+        return skillsShared;
+    }
+
+    public void setSkillsShared(long skillsShared) {
+        this.skillsShared = skillsShared;
+    }
+
+    public long getItemsBorrowed() {
+        return itemsBorrowed;
+    }
+
+    public void setItemsBorrowed(long itemsBorrowed) {
+        this.itemsBorrowed = itemsBorrowed;
+    }
+
+    public long getActiveUsers() {
+        return activeUsers;
+    }
+
+    public void setActiveUsers(long activeUsers) {
+        this.activeUsers = activeUsers;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
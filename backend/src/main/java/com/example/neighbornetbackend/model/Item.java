@@ -2,6 +2,7 @@ package com.example.neighbornetbackend.model;
 
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.example.neighbornetbackend.service.GrowthRollupListener;
 import jakarta.persistence.*;
 
 import java.time.LocalDate;
@@ -10,7 +11,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "items")
+@EntityListeners(GrowthRollupListener.class)
+@Table(name = "items", indexes = {
+        @Index(name = "idx_item_available_until", columnList = "availableUntil"),
+        @Index(name = "idx_item_category", columnList = "category")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Item {
     @Id
@@ -53,6 +58,9 @@ public class Item {
     @Column(name = "borrowing_agreement_id")
     private Long borrowingAgreementId;
 
+    @Column(name = "expiry_notice_status")
+    private String expiryNoticeStatus;
+
     @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(
             name = "item_image_urls",
@@ -258,4 +266,12 @@ public class Item {
     public void setBorrowingAgreementId(Long borrowingAgreementId) {
         this.borrowingAgreementId = borrowingAgreementId;
     }
+
+    public String getExpiryNoticeStatus() {
+        return expiryNoticeStatus;
+    }
+
+    public void setExpiryNoticeStatus(String expiryNoticeStatus) {
+        this.expiryNoticeStatus = expiryNoticeStatus;
+    }
 }
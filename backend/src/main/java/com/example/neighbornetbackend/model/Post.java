@@ -2,6 +2,7 @@ package com.example.neighbornetbackend.model;
 
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.example.neighbornetbackend.service.GrowthRollupListener;
 import jakarta.persistence.*;
 
 import java.time.LocalDateTime;
@@ -11,6 +12,7 @@ import java.util.List;
 import java.util.Set;
 
 @Entity
+@EntityListeners(GrowthRollupListener.class)
 @Table(name = "posts", indexes = {
         @Index(name = "idx_post_created_at", columnList = "createdAt"),
         @Index(name = "idx_post_user_id", columnList = "user_id")
@@ -56,6 +58,16 @@ public class Post {
 
     private boolean isEdited = false;
 
+    // Denormalized engagement counters, maintained with atomic UPDATEs in PostRepository
+    @Column(name = "like_count", nullable = false, columnDefinition = "int default 0")
+    private int likeCount = 0;
+
+    @Column(name = "comment_count", nullable = false, columnDefinition = "int default 0")
+    private int commentCount = 0;
+
+    @Column(name = "share_count", nullable = false, columnDefinition = "int default 0")
+    private int shareCount = 0;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -148,4 +160,28 @@ public class Post {
     public void setEdited(boolean edited) {
         isEdited = edited;
     }
+
+    public int getLikeCount() {
+        return likeCount;
+    }
+
+    public void setLikeCount(int likeCount) {
+        this.likeCount = likeCount;
+    }
+
+    public int getCommentCount() {
+        return commentCount;
+    }
+
+    public void setCommentCount(int commentCount) {
+        this.commentCount = commentCount;
+    }
+
+    public int getShareCount() {
+        return shareCount;
+    }
+
+    public void setShareCount(int shareCount) {
+        this.shareCount = shareCount;
+    }
 }
@@ -0,0 +1,82 @@
+package com.example.neighbornetbackend.model;
+
+import com.example.neighbornetbackend.dto.QuizRequest;
+import com.vladmihalcea.hibernate.type.json.JsonType;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Type;
+
+import java.time.LocalDateTime;
+
+/**
+ * The state of a quiz generation job, written by the node running it so that
+ * a poll landing on any node can answer. {@code quiz} is set once the job has
+ * completed and {@code message} once it has failed.
+ */
+@Entity
+@Table(name = "quiz_generation_jobs",
+        indexes = @Index(name = "idx_quiz_generation_jobs_created", columnList = "created_at"))
+public class QuizGenerationJob {
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 16)
+    private String status;
+
+    @Type(JsonType.class)
+    @Column(columnDefinition = "json")
+    private QuizRequest quiz;
+
+    @Column(nullable = false)
+    private boolean fallback;
+
+    private String message;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public QuizGenerationJob() {
+    }
+
+    public QuizGenerationJob(String id, Long userId, String status, QuizRequest quiz, boolean fallback,
+                             String message, LocalDateTime createdAt) {
+        this.id = id;
+        this.userId = userId;
+        this.status = status;
+        this.quiz = quiz;
+        this.fallback = fallback;
+        this.message = message;
+        this.createdAt = createdAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public QuizRequest getQuiz() {
+        return quiz;
+    }
+
+    public boolean isFallback() {
+        return fallback;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
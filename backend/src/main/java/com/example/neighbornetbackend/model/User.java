@@ -1,6 +1,7 @@
 package com.example.neighbornetbackend.model;
 
 
+import com.example.neighbornetbackend.service.GrowthRollupListener;
 import jakarta.persistence.*;
 
 import java.time.LocalDateTime;
@@ -10,6 +11,7 @@ import java.util.List;
 import java.util.Set;
 
 @Entity
+@EntityListeners(GrowthRollupListener.class)
 @Table(name = "users", uniqueConstraints = {
         @UniqueConstraint(columnNames = "email"),
         @UniqueConstraint(columnNames = "username")
@@ -63,6 +63,8 @@ public interface BorrowingAgreementRepository extends JpaRepository<BorrowingAgr
             List<String> statuses
     );
 
+    List<BorrowingAgreement> findByItemIdInAndStatusIn(List<Long> itemIds, List<String> statuses);
+
     @Query("SELECT COUNT(DISTINCT b.borrowerId) FROM BorrowingAgreement b WHERE b.status = :status")
     long countDistinctBorrowerIdByStatus(@Param("status") String status);
 
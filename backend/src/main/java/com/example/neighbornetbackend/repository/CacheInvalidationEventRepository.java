@@ -0,0 +1,27 @@
+package com.example.neighbornetbackend.repository;
+
+import com.example.neighbornetbackend.model.CacheInvalidationEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CacheInvalidationEventRepository extends JpaRepository<CacheInvalidationEvent, Long> {
+    @Query("SELECT e FROM CacheInvalidationEvent e WHERE e.id > :afterId ORDER BY e.id ASC")
+    List<CacheInvalidationEvent> findAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM CacheInvalidationEvent e")
+    Long findMaxId();
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CacheInvalidationEvent e WHERE e.createdAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
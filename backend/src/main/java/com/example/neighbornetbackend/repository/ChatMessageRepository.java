@@ -2,12 +2,14 @@ package com.example.neighbornetbackend.repository;
 
 import com.example.neighbornetbackend.dto.ConversationDTO;
 import com.example.neighbornetbackend.model.ChatMessage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -17,10 +19,42 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
 
     List<ChatMessage> findBySenderIdOrReceiverId(Long senderId, Long receiverId);
 
+    @Query("SELECT m.id FROM ChatMessage m " +
+            "WHERE ((m.senderId = :userA AND m.receiverId = :userB) OR (m.senderId = :userB AND m.receiverId = :userA)) " +
+            "ORDER BY m.timestamp DESC, m.id DESC")
+    List<Long> findConversationPageIds(@Param("userA") Long userA,
+                                       @Param("userB") Long userB,
+                                       Pageable pageable);
+
+    @Query("SELECT m.id FROM ChatMessage m " +
+            "WHERE ((m.senderId = :userA AND m.receiverId = :userB) OR (m.senderId = :userB AND m.receiverId = :userA)) " +
+            "AND (m.timestamp < :beforeTimestamp OR (m.timestamp = :beforeTimestamp AND m.id < :beforeId)) " +
+            "ORDER BY m.timestamp DESC, m.id DESC")
+    List<Long> findConversationPageIdsBefore(@Param("userA") Long userA,
+                                             @Param("userB") Long userB,
+                                             @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+                                             @Param("beforeId") Long beforeId,
+                                             Pageable pageable);
+
+    @Query("SELECT DISTINCT m FROM ChatMessage m " +
+            "LEFT JOIN FETCH m.item i " +
+            "LEFT JOIN FETCH i.imageUrls " +
+            "WHERE m.id IN :ids")
+    List<ChatMessage> findWithItemByIdIn(@Param("ids") List<Long> ids);
+
     @Modifying
     @Query("UPDATE ChatMessage m SET m.is_read = true WHERE m.senderId = :senderId AND m.receiverId = :receiverId AND m.is_read = false")
     void markMessagesAsRead(@Param("senderId") Long senderId, @Param("receiverId") Long receiverId);
 
+    @Query("SELECT MAX(m.id) FROM ChatMessage m GROUP BY " +
+            "CASE WHEN m.senderId < m.receiverId THEN m.senderId ELSE m.receiverId END, " +
+            "CASE WHEN m.senderId < m.receiverId THEN m.receiverId ELSE m.senderId END")
+    List<Long> findLatestMessageIdPerConversation();
+
+    @Query("SELECT m.receiverId, m.senderId, COUNT(m) FROM ChatMessage m " +
+            "WHERE m.is_read = false GROUP BY m.receiverId, m.senderId")
+    List<Object[]> countUnreadPerConversation();
+
     List<ChatMessage> findByMessageType(String messageType);
 
     List<ChatMessage> findByMessageTypeAndFormDataContaining(String messageType, String formDataFragment);
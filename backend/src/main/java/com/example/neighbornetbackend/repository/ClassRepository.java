@@ -79,6 +79,12 @@ public interface ClassRepository extends JpaRepository<CourseClass, Long> {
     );
 
     Page<CourseClass> findByOrderByCreatedAtDesc(Pageable pageable);
+
+    @Query("SELECT c.id, c.title, c.description, c.category FROM CourseClass c")
+    List<Object[]> findAllSearchFields();
+
+    @Query("SELECT c.id, c.title, c.description, c.category FROM CourseClass c WHERE c.id = :id")
+    List<Object[]> findSearchFieldsById(@Param("id") Long id);
 }
 
 
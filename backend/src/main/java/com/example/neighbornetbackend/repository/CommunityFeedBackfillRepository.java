@@ -0,0 +1,21 @@
+package com.example.neighbornetbackend.repository;
+
+import com.example.neighbornetbackend.model.CommunityFeedBackfill;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface CommunityFeedBackfillRepository extends JpaRepository<CommunityFeedBackfill, Integer> {
+    /**
+     * Inserts the backfill marker. Fails with a duplicate key once another
+     * node has inserted it, and waits while another node's insert is not yet
+     * committed, so it must run in the backfill's own transaction.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO community_feed_backfill (id, started_at) VALUES (" + CommunityFeedBackfill.ID + ", :now)",
+            nativeQuery = true)
+    int insertMarker(@Param("now") LocalDateTime now);
+}
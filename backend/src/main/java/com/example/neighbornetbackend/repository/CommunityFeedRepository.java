@@ -0,0 +1,32 @@
+package com.example.neighbornetbackend.repository;
+
+import com.example.neighbornetbackend.model.CommunityFeedEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface CommunityFeedRepository extends JpaRepository<CommunityFeedEntry, Long> {
+    @Query("SELECT e FROM CommunityFeedEntry e ORDER BY e.id DESC")
+    List<CommunityFeedEntry> findLatest(Pageable pageable);
+
+    @Query("SELECT e FROM CommunityFeedEntry e WHERE e.id < :before ORDER BY e.id DESC")
+    List<CommunityFeedEntry> findBefore(@Param("before") Long before, Pageable pageable);
+
+    @Query("SELECT e.id FROM CommunityFeedEntry e WHERE e.type = :type AND e.referenceId = :referenceId")
+    List<Long> findIdsBySubject(@Param("type") String type, @Param("referenceId") Long referenceId);
+
+    @Modifying
+    @Query("DELETE FROM CommunityFeedEntry e WHERE e.type = :type AND e.referenceId = :referenceId")
+    int deleteBySubject(@Param("type") String type, @Param("referenceId") Long referenceId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CommunityFeedEntry e WHERE e.createdAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
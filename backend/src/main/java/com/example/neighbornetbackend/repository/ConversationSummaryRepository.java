@@ -0,0 +1,57 @@
+package com.example.neighbornetbackend.repository;
+
+import com.example.neighbornetbackend.model.ConversationSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ConversationSummaryRepository extends JpaRepository<ConversationSummary, Long> {
+    Optional<ConversationSummary> findByOwnerIdAndPartnerId(Long ownerId, Long partnerId);
+
+    List<ConversationSummary> findByOwnerIdOrderByLastMessageTimestampDesc(Long ownerId);
+
+    Page<ConversationSummary> findByOwnerIdOrderByLastMessageTimestampDesc(Long ownerId, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ConversationSummary c SET " +
+            "c.lastMessageId = :messageId, " +
+            "c.lastMessage = :content, " +
+            "c.lastMessageType = :messageType, " +
+            "c.lastMessageItemId = :itemId, " +
+            "c.lastMessageTimestamp = :timestamp, " +
+            "c.unreadCount = c.unreadCount + :unreadIncrement " +
+            "WHERE c.ownerId = :ownerId AND c.partnerId = :partnerId")
+    int applyMessage(@Param("ownerId") Long ownerId,
+                     @Param("partnerId") Long partnerId,
+                     @Param("messageId") Long messageId,
+                     @Param("content") String content,
+                     @Param("messageType") String messageType,
+                     @Param("itemId") Long itemId,
+                     @Param("timestamp") LocalDateTime timestamp,
+                     @Param("unreadIncrement") int unreadIncrement);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ConversationSummary c SET c.unreadCount = 0 " +
+            "WHERE c.ownerId = :ownerId AND c.partnerId = :partnerId AND c.unreadCount > 0")
+    int resetUnreadCount(@Param("ownerId") Long ownerId, @Param("partnerId") Long partnerId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ConversationSummary c SET c.partnerUsername = :username, c.partnerImageUrl = :imageUrl " +
+            "WHERE c.partnerId = :partnerId")
+    int updatePartnerSnapshot(@Param("partnerId") Long partnerId,
+                              @Param("username") String username,
+                              @Param("imageUrl") String imageUrl);
+}
@@ -0,0 +1,9 @@
+package com.example.neighbornetbackend.repository;
+
+import com.example.neighbornetbackend.model.DashboardStatsRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+
+public interface DashboardStatsRollupRepository extends JpaRepository<DashboardStatsRollup, LocalDate> {
+}
@@ -16,6 +16,7 @@ public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
     List<Feedback> findByClassEntityIdOrderByCreatedAtDesc(Long classId);
     Optional<Feedback> findByClassEntityIdAndUserId(Long classId, Long userId);
     boolean existsByClassEntityIdAndUserId(Long classId, Long userId);
+    long countByClassEntityId(Long classId);
 
     @Modifying
     @Transactional
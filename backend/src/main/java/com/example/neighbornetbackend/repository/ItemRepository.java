@@ -1,13 +1,16 @@
 package com.example.neighbornetbackend.repository;
 
+import com.example.neighbornetbackend.dto.ItemSummaryDTO;
 import com.example.neighbornetbackend.model.Item;
 import com.example.neighbornetbackend.model.ItemRating;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -43,6 +46,73 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
 
     int countByOwnerId(Long userId);
 
+    @Query("SELECT DISTINCT i FROM Item i LEFT JOIN FETCH i.owner LEFT JOIN FETCH i.borrower " +
+            "WHERE i.availableUntil >= :today")
+    List<Item> findAvailableWithUsers(@Param("today") LocalDate today);
+
+    @Query("SELECT new com.example.neighbornetbackend.dto.ItemSummaryDTO(" +
+            "i.id, i.name, i.category, i.location, i.latitude, i.longitude, " +
+            "i.availableFrom, i.availableUntil, i.createdAt, " +
+            "o.id, o.username, o.imageUrl, b.id, b.username, b.imageUrl, " +
+            "(SELECT MIN(ba.id) FROM BorrowingAgreement ba " +
+            " WHERE ba.itemId = i.id AND ba.borrowerId = b.id AND ba.status IN :activeStatuses)) " +
+            "FROM Item i LEFT JOIN i.owner o LEFT JOIN i.borrower b " +
+            "WHERE i.availableUntil >= :today " +
+            "AND (:category IS NULL OR i.category = :category) " +
+            "AND (:cursor IS NULL OR i.id < :cursor) " +
+            "ORDER BY i.id DESC")
+    List<ItemSummaryDTO> findCatalogPage(
+            @Param("today") LocalDate today,
+            @Param("category") String category,
+            @Param("cursor") Long cursor,
+            @Param("activeStatuses") List<String> activeStatuses,
+            Pageable pageable
+    );
+
+    @Query("SELECT i FROM Item i JOIN FETCH i.owner " +
+            "WHERE i.availableUntil < :today AND i.availableUntil >= :since " +
+            "AND (i.expiryNoticeStatus IS NULL OR i.expiryNoticeStatus <> 'EXPIRED') " +
+            "AND i.id > :afterId ORDER BY i.id")
+    List<Item> findExpiredPendingNotice(
+            @Param("today") LocalDate today,
+            @Param("since") LocalDate since,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    @Query("SELECT i FROM Item i JOIN FETCH i.owner " +
+            "WHERE i.availableUntil BETWEEN :today AND :threshold " +
+            "AND i.expiryNoticeStatus IS NULL " +
+            "AND i.id > :afterId ORDER BY i.id")
+    List<Item> findExpiringPendingNotice(
+            @Param("today") LocalDate today,
+            @Param("threshold") LocalDate threshold,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    @Modifying
+    @Query("UPDATE Item i SET i.expiryNoticeStatus = 'EXPIRED' WHERE i.id = :itemId " +
+            "AND (i.expiryNoticeStatus IS NULL OR i.expiryNoticeStatus <> 'EXPIRED')")
+    int claimExpiredNotice(@Param("itemId") Long itemId);
+
+    @Modifying
+    @Query("UPDATE Item i SET i.expiryNoticeStatus = 'EXPIRING_SOON' WHERE i.id = :itemId " +
+            "AND i.expiryNoticeStatus IS NULL")
+    int claimExpiringNotice(@Param("itemId") Long itemId);
+
+    @Query("SELECT i.id, i.name, i.description, i.category, i.availableUntil FROM Item i")
+    List<Object[]> findAllSearchFields();
+
+    @Query("SELECT i.id, i.name, i.description, i.category, i.availableUntil FROM Item i WHERE i.id = :id")
+    List<Object[]> findSearchFieldsById(@Param("id") Long id);
+
+    @Query("SELECT i.id, i.latitude, i.longitude FROM Item i")
+    List<Object[]> findAllCoordinates();
+
+    @Query("SELECT i.id, url FROM Item i JOIN i.imageUrls url WHERE i.id IN :itemIds")
+    List<Object[]> findImageUrlsByItemIds(@Param("itemIds") List<Long> itemIds);
+
     List<Item> findTop5ByOrderByCreatedAtDesc();
 
     @Modifying
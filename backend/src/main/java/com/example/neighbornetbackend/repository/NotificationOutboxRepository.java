@@ -0,0 +1,43 @@
+package com.example.neighbornetbackend.repository;
+
+import com.example.neighbornetbackend.model.NotificationOutboxEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutboxEntry, Long> {
+    @Query("SELECT e.id FROM NotificationOutboxEntry e WHERE e.sentAt IS NULL AND e.nextAttemptAt <= :now ORDER BY e.id ASC")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Leases the entries among {@code ids} that are still due; entries another
+     * node claimed in the meantime are skipped.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE NotificationOutboxEntry e SET e.claimToken = :claimToken, e.nextAttemptAt = :leaseUntil " +
+            "WHERE e.id IN :ids AND e.sentAt IS NULL AND e.nextAttemptAt <= :now")
+    int claim(@Param("ids") Collection<Long> ids, @Param("claimToken") String claimToken,
+              @Param("leaseUntil") LocalDateTime leaseUntil, @Param("now") LocalDateTime now);
+
+    List<NotificationOutboxEntry> findByClaimTokenOrderByIdAsc(String claimToken);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE NotificationOutboxEntry e SET e.sentAt = :sentAt, e.claimToken = NULL WHERE e.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM NotificationOutboxEntry e WHERE e.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,11 +1,14 @@
 package com.example.neighbornetbackend.repository;
 
+import com.example.neighbornetbackend.model.Comment;
 import com.example.neighbornetbackend.model.Post;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -15,6 +18,111 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     @Query("SELECT DISTINCT p FROM Post p ORDER BY p.createdAt DESC")
     Page<Post> findAllPosts(Pageable pageable);
 
+    @Query(value = "SELECT p FROM Post p JOIN FETCH p.user " +
+            "LEFT JOIN FETCH p.originalPost op LEFT JOIN FETCH op.user",
+            countQuery = "SELECT COUNT(p) FROM Post p")
+    Page<Post> findFeedPage(Pageable pageable);
+
+    @Query("SELECT p FROM Post p JOIN FETCH p.user " +
+            "LEFT JOIN FETCH p.originalPost op LEFT JOIN FETCH op.user WHERE p.id IN :postIds")
+    List<Post> findFeedPostsByIdIn(@Param("postIds") List<Long> postIds);
+
+    @Query("SELECT p.id FROM Post p JOIN p.likes l WHERE p.id IN :postIds AND l.id = :userId")
+    List<Long> findPostIdsLikedByUser(@Param("postIds") List<Long> postIds, @Param("userId") Long userId);
+
+    @Query(value = "SELECT ranked.id FROM (" +
+            "SELECT c.id, ROW_NUMBER() OVER (PARTITION BY c.post_id ORDER BY c.created_at ASC, c.id ASC) AS rn " +
+            "FROM comments c WHERE c.post_id IN (:postIds)) ranked " +
+            "WHERE ranked.rn <= :perPost",
+            nativeQuery = true)
+    List<Long> findFirstCommentIdsPerPost(@Param("postIds") List<Long> postIds, @Param("perPost") int perPost);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user WHERE c.id IN :commentIds ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findCommentsWithUserByIdIn(@Param("commentIds") List<Long> commentIds);
+
+    @Query("SELECT c.id FROM Comment c JOIN c.likes l WHERE c.id IN :commentIds AND l.id = :userId")
+    List<Long> findCommentIdsLikedByUser(@Param("commentIds") List<Long> commentIds, @Param("userId") Long userId);
+
+    @Query(value = "SELECT c FROM Comment c JOIN FETCH c.user WHERE c.post.id = :postId",
+            countQuery = "SELECT COUNT(c) FROM Comment c WHERE c.post.id = :postId")
+    Page<Comment> findCommentsByPostId(@Param("postId") Long postId, Pageable pageable);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user JOIN FETCH c.post p JOIN FETCH p.user " +
+            "WHERE c.id = :commentId AND p.id = :postId")
+    Optional<Comment> findCommentOnPost(@Param("postId") Long postId, @Param("commentId") Long commentId);
+
+    // Engagement counters: membership rows and counters are changed with single statements so
+    // concurrent likes never lose an update and the like sets are never loaded
+
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO post_likes (post_id, user_id) VALUES (:postId, :userId)", nativeQuery = true)
+    int insertPostLike(@Param("postId") Long postId, @Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM post_likes WHERE post_id = :postId AND user_id = :userId", nativeQuery = true)
+    int deletePostLike(@Param("postId") Long postId, @Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO comment_likes (comment_id, user_id) VALUES (:commentId, :userId)", nativeQuery = true)
+    int insertCommentLike(@Param("commentId") Long commentId, @Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM comment_likes WHERE comment_id = :commentId AND user_id = :userId", nativeQuery = true)
+    int deleteCommentLike(@Param("commentId") Long commentId, @Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM comment_likes WHERE comment_id = :commentId", nativeQuery = true)
+    int deleteAllCommentLikes(@Param("commentId") Long commentId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Comment c WHERE c.id = :commentId")
+    int deleteCommentById(@Param("commentId") Long commentId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Post p SET p.likeCount = p.likeCount + :delta WHERE p.id = :postId")
+    int adjustLikeCount(@Param("postId") Long postId, @Param("delta") int delta);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Post p SET p.commentCount = p.commentCount + :delta WHERE p.id = :postId")
+    int adjustCommentCount(@Param("postId") Long postId, @Param("delta") int delta);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Post p SET p.shareCount = p.shareCount + :delta WHERE p.id = :postId")
+    int adjustShareCount(@Param("postId") Long postId, @Param("delta") int delta);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Comment c SET c.likeCount = c.likeCount + :delta WHERE c.id = :commentId")
+    int adjustCommentLikeCount(@Param("commentId") Long commentId, @Param("delta") int delta);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE posts p LEFT JOIN (SELECT post_id, COUNT(*) AS n FROM post_likes GROUP BY post_id) x " +
+            "ON x.post_id = p.id SET p.like_count = COALESCE(x.n, 0) WHERE p.like_count <> COALESCE(x.n, 0)",
+            nativeQuery = true)
+    int reconcileLikeCounts();
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE posts p LEFT JOIN (SELECT post_id, COUNT(*) AS n FROM comments GROUP BY post_id) x " +
+            "ON x.post_id = p.id SET p.comment_count = COALESCE(x.n, 0) WHERE p.comment_count <> COALESCE(x.n, 0)",
+            nativeQuery = true)
+    int reconcileCommentCounts();
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE posts p LEFT JOIN (SELECT original_post_id, COUNT(*) AS n FROM posts " +
+            "WHERE original_post_id IS NOT NULL GROUP BY original_post_id) x " +
+            "ON x.original_post_id = p.id SET p.share_count = COALESCE(x.n, 0) WHERE p.share_count <> COALESCE(x.n, 0)",
+            nativeQuery = true)
+    int reconcileShareCounts();
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE comments c LEFT JOIN (SELECT comment_id, COUNT(*) AS n FROM comment_likes GROUP BY comment_id) x " +
+            "ON x.comment_id = c.id SET c.like_count = COALESCE(x.n, 0) WHERE c.like_count <> COALESCE(x.n, 0)",
+            nativeQuery = true)
+    int reconcileCommentLikeCounts();
+
     @Query("SELECT p FROM Post p LEFT JOIN FETCH p.likes LEFT JOIN FETCH p.comments " +
             "LEFT JOIN FETCH p.user WHERE p.id = :postId")
     Optional<Post> findByIdWithDetails(@Param("postId") Long postId);
@@ -37,4 +145,10 @@ public interface PostRepository extends JpaRepository<Post, Long> {
             "LOWER(p.content) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
             "LOWER(p.user.username) LIKE LOWER(CONCAT('%', :query, '%'))")
     Page<Post> searchPosts(@Param("query") String query, Pageable pageable);
+
+    @Query("SELECT p.id, p.content, u.username FROM Post p JOIN p.user u")
+    List<Object[]> findAllSearchFields();
+
+    @Query("SELECT p.id, p.content, u.username FROM Post p JOIN p.user u WHERE p.id = :id")
+    List<Object[]> findSearchFieldsById(@Param("id") Long id);
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.example.neighbornetbackend.repository;
+
+import com.example.neighbornetbackend.model.QuizGenerationJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface QuizGenerationJobRepository extends JpaRepository<QuizGenerationJob, String> {
+    Optional<QuizGenerationJob> findByIdAndUserId(String id, Long userId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM QuizGenerationJob j WHERE j.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
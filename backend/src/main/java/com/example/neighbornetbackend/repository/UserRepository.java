@@ -5,10 +5,13 @@ import com.example.neighbornetbackend.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -56,4 +59,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
             "u.role != 'ROLE_ADMIN' AND u.deleted = true AND " +
             "u.scheduledDeletionDate <= :date")
     List<User> findUsersToDeletePermanently(@Param("date") LocalDateTime date);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.fcmToken = NULL WHERE u.fcmToken IN :tokens")
+    int clearFcmTokens(@Param("tokens") Collection<String> tokens);
 }
@@ -3,6 +3,7 @@ package com.example.neighbornetbackend.security;
 import com.example.neighbornetbackend.model.User;
 import com.example.neighbornetbackend.repository.UserRepository;
 import com.example.neighbornetbackend.service.CustomOAuth2UserService;
+import org.springframework.cache.Cache;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -18,20 +19,39 @@ public class CustomUserDetailsService implements UserDetailsService {
     private static final Logger log = LoggerFactory.getLogger(CustomOAuth2UserService.class);
 
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, PrincipalCache principalCache) {
         this.userRepository = userRepository;
+        this.principalCache = principalCache;
     }
 
     @Override
     public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
         log.debug("Loading user by username/email: {}", usernameOrEmail);
+        return UserPrincipal.create(findUser(usernameOrEmail));
+    }
 
-        Optional<User> user = userRepository.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail);
-
-        if (user.isEmpty()) {
-            user = userRepository.findByEmail(usernameOrEmail);
+    /**
+     * Resolves a token subject to its principal and deletion state, served
+     * from {@link PrincipalCache} so most authenticated requests need no query.
+     */
+    public PrincipalCache.CachedPrincipal loadPrincipal(String usernameOrEmail) throws UsernameNotFoundException {
+        try {
+            return principalCache.get(usernameOrEmail, subject -> {
+                User user = findUser(subject);
+                return new PrincipalCache.CachedPrincipal(UserPrincipal.create(user), user.isDeleted());
+            });
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof UsernameNotFoundException notFound) {
+                throw notFound;
+            }
+            throw e;
         }
+    }
+
+    private User findUser(String usernameOrEmail) {
+        Optional<User> user = userRepository.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail);
 
         if (user.isEmpty()) {
             log.error("User not found with username/email: {}", usernameOrEmail);
@@ -39,6 +59,6 @@ public class CustomUserDetailsService implements UserDetailsService {
         }
 
         log.debug("Found user: {}", user.get().getUsername());
-        return UserPrincipal.create(user.get());
+        return user.get();
     }
 }
\ No newline at end of file
@@ -2,18 +2,18 @@ package com.example.neighbornetbackend.security;
 
 import com.example.neighbornetbackend.model.User;
 import com.example.neighbornetbackend.repository.UserRepository;
-import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseAuthException;
-import com.google.firebase.auth.FirebaseToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -25,14 +25,14 @@ public class FirebaseAuthenticationTokenFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(FirebaseAuthenticationTokenFilter.class);
 
-    private final FirebaseAuth firebaseAuth;
+    private final FirebaseTokenVerifier tokenVerifier;
     private final UserRepository userRepository;
     private final CustomUserDetailsService userDetailsService;
 
-    public FirebaseAuthenticationTokenFilter(FirebaseAuth firebaseAuth,
+    public FirebaseAuthenticationTokenFilter(FirebaseTokenVerifier tokenVerifier,
                                              UserRepository userRepository,
                                              CustomUserDetailsService userDetailsService) {
-        this.firebaseAuth = firebaseAuth;
+        this.tokenVerifier = tokenVerifier;
         this.userRepository = userRepository;
         this.userDetailsService = userDetailsService;
     }
@@ -49,29 +49,12 @@ public class FirebaseAuthenticationTokenFilter extends OncePerRequestFilter {
         if (token != null && isFirebaseToken(token)) {
             logger.debug("Token identified as Firebase token");
             try {
-                FirebaseToken decodedToken = firebaseAuth.verifyIdToken(token);
-                String email = decodedToken.getEmail();
-                String name = decodedToken.getName();
-                String photoUrl = decodedToken.getPicture();
+                FirebaseTokenVerifier.FirebaseIdentity identity = tokenVerifier.verify(token);
+                String email = identity.email();
 
                 if (email != null) {
                     logger.debug("Processing Firebase token for email: {}", email);
-                    User user = userRepository.findByEmail(email)
-                            .orElseGet(() -> {
-                                User newUser = new User();
-                                newUser.setEmail(email);
-                                newUser.setUsername(name != null ? name : email.substring(0, email.indexOf('@')));
-                                newUser.setEmailVerified(true);
-                                newUser.setProvider("firebase");
-                                newUser.setProviderId(decodedToken.getUid());
-                                newUser.setImageUrl(photoUrl);
-                                newUser.setRole("ROLE_USER");
-                                newUser.setPassword("");
-                                logger.debug("Creating new user for Firebase authentication: {}", email);
-                                return userRepository.save(newUser);
-                            });
-
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(user.getUsername());
+                    UserDetails userDetails = resolveUser(identity);
 
                     UsernamePasswordAuthenticationToken authentication =
                             new UsernamePasswordAuthenticationToken(
@@ -82,11 +65,11 @@ public class FirebaseAuthenticationTokenFilter extends OncePerRequestFilter {
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authentication);
 
-                    logger.info("Successfully authenticated Firebase user with email: {}", email);
+                    logger.debug("Successfully authenticated Firebase user with email: {}", email);
                 } else {
                     logger.warn("Firebase token did not contain an email");
                 }
-            } catch (FirebaseAuthException e) {
+            } catch (FirebaseAuthException | BadCredentialsException e) {
                 logger.error("Firebase Authentication failed: {}", e.getMessage());
             } catch (Exception e) {
                 logger.error("Error processing Firebase authentication: {}", e.getMessage());
@@ -98,6 +81,26 @@ public class FirebaseAuthenticationTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private UserDetails resolveUser(FirebaseTokenVerifier.FirebaseIdentity identity) {
+        String email = identity.email();
+        try {
+            return userDetailsService.loadPrincipal(email).principal();
+        } catch (UsernameNotFoundException e) {
+            String name = identity.name();
+            User newUser = new User();
+            newUser.setEmail(email);
+            newUser.setUsername(name != null ? name : email.substring(0, email.indexOf('@')));
+            newUser.setEmailVerified(true);
+            newUser.setProvider("firebase");
+            newUser.setProviderId(identity.uid());
+            newUser.setImageUrl(identity.picture());
+            newUser.setRole("ROLE_USER");
+            newUser.setPassword("");
+            logger.debug("Creating new user for Firebase authentication: {}", email);
+            return UserPrincipal.create(userRepository.save(newUser));
+        }
+    }
+
     private String getToken(HttpServletRequest request) {
         String header = request.getHeader("Authorization");
         if (header != null && header.startsWith("Bearer ")) {
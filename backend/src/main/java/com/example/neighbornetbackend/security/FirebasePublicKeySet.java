@@ -0,0 +1,236 @@
+package com.example.neighbornetbackend.security;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.PublicKey;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Public keys used to sign Firebase ID tokens, keyed by {@code kid}. The key
+ * set is read from {@code app.firebase.public-keys-location} (Google's x509
+ * endpoint by default, or a {@code file:} location as a stand-in for tests).
+ * When {@code app.firebase.public-keys-cache-file} is set, every successful
+ * download is written there and read back on startup, so tokens can still be
+ * verified while the endpoint is unreachable.
+ *
+ * <p>Downloads only happen on a background thread, with explicit connect and
+ * read timeouts. The next download is scheduled before the response's
+ * Cache-Control max-age runs out, so request threads only ever read the
+ * current key map and are never held up by a slow endpoint.</p>
+ */
+@Component
+public class FirebasePublicKeySet {
+    private static final Logger logger = LoggerFactory.getLogger(FirebasePublicKeySet.class);
+
+    // Refreshes triggered by an unknown kid are rate limited so forged headers cannot force downloads
+    private static final long MIN_FORCED_REFRESH_INTERVAL_MS = 60_000;
+    private static final long RETRY_DELAY_MS = 60_000;
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.firebase.public-keys-location:https://www.googleapis.com/robot/v1/metadata/x509/securetoken@system.gserviceaccount.com}")
+    private String location;
+
+    @Value("${app.firebase.public-keys-cache-file:}")
+    private String cacheFile;
+
+    // Used when the response carries no max-age, e.g. for file: locations
+    @Value("${app.firebase.public-keys-refresh-minutes:60}")
+    private long refreshMinutes;
+
+    @Value("${app.firebase.public-keys-connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${app.firebase.public-keys-read-timeout-ms:5000}")
+    private int readTimeoutMs;
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private final AtomicLong lastForcedRefresh = new AtomicLong();
+    private RestTemplate restTemplate;
+    private ScheduledExecutorService refresher;
+    // Written only on the refresher thread
+    private volatile ScheduledFuture<?> scheduledRefresh;
+
+    public FirebasePublicKeySet(ResourceLoader resourceLoader, ObjectMapper objectMapper) {
+        this.resourceLoader = resourceLoader;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (restTemplate == null) {
+            SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+            requestFactory.setConnectTimeout(connectTimeoutMs);
+            requestFactory.setReadTimeout(readTimeoutMs);
+            restTemplate = new RestTemplate(requestFactory);
+        }
+        readCacheFile();
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "FirebaseKeyRefresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.execute(this::refresh);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the key for {@code kid}, or {@code null} if it is unknown. An
+     * unknown id schedules a background refresh, at most once per minute, in
+     * case the keys were rotated; the caller never waits for it.
+     */
+    public PublicKey getKey(String kid) {
+        PublicKey key = keys.get(kid);
+        if (key == null) {
+            requestRefresh();
+        }
+        return key;
+    }
+
+    public boolean isAvailable() {
+        return !keys.isEmpty();
+    }
+
+    private void requestRefresh() {
+        long now = System.currentTimeMillis();
+        long last = lastForcedRefresh.get();
+        if (refresher != null && now - last > MIN_FORCED_REFRESH_INTERVAL_MS
+                && lastForcedRefresh.compareAndSet(last, now)) {
+            refresher.execute(this::refresh);
+        }
+    }
+
+    private void refresh() {
+        long delayMs;
+        try {
+            Download download = download();
+            keys = parse(download.content());
+            writeCacheFile(download.content());
+            delayMs = refreshDelayMs(download.cacheControl());
+            logger.info("Loaded {} Firebase public keys from {}, next refresh in {} s",
+                    keys.size(), location, delayMs / 1000);
+        } catch (Exception e) {
+            logger.error("Error loading Firebase public keys: {}", e.getMessage());
+            // Keep serving the keys we have and retry shortly
+            delayMs = RETRY_DELAY_MS;
+        }
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+        }
+        if (!refresher.isShutdown()) {
+            scheduledRefresh = refresher.schedule(this::refresh, delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Delay until the next download: 80% of the max-age, so the new keys are
+     * in place before the old response expires, and never less than the retry
+     * delay.
+     */
+    long refreshDelayMs(String cacheControl) {
+        if (cacheControl != null) {
+            Matcher maxAge = MAX_AGE.matcher(cacheControl);
+            if (maxAge.find()) {
+                return Math.max(Long.parseLong(maxAge.group(1)) * 800, RETRY_DELAY_MS);
+            }
+        }
+        return refreshMinutes * 60_000;
+    }
+
+    private Download download() throws Exception {
+        if (location.startsWith("http://") || location.startsWith("https://")) {
+            ResponseEntity<byte[]> response = restTemplate.getForEntity(location, byte[].class);
+            if (response.getBody() == null) {
+                throw new IllegalStateException("Empty response");
+            }
+            return new Download(response.getBody(), response.getHeaders().getFirst(HttpHeaders.CACHE_CONTROL));
+        }
+        Resource resource = resourceLoader.getResource(location);
+        try (InputStream in = resource.getInputStream()) {
+            return new Download(in.readAllBytes(), null);
+        }
+    }
+
+    private Map<String, PublicKey> parse(byte[] content) throws Exception {
+        Map<String, String> certificates = objectMapper.readValue(content, new TypeReference<Map<String, String>>() {});
+        CertificateFactory factory = CertificateFactory.getInstance("X.509");
+
+        Map<String, PublicKey> parsed = new HashMap<>();
+        for (Map.Entry<String, String> entry : certificates.entrySet()) {
+            X509Certificate certificate = (X509Certificate) factory.generateCertificate(
+                    new ByteArrayInputStream(entry.getValue().getBytes(StandardCharsets.UTF_8)));
+            parsed.put(entry.getKey(), certificate.getPublicKey());
+        }
+        if (parsed.isEmpty()) {
+            throw new IllegalStateException("Key set is empty");
+        }
+        return Map.copyOf(parsed);
+    }
+
+    private void writeCacheFile(byte[] content) {
+        if (!StringUtils.hasText(cacheFile)) {
+            return;
+        }
+        try {
+            Path target = Path.of(cacheFile);
+            Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), "firebase-keys", ".tmp");
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            logger.error("Error writing Firebase public key cache file: {}", e.getMessage());
+        }
+    }
+
+    private void readCacheFile() {
+        if (!StringUtils.hasText(cacheFile) || !Files.exists(Path.of(cacheFile))) {
+            return;
+        }
+        try {
+            keys = parse(Files.readAllBytes(Path.of(cacheFile)));
+            logger.info("Loaded {} Firebase public keys from cache file {}", keys.size(), cacheFile);
+        } catch (Exception e) {
+            logger.error("Error reading Firebase public key cache file: {}", e.getMessage());
+        }
+    }
+
+    private record Download(byte[] content, String cacheControl) {
+    }
+}
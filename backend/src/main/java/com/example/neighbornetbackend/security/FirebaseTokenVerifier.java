@@ -0,0 +1,184 @@
+package com.example.neighbornetbackend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies Firebase ID tokens and remembers the result until the token
+ * expires. Tokens are checked locally against {@link FirebasePublicKeySet}
+ * (signature, issuer, audience, expiry, and issue and authentication times
+ * not in the future); the Admin SDK is only used when the
+ * project id or the key set is unavailable, or when
+ * {@code app.firebase.verification-mode=sdk}.
+ */
+@Component
+public class FirebaseTokenVerifier {
+    private static final Logger logger = LoggerFactory.getLogger(FirebaseTokenVerifier.class);
+
+    private static final String ISSUER_PREFIX = "https://securetoken.google.com/";
+    private static final long CLOCK_SKEW_SECONDS = 60;
+
+    private final FirebaseAuth firebaseAuth;
+    private final FirebasePublicKeySet publicKeySet;
+
+    @Value("${app.firebase.verification-mode:local}")
+    private String verificationMode;
+
+    @Value("${app.firebase.token-cache-size:10000}")
+    private long tokenCacheSize;
+
+    private Cache<String, FirebaseIdentity> verifiedTokens;
+    private JwtParser localParser;
+
+    public FirebaseTokenVerifier(FirebaseAuth firebaseAuth, FirebasePublicKeySet publicKeySet) {
+        this.firebaseAuth = firebaseAuth;
+        this.publicKeySet = publicKeySet;
+    }
+
+    @PostConstruct
+    public void init() {
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(tokenCacheSize)
+                .expireAfter(new Expiry<String, FirebaseIdentity>() {
+                    @Override
+                    public long expireAfterCreate(String key, FirebaseIdentity value, long currentTime) {
+                        long remainingMs = value.expiresAtMillis() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, FirebaseIdentity value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, FirebaseIdentity value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+
+        String projectId = FirebaseApp.getInstance().getOptions().getProjectId();
+        if ("local".equalsIgnoreCase(verificationMode) && StringUtils.hasText(projectId)) {
+            localParser = Jwts.parserBuilder()
+                    .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                        @Override
+                        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                            if (!"RS256".equals(header.getAlgorithm())) {
+                                throw new JwtException("Unexpected signing algorithm " + header.getAlgorithm());
+                            }
+                            Key key = publicKeySet.getKey(header.getKeyId());
+                            if (key == null) {
+                                throw new JwtException("Unknown signing key " + header.getKeyId());
+                            }
+                            return key;
+                        }
+                    })
+                    .requireIssuer(ISSUER_PREFIX + projectId)
+                    .requireAudience(projectId)
+                    .setAllowedClockSkewSeconds(CLOCK_SKEW_SECONDS)
+                    .build();
+        } else {
+            logger.info("Verifying Firebase ID tokens through the Admin SDK");
+        }
+    }
+
+    /**
+     * Returns the identity carried by a valid token, or throws if the token is
+     * invalid or expired.
+     */
+    public FirebaseIdentity verify(String token) throws FirebaseAuthException {
+        String cacheKey = hash(token);
+        FirebaseIdentity cached = verifiedTokens.getIfPresent(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        FirebaseIdentity identity = localParser != null && publicKeySet.isAvailable()
+                ? verifyLocally(token)
+                : verifyWithSdk(token);
+        if (identity.expiresAtMillis() > System.currentTimeMillis()) {
+            verifiedTokens.put(cacheKey, identity);
+        }
+        return identity;
+    }
+
+    private FirebaseIdentity verifyLocally(String token) {
+        Claims claims;
+        try {
+            claims = localParser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new BadCredentialsException("Invalid Firebase ID token: " + e.getMessage());
+        }
+        if (!StringUtils.hasText(claims.getSubject()) || claims.getExpiration() == null) {
+            throw new BadCredentialsException("Firebase ID token has no subject or expiry");
+        }
+        long latestAllowedSeconds = System.currentTimeMillis() / 1000 + CLOCK_SKEW_SECONDS;
+        if (claims.getIssuedAt() == null || claims.getIssuedAt().getTime() / 1000 > latestAllowedSeconds) {
+            throw new BadCredentialsException("Firebase ID token is missing iat or was issued in the future");
+        }
+        Number authTime = claims.get("auth_time", Number.class);
+        if (authTime == null || authTime.longValue() > latestAllowedSeconds) {
+            throw new BadCredentialsException("Firebase ID token is missing auth_time or was authenticated in the future");
+        }
+        return new FirebaseIdentity(
+                claims.getSubject(),
+                claims.get("email", String.class),
+                claims.get("name", String.class),
+                claims.get("picture", String.class),
+                claims.getExpiration().getTime()
+        );
+    }
+
+    private FirebaseIdentity verifyWithSdk(String token) throws FirebaseAuthException {
+        FirebaseToken decodedToken = firebaseAuth.verifyIdToken(token);
+        Object exp = decodedToken.getClaims().get("exp");
+        long expiresAtMillis = exp instanceof Number number
+                ? number.longValue() * 1000
+                : System.currentTimeMillis();
+        return new FirebaseIdentity(
+                decodedToken.getUid(),
+                decodedToken.getEmail(),
+                decodedToken.getName(),
+                decodedToken.getPicture(),
+                expiresAtMillis
+        );
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record FirebaseIdentity(String uid, String email, String name, String picture, long expiresAtMillis) {
+    }
+}
@@ -1,8 +1,6 @@
 package com.example.neighbornetbackend.security;
 
 
-import com.example.neighbornetbackend.model.User;
-import com.example.neighbornetbackend.repository.UserRepository;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,8 +9,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -24,13 +20,11 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
-    private final UserDetailsService userDetailsService;
-    private final UserRepository userRepository;
+    private final CustomUserDetailsService userDetailsService;
 
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserDetailsService userDetailsService, UserRepository userRepository) {
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, CustomUserDetailsService userDetailsService) {
         this.tokenProvider = tokenProvider;
         this.userDetailsService = userDetailsService;
-        this.userRepository = userRepository;
     }
 
     @Override
@@ -39,22 +33,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if(StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            String username = StringUtils.hasText(jwt) ? tokenProvider.getValidatedSubject(jwt) : null;
 
-                if (userDetails instanceof UserPrincipal) {
-                    UserPrincipal userPrincipal = (UserPrincipal) userDetails;
-                    User user = userRepository.findById(userPrincipal.getId())
-                            .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+            if(username != null) {
+                PrincipalCache.CachedPrincipal cached = userDetailsService.loadPrincipal(username);
 
-                    if (user.isDeleted()) {
-                        response.setContentType("application/json");
-                        response.setStatus(HttpStatus.FORBIDDEN.value());
-                        response.getWriter().write("{\"success\":false,\"message\":\"Account has been deleted\"}");
-                        return;
-                    }
+                if (cached.deleted()) {
+                    response.setContentType("application/json");
+                    response.setStatus(HttpStatus.FORBIDDEN.value());
+                    response.getWriter().write("{\"success\":false,\"message\":\"Account has been deleted\"}");
+                    return;
                 }
+                UserDetails userDetails = cached.principal();
 
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
@@ -5,6 +5,7 @@ import com.example.neighbornetbackend.repository.UserRepository;
 import com.example.neighbornetbackend.service.CustomOAuth2UserService;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
@@ -33,6 +34,7 @@ public class JwtTokenProvider {
     private int jwtExpiration;
 
     private Key key;
+    private JwtParser parser;
 
     @Autowired
     private UserRepository userRepository;
@@ -40,6 +42,7 @@ public class JwtTokenProvider {
     @PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
     }
 
     public String generateToken(Authentication authentication) {
@@ -100,20 +103,29 @@ public class JwtTokenProvider {
     }
 
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = parser.parseClaimsJws(token).getBody();
 
         String username = claims.getSubject();
-        log.info("Extracted username from token: {}", username);
+        log.debug("Extracted username from token: {}", username);
         return username;
     }
 
+    /**
+     * Validates the token and returns its subject in a single parse, or
+     * {@code null} when the token is invalid or expired.
+     */
+    public String getValidatedSubject(String token) {
+        try {
+            return parser.parseClaimsJws(token).getBody().getSubject();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.error("Invalid JWT token: {}", e.getMessage());
+            return null;
+        }
+    }
+
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+            parser.parseClaimsJws(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             log.error("Invalid JWT token: {}", e.getMessage());
@@ -0,0 +1,76 @@
+package com.example.neighbornetbackend.security;
+
+import com.example.neighbornetbackend.model.User;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Function;
+
+/**
+ * Short-lived cache of authenticated principals keyed by token subject
+ * (email or username), so authenticated requests do not hit the users table.
+ * Backed by the {@code principals} cache, which rides the cross-node
+ * invalidation bus; entries are evicted explicitly whenever a user's
+ * credentials, role or deletion state change.
+ */
+@Component
+public class PrincipalCache {
+    public static final String CACHE_NAME = "principals";
+
+    private final CacheManager cacheManager;
+
+    public PrincipalCache(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public CachedPrincipal get(String subject, Function<String, CachedPrincipal> loader) {
+        return cache().get(subject, () -> loader.apply(subject));
+    }
+
+    /**
+     * Evicts every subject the user can be authenticated as. When called inside
+     * a transaction the eviction is repeated after commit so a concurrent
+     * request cannot re-cache the pre-commit state.
+     */
+    public void invalidate(User user) {
+        if (user == null) {
+            return;
+        }
+        invalidate(user.getEmail(), user.getUsername());
+    }
+
+    public void invalidate(String... subjects) {
+        evict(subjects);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(subjects);
+                }
+            });
+        }
+    }
+
+    private void evict(String... subjects) {
+        Cache cache = cache();
+        for (String subject : subjects) {
+            if (subject != null) {
+                cache.evict(subject);
+            }
+        }
+    }
+
+    private Cache cache() {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            throw new IllegalStateException("Cache '" + CACHE_NAME + "' is not configured");
+        }
+        return cache;
+    }
+
+    public record CachedPrincipal(UserPrincipal principal, boolean deleted) {
+    }
+}
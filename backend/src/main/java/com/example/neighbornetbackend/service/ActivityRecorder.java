@@ -0,0 +1,331 @@
+package com.example.neighbornetbackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind recorder for user activity rows. Events are buffered in a
+ * bounded lock-free queue and inserted with JDBC batches when
+ * {@code app.activities.flush-size} events are waiting or every
+ * {@code app.activities.flush-interval-ms}. Rows reference the user by id,
+ * so nothing is loaded to record an event.
+ *
+ * <p>When the queue is full, or a batch cannot be written, events are appended
+ * to {@code app.activities.spill-file} (if set) and replayed once the queue
+ * has room again and on the next start. Without a spill file they are
+ * dropped. The queue is drained on shutdown.</p>
+ */
+@Component
+public class ActivityRecorder {
+    private static final Logger logger = LoggerFactory.getLogger(ActivityRecorder.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO activities (user_id, type, title, description, icon, reference_id, created_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String REPLAY_SUFFIX = ".replay";
+    private static final String OFFSET_SUFFIX = ".replay.offset";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final Queue<ActivityEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Object spillLock = new Object();
+
+    private final Counter recordedCounter;
+    private final Counter spilledCounter;
+    private final Counter droppedCounter;
+
+    @Value("${app.activities.queue-capacity:20000}")
+    private int capacity;
+
+    @Value("${app.activities.flush-size:200}")
+    private int flushSize;
+
+    @Value("${app.activities.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${app.activities.spill-file:}")
+    private String spillFile;
+
+    private volatile Thread flusher;
+    private volatile boolean running = false;
+
+    public ActivityRecorder(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+
+        meterRegistry.gauge("activities.queue.size", queued);
+        this.recordedCounter = meterRegistry.counter("activities.recorded");
+        this.spilledCounter = meterRegistry.counter("activities.spilled");
+        this.droppedCounter = meterRegistry.counter("activities.dropped");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::runFlusher, "ActivityRecorder");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Records an activity. Inside a transaction the event is buffered after
+     * commit, matching the old behaviour of writing it with the caller's work.
+     */
+    public void record(Long userId, String type, String title, String description, String icon, Long referenceId) {
+        ActivityEvent event = new ActivityEvent(userId, type, title, description, icon, referenceId, LocalDateTime.now());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(event);
+                }
+            });
+        } else {
+            offer(event);
+        }
+    }
+
+    private void offer(ActivityEvent event) {
+        if (queued.incrementAndGet() > capacity) {
+            queued.decrementAndGet();
+            spill(List.of(event));
+            return;
+        }
+        queue.add(event);
+        Thread thread = flusher;
+        if (thread != null && queued.get() >= flushSize) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void runFlusher() {
+        replaySpill();
+        while (running) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+            try {
+                flushQueue();
+                if (queued.get() < capacity / 2) {
+                    replaySpill();
+                }
+            } catch (Exception e) {
+                logger.error("Error flushing activities: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void flushQueue() {
+        List<ActivityEvent> batch = new ArrayList<>(flushSize);
+        ActivityEvent event;
+        while ((event = queue.poll()) != null) {
+            queued.decrementAndGet();
+            batch.add(event);
+            if (batch.size() >= flushSize) {
+                writeOrSpill(batch);
+                batch = new ArrayList<>(flushSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeOrSpill(batch);
+        }
+    }
+
+    private void writeOrSpill(List<ActivityEvent> batch) {
+        try {
+            recordedCounter.increment(insertValid(batch));
+        } catch (Exception e) {
+            logger.error("Error writing {} activities: {}", batch.size(), e.getMessage());
+            spill(batch);
+        }
+    }
+
+    /**
+     * Inserts the batch, falling back to row-by-row inserts when a row is
+     * rejected (e.g. its user was deleted meanwhile) so one bad event cannot
+     * hold back the rest. Returns the number of rows written.
+     */
+    private int insertValid(List<ActivityEvent> batch) {
+        try {
+            insert(batch);
+            return batch.size();
+        } catch (DataIntegrityViolationException e) {
+            int written = 0;
+            for (ActivityEvent event : batch) {
+                try {
+                    insert(List.of(event));
+                    written++;
+                } catch (DataIntegrityViolationException rejected) {
+                    droppedCounter.increment();
+                    logger.warn("Dropped activity for user {}: {}", event.userId(), rejected.getMessage());
+                }
+            }
+            return written;
+        }
+    }
+
+    private void insert(List<ActivityEvent> batch) {
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, event) -> {
+                    ps.setLong(1, event.userId());
+                    ps.setString(2, event.type());
+                    ps.setString(3, event.title());
+                    ps.setString(4, event.description());
+                    ps.setString(5, event.icon());
+                    ps.setObject(6, event.referenceId());
+                    ps.setTimestamp(7, Timestamp.valueOf(event.createdAt()));
+                }));
+    }
+
+    private void spill(List<ActivityEvent> events) {
+        if (!StringUtils.hasText(spillFile)) {
+            droppedCounter.increment(events.size());
+            logger.warn("Dropped {} activities: queue full and no spill file configured", events.size());
+            return;
+        }
+        synchronized (spillLock) {
+            try (BufferedWriter writer = Files.newBufferedWriter(Path.of(spillFile), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (ActivityEvent event : events) {
+                    writer.write(objectMapper.writeValueAsString(event));
+                    writer.newLine();
+                }
+                spilledCounter.increment(events.size());
+            } catch (IOException e) {
+                droppedCounter.increment(events.size());
+                logger.error("Error spilling {} activities: {}", events.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Moves the spill file aside and writes its events in batches. After each
+     * batch the number of lines written so far is saved next to the file, so
+     * a failed replay resumes after the last written batch instead of
+     * inserting the earlier batches again. The files are deleted once every
+     * batch has been written.
+     */
+    void replaySpill() {
+        if (!StringUtils.hasText(spillFile)) {
+            return;
+        }
+        Path replay = Path.of(spillFile + REPLAY_SUFFIX);
+        Path offset = Path.of(spillFile + OFFSET_SUFFIX);
+        try {
+            if (!Files.exists(replay)) {
+                synchronized (spillLock) {
+                    Path spill = Path.of(spillFile);
+                    if (!Files.exists(spill)) {
+                        return;
+                    }
+                    // An offset left behind belongs to a replay that already finished
+                    Files.deleteIfExists(offset);
+                    Files.move(spill, replay, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+
+            long written = readOffset(offset);
+            long lineNumber = 0;
+            int replayed = 0;
+            List<ActivityEvent> batch = new ArrayList<>(flushSize);
+            try (BufferedReader reader = Files.newBufferedReader(replay, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (lineNumber <= written || line.isBlank()) {
+                        continue;
+                    }
+                    batch.add(objectMapper.readValue(line, ActivityEvent.class));
+                    if (batch.size() >= flushSize) {
+                        replayed += insertValid(batch);
+                        batch.clear();
+                        writeOffset(offset, lineNumber);
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                replayed += insertValid(batch);
+            }
+            Files.delete(replay);
+            Files.deleteIfExists(offset);
+            recordedCounter.increment(replayed);
+            logger.info("Replayed {} spilled activities", replayed);
+        } catch (Exception e) {
+            logger.error("Error replaying spilled activities: {}", e.getMessage());
+        }
+    }
+
+    private static long readOffset(Path offset) throws IOException {
+        if (!Files.exists(offset)) {
+            return 0;
+        }
+        String content = Files.readString(offset, StandardCharsets.UTF_8).trim();
+        return content.isEmpty() ? 0 : Long.parseLong(content);
+    }
+
+    private static void writeOffset(Path offset, long lines) throws IOException {
+        Path temp = Files.createTempFile(offset.toAbsolutePath().getParent(), "activities-offset", ".tmp");
+        Files.writeString(temp, Long.toString(lines), StandardCharsets.UTF_8);
+        Files.move(temp, offset, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        running = false;
+        Thread thread = flusher;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushQueue();
+    }
+
+    record ActivityEvent(Long userId, String type, String title, String description, String icon,
+                         Long referenceId, LocalDateTime createdAt) {
+    }
+}
@@ -2,52 +2,34 @@ package com.example.neighbornetbackend.service;
 
 import com.example.neighbornetbackend.dto.ActivityDTO;
 import com.example.neighbornetbackend.dto.ActivityResponse;
-import com.example.neighbornetbackend.dto.UserDTO;
-import com.example.neighbornetbackend.model.*;
-import com.example.neighbornetbackend.repository.*;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.PageRequest;
+import com.example.neighbornetbackend.dto.CursorPageResponse;
+import com.example.neighbornetbackend.model.Activity;
+import com.example.neighbornetbackend.repository.ActivityRepository;
 import org.springframework.stereotype.Service;
-import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 @Service
 public class ActivityService {
-    private static final Logger logger = LoggerFactory.getLogger(ActivityService.class);
     private final ActivityRepository activityRepository;
-    private final UserService userService;
-    private final BorrowingAgreementRepository borrowingAgreementRepository;
-    private final ClassEnrollmentRepository classEnrollmentRepository;
-    private final UserRepository userRepository;
-    private final ItemRepository itemRepository;
+    private final ActivityRecorder activityRecorder;
+    private final CommunityFeedService communityFeedService;
 
     private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
 
-    public ActivityService(ActivityRepository activityRepository, UserRepository userRepository, ItemRepository itemRepository, UserService userService, BorrowingAgreementRepository borrowingAgreementRepository, ClassEnrollmentRepository classEnrollmentRepository) {
+    public ActivityService(ActivityRepository activityRepository, ActivityRecorder activityRecorder, CommunityFeedService communityFeedService) {
         this.activityRepository = activityRepository;
-        this.userService = userService;
-        this.borrowingAgreementRepository = borrowingAgreementRepository;
-        this.classEnrollmentRepository = classEnrollmentRepository;
-        this.userRepository = userRepository;
-        this.itemRepository = itemRepository;
+        this.activityRecorder = activityRecorder;
+        this.communityFeedService = communityFeedService;
     }
 
+    /**
+     * Records an activity through the write-behind {@link ActivityRecorder};
+     * the row is written shortly after the caller's transaction commits.
+     */
     public void trackActivity(Long userId, String type, String title, String description, String icon, Long referenceId) {
-        Activity activity = new Activity();
-        activity.setUser(userService.getUserById(userId));
-        activity.setType(type);
-        activity.setTitle(title);
-        activity.setDescription(description);
-        activity.setIcon(icon);
-        activity.setReferenceId(referenceId);
-        activity.setCreatedAt(LocalDateTime.now());
-        activityRepository.save(activity);
+        activityRecorder.record(userId, type, title, description, icon, referenceId);
     }
 
     public List<ActivityDTO> getUserActivities(Long userId) {
@@ -69,76 +51,11 @@ public class ActivityService {
         );
     }
 
-    @Cacheable(value = "recentActivities")
     public List<ActivityResponse> getRecentActivities(int page, int size) {
-        try {
-            int halfSize = Math.max(size / 2, 5);
-
-            List<Long> enrollmentIds = classEnrollmentRepository.findRecentEnrollmentIds(PageRequest.of(0, halfSize));
-            List<Long> borrowIds = borrowingAgreementRepository.findRecentBorrowIds(PageRequest.of(0, halfSize));
-
-            List<ActivityResponse> activities = new ArrayList<>();
-
-            for (Long id : enrollmentIds) {
-                classEnrollmentRepository.findByIdWithDetails(id).ifPresent(enrollment ->
-                        activities.add(mapEnrollmentToActivity(enrollment))
-                );
-            }
-
-            for (Long id : borrowIds) {
-                borrowingAgreementRepository.findByIdWithDetails(id).ifPresent(borrow ->
-                        activities.add(mapBorrowToActivity(borrow))
-                );
-            }
-
-            return activities.stream()
-                    .sorted(Comparator.comparing(ActivityResponse::getCreatedAt).reversed())
-                    .skip((long) page * size)
-                    .limit(size)
-                    .collect(Collectors.toList());
-        } catch (Exception e) {
-            logger.error("Error fetching recent activities", e);
-            return List.of();
-        }
-    }
-
-    private ActivityResponse mapEnrollmentToActivity(ClassEnrollment enrollment) {
-        ActivityResponse activity = new ActivityResponse();
-        activity.setType("class");
-        activity.setAction("joined");
-        activity.setUser(UserDTO.fromEntity(enrollment.getUser()));
-        activity.setTitle(enrollment.getCourseClass().getTitle());
-        activity.setCreatedAt(enrollment.getEnrolledAt());
-        activity.setThumbnailUrl(enrollment.getCourseClass().getThumbnailUrl());
-
-        ActivityResponse.ActivityEngagement engagement = new ActivityResponse.ActivityEngagement();
-        engagement.setLikes(enrollment.getCourseClass().getRatingCount().intValue());
-        engagement.setComments(enrollment.getCourseClass().getFeedbacks().size());
-        activity.setEngagement(engagement);
-
-        return activity;
+        return communityFeedService.getRecent(page, size);
     }
 
-    private ActivityResponse mapBorrowToActivity(BorrowingAgreement borrow) {
-        ActivityResponse activity = new ActivityResponse();
-        activity.setType("borrow");
-        activity.setAction("borrowed");
-
-        User borrower = userRepository.findById(borrow.getBorrowerId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        activity.setUser(UserDTO.fromEntity(borrower));
-
-        Item item = itemRepository.findById(borrow.getItemId())
-                .orElseThrow(() -> new RuntimeException("Item not found"));
-        activity.setTitle(item.getName());
-
-        activity.setCreatedAt(borrow.getCreatedAt());
-
-        ActivityResponse.ActivityEngagement engagement = new ActivityResponse.ActivityEngagement();
-        engagement.setLikes(0);
-        engagement.setComments(0);
-        activity.setEngagement(engagement);
-
-        return activity;
+    public CursorPageResponse<ActivityResponse> getActivityFeed(Long before, int size) {
+        return communityFeedService.getFeed(before, size);
     }
 }
\ No newline at end of file
@@ -24,14 +24,23 @@ public class AdminClassService {
     private final ClassRepository classRepository;
     private final ClassEnrollmentRepository classEnrollmentRepository;
     private final LessonRepository lessonRepository;
+    private final SearchIndexService searchIndexService;
+    private final CommunityFeedService communityFeedService;
+    private final GrowthRollupService growthRollupService;
     private final String THUMBNAIL_DIRECTORY = "thumbnails";
 
     public AdminClassService(ClassRepository classRepository,
                              ClassEnrollmentRepository classEnrollmentRepository,
-                             LessonRepository lessonRepository) {
+                             LessonRepository lessonRepository,
+                             SearchIndexService searchIndexService,
+                             CommunityFeedService communityFeedService,
+                             GrowthRollupService growthRollupService) {
         this.classRepository = classRepository;
         this.classEnrollmentRepository = classEnrollmentRepository;
         this.lessonRepository = lessonRepository;
+        this.searchIndexService = searchIndexService;
+        this.communityFeedService = communityFeedService;
+        this.growthRollupService = growthRollupService;
     }
 
     @Transactional
@@ -123,6 +132,7 @@ public class AdminClassService {
                 .executeUpdate();
 
         // Finally delete the class using native query instead of JPA
+        growthRollupService.recordBulkDelete(GrowthRollupService.Metric.CLASSES, "id = ?", classId);
         entityManager.createNativeQuery(
                         "DELETE FROM classes WHERE id = ?")
                 .setParameter(1, classId)
@@ -130,5 +140,7 @@ public class AdminClassService {
 
         // Ensure all changes are synchronized
         entityManager.flush();
+        searchIndexService.remove(SearchIndexService.CLASSES, classId);
+        communityFeedService.removeSubject(CommunityFeedService.TYPE_CLASS, classId);
     }
 }
\ No newline at end of file
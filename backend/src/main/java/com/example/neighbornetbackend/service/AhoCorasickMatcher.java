@@ -0,0 +1,147 @@
+package com.example.neighbornetbackend.service;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Finds whole-word occurrences of any number of phrases in one pass over a
+ * text. Matching ignores case and treats any run of whitespace as a single
+ * space, in both the phrases and the text.
+ */
+final class AhoCorasickMatcher {
+
+    interface MatchHandler {
+        /**
+         * Called for each match of {@code pattern} at {@code [start, end)} of
+         * the scanned text; return {@code false} to stop scanning.
+         */
+        boolean onMatch(int pattern, int start, int end);
+    }
+
+    private final Node root = new Node();
+    private final int[] patternLengths;
+    private final int maxPatternLength;
+
+    AhoCorasickMatcher(List<String> patterns) {
+        patternLengths = new int[patterns.size()];
+        int maxLength = 1;
+        for (int p = 0; p < patterns.size(); p++) {
+            String pattern = normalize(patterns.get(p));
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            Node node = root;
+            for (int i = 0; i < pattern.length(); i++) {
+                node = node.next.computeIfAbsent(pattern.charAt(i), c -> new Node());
+            }
+            node.addOutput(p);
+            patternLengths[p] = pattern.length();
+            maxLength = Math.max(maxLength, pattern.length());
+        }
+        maxPatternLength = maxLength;
+        linkFailures();
+    }
+
+    void scan(String text, MatchHandler handler) {
+        // Text offsets of the last maxPatternLength characters fed to the automaton
+        int[] offsets = new int[maxPatternLength];
+        long fed = 0;
+        boolean lastWasSpace = true;
+        Node node = root;
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                if (lastWasSpace) {
+                    continue;
+                }
+                c = ' ';
+                lastWasSpace = true;
+            } else {
+                c = Character.toLowerCase(c);
+                lastWasSpace = false;
+            }
+
+            while (node != root && !node.next.containsKey(c)) {
+                node = node.failure;
+            }
+            node = node.next.getOrDefault(c, root);
+            offsets[(int) (fed % maxPatternLength)] = i;
+            fed++;
+
+            for (int pattern : node.outputs) {
+                int start = offsets[(int) ((fed - patternLengths[pattern]) % maxPatternLength)];
+                int end = i + 1;
+                if (isBoundary(text, start - 1) && isBoundary(text, end)
+                        && !handler.onMatch(pattern, start, end)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void linkFailures() {
+        Queue<Node> queue = new ArrayDeque<>();
+        for (Node child : root.next.values()) {
+            child.failure = root;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            for (Map.Entry<Character, Node> entry : node.next.entrySet()) {
+                Node child = entry.getValue();
+                Node failure = node.failure;
+                while (failure != root && !failure.next.containsKey(entry.getKey())) {
+                    failure = failure.failure;
+                }
+                child.failure = failure.next.getOrDefault(entry.getKey(), root);
+                for (int pattern : child.failure.outputs) {
+                    child.addOutput(pattern);
+                }
+                queue.add(child);
+            }
+        }
+    }
+
+    private static boolean isBoundary(String text, int index) {
+        return index < 0 || index >= text.length() || !Character.isLetterOrDigit(text.charAt(index));
+    }
+
+    private static String normalize(String pattern) {
+        StringBuilder sb = new StringBuilder(pattern.length());
+        boolean lastWasSpace = true;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (Character.isWhitespace(c)) {
+                if (!lastWasSpace) {
+                    sb.append(' ');
+                }
+                lastWasSpace = true;
+            } else {
+                sb.append(Character.toLowerCase(c));
+                lastWasSpace = false;
+            }
+        }
+        int length = sb.length();
+        if (length > 0 && sb.charAt(length - 1) == ' ') {
+            sb.setLength(length - 1);
+        }
+        return sb.toString();
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> next = new HashMap<>();
+        private Node failure;
+        private int[] outputs = new int[0];
+
+        private void addOutput(int pattern) {
+            int[] grown = new int[outputs.length + 1];
+            System.arraycopy(outputs, 0, grown, 0, outputs.length);
+            grown[outputs.length] = pattern;
+            outputs = grown;
+        }
+    }
+}
@@ -32,19 +32,24 @@ public class BorrowingAgreementServiceImpl implements BorrowingAgreementService
     private UserRepository userRepository;
 
     private final ItemRepository itemRepository;
+    private final CommunityFeedService communityFeedService;
 
     private static final Logger log = LoggerFactory.getLogger(BorrowingAgreementServiceImpl.class);
 
-    public BorrowingAgreementServiceImpl(NotificationService notificationService, ItemRepository itemRepository) {
+    public BorrowingAgreementServiceImpl(NotificationService notificationService, ItemRepository itemRepository,
+                                         CommunityFeedService communityFeedService) {
         this.notificationService = notificationService;
         this.itemRepository = itemRepository;
+        this.communityFeedService = communityFeedService;
     }
 
     @Override
     public BorrowingAgreement create(BorrowingAgreement agreement) {
         agreement.setCreatedAt(LocalDateTime.now());
         agreement.setStatus("PENDING");
-        return borrowingAgreementRepository.save(agreement);
+        BorrowingAgreement savedAgreement = borrowingAgreementRepository.save(agreement);
+        communityFeedService.recordBorrow(savedAgreement);
+        return savedAgreement;
     }
 
     @Override
@@ -1,7 +1,6 @@
 package com.example.neighbornetbackend.service;
 
 import com.google.cloud.storage.BlobId;
-import com.google.cloud.storage.BlobInfo;
 import com.google.cloud.storage.Storage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,7 +11,6 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.UUID;
 
 @Service
 public class ChatImageStorageService {
@@ -20,14 +18,17 @@ public class ChatImageStorageService {
 
     private final Storage storage;
     private final String bucketName;
+    private final ImageDerivativeService imageDerivativeService;
 
     @Value("${gcp.storage.public-url:https://storage.googleapis.com}")
     private String publicUrl;
 
     @Autowired
-    public ChatImageStorageService(Storage storage, @Value("${gcp.storage.bucket-name}") String bucketName) {
+    public ChatImageStorageService(Storage storage, @Value("${gcp.storage.bucket-name}") String bucketName,
+                                   ImageDerivativeService imageDerivativeService) {
         this.storage = storage;
         this.bucketName = bucketName;
+        this.imageDerivativeService = imageDerivativeService;
         logger.info("ChatImageStorageService initialized with bucket: {}", bucketName);
     }
 
@@ -36,21 +37,10 @@ public class ChatImageStorageService {
             throw new IOException("File is empty");
         }
 
-        String originalFilename = file.getOriginalFilename();
-        String fileExtension = originalFilename != null ?
-                originalFilename.substring(originalFilename.lastIndexOf(".")) : ".jpg";
-        String filename = UUID.randomUUID().toString() + fileExtension;
-        String objectName = "chat-images/" + filename;
-
-        BlobId blobId = BlobId.of(bucketName, objectName);
-        BlobInfo blobInfo = BlobInfo.newBuilder(blobId)
-                .setContentType(file.getContentType())
-                .build();
-
-        storage.create(blobInfo, file.getBytes());
-        logger.info("Successfully uploaded chat image: {}", objectName);
+        String imageUrl = imageDerivativeService.store(file, "chat-images/", "/chat/images/");
+        logger.info("Successfully uploaded chat image: {}", imageUrl);
 
-        return "/chat/images/" + filename;
+        return imageUrl;
     }
 
     public String getChatImageUrl(String filename) {
@@ -71,6 +61,7 @@ public class ChatImageStorageService {
 
             BlobId blobId = BlobId.of(bucketName, objectName);
             boolean deleted = storage.delete(blobId);
+            imageDerivativeService.deleteVariants("chat-images/", filename);
 
             if (deleted) {
                 logger.info("Successfully deleted chat image: {}", objectName);
@@ -1,11 +1,13 @@
 package com.example.neighbornetbackend.service;
 
+import com.example.neighbornetbackend.dto.CursorPageResponse;
 import com.example.neighbornetbackend.model.ChatMessage;
 import java.util.List;
 
 public interface ChatService {
     ChatMessage save(ChatMessage chatMessage);
     List<ChatMessage> findChatMessages(Long senderId, Long receiverId);
+    CursorPageResponse<ChatMessage> findChatMessagesPage(Long senderId, Long receiverId, Long beforeId, int limit);
 
     void markMessagesAsRead(Long senderId, Long receiverId);
     List<ChatMessage> findAllMessagesWithAgreement(Long agreementId);
@@ -1,5 +1,6 @@
 package com.example.neighbornetbackend.service;
 
+import com.example.neighbornetbackend.dto.CursorPageResponse;
 import com.example.neighbornetbackend.model.BorrowingAgreement;
 import com.example.neighbornetbackend.model.ChatMessage;
 import com.example.neighbornetbackend.model.Item;
@@ -11,16 +12,28 @@ import com.example.neighbornetbackend.repository.UserRepository;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class ChatServiceImpl implements ChatService {
+    private static final Logger logger = LoggerFactory.getLogger(ChatServiceImpl.class);
+
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
 
     private final ChatMessageRepository chatMessageRepository;
     private final NotificationService notificationService;
@@ -28,6 +41,7 @@ public class ChatServiceImpl implements ChatService {
     private final ObjectMapper objectMapper;
     private final ItemRepository itemRepository;
     private final FCMService fcmService;
+    private final ConversationSummaryService conversationSummaryService;
 
     @Autowired
     private BorrowingAgreementRepository borrowingAgreementRepository;
@@ -35,13 +49,15 @@ public class ChatServiceImpl implements ChatService {
 
     public ChatServiceImpl(ChatMessageRepository chatMessageRepository,
                            NotificationService notificationService,
-                           UserRepository userRepository, ObjectMapper objectMapper, ItemRepository itemRepository, FCMService fcmService) {
+                           UserRepository userRepository, ObjectMapper objectMapper, ItemRepository itemRepository, FCMService fcmService,
+                           ConversationSummaryService conversationSummaryService) {
         this.chatMessageRepository = chatMessageRepository;
         this.notificationService = notificationService;
         this.userRepository = userRepository;
         this.objectMapper = objectMapper;
         this.itemRepository = itemRepository;
         this.fcmService = fcmService;
+        this.conversationSummaryService = conversationSummaryService;
     }
 
     @Override
@@ -66,6 +82,8 @@ public class ChatServiceImpl implements ChatService {
                 }
             }
 
+            // Existing messages are re-saved when their form data changes; only new ones move the conversation
+            boolean isNewMessage = chatMessage.getId() == null;
             ChatMessage savedMessage = chatMessageRepository.save(chatMessage);
 
             User sender = userRepository.findById(chatMessage.getSenderId())
@@ -74,6 +92,10 @@ public class ChatServiceImpl implements ChatService {
             User receiver = userRepository.findById(chatMessage.getReceiverId())
                     .orElseThrow(() -> new RuntimeException("Receiver not found"));
 
+            if (isNewMessage) {
+                conversationSummaryService.recordMessage(savedMessage, sender, receiver);
+            }
+
             if (chatMessage.getItem() != null) {
                 Item item = chatMessage.getItem();
                 notificationService.createAndSendNotification(
@@ -128,41 +150,109 @@ public class ChatServiceImpl implements ChatService {
                 .findBySenderIdAndReceiverIdOrReceiverIdAndSenderIdOrderByTimestampAsc(
                         senderId, receiverId, senderId, receiverId);
 
-        messages.forEach(message -> {
-            if ("RETURN_REQUEST".equals(message.getMessageType())) {
-                try {
-                    JsonNode formData = objectMapper.readTree(message.getFormData());
-                    if (formData.has("agreementId")) {
-                        Long agreementId = formData.get("agreementId").asLong();
-                        BorrowingAgreement agreement = borrowingAgreementRepository.findById(agreementId)
-                                .orElse(null);
-
-                        if (agreement != null) {
-                            ObjectNode updatedFormData = (ObjectNode) formData;
-                            updatedFormData.put("status", agreement.getStatus());
-                            message.setFormData(objectMapper.writeValueAsString(updatedFormData));
-                        }
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
+        applyReturnRequestStatuses(messages);
+        return messages;
+    }
+
+    /**
+     * Returns up to {@code limit} messages exchanged between the two users that
+     * are older than {@code beforeId} (or the newest ones when no cursor is
+     * given), in chronological order. {@code nextCursor} is the id of the
+     * oldest message in the page and loads the page before it.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ChatMessage> findChatMessagesPage(Long senderId, Long receiverId, Long beforeId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+        PageRequest pageRequest = PageRequest.of(0, pageSize + 1);
+
+        List<Long> ids;
+        if (beforeId == null) {
+            ids = chatMessageRepository.findConversationPageIds(senderId, receiverId, pageRequest);
+        } else {
+            ChatMessage cursor = chatMessageRepository.findById(beforeId).orElse(null);
+            if (cursor == null) {
+                return new CursorPageResponse<>(new ArrayList<>(), null, false);
             }
+            ids = chatMessageRepository.findConversationPageIdsBefore(
+                    senderId, receiverId, cursor.getTimestamp(), cursor.getId(), pageRequest);
+        }
+
+        boolean hasMore = ids.size() > pageSize;
+        List<Long> pageIds = hasMore ? ids.subList(0, pageSize) : ids;
+        if (pageIds.isEmpty()) {
+            return new CursorPageResponse<>(new ArrayList<>(), null, false);
+        }
+
+        Map<Long, ChatMessage> byId = chatMessageRepository.findWithItemByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(ChatMessage::getId, Function.identity()));
+
+        // Ids come newest first; the page is returned oldest first like the full history
+        List<ChatMessage> messages = new ArrayList<>(pageIds.size());
+        for (int i = pageIds.size() - 1; i >= 0; i--) {
+            ChatMessage message = byId.get(pageIds.get(i));
+            if (message != null) {
+                messages.add(message);
+            }
+        }
+
+        applyReturnRequestStatuses(messages);
 
-            if (message.getItem() != null) {
-                Item item = message.getItem();
-                if (item.getImageUrls() != null) {
-                    System.out.println("ImageUrls for item " + item.getId() + ": " + item.getImageUrls().size());
+        Long nextCursor = hasMore ? pageIds.get(pageIds.size() - 1) : null;
+        return new CursorPageResponse<>(messages, nextCursor, hasMore);
+    }
+
+    /**
+     * Copies the current agreement status into RETURN_REQUEST form data,
+     * resolving all referenced agreements with a single query.
+     */
+    private void applyReturnRequestStatuses(List<ChatMessage> messages) {
+        Map<ChatMessage, JsonNode> returnRequests = new LinkedHashMap<>();
+        Set<Long> agreementIds = new HashSet<>();
+
+        for (ChatMessage message : messages) {
+            if (!"RETURN_REQUEST".equals(message.getMessageType()) || message.getFormData() == null) {
+                continue;
+            }
+            try {
+                JsonNode formData = objectMapper.readTree(message.getFormData());
+                if (formData.has("agreementId")) {
+                    returnRequests.put(message, formData);
+                    agreementIds.add(formData.get("agreementId").asLong());
                 }
+            } catch (Exception e) {
+                logger.warn("Could not parse form data of message {}: {}", message.getId(), e.getMessage());
             }
-        });
+        }
 
-        return messages;
+        if (agreementIds.isEmpty()) {
+            return;
+        }
+
+        Map<Long, String> statuses = new HashMap<>();
+        for (BorrowingAgreement agreement : borrowingAgreementRepository.findAllById(agreementIds)) {
+            statuses.put(agreement.getId(), agreement.getStatus());
+        }
+
+        returnRequests.forEach((message, formData) -> {
+            String status = statuses.get(formData.get("agreementId").asLong());
+            if (status == null) {
+                return;
+            }
+            try {
+                ((ObjectNode) formData).put("status", status);
+                message.setFormData(objectMapper.writeValueAsString(formData));
+            } catch (Exception e) {
+                logger.warn("Could not update form data of message {}: {}", message.getId(), e.getMessage());
+            }
+        });
     }
 
     @Override
     @Transactional
     public void markMessagesAsRead(Long senderId, Long receiverId) {
         chatMessageRepository.markMessagesAsRead(senderId, receiverId);
+        conversationSummaryService.markRead(receiverId, senderId);
     }
 
     @Override
@@ -0,0 +1,215 @@
+package com.example.neighbornetbackend.service;
+
+import com.example.neighbornetbackend.dto.QuestionRequest;
+import com.example.neighbornetbackend.model.Question;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Generates quiz questions from long documents map-reduce style. The text is
+ * split into sentence-aligned chunks of about
+ * {@code app.quiz-generation.chunk-tokens} tokens (estimated at
+ * {@code chars-per-token} characters each), Gemini writes candidate
+ * questions for each chunk in parallel, and the candidates are merged,
+ * deduplicated and picked round-robin across chunks so the quiz covers the
+ * whole document.
+ *
+ * <p>Chunk calls from all requests share one pool of
+ * {@code app.quiz-generation.max-concurrent-chunks} threads. Documents with
+ * more than {@code max-chunks} chunks are sampled evenly. Chunks that fail or
+ * are still running after {@code document-timeout-ms} are skipped, so the
+ * result may hold fewer questions than asked for.</p>
+ */
+@Service
+public class ChunkedQuizGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedQuizGenerator.class);
+
+    private static final double CANDIDATES_PER_QUESTION = 1.5;
+    private static final int MAX_QUESTIONS_PER_CHUNK = 10;
+    private static final double DUPLICATE_SIMILARITY = 0.8;
+
+    private final GeminiService geminiService;
+    private final Counter failedChunks;
+
+    @Value("${app.quiz-generation.chunk-tokens:3000}")
+    private int chunkTokens;
+
+    @Value("${app.quiz-generation.chars-per-token:4}")
+    private int charsPerToken;
+
+    @Value("${app.quiz-generation.max-chunks:12}")
+    private int maxChunks;
+
+    @Value("${app.quiz-generation.document-timeout-ms:90000}")
+    private long documentTimeoutMs;
+
+    private final AsyncTaskExecutor executor;
+
+    public ChunkedQuizGenerator(GeminiService geminiService, MeterRegistry meterRegistry,
+                                @Qualifier("quizChunkExecutor") AsyncTaskExecutor executor) {
+        this.geminiService = geminiService;
+        this.failedChunks = meterRegistry.counter("quiz.generation.chunks.failed");
+        this.executor = executor;
+    }
+
+    public boolean isAvailable() {
+        return geminiService.isConfigured();
+    }
+
+    public List<QuestionRequest> generate(String text, int numberOfQuestions, String difficulty, String quizType) {
+        List<String> chunks = sample(DocumentIndex.of(text).chunks(chunkTokens * charsPerToken));
+        if (chunks.isEmpty() || numberOfQuestions <= 0) {
+            return List.of();
+        }
+        int perChunk = Math.min(MAX_QUESTIONS_PER_CHUNK,
+                (int) Math.ceil(numberOfQuestions * CANDIDATES_PER_QUESTION / chunks.size()));
+
+        List<Future<List<QuestionRequest>>> futures = new ArrayList<>();
+        for (String chunk : chunks) {
+            try {
+                futures.add(executor.submit(() ->
+                        geminiService.generateQuestionsFromExcerpt(chunk, perChunk, difficulty, quizType)));
+            } catch (RejectedExecutionException e) {
+                failedChunks.increment();
+                logger.warn("Quiz chunk queue is full, skipping a chunk");
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(documentTimeoutMs);
+        List<List<QuestionRequest>> candidates = new ArrayList<>();
+        for (Future<List<QuestionRequest>> future : futures) {
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                candidates.add(future.get(remaining, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                failedChunks.increment();
+                logger.warn("Quiz chunk timed out");
+            } catch (ExecutionException e) {
+                failedChunks.increment();
+                logger.warn("Quiz chunk failed: {}", e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                break;
+            }
+        }
+
+        List<QuestionRequest> questions = merge(candidates, numberOfQuestions, quizType);
+        logger.info("Generated {} of {} questions from {} of {} chunks",
+                questions.size(), numberOfQuestions, candidates.size(), chunks.size());
+        return questions;
+    }
+
+    /**
+     * Keeps at most {@code max-chunks} chunks, evenly spaced through the
+     * document.
+     */
+    private List<String> sample(List<String> chunks) {
+        if (chunks.size() <= maxChunks) {
+            return chunks;
+        }
+        List<String> sampled = new ArrayList<>(maxChunks);
+        for (int i = 0; i < maxChunks; i++) {
+            sampled.add(chunks.get((int) ((long) i * chunks.size() / maxChunks)));
+        }
+        return sampled;
+    }
+
+    /**
+     * Takes each chunk's questions in the order Gemini ranked them, one chunk
+     * at a time, dropping malformed questions, questions of the wrong type
+     * and near-duplicates of questions already taken.
+     */
+    private static List<QuestionRequest> merge(List<List<QuestionRequest>> candidates, int numberOfQuestions,
+                                               String quizType) {
+        Question.QuestionType requiredType = requiredType(quizType);
+        List<QuestionRequest> merged = new ArrayList<>();
+        List<Set<String>> mergedWords = new ArrayList<>();
+
+        int longest = candidates.stream().mapToInt(List::size).max().orElse(0);
+        for (int rank = 0; rank < longest && merged.size() < numberOfQuestions; rank++) {
+            for (List<QuestionRequest> chunkQuestions : candidates) {
+                if (merged.size() >= numberOfQuestions) {
+                    break;
+                }
+                if (rank >= chunkQuestions.size()) {
+                    continue;
+                }
+                QuestionRequest question = chunkQuestions.get(rank);
+                if (!isUsable(question) || (requiredType != null && question.getType() != requiredType)) {
+                    continue;
+                }
+                Set<String> words = words(question.getContent());
+                if (mergedWords.stream().anyMatch(other -> similarity(words, other) >= DUPLICATE_SIMILARITY)) {
+                    continue;
+                }
+                merged.add(question);
+                mergedWords.add(words);
+            }
+        }
+        return merged;
+    }
+
+    private static Question.QuestionType requiredType(String quizType) {
+        if ("multiple-choice".equals(quizType)) {
+            return Question.QuestionType.MULTIPLE_CHOICE;
+        } else if ("true-false".equals(quizType)) {
+            return Question.QuestionType.TRUE_FALSE;
+        } else if ("essay".equals(quizType)) {
+            return Question.QuestionType.ESSAY;
+        }
+        return null;
+    }
+
+    private static boolean isUsable(QuestionRequest question) {
+        if (question.getContent() == null || question.getContent().isBlank()) {
+            return false;
+        }
+        if (question.getType() == Question.QuestionType.ESSAY) {
+            return true;
+        }
+        List<String> options = question.getOptions();
+        return options != null && options.size() >= 2 && options.contains(question.getCorrectAnswer());
+    }
+
+    private static Set<String> words(String text) {
+        Set<String> words = new HashSet<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static double similarity(Set<String> a, Set<String> b) {
+        if (a.isEmpty() && b.isEmpty()) {
+            return 1;
+        }
+        int common = 0;
+        for (String word : a) {
+            if (b.contains(word)) {
+                common++;
+            }
+        }
+        return (double) common / (a.size() + b.size() - common);
+    }
+}
@@ -2,6 +2,7 @@ package com.example.neighbornetbackend.service;
 
 import com.example.neighbornetbackend.dto.CreateClassRequest;
 import com.example.neighbornetbackend.dto.ClassResponse;
+import com.example.neighbornetbackend.dto.SearchPageResponse;
 import com.example.neighbornetbackend.exception.ResourceNotFoundException;
 import com.example.neighbornetbackend.model.*;
 import com.example.neighbornetbackend.repository.*;
@@ -9,6 +10,7 @@ import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -44,6 +46,8 @@ public class ClassService {
     private final QuizAttemptRepository quizAttemptRepository;
     private final QuestionRepository questionRepository;
     private final FeedbackRepository feedbackRepository;
+    private final SearchIndexService searchIndexService;
+    private final CommunityFeedService communityFeedService;
 
 
     private final String THUMBNAIL_DIRECTORY = "thumbnails";
@@ -62,7 +66,7 @@ public class ClassService {
 
     public ClassService(ClassRepository classRepository,
                         UserRepository userRepository,
-                        FileStorageService fileStorageService, LessonRepository lessonRepository,FeedbackRepository feedbackRepository, QuizAttemptRepository quizAttemptRepository,QuestionRepository questionRepository, LessonProgressRepository lessonProgressRepository, ClassEnrollmentRepository enrollmentRepository, NotificationService notificationService, ActivityService activityService, QuizRepository quizRepository) {
+                        FileStorageService fileStorageService, LessonRepository lessonRepository,FeedbackRepository feedbackRepository, QuizAttemptRepository quizAttemptRepository,QuestionRepository questionRepository, LessonProgressRepository lessonProgressRepository, ClassEnrollmentRepository enrollmentRepository, NotificationService notificationService, ActivityService activityService, QuizRepository quizRepository, SearchIndexService searchIndexService, CommunityFeedService communityFeedService) {
         this.classRepository = classRepository;
         this.userRepository = userRepository;
         this.fileStorageService = fileStorageService;
@@ -75,6 +79,8 @@ public class ClassService {
         this.quizAttemptRepository = quizAttemptRepository;
         this.questionRepository = questionRepository;
         this.feedbackRepository = feedbackRepository;
+        this.searchIndexService = searchIndexService;
+        this.communityFeedService = communityFeedService;
     }
 
     private void notifyClassCreator(CourseClass courseClass, String title, String message, String type) {
@@ -158,6 +164,9 @@ public class ClassService {
 
         newClass.setCreator(creator);
         CourseClass savedClass = classRepository.save(newClass);
+        searchIndexService.indexClass(savedClass.getId(), savedClass.getTitle(),
+                savedClass.getDescription(), savedClass.getCategory());
+        communityFeedService.recordClassCreated(creator, savedClass);
 
         activityService.trackActivity(
                 userId,
@@ -267,6 +276,8 @@ public class ClassService {
                 .executeUpdate();
 
         classRepository.deleteById(classId);
+        searchIndexService.remove(SearchIndexService.CLASSES, classId);
+        communityFeedService.removeSubject(CommunityFeedService.TYPE_CLASS, classId);
     }
 
     @Transactional
@@ -312,6 +323,8 @@ public class ClassService {
         }
 
         CourseClass updatedClass = classRepository.save(existingClass);
+        searchIndexService.indexClass(updatedClass.getId(), updatedClass.getTitle(),
+                updatedClass.getDescription(), updatedClass.getCategory());
 
         activityService.trackActivity(
                 userId,
@@ -339,6 +352,7 @@ public class ClassService {
             enrollment.setUser(user);
             enrollment.setEnrolledAt(LocalDateTime.now());
             enrollmentRepository.save(enrollment);
+            communityFeedService.recordEnrollment(user, courseClass);
 
             // Send notification to class creator
             String title = "New Enrollment";
@@ -381,7 +395,14 @@ public class ClassService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<ClassResponse> searchClasses(String query, String category) {
+        if (searchIndexService.isReady()) {
+            SearchIndexService.SearchHits hits = searchIndexService.search(
+                    SearchIndexService.CLASSES, query, category, 0, Integer.MAX_VALUE);
+            return loadClassesInOrder(hits.ids());
+        }
+
         List<CourseClass> results;
 
         if (category != null && !category.isEmpty()) {
@@ -395,6 +416,27 @@ public class ClassService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public SearchPageResponse<ClassResponse> searchClassesRanked(String query, String category, int page, int size) {
+        SearchIndexService.SearchHits hits = searchIndexService.search(
+                SearchIndexService.CLASSES, query, category, page, size);
+        return new SearchPageResponse<>(loadClassesInOrder(hits.ids()), hits.totalHits(), page, size, hits.facets());
+    }
+
+    private List<ClassResponse> loadClassesInOrder(List<Long> classIds) {
+        if (classIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, CourseClass> classesById = new HashMap<>();
+        classRepository.findAllById(classIds).forEach(courseClass -> classesById.put(courseClass.getId(), courseClass));
+
+        return classIds.stream()
+                .map(classesById::get)
+                .filter(Objects::nonNull)
+                .map(ClassResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+
     @Transactional
     public boolean saveClass(Long classId, Long userId) {
         if (savedClassRepository.existsByUserIdAndCourseClassId(userId, classId)) {
@@ -462,6 +504,12 @@ public class ClassService {
 
     @Transactional(readOnly = true)
     public Page<ClassResponse> searchClassesPaged(String query, String category, Pageable pageable) {
+        if (searchIndexService.isReady()) {
+            SearchIndexService.SearchHits hits = searchIndexService.search(
+                    SearchIndexService.CLASSES, query, category, pageable.getPageNumber(), pageable.getPageSize());
+            return new PageImpl<>(loadClassesInOrder(hits.ids()), pageable, hits.totalHits());
+        }
+
         Page<CourseClass> resultPage;
 
         if (category != null && !category.isEmpty()) {
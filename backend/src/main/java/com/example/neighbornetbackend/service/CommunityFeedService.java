@@ -0,0 +1,439 @@
+package com.example.neighbornetbackend.service;
+
+import com.example.neighbornetbackend.dto.ActivityResponse;
+import com.example.neighbornetbackend.dto.CursorPageResponse;
+import com.example.neighbornetbackend.dto.UserDTO;
+import com.example.neighbornetbackend.model.BorrowingAgreement;
+import com.example.neighbornetbackend.model.ClassEnrollment;
+import com.example.neighbornetbackend.model.CommunityFeedEntry;
+import com.example.neighbornetbackend.model.CourseClass;
+import com.example.neighbornetbackend.model.Item;
+import com.example.neighbornetbackend.model.Post;
+import com.example.neighbornetbackend.model.User;
+import com.example.neighbornetbackend.repository.BorrowingAgreementRepository;
+import com.example.neighbornetbackend.repository.ClassEnrollmentRepository;
+import com.example.neighbornetbackend.repository.ClassRepository;
+import com.example.neighbornetbackend.repository.CommunityFeedBackfillRepository;
+import com.example.neighbornetbackend.repository.CommunityFeedRepository;
+import com.example.neighbornetbackend.repository.FeedbackRepository;
+import com.example.neighbornetbackend.repository.ItemRepository;
+import com.example.neighbornetbackend.repository.PostRepository;
+import com.example.neighbornetbackend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Materialized community activity feed (enrollments, borrows, posts and new
+ * classes). Each event is written once to {@code community_feed} with the
+ * actor and target copied in. The newest {@code app.feed.window-size}
+ * entries are also kept in memory, newest first, so the landing page is
+ * served in O(page size) without touching the database. Older pages and
+ * cursors beyond the window fall back to a primary-key range scan.
+ *
+ * <p>Entries are written in their own transaction after the caller's
+ * transaction commits, so a failed feed write never rolls back the action it
+ * records. Entries about a post or class are deleted together with it.</p>
+ */
+@Service
+public class CommunityFeedService {
+    private static final Logger logger = LoggerFactory.getLogger(CommunityFeedService.class);
+
+    public static final String TYPE_CLASS = "class";
+    public static final String TYPE_BORROW = "borrow";
+    public static final String TYPE_POST = "post";
+
+    private static final int MAX_TITLE_LENGTH = 255;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final CommunityFeedRepository feedRepository;
+    private final CommunityFeedBackfillRepository backfillRepository;
+    private final ClassEnrollmentRepository enrollmentRepository;
+    private final BorrowingAgreementRepository borrowingAgreementRepository;
+    private final ClassRepository classRepository;
+    private final PostRepository postRepository;
+    private final FeedbackRepository feedbackRepository;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate publishTemplate;
+
+    // Keyed by entry id, newest first
+    private final ConcurrentSkipListMap<Long, ActivityResponse> window =
+            new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+
+    @Value("${app.feed.window-size:500}")
+    private int windowSize;
+
+    @Value("${app.feed.retention-days:90}")
+    private int retentionDays;
+
+    private volatile boolean ready = false;
+
+    public CommunityFeedService(CommunityFeedRepository feedRepository,
+                                CommunityFeedBackfillRepository backfillRepository,
+                                ClassEnrollmentRepository enrollmentRepository,
+                                BorrowingAgreementRepository borrowingAgreementRepository,
+                                ClassRepository classRepository,
+                                PostRepository postRepository,
+                                FeedbackRepository feedbackRepository,
+                                UserRepository userRepository,
+                                ItemRepository itemRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.feedRepository = feedRepository;
+        this.backfillRepository = backfillRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.borrowingAgreementRepository = borrowingAgreementRepository;
+        this.classRepository = classRepository;
+        this.postRepository = postRepository;
+        this.feedbackRepository = feedbackRepository;
+        this.userRepository = userRepository;
+        this.itemRepository = itemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.publishTemplate = new TransactionTemplate(transactionManager);
+        this.publishTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        backfillIfEmpty();
+        reloadWindow();
+    }
+
+    public void recordEnrollment(User user, CourseClass courseClass) {
+        publish(TYPE_CLASS, "joined", user, courseClass.getTitle(), courseClass.getThumbnailUrl(),
+                courseClass.getRatingCount() != null ? courseClass.getRatingCount().intValue() : 0,
+                (int) feedbackRepository.countByClassEntityId(courseClass.getId()),
+                courseClass.getId(), LocalDateTime.now());
+    }
+
+    public void recordClassCreated(User creator, CourseClass courseClass) {
+        publish(TYPE_CLASS, "created", creator, courseClass.getTitle(), courseClass.getThumbnailUrl(),
+                0, 0, courseClass.getId(), LocalDateTime.now());
+    }
+
+    public void recordBorrow(BorrowingAgreement agreement) {
+        User borrower = userRepository.findById(agreement.getBorrowerId()).orElse(null);
+        Item item = itemRepository.findById(agreement.getItemId()).orElse(null);
+        if (borrower == null || item == null) {
+            return;
+        }
+        publish(TYPE_BORROW, "borrowed", borrower, item.getName(), null, 0, 0,
+                agreement.getId(), agreement.getCreatedAt());
+    }
+
+    public void recordPost(User author, Post post) {
+        publish(TYPE_POST, "posted", author, post.getContent(), post.getImageUrl(), 0, 0,
+                post.getId(), LocalDateTime.now());
+    }
+
+    /**
+     * Writes the entry once the caller's transaction commits, in a
+     * transaction of its own, and adds it to the in-memory window.
+     */
+    private void publish(String type, String action, User actor, String title, String thumbnailUrl,
+                         int likes, int comments, Long referenceId, LocalDateTime createdAt) {
+        CommunityFeedEntry entry;
+        try {
+            entry = entry(type, action, actor, title, thumbnailUrl, likes, comments, referenceId,
+                    createdAt != null ? createdAt : LocalDateTime.now());
+        } catch (Exception e) {
+            logger.error("Error recording community feed entry: {}", e.getMessage());
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    write(entry);
+                }
+            });
+        } else {
+            write(entry);
+        }
+    }
+
+    private void write(CommunityFeedEntry entry) {
+        try {
+            CommunityFeedEntry saved = publishTemplate.execute(status -> feedRepository.save(entry));
+            addToWindow(saved);
+        } catch (Exception e) {
+            logger.error("Error recording community feed entry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes the entries about a post or class in the caller's transaction,
+     * so they go away together with their subject, and drops them from the
+     * in-memory window once that transaction commits.
+     */
+    public void removeSubject(String type, Long referenceId) {
+        List<Long> ids = feedRepository.findIdsBySubject(type, referenceId);
+        if (ids.isEmpty()) {
+            return;
+        }
+        feedRepository.deleteBySubject(type, referenceId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ids.forEach(window::remove);
+                }
+            });
+        } else {
+            ids.forEach(window::remove);
+        }
+    }
+
+    /**
+     * Offset-paged view of the feed, kept for the existing landing page.
+     */
+    public List<ActivityResponse> getRecent(int page, int size) {
+        int limit = clampSize(size);
+        long offset = (long) Math.max(page, 0) * limit;
+        if (ready && offset + limit <= window.size()) {
+            List<ActivityResponse> result = new ArrayList<>(limit);
+            Iterator<ActivityResponse> iterator = window.values().iterator();
+            for (long skipped = 0; skipped < offset && iterator.hasNext(); skipped++) {
+                iterator.next();
+            }
+            while (iterator.hasNext() && result.size() < limit) {
+                result.add(iterator.next());
+            }
+            return result;
+        }
+        return feedRepository.findLatest(PageRequest.of(Math.max(page, 0), limit)).stream()
+                .map(CommunityFeedService::toResponse)
+                .toList();
+    }
+
+    /**
+     * Cursor-paged view of the feed: entries older than {@code before}, or the
+     * newest entries when no cursor is given.
+     */
+    public CursorPageResponse<ActivityResponse> getFeed(Long before, int size) {
+        int limit = clampSize(size);
+        List<ActivityResponse> content = new ArrayList<>(limit + 1);
+
+        if (ready && !window.isEmpty() && (before == null || before > window.lastKey())) {
+            ConcurrentNavigableMap<Long, ActivityResponse> view = before == null ? window : window.tailMap(before, false);
+            for (ActivityResponse response : view.values()) {
+                content.add(response);
+                if (content.size() > limit) {
+                    break;
+                }
+            }
+        }
+
+        if (content.size() <= limit) {
+            // The window ran out before the page filled up; continue from the table
+            Long after = content.isEmpty() ? before : content.get(content.size() - 1).getId();
+            int remaining = limit + 1 - content.size();
+            List<CommunityFeedEntry> entries = after == null
+                    ? feedRepository.findLatest(PageRequest.of(0, remaining))
+                    : feedRepository.findBefore(after, PageRequest.of(0, remaining));
+            entries.forEach(entry -> content.add(toResponse(entry)));
+        }
+
+        boolean hasMore = content.size() > limit;
+        List<ActivityResponse> page = hasMore ? content.subList(0, limit) : content;
+        Long nextCursor = page.isEmpty() ? null : page.get(page.size() - 1).getId();
+        return new CursorPageResponse<>(new ArrayList<>(page), nextCursor, hasMore);
+    }
+
+    /**
+     * Reloads the in-memory window from the table, picking up entries written
+     * by other nodes.
+     */
+    @Scheduled(fixedDelayString = "${app.feed.reload-ms:10000}", initialDelayString = "${app.feed.reload-ms:10000}")
+    public void reloadWindow() {
+        try {
+            List<CommunityFeedEntry> latest = feedRepository.findLatest(PageRequest.of(0, windowSize));
+            Set<Long> ids = new HashSet<>();
+            for (CommunityFeedEntry entry : latest) {
+                ids.add(entry.getId());
+                window.put(entry.getId(), toResponse(entry));
+            }
+            if (!latest.isEmpty()) {
+                // Drop entries inside the reloaded range that no longer exist
+                long newest = latest.get(0).getId();
+                long oldest = latest.get(latest.size() - 1).getId();
+                window.keySet().removeIf(id -> id >= oldest && id <= newest && !ids.contains(id));
+            }
+            trimWindow();
+            ready = true;
+        } catch (Exception e) {
+            logger.error("Error loading community feed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${app.feed.cleanup-cron:0 45 3 * * *}")
+    public void cleanup() {
+        try {
+            int deleted = feedRepository.deleteOlderThan(LocalDateTime.now().minusDays(retentionDays));
+            if (deleted > 0) {
+                logger.info("Deleted {} old community feed entries", deleted);
+            }
+        } catch (Exception e) {
+            logger.error("Error cleaning up community feed: {}", e.getMessage());
+        }
+    }
+
+    private void addToWindow(CommunityFeedEntry entry) {
+        window.put(entry.getId(), toResponse(entry));
+        trimWindow();
+    }
+
+    private void trimWindow() {
+        while (window.size() > windowSize) {
+            window.pollLastEntry();
+        }
+    }
+
+    /**
+     * Seeds the feed from existing enrollments, borrows, posts and classes the
+     * first time the application starts with an empty feed table. The entries
+     * are saved in the transaction that inserts the backfill marker, so when
+     * several nodes start at once only the one whose marker commits writes
+     * them; the others fail on the marker's key and roll back.
+     */
+    private void backfillIfEmpty() {
+        try {
+            if (feedRepository.count() > 0) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            Integer backfilled = transactionTemplate.execute(status -> {
+                backfillRepository.insertMarker(LocalDateTime.now());
+                List<CommunityFeedEntry> entries = collectBackfill();
+                entries.sort(Comparator.comparing(CommunityFeedEntry::getCreatedAt));
+                int from = Math.max(entries.size() - windowSize, 0);
+                feedRepository.saveAll(entries.subList(from, entries.size()));
+                return entries.size() - from;
+            });
+            logger.info("Backfilled {} community feed entries in {} ms",
+                    backfilled, System.currentTimeMillis() - start);
+        } catch (DataIntegrityViolationException e) {
+            logger.info("Community feed was already backfilled by another node");
+        } catch (Exception e) {
+            logger.error("Error backfilling community feed: {}", e.getMessage());
+        }
+    }
+
+    private List<CommunityFeedEntry> collectBackfill() {
+        List<CommunityFeedEntry> entries = new ArrayList<>();
+
+        List<Long> enrollmentIds = enrollmentRepository.findRecentEnrollmentIds(PageRequest.of(0, windowSize));
+        for (ClassEnrollment enrollment : enrollmentRepository.findAllById(enrollmentIds)) {
+            CourseClass courseClass = enrollment.getCourseClass();
+            entries.add(entry(TYPE_CLASS, "joined", enrollment.getUser(), courseClass.getTitle(),
+                    courseClass.getThumbnailUrl(),
+                    courseClass.getRatingCount() != null ? courseClass.getRatingCount().intValue() : 0,
+                    courseClass.getFeedbacks().size(), courseClass.getId(), enrollment.getEnrolledAt()));
+        }
+
+        List<Long> borrowIds = borrowingAgreementRepository.findRecentBorrowIds(PageRequest.of(0, windowSize));
+        List<BorrowingAgreement> borrows = borrowingAgreementRepository.findAllById(borrowIds);
+        Map<Long, User> borrowers = userRepository.findAllById(
+                        borrows.stream().map(BorrowingAgreement::getBorrowerId).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, Item> items = itemRepository.findAllById(
+                        borrows.stream().map(BorrowingAgreement::getItemId).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(Item::getId, Function.identity()));
+        for (BorrowingAgreement borrow : borrows) {
+            User borrower = borrowers.get(borrow.getBorrowerId());
+            Item item = items.get(borrow.getItemId());
+            if (borrower != null && item != null && borrow.getCreatedAt() != null) {
+                entries.add(entry(TYPE_BORROW, "borrowed", borrower, item.getName(), null, 0, 0,
+                        borrow.getId(), borrow.getCreatedAt()));
+            }
+        }
+
+        PageRequest newest = PageRequest.of(0, windowSize, Sort.by(Sort.Direction.DESC, "createdAt"));
+        for (Post post : postRepository.findFeedPage(newest)) {
+            if (post.getOriginalPost() == null) {
+                entries.add(entry(TYPE_POST, "posted", post.getUser(), post.getContent(), post.getImageUrl(),
+                        0, 0, post.getId(), post.getCreatedAt()));
+            }
+        }
+        for (CourseClass courseClass : classRepository.findAll(newest)) {
+            if (courseClass.getCreator() != null && courseClass.getCreatedAt() != null) {
+                entries.add(entry(TYPE_CLASS, "created", courseClass.getCreator(), courseClass.getTitle(),
+                        courseClass.getThumbnailUrl(), 0, 0, courseClass.getId(), courseClass.getCreatedAt()));
+            }
+        }
+        return entries;
+    }
+
+    private static CommunityFeedEntry entry(String type, String action, User actor, String title, String thumbnailUrl,
+                                            int likes, int comments, Long referenceId, LocalDateTime createdAt) {
+        CommunityFeedEntry entry = new CommunityFeedEntry();
+        entry.setType(type);
+        entry.setAction(action);
+        entry.setActorId(actor.getId());
+        entry.setActorUsername(actor.getUsername());
+        entry.setActorImageUrl(actor.getImageUrl());
+        entry.setTitle(truncate(title));
+        entry.setThumbnailUrl(thumbnailUrl);
+        entry.setLikes(likes);
+        entry.setComments(comments);
+        entry.setReferenceId(referenceId);
+        entry.setCreatedAt(createdAt);
+        return entry;
+    }
+
+    private static ActivityResponse toResponse(CommunityFeedEntry entry) {
+        ActivityResponse response = new ActivityResponse();
+        response.setId(entry.getId());
+        response.setType(entry.getType());
+        response.setAction(entry.getAction());
+        response.setUser(new UserDTO(entry.getActorId(), entry.getActorUsername(), entry.getActorImageUrl()));
+        response.setTitle(entry.getTitle());
+        response.setCreatedAt(entry.getCreatedAt());
+        response.setThumbnailUrl(entry.getThumbnailUrl());
+
+        ActivityResponse.ActivityEngagement engagement = new ActivityResponse.ActivityEngagement();
+        engagement.setLikes(entry.getLikes());
+        engagement.setComments(entry.getComments());
+        response.setEngagement(engagement);
+        return response;
+    }
+
+    private static String truncate(String title) {
+        if (title == null) {
+            return "";
+        }
+        return title.length() > MAX_TITLE_LENGTH ? title.substring(0, MAX_TITLE_LENGTH) : title;
+    }
+
+    private static int clampSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+}
@@ -10,38 +10,70 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
+/**
+ * Builds quizzes from imported text or web pages. When Gemini is configured,
+ * questions are generated chunk by chunk ({@link ChunkedQuizGenerator}), and
+ * any shortfall from failed chunks is made up locally. Local generation
+ * indexes the content once ({@link DocumentIndex}): key terms are ranked by
+ * TF-IDF, and the sentence each question quotes is found for all terms in a
+ * single pass, so generation time grows with the document length rather
+ * than with terms times length.
+ */
 @Service
 public class ContentProcessingService {
     private static final Logger logger = LoggerFactory.getLogger(ContentProcessingService.class);
     private final RestTemplate restTemplate;
+    private final ChunkedQuizGenerator chunkedQuizGenerator;
 
-    public ContentProcessingService(RestTemplate restTemplate) {
+    public ContentProcessingService(RestTemplate restTemplate, ChunkedQuizGenerator chunkedQuizGenerator) {
         this.restTemplate = restTemplate;
+        this.chunkedQuizGenerator = chunkedQuizGenerator;
     }
 
-    public QuizRequest generateQuizFromContent(ContentImportRequest request) {
+    /**
+     * Generates a quiz from the content; it counts as from Gemini only when
+     * no questions had to be made up locally.
+     */
+    public GeminiService.GeneratedQuiz generate(ContentImportRequest request) {
         String extractedContent = extractContent(request);
 
-        List<String> keyTerms = extractKeyTerms(extractedContent);
-
         QuizRequest quiz = new QuizRequest();
         quiz.setTitle("Quiz on Imported Content");
         quiz.setDescription("A quiz generated from imported " +
                 (request.getContentType().equals("url") ? "web page" : "text") + " content");
 
-        List<QuestionRequest> questions = generateQuestionsFromContent(
-                extractedContent,
-                keyTerms,
-                request.getNumberOfQuestions(),
-                request.getDifficulty(),
-                request.getQuizType()
-        );
+        List<QuestionRequest> questions = new ArrayList<>();
+        if (chunkedQuizGenerator.isAvailable()) {
+            try {
+                questions.addAll(chunkedQuizGenerator.generate(
+                        extractedContent,
+                        request.getNumberOfQuestions(),
+                        request.getDifficulty(),
+                        request.getQuizType()
+                ));
+            } catch (Exception e) {
+                logger.error("Error generating questions with Gemini: {}", e.getMessage());
+            }
+        }
+
+        int missing = request.getNumberOfQuestions() - questions.size();
+        if (missing > 0) {
+            DocumentIndex index = DocumentIndex.of(extractedContent);
+            List<String> keyTerms = extractKeyTerms(index);
+            Map<String, String> termSentences = index.firstSentencesContaining(keyTerms);
+
+            questions.addAll(generateQuestionsFromContent(
+                    termSentences,
+                    keyTerms,
+                    missing,
+                    request.getDifficulty(),
+                    request.getQuizType()
+            ));
+        }
 
         quiz.setQuestions(questions);
-        return quiz;
+        return new GeminiService.GeneratedQuiz(quiz, missing <= 0);
     }
 
     private String extractContent(ContentImportRequest request) {
@@ -61,57 +93,115 @@ public class ContentProcessingService {
         return content;
     }
 
-    private String extractTextFromHtml(String html) {
+    /**
+     * Visible text of an HTML page in one pass: tags, comments and the bodies
+     * of script and style elements are dropped, common entities decoded and
+     * whitespace collapsed.
+     */
+    private static String extractTextFromHtml(String html) {
         if (html == null) {
             return "";
         }
 
-        String noHtml = html.replaceAll("<[^>]*>", " ");
-
-        return noHtml.replaceAll("\\s+", " ").trim();
-    }
-
-    private List<String> extractKeyTerms(String content) {
-        Set<String> terms = new HashSet<>();
-
-        Pattern capitalizedPattern = Pattern.compile("\\b[A-Z][a-z]{3,}(\\s+[A-Z][a-z]{3,}){0,2}\\b");
-        Matcher capitalizedMatcher = capitalizedPattern.matcher(content);
-
-        while (capitalizedMatcher.find() && terms.size() < 30) {
-            terms.add(capitalizedMatcher.group());
-        }
-
-        Pattern definitionPattern = Pattern.compile(
-                "(known as|called|termed|defined as|such as)\\s+([A-Za-z][A-Za-z\\s-]{3,}?)(\\.|,|\\s|$)"
-        );
-        Matcher definitionMatcher = definitionPattern.matcher(content);
+        StringBuilder text = new StringBuilder(html.length() / 2);
+        boolean pendingSpace = false;
+        int length = html.length();
+        int i = 0;
+        while (i < length) {
+            char c = html.charAt(i);
+            if (c == '<') {
+                if (html.startsWith("<!--", i)) {
+                    int close = html.indexOf("-->", i + 4);
+                    i = close < 0 ? length : close + 3;
+                } else {
+                    int close = html.indexOf('>', i + 1);
+                    if (close < 0) {
+                        break;
+                    }
+                    String rawTextElement = isTag(html, i + 1, "script") ? "script"
+                            : isTag(html, i + 1, "style") ? "style" : null;
+                    i = close + 1;
+                    if (rawTextElement != null) {
+                        i = indexOfClosingTag(html, rawTextElement, i);
+                    }
+                }
+                pendingSpace = true;
+                continue;
+            }
 
-        while (definitionMatcher.find() && terms.size() < 30) {
-            terms.add(definitionMatcher.group(2).trim());
+            int next = i + 1;
+            if (c == '&') {
+                int semicolon = html.indexOf(';', i + 1);
+                if (semicolon > 0 && semicolon - i <= 10) {
+                    int decoded = decodeEntity(html.substring(i + 1, semicolon));
+                    if (decoded >= 0) {
+                        c = decoded == 0xA0 ? ' ' : (char) decoded;
+                        next = semicolon + 1;
+                    }
+                }
+            }
+            if (Character.isWhitespace(c)) {
+                pendingSpace = true;
+            } else {
+                if (pendingSpace && text.length() > 0) {
+                    text.append(' ');
+                }
+                pendingSpace = false;
+                text.append(c);
+            }
+            i = next;
         }
+        return text.toString();
+    }
 
-        Pattern sentencePattern = Pattern.compile(
-                "([A-Z][^.!?]*?(is a|are the|refers to|consists of|means)[^.!?]*?)\\.?"
-        );
-        Matcher sentenceMatcher = sentencePattern.matcher(content);
+    private static boolean isTag(String html, int nameStart, String name) {
+        int nameEnd = nameStart + name.length();
+        return html.regionMatches(true, nameStart, name, 0, name.length())
+                && nameEnd < html.length() && !Character.isLetterOrDigit(html.charAt(nameEnd));
+    }
 
-        List<String> definitionSentences = new ArrayList<>();
-        while (sentenceMatcher.find() && definitionSentences.size() < 15) {
-            definitionSentences.add(sentenceMatcher.group(1).trim());
+    private static int indexOfClosingTag(String html, String name, int from) {
+        int i = html.indexOf("</", from);
+        while (i >= 0) {
+            if (isTag(html, i + 2, name)) {
+                return i;
+            }
+            i = html.indexOf("</", i + 2);
         }
+        return html.length();
+    }
 
-        List<String> keyTerms = new ArrayList<>(terms);
-        if (keyTerms.size() > 20) {
-            keyTerms = keyTerms.subList(0, 20);
+    private static int decodeEntity(String entity) {
+        switch (entity) {
+            case "amp": return '&';
+            case "lt": return '<';
+            case "gt": return '>';
+            case "quot": return '"';
+            case "apos": return '\'';
+            case "nbsp": return 0xA0;
+            default:
+                if (entity.length() > 1 && entity.charAt(0) == '#') {
+                    try {
+                        int codePoint = entity.charAt(1) == 'x' || entity.charAt(1) == 'X'
+                                ? Integer.parseInt(entity.substring(2), 16)
+                                : Integer.parseInt(entity.substring(1));
+                        return codePoint <= Character.MAX_VALUE ? codePoint : -1;
+                    } catch (NumberFormatException e) {
+                        return -1;
+                    }
+                }
+                return -1;
         }
+    }
 
-        keyTerms.addAll(definitionSentences);
-
+    private List<String> extractKeyTerms(DocumentIndex index) {
+        List<String> keyTerms = new ArrayList<>(index.topTerms(20));
+        keyTerms.addAll(index.definitionSentences(15));
         return keyTerms;
     }
 
     private List<QuestionRequest> generateQuestionsFromContent(
-            String content, List<String> keyTerms, int numberOfQuestions,
+            Map<String, String> termSentences, List<String> keyTerms, int numberOfQuestions,
             String difficulty, String quizType) {
 
         List<QuestionRequest> questions = new ArrayList<>();
@@ -131,19 +221,19 @@ public class ContentProcessingService {
         }
 
         for (int i = 0; i < mcCount && i < keyTerms.size(); i++) {
-            QuestionRequest question = createMultipleChoiceQuestion(content, keyTerms, i, difficulty);
+            QuestionRequest question = createMultipleChoiceQuestion(termSentences, keyTerms, i, difficulty);
             questions.add(question);
         }
 
         int offset = mcCount;
         for (int i = 0; i < tfCount && offset + i < keyTerms.size(); i++) {
-            QuestionRequest question = createTrueFalseQuestion(content, keyTerms, offset + i, difficulty);
+            QuestionRequest question = createTrueFalseQuestion(termSentences, keyTerms, offset + i, difficulty);
             questions.add(question);
         }
 
         offset = mcCount + tfCount;
         for (int i = 0; i < essayCount; i++) {
-            QuestionRequest question = createEssayQuestion(content, keyTerms, offset + i, difficulty);
+            QuestionRequest question = createEssayQuestion(keyTerms, offset + i, difficulty);
             questions.add(question);
         }
 
@@ -158,11 +248,11 @@ public class ContentProcessingService {
         return questions;
     }
 
-    private QuestionRequest createMultipleChoiceQuestion(String content, List<String> keyTerms, int index, String difficulty) {
+    private QuestionRequest createMultipleChoiceQuestion(Map<String, String> termSentences, List<String> keyTerms, int index, String difficulty) {
         QuestionRequest question = new QuestionRequest();
         String keyTerm = keyTerms.get(index % keyTerms.size());
 
-        String termSentence = findSentenceContaining(content, keyTerm);
+        String termSentence = termSentences.getOrDefault(keyTerm, "");
 
         if (termSentence.isEmpty()) {
             question.setContent("What is meant by the term \"" + keyTerm + "\" in this context?");
@@ -193,11 +283,11 @@ public class ContentProcessingService {
         return question;
     }
 
-    private QuestionRequest createTrueFalseQuestion(String content, List<String> keyTerms, int index, String difficulty) {
+    private QuestionRequest createTrueFalseQuestion(Map<String, String> termSentences, List<String> keyTerms, int index, String difficulty) {
         QuestionRequest question = new QuestionRequest();
         String keyTerm = keyTerms.get(index % keyTerms.size());
 
-        String termSentence = findSentenceContaining(content, keyTerm);
+        String termSentence = termSentences.getOrDefault(keyTerm, "");
 
         boolean isTrue = new Random().nextBoolean();
 
@@ -236,7 +326,7 @@ public class ContentProcessingService {
         return question;
     }
 
-    private QuestionRequest createEssayQuestion(String content, List<String> keyTerms, int index, String difficulty) {
+    private QuestionRequest createEssayQuestion(List<String> keyTerms, int index, String difficulty) {
         QuestionRequest question = new QuestionRequest();
 
         if (index < keyTerms.size()) {
@@ -335,21 +425,6 @@ public class ContentProcessingService {
         return question;
     }
 
-    private String findSentenceContaining(String content, String term) {
-        if (content == null || term == null) return "";
-
-        Pattern sentencePattern = Pattern.compile(
-                "([^.!?]*?" + Pattern.quote(term) + "[^.!?]*?[.!?])"
-        );
-
-        Matcher matcher = sentencePattern.matcher(content);
-        if (matcher.find()) {
-            return matcher.group(1).trim();
-        }
-
-        return "";
-    }
-
     private String generateAnswerFromSentence(String sentence, String term) {
         String description;
 
@@ -3,16 +3,24 @@ package com.example.neighbornetbackend.service;
 import com.example.neighbornetbackend.dto.ConversationDTO;
 import com.example.neighbornetbackend.dto.ItemDTO;
 import com.example.neighbornetbackend.model.ChatMessage;
+import com.example.neighbornetbackend.model.ConversationSummary;
 import com.example.neighbornetbackend.model.Item;
 import com.example.neighbornetbackend.model.User;
 import com.example.neighbornetbackend.repository.ChatMessageRepository;
+import com.example.neighbornetbackend.repository.ConversationSummaryRepository;
+import com.example.neighbornetbackend.repository.ItemRepository;
 import com.example.neighbornetbackend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,7 +29,14 @@ public class ConversationService {
     @Autowired
     private ChatMessageRepository chatMessageRepository;
 
+    @Autowired
+    private ConversationSummaryRepository conversationSummaryRepository;
+
+    @Autowired
+    private ConversationSummaryService conversationSummaryService;
 
+    @Autowired
+    private ItemRepository itemRepository;
 
     @Autowired
     private UserRepository userRepository;
@@ -31,75 +46,61 @@ public class ConversationService {
         return ItemDTO.fromItem(item);
     }
 
-    public List<ConversationDTO> findConversationsForUser(Long userId) {  // Changed parameter type to Long
-        List<ChatMessage> allMessages = chatMessageRepository.findBySenderIdOrReceiverId(userId, userId);
-
-        Map<Long, List<ChatMessage>> conversationGroups = new HashMap<>();  // Changed Map key type to Long
-
-        for (ChatMessage message : allMessages) {
-            Long conversationPartnerId;  // Changed to Long
-            if (message.getSenderId().equals(userId)) {
-                conversationPartnerId = message.getReceiverId();
-            } else {
-                conversationPartnerId = message.getSenderId();
-            }
-
-            conversationGroups.computeIfAbsent(conversationPartnerId, k -> new ArrayList<>())
-                    .add(message);
-        }
-
-        return conversationGroups.entrySet().stream()
-                .map(entry -> {
-                    Long partnerId = entry.getKey();  // Changed to Long
-                    List<ChatMessage> messages = entry.getValue();
-
-                    messages.sort((m1, m2) -> m2.getTimestamp().compareTo(m1.getTimestamp()));
-
-                    ConversationDTO dto = new ConversationDTO();
-
-                    User participant = userRepository.findById(partnerId)
-                            .orElseThrow(() -> new RuntimeException("User not found"));
-
-                    ConversationDTO.ParticipantDTO participantDTO = new ConversationDTO.ParticipantDTO();
-                    participantDTO.setId(participant.getId());  // Now both are Long
-                    participantDTO.setUsername(participant.getUsername());
+    @Transactional(readOnly = true)
+    public List<ConversationDTO> findConversationsForUser(Long userId) {
+        return toConversationDTOs(conversationSummaryRepository.findByOwnerIdOrderByLastMessageTimestampDesc(userId));
+    }
 
-                    dto.setParticipant(participantDTO);
+    @Transactional(readOnly = true)
+    public Page<ConversationDTO> findConversationsForUser(Long userId, int page, int size) {
+        Page<ConversationSummary> summaries = conversationSummaryRepository
+                .findByOwnerIdOrderByLastMessageTimestampDesc(userId, PageRequest.of(page, size));
+        return new PageImpl<>(toConversationDTOs(summaries.getContent()), summaries.getPageable(), summaries.getTotalElements());
+    }
 
-                    if (!messages.isEmpty()) {
-                        ChatMessage lastMessage = messages.get(0);
-                        dto.setLastMessage(lastMessage.getContent());
-                        dto.setLastMessageTimestamp(lastMessage.getTimestamp());
-                        if (lastMessage.getItem() != null) {
-                            dto.setLastMessageItem(convertToItemDTO(lastMessage.getItem()));
-                        }
-                    }
+    private List<ConversationDTO> toConversationDTOs(List<ConversationSummary> summaries) {
+        List<Long> itemIds = summaries.stream()
+                .map(ConversationSummary::getLastMessageItemId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        return summaries.stream()
+                .map(summary -> toConversationDTO(summary, summary.getLastMessageItemId() != null
+                        ? items.get(summary.getLastMessageItemId()) : null))
+                .collect(Collectors.toList());
+    }
 
-                    long unreadCount = messages.stream()
-                            .filter(m -> m.getReceiverId().equals(userId) && !m.isIs_read())
-                            .count();
+    private ConversationDTO toConversationDTO(ConversationSummary summary, Item lastMessageItem) {
+        ConversationDTO dto = new ConversationDTO();
 
-                    dto.setUnreadCount((int) unreadCount);
+        ConversationDTO.ParticipantDTO participantDTO = new ConversationDTO.ParticipantDTO();
+        participantDTO.setId(summary.getPartnerId());
+        participantDTO.setUsername(summary.getPartnerUsername());
+        participantDTO.setImageUrl(summary.getPartnerImageUrl());
+        dto.setParticipant(participantDTO);
 
-                    return dto;
-                })
-                .sorted((c1, c2) -> c2.getLastMessageTimestamp().compareTo(c1.getLastMessageTimestamp()))
-                .collect(Collectors.toList());
+        dto.setLastMessage(summary.getLastMessage());
+        dto.setLastMessageTimestamp(summary.getLastMessageTimestamp());
+        dto.setLastMessageItem(convertToItemDTO(lastMessageItem));
+        dto.setUnreadCount(summary.getUnreadCount());
+        return dto;
     }
 
     public ConversationDTO createOrGetConversation(Long userId1, Long userId2) {
-        List<ConversationDTO> existingConversations = findConversationsForUser(userId1);
-
-        Optional<ConversationDTO> existingConversation = existingConversations.stream()
-                .filter(conv -> conv.getParticipant().getId().equals(userId2))
-                .findFirst();
-
-        if (existingConversation.isPresent()) {
-            return existingConversation.get();
+        Optional<ConversationSummary> existing = conversationSummaryRepository.findByOwnerIdAndPartnerId(userId1, userId2);
+        if (existing.isPresent()) {
+            return toConversationDTOs(List.of(existing.get())).get(0);
         }
 
+        User user1 = userRepository.findById(userId1)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user2 = userRepository.findById(userId2)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
         // If no existing conversation, create a new one
-        // You might need to adjust this based on your database schema
         ChatMessage initialMessage = new ChatMessage();
         initialMessage.setSenderId(userId1);
         initialMessage.setReceiverId(userId2);
@@ -107,12 +108,11 @@ public class ConversationService {
         initialMessage.setMessageType("TEXT");
         initialMessage.setTimestamp(LocalDateTime.now(ZoneOffset.UTC));
 
-        chatMessageRepository.save(initialMessage);
+        ChatMessage savedMessage = chatMessageRepository.save(initialMessage);
+        conversationSummaryService.recordMessage(savedMessage, user1, user2);
 
-        // Return the new conversation
-        return findConversationsForUser(userId1).stream()
-                .filter(conv -> conv.getParticipant().getId().equals(userId2))
-                .findFirst()
+        return conversationSummaryRepository.findByOwnerIdAndPartnerId(userId1, userId2)
+                .map(summary -> toConversationDTO(summary, null))
                 .orElseThrow(() -> new RuntimeException("Failed to create conversation"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,180 @@
+package com.example.neighbornetbackend.service;
+
+import com.example.neighbornetbackend.model.ChatMessage;
+import com.example.neighbornetbackend.model.ConversationSummary;
+import com.example.neighbornetbackend.model.User;
+import com.example.neighbornetbackend.repository.ChatMessageRepository;
+import com.example.neighbornetbackend.repository.ConversationSummaryRepository;
+import com.example.neighbornetbackend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps one {@link ConversationSummary} row per user and chat partner up to
+ * date as messages are written, so the inbox can be read without scanning the
+ * full message history.
+ */
+@Service
+public class ConversationSummaryService {
+    private static final Logger logger = LoggerFactory.getLogger(ConversationSummaryService.class);
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    private final ConversationSummaryRepository conversationSummaryRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final UserRepository userRepository;
+
+    public ConversationSummaryService(ConversationSummaryRepository conversationSummaryRepository,
+                                      ChatMessageRepository chatMessageRepository,
+                                      UserRepository userRepository) {
+        this.conversationSummaryRepository = conversationSummaryRepository;
+        this.chatMessageRepository = chatMessageRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Applies a newly stored message to both sides of the conversation. The
+     * receiver's unread count is incremented; the sender's is left alone.
+     */
+    public void recordMessage(ChatMessage message, User sender, User receiver) {
+        if (message == null || message.getId() == null) {
+            return;
+        }
+        upsert(message, sender.getId(), receiver, 0);
+        if (!sender.getId().equals(receiver.getId())) {
+            upsert(message, receiver.getId(), sender, 1);
+        }
+    }
+
+    public void markRead(Long ownerId, Long partnerId) {
+        conversationSummaryRepository.resetUnreadCount(ownerId, partnerId);
+    }
+
+    public void refreshPartnerSnapshot(User user) {
+        if (user == null || user.getId() == null) {
+            return;
+        }
+        conversationSummaryRepository.updatePartnerSnapshot(user.getId(), user.getUsername(), user.getImageUrl());
+    }
+
+    private void upsert(ChatMessage message, Long ownerId, User partner, int unreadIncrement) {
+        if (apply(message, ownerId, partner.getId(), unreadIncrement) > 0) {
+            return;
+        }
+
+        ConversationSummary summary = new ConversationSummary(ownerId, partner.getId());
+        summary.setPartnerUsername(partner.getUsername());
+        summary.setPartnerImageUrl(partner.getImageUrl());
+        copyMessage(summary, message);
+        summary.setUnreadCount(unreadIncrement);
+
+        try {
+            conversationSummaryRepository.save(summary);
+        } catch (DataIntegrityViolationException e) {
+            // Another request created the row first; apply on top of it
+            apply(message, ownerId, partner.getId(), unreadIncrement);
+        }
+    }
+
+    private int apply(ChatMessage message, Long ownerId, Long partnerId, int unreadIncrement) {
+        return conversationSummaryRepository.applyMessage(
+                ownerId,
+                partnerId,
+                message.getId(),
+                message.getContent(),
+                message.getMessageType(),
+                message.getItem() != null ? message.getItem().getId() : null,
+                message.getTimestamp(),
+                unreadIncrement
+        );
+    }
+
+    private static void copyMessage(ConversationSummary summary, ChatMessage message) {
+        summary.setLastMessageId(message.getId());
+        summary.setLastMessage(message.getContent());
+        summary.setLastMessageType(message.getMessageType());
+        summary.setLastMessageItemId(message.getItem() != null ? message.getItem().getId() : null);
+        summary.setLastMessageTimestamp(message.getTimestamp());
+    }
+
+    /**
+     * Populates the summary table from existing chat history the first time
+     * the application starts with an empty table.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            if (conversationSummaryRepository.count() > 0) {
+                return;
+            }
+
+            List<Long> latestIds = chatMessageRepository.findLatestMessageIdPerConversation();
+            if (latestIds.isEmpty()) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+
+            Map<String, Integer> unreadCounts = new HashMap<>();
+            for (Object[] row : chatMessageRepository.countUnreadPerConversation()) {
+                unreadCounts.put(row[0] + ":" + row[1], ((Number) row[2]).intValue());
+            }
+
+            int created = 0;
+            for (int from = 0; from < latestIds.size(); from += BACKFILL_BATCH_SIZE) {
+                List<Long> batchIds = latestIds.subList(from, Math.min(from + BACKFILL_BATCH_SIZE, latestIds.size()));
+                List<ChatMessage> messages = chatMessageRepository.findAllById(batchIds);
+
+                Set<Long> userIds = new HashSet<>();
+                for (ChatMessage message : messages) {
+                    userIds.add(message.getSenderId());
+                    userIds.add(message.getReceiverId());
+                }
+                Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                        .collect(Collectors.toMap(User::getId, Function.identity()));
+
+                List<ConversationSummary> summaries = new ArrayList<>();
+                for (ChatMessage message : messages) {
+                    User sender = users.get(message.getSenderId());
+                    User receiver = users.get(message.getReceiverId());
+                    if (sender == null || receiver == null) {
+                        continue;
+                    }
+                    summaries.add(backfillSide(message, sender.getId(), receiver, unreadCounts));
+                    if (!sender.getId().equals(receiver.getId())) {
+                        summaries.add(backfillSide(message, receiver.getId(), sender, unreadCounts));
+                    }
+                }
+                conversationSummaryRepository.saveAll(summaries);
+                created += summaries.size();
+            }
+
+            logger.info("Backfilled {} conversation summaries in {} ms",
+                    created, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Error backfilling conversation summaries: {}", e.getMessage());
+        }
+    }
+
+    private static ConversationSummary backfillSide(ChatMessage message, Long ownerId, User partner,
+                                                    Map<String, Integer> unreadCounts) {
+        ConversationSummary summary = new ConversationSummary(ownerId, partner.getId());
+        summary.setPartnerUsername(partner.getUsername());
+        summary.setPartnerImageUrl(partner.getImageUrl());
+        copyMessage(summary, message);
+        summary.setUnreadCount(unreadCounts.getOrDefault(ownerId + ":" + partner.getId(), 0));
+        return summary;
+    }
+}
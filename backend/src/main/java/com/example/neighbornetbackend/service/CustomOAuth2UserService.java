@@ -5,6 +5,7 @@ import com.example.neighbornetbackend.model.OAuth2UserInfo;
 import com.example.neighbornetbackend.model.OAuth2UserInfoFactory;
 import com.example.neighbornetbackend.model.User;
 import com.example.neighbornetbackend.repository.UserRepository;
+import com.example.neighbornetbackend.security.PrincipalCache;
 import com.example.neighbornetbackend.security.UserPrincipal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,6 +23,9 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
     private static final Logger logger = LoggerFactory.getLogger(CustomOAuth2UserService.class);
 
     @Override
@@ -113,6 +117,7 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
             user.setProviderId(oAuth2UserInfo.getId());
         }
 
+        String previousUsername = user.getUsername();
         if (oAuth2UserInfo.getName() != null && !oAuth2UserInfo.getName().equals(user.getUsername())) {
             String newUsername = generateUniqueUsername(oAuth2UserInfo.getName());
             user.setUsername(newUsername);
@@ -125,7 +130,11 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
         }
 
         try {
-            return userRepository.save(user);
+            User savedUser = userRepository.save(user);
+            if (!savedUser.getUsername().equals(previousUsername)) {
+                principalCache.invalidate(previousUsername, savedUser.getEmail(), savedUser.getUsername());
+            }
+            return savedUser;
         } catch (Exception e) {
             logger.error("Error updating OAuth2 user", e);
             throw new OAuth2AuthenticationProcessingException("Failed to update OAuth2 user");
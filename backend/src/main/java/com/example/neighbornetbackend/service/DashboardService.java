@@ -1,166 +1,167 @@
 package com.example.neighbornetbackend.service;
 
 import com.example.neighbornetbackend.dto.DashboardStatsDTO;
+import com.example.neighbornetbackend.model.DashboardStatsRollup;
 import com.example.neighbornetbackend.repository.BorrowingAgreementRepository;
 import com.example.neighbornetbackend.repository.ClassRepository;
-import com.example.neighbornetbackend.repository.ItemRepository;
+import com.example.neighbornetbackend.repository.DashboardStatsRollupRepository;
 import com.example.neighbornetbackend.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serves the dashboard stats from an immutable snapshot that is recomputed on
+ * a schedule, so requests never count tables themselves. Only one refresh runs
+ * at a time; a failed refresh keeps the previous snapshot.
+ *
+ * <p>Each refresh also stores today's totals as a daily rollup. The "previous
+ * month" comparison reads the rollup for the same day a month ago; a missing
+ * day is computed once from the created-at columns and stored.</p>
+ */
 @Service
 public class DashboardService {
     private static final Logger logger = LoggerFactory.getLogger(DashboardService.class);
 
     private final ClassRepository classRepository;
-    private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BorrowingAgreementRepository borrowingAgreementRepository;
+    private final DashboardStatsRollupRepository rollupRepository;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final ReentrantLock refreshLock = new ReentrantLock();
 
-    private DashboardStatsDTO cachedStats;
-    private long lastCacheUpdate = 0;
-    private static final long CACHE_TTL = 5 * 60 * 1000;
+    private final Timer refreshTimer;
+    private final Counter refreshFailures;
 
     public DashboardService(
             ClassRepository classRepository,
-            ItemRepository itemRepository,
             UserRepository userRepository,
-            BorrowingAgreementRepository borrowingAgreementRepository) {
+            BorrowingAgreementRepository borrowingAgreementRepository,
+            DashboardStatsRollupRepository rollupRepository,
+            MeterRegistry meterRegistry) {
         this.classRepository = classRepository;
-        this.itemRepository = itemRepository;
         this.userRepository = userRepository;
         this.borrowingAgreementRepository = borrowingAgreementRepository;
+        this.rollupRepository = rollupRepository;
+
+        this.refreshTimer = meterRegistry.timer("dashboard.stats.refresh");
+        this.refreshFailures = meterRegistry.counter("dashboard.stats.refresh.failures");
+        meterRegistry.gauge("dashboard.stats.age.seconds", snapshot, ref -> {
+            Snapshot current = ref.get();
+            return current == null ? Double.NaN : (System.currentTimeMillis() - current.computedAt()) / 1000.0;
+        });
     }
 
-    public DashboardStatsDTO getDashboardStats(Long userId) {
-        long currentTime = System.currentTimeMillis();
-
-        if (cachedStats != null && (currentTime - lastCacheUpdate) < CACHE_TTL) {
-            logger.debug("Returning cached dashboard stats");
-            return cachedStats;
-        }
-
-        logger.debug("Generating fresh dashboard stats");
-        long startTime = System.currentTimeMillis();
-
-        try {
-            long currentSkillsShared = classRepository.count();
-            long currentItemsBorrowed = borrowingAgreementRepository.count();
-            long currentActiveUsers = userRepository.countByEmailVerified(true);
-
-            long previousSkillsShared = 0;
-            long previousItemsBorrowed = 0;
-            long previousActiveUsers = 0;
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        refresh();
+    }
 
+    public DashboardStatsDTO getDashboardStats(Long userId) {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            // Not computed yet (e.g. a request raced startup); wait for the single in-flight refresh
+            refreshLock.lock();
             try {
-                LocalDateTime oneMonthAgo = LocalDateTime.now().minusMonths(1);
-
-                try {
-                    previousSkillsShared = getClassCountBefore(oneMonthAgo);
-                } catch (Exception e) {
-                    logger.warn("Error getting previous skills shared count", e);
-                }
-
-                try {
-                    previousItemsBorrowed = getBorrowingCountBefore(oneMonthAgo);
-                } catch (Exception e) {
-                    logger.warn("Error getting previous items borrowed count", e);
-                }
-
-                try {
-                    previousActiveUsers = getPreviousActiveUsers(oneMonthAgo);
-                } catch (Exception e) {
-                    logger.warn("Error getting previous active users count", e);
+                current = snapshot.get();
+                if (current == null) {
+                    current = compute();
                 }
             } catch (Exception e) {
-                logger.warn("Error calculating previous stats", e);
+                logger.error("Error generating dashboard stats: {}", e.getMessage());
+                return new DashboardStatsDTO(
+                        0L, 0L, 0L,
+                        new DashboardStatsDTO.StatsChangeDTO(0.0, 0.0, 0.0)
+                );
+            } finally {
+                refreshLock.unlock();
             }
-
-            double skillsSharedChange = calculatePercentageChange(previousSkillsShared, currentSkillsShared);
-            double itemsBorrowedChange = calculatePercentageChange(previousItemsBorrowed, currentItemsBorrowed);
-            double activeUsersChange = calculatePercentageChange(previousActiveUsers, currentActiveUsers);
-
-            DashboardStatsDTO.StatsChangeDTO changes = new DashboardStatsDTO.StatsChangeDTO(
-                    skillsSharedChange,
-                    itemsBorrowedChange,
-                    activeUsersChange
-            );
-
-            DashboardStatsDTO result = new DashboardStatsDTO(
-                    currentSkillsShared,
-                    currentItemsBorrowed,
-                    currentActiveUsers,
-                    changes
-            );
-
-            cachedStats = result;
-            lastCacheUpdate = currentTime;
-
-            long timeElapsed = System.currentTimeMillis() - startTime;
-            logger.info("Dashboard stats generated in {} ms", timeElapsed);
-
-            return result;
-        } catch (Exception e) {
-            logger.error("Error generating dashboard stats", e);
-
-            DashboardStatsDTO defaultStats = new DashboardStatsDTO(
-                    0L, 0L, 0L,
-                    new DashboardStatsDTO.StatsChangeDTO(0.0, 0.0, 0.0)
-            );
-            return defaultStats;
         }
+        return current.toDto();
     }
 
-    private long getClassCountBefore(LocalDateTime date) {
-        try {
-            if (methodExists(classRepository, "countByCreatedAtBefore", LocalDateTime.class)) {
-                return classRepository.countByCreatedAtBefore(date);
-            }
-            return classRepository.count() / 2;
-        } catch (Exception e) {
-            logger.warn("Error in getClassCountBefore", e);
-            return 0;
+    /**
+     * Recomputes the snapshot. Skipped when a refresh is already running.
+     */
+    @Scheduled(fixedDelayString = "${app.dashboard.refresh-ms:60000}", initialDelayString = "${app.dashboard.refresh-ms:60000}")
+    public void refresh() {
+        if (!refreshLock.tryLock()) {
+            return;
         }
-    }
-
-    private long getBorrowingCountBefore(LocalDateTime date) {
         try {
-            if (methodExists(borrowingAgreementRepository, "countByCreatedAtBefore", LocalDateTime.class)) {
-                return borrowingAgreementRepository.countByCreatedAtBefore(date);
-            }
-            return borrowingAgreementRepository.count() / 2;
+            compute();
         } catch (Exception e) {
-            logger.warn("Error in getBorrowingCountBefore", e);
-            return 0;
+            refreshFailures.increment();
+            logger.error("Error refreshing dashboard stats: {}", e.getMessage());
+        } finally {
+            refreshLock.unlock();
         }
     }
 
-    private long getPreviousActiveUsers(LocalDateTime date) {
+    private Snapshot compute() {
+        Timer.Sample sample = Timer.start();
         try {
-            if (methodExists(userRepository, "countByEmailVerifiedAndCreatedDateBefore", Boolean.class, LocalDateTime.class)) {
-                return userRepository.countByEmailVerifiedAndCreatedDateBefore(true, date);
-            }
-            return userRepository.countByEmailVerified(true) / 2;
-        } catch (Exception e) {
-            logger.warn("Error in getPreviousActiveUsers", e);
-            return 0;
+            long skillsShared = classRepository.count();
+            long itemsBorrowed = borrowingAgreementRepository.count();
+            long activeUsers = userRepository.countByEmailVerified(true);
+
+            LocalDate today = LocalDate.now();
+            rollupRepository.save(new DashboardStatsRollup(today, skillsShared, itemsBorrowed, activeUsers));
+            DashboardStatsRollup previous = previousRollup(today.minusMonths(1));
+
+            Snapshot computed = new Snapshot(
+                    skillsShared,
+                    itemsBorrowed,
+                    activeUsers,
+                    calculatePercentageChange(previous.getSkillsShared(), skillsShared),
+                    calculatePercentageChange(previous.getItemsBorrowed(), itemsBorrowed),
+                    calculatePercentageChange(previous.getActiveUsers(), activeUsers),
+                    System.currentTimeMillis());
+            snapshot.set(computed);
+            return computed;
+        } finally {
+            long elapsedMs = sample.stop(refreshTimer) / 1_000_000;
+            logger.debug("Dashboard stats refreshed in {} ms", elapsedMs);
         }
     }
 
-    private boolean methodExists(Object repository, String methodName, Class<?>... paramTypes) {
-        try {
-            repository.getClass().getMethod(methodName, paramTypes);
-            return true;
-        } catch (NoSuchMethodException e) {
-            return false;
-        }
+    private DashboardStatsRollup previousRollup(LocalDate date) {
+        return rollupRepository.findById(date).orElseGet(() -> {
+            // Counts rows created before the end of that day; users are those verified now
+            LocalDateTime endOfDay = date.plusDays(1).atStartOfDay();
+            DashboardStatsRollup rollup = new DashboardStatsRollup(
+                    date,
+                    classRepository.countByCreatedAtBefore(endOfDay),
+                    borrowingAgreementRepository.countByCreatedAtBefore(endOfDay),
+                    userRepository.countByEmailVerifiedAndCreatedDateBefore(true, endOfDay));
+            return rollupRepository.save(rollup);
+        });
     }
 
     private double calculatePercentageChange(double previous, double current) {
         if (previous == 0) return current > 0 ? 100.0 : 0.0;
         return ((current - previous) / previous) * 100.0;
     }
-}
\ No newline at end of file
+
+    private record Snapshot(long skillsShared, long itemsBorrowed, long activeUsers,
+                            double skillsSharedChange, double itemsBorrowedChange, double activeUsersChange,
+                            long computedAt) {
+
+        DashboardStatsDTO toDto() {
+            return new DashboardStatsDTO(skillsShared, itemsBorrowed, activeUsers,
+                    new DashboardStatsDTO.StatsChangeDTO(skillsSharedChange, itemsBorrowedChange, activeUsersChange));
+        }
+    }
+}
@@ -0,0 +1,774 @@
+package com.example.neighbornetbackend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A document segmented once into sentences, with term statistics gathered in
+ * the same pass. Key terms are single words and two-word phrases ranked by
+ * TF-IDF, treating each sentence as a document, so terms that recur in a few
+ * sentences rank above words spread evenly through the text. Terms
+ * introduced by phrases such as "known as" or "called" get a boost.
+ *
+ * <p>The pass allocates nothing per token: words are interned straight from
+ * the text into an open-addressing table (a string is only created for a
+ * word not seen before) and counted in primitive arrays, and the candidate
+ * words are recorded as a stream of ids. Phrases are counted from that
+ * stream by {@link #topTerms}, only where both words are frequent enough
+ * for the phrase to rank, and surface spellings are only turned into
+ * strings for the terms it returns.</p>
+ */
+final class DocumentIndex {
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "about", "above", "after", "again", "against", "all", "also", "an", "and", "any", "are", "as",
+            "at", "be", "because", "been", "before", "being", "below", "between", "both", "but", "by", "can",
+            "could", "did", "do", "does", "doing", "down", "during", "each", "even", "every", "few", "for",
+            "called", "defined", "known", "termed", "from", "further", "had", "has", "have", "having", "he", "her", "here", "hers", "him", "his", "how",
+            "however", "i", "if", "in", "into", "is", "it", "its", "itself", "just", "many", "may", "might",
+            "more", "most", "much", "must", "my", "no", "nor", "not", "now", "of", "off", "on", "once", "one",
+            "only", "or", "other", "our", "ours", "out", "over", "own", "same", "she", "should", "since", "so",
+            "some", "such", "than", "that", "the", "their", "theirs", "them", "then", "there", "these", "they",
+            "this", "those", "through", "thus", "to", "too", "under", "until", "up", "upon", "us", "very", "was",
+            "we", "were", "what", "when", "where", "whether", "which", "while", "who", "whom", "whose", "why",
+            "will", "with", "within", "without", "would", "yet", "you", "your", "yours");
+
+    private static final String[] DEFINITION_MARKERS = {" is a ", " are the ", " refers to ", " consists of ", " means "};
+    private static final Set<String> INTRODUCERS = Set.of("called", "termed", "known as", "defined as", "such as");
+    private static final Set<String> INTRODUCER_FIRST_WORDS = Set.of("known", "defined", "such");
+    private static final Set<String> INTRODUCER_SECOND_WORDS = Set.of("as");
+    private static final double PHRASE_BOOST = 1.5;
+    private static final double INTRODUCED_BOOST = 2.0;
+    // Candidates ranked per selection round, as a multiple of the requested limit
+    private static final int RANK_FACTOR = 2;
+
+    private final String text;
+    private final int[] sentenceStarts;
+    private final int[] sentenceEnds;
+    private final TermCounter terms;
+
+    private DocumentIndex(String text, int[] sentenceStarts, int[] sentenceEnds, TermCounter terms) {
+        this.text = text;
+        this.sentenceStarts = sentenceStarts;
+        this.sentenceEnds = sentenceEnds;
+        this.terms = terms;
+    }
+
+    static DocumentIndex of(String text) {
+        if (text == null) {
+            text = "";
+        }
+        int[] starts = new int[16];
+        int[] ends = new int[16];
+        int count = 0;
+        TermCounter terms = new TermCounter(text);
+
+        int length = text.length();
+        int start = 0;
+        while (start < length) {
+            while (start < length && Character.isWhitespace(text.charAt(start))) {
+                start++;
+            }
+            if (start >= length) {
+                break;
+            }
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+            }
+            int end = terms.indexSentence(count, start);
+            starts[count] = start;
+            ends[count] = end;
+            count++;
+            start = end;
+        }
+        return new DocumentIndex(text, Arrays.copyOf(starts, count), Arrays.copyOf(ends, count), terms);
+    }
+
+    int sentenceCount() {
+        return sentenceStarts.length;
+    }
+
+    String sentence(int index) {
+        return text.substring(sentenceStarts[index], sentenceEnds[index]).trim();
+    }
+
+    /**
+     * Splits the document into chunks of at most {@code maxChars} characters
+     * made of whole sentences; only a sentence longer than a chunk is cut,
+     * at whitespace where possible.
+     */
+    List<String> chunks(int maxChars) {
+        List<String> chunks = new ArrayList<>();
+        StringBuilder chunk = new StringBuilder();
+        for (int i = 0; i < sentenceCount(); i++) {
+            String sentence = sentence(i);
+            if (chunk.length() > 0 && chunk.length() + 1 + sentence.length() > maxChars) {
+                chunks.add(chunk.toString());
+                chunk.setLength(0);
+            }
+            while (sentence.length() > maxChars) {
+                int cut = sentence.lastIndexOf(' ', maxChars);
+                if (cut <= 0) {
+                    cut = maxChars;
+                }
+                chunks.add(sentence.substring(0, cut).trim());
+                sentence = sentence.substring(cut).trim();
+            }
+            if (sentence.isEmpty()) {
+                continue;
+            }
+            if (chunk.length() > 0) {
+                chunk.append(' ');
+            }
+            chunk.append(sentence);
+        }
+        if (chunk.length() > 0) {
+            chunks.add(chunk.toString());
+        }
+        return chunks;
+    }
+
+    /**
+     * Index of the sentence containing the character at {@code offset}.
+     */
+    int sentenceAt(int offset) {
+        int index = Arrays.binarySearch(sentenceStarts, offset);
+        return index >= 0 ? index : Math.max(0, -index - 2);
+    }
+
+    /**
+     * The highest-ranked terms. A word is skipped when a higher-ranked phrase
+     * containing it occurs at least as often, and a phrase is skipped when
+     * both its words were already chosen.
+     */
+    List<String> topTerms(int limit) {
+        return terms.top(limit, Math.max(1, sentenceCount()));
+    }
+
+    /**
+     * Sentences that read like definitions ("X is a ...", "X refers to ..."),
+     * without their closing punctuation.
+     */
+    List<String> definitionSentences(int limit) {
+        List<String> definitions = new ArrayList<>();
+        for (int i = 0; i < sentenceCount() && definitions.size() < limit; i++) {
+            String sentence = sentence(i);
+            if (sentence.isEmpty() || !Character.isUpperCase(sentence.charAt(0))) {
+                continue;
+            }
+            for (String marker : DEFINITION_MARKERS) {
+                if (sentence.contains(marker)) {
+                    definitions.add(stripClosingPunctuation(sentence));
+                    break;
+                }
+            }
+        }
+        return definitions;
+    }
+
+    /**
+     * Maps each phrase to the first sentence containing it as a whole word,
+     * ignoring case, in a single scan of the document. Phrases that do not
+     * occur are left out.
+     */
+    Map<String, String> firstSentencesContaining(List<String> phrases) {
+        Map<String, String> found = new LinkedHashMap<>();
+        if (phrases.isEmpty()) {
+            return found;
+        }
+        new AhoCorasickMatcher(phrases).scan(text, (pattern, start, end) -> {
+            String phrase = phrases.get(pattern);
+            if (!found.containsKey(phrase)) {
+                found.put(phrase, sentence(sentenceAt(start)));
+            }
+            return found.size() < phrases.size();
+        });
+        return found;
+    }
+
+    /**
+     * Where the sentence ends if it ends at {@code i}: just past a run of
+     * {@code .!?} (and closing quotes or brackets) followed by whitespace or
+     * the end of the text, or before a blank line. Otherwise -1.
+     */
+    private static int sentenceEndAt(String text, int i) {
+        int length = text.length();
+        char c = text.charAt(i);
+        if (c == '.' || c == '!' || c == '?') {
+            int end = i + 1;
+            while (end < length && isClosing(text.charAt(end))) {
+                end++;
+            }
+            return end >= length || Character.isWhitespace(text.charAt(end)) ? end : -1;
+        }
+        return c == '\n' && i + 1 < length && text.charAt(i + 1) == '\n' ? i : -1;
+    }
+
+    private static boolean isClosing(char c) {
+        return c == '.' || c == '!' || c == '?' || c == '"' || c == '\'' || c == ')' || c == ']'
+                || c == '\u201D' || c == '\u2019';
+    }
+
+    private static String stripClosingPunctuation(String sentence) {
+        int end = sentence.length();
+        while (end > 0 && isClosing(sentence.charAt(end - 1))) {
+            end--;
+        }
+        return sentence.substring(0, end).trim();
+    }
+
+    /**
+     * {@link Character#toLowerCase(char)}, skipping the lookup for ASCII.
+     */
+    private static char toLowerCase(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(c);
+    }
+
+    private static boolean isInnerJoiner(String text, int i, int end) {
+        char c = text.charAt(i);
+        return (c == '-' || c == '\'') && i + 1 < end && Character.isLetterOrDigit(text.charAt(i + 1));
+    }
+
+    private static boolean isCandidate(String word, int minLength) {
+        if (word.length() < minLength || STOP_WORDS.contains(word)) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.isLetter(word.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Word and phrase statistics. Words are interned by their lowercase
+     * spelling and counted while the document is read; each word's counters
+     * sit together in one block of an int array, and its surface is kept as
+     * an offset into the text. Phrases are only counted when terms are
+     * ranked, from the recorded token stream, and only those whose words are
+     * frequent enough for the phrase to reach the ranking cutoff.
+     */
+    private static final class TermCounter {
+        private static final int CANDIDATE = 1;
+        private static final int LONG = 2;
+        private static final int INTRODUCER = 4;
+        private static final int PAIR_FIRST = 8;
+        private static final int PAIR_SECOND = 16;
+
+        // Word blocks extend the counters with the kind flags, and the most
+        // times the word occurs in one sentence, which bounds how few
+        // sentences its phrases can occur in
+        private static final int KIND = Stats.FIELDS;
+        private static final int RUN = Stats.FIELDS + 1;
+        private static final int MAX_RUN = Stats.FIELDS + 2;
+        // Phrase blocks extend them with the word ids and the second word's surface
+        private static final int FIRST_WORD = Stats.FIELDS;
+        private static final int SECOND_WORD = Stats.FIELDS + 1;
+        private static final int SECOND_SURFACE = Stats.FIELDS + 2;
+
+        // Token stream entries are a candidate word's id shifted past these
+        // flags, or BREAK where a phrase cannot continue
+        private static final int TOKEN_INITIAL = 1;
+        private static final int TOKEN_INTRODUCED = 2;
+        private static final int TOKEN_FLAGS = 2;
+        private static final int BREAK = -1;
+
+        private final String text;
+        private final Stats words = new Stats();
+        private String[] wordKeys = new String[256];
+        private long[] wordCodes = new long[256];
+        // Open-addressing table of word ids + 1, kept at most half full
+        private int[] wordTable = new int[512];
+
+        // Sized from the text up front, which leaves room for words of four
+        // characters and a separator on average
+        private int[] tokens;
+        private int[] tokenStarts;
+        private int tokenCount;
+        private int[] sentenceTokens = new int[16];
+        private int sentenceCount;
+
+        private Stats phrases;
+        private int[] phraseTable;
+
+        private TermCounter(String text) {
+            this.text = text;
+            tokens = new int[text.length() / 5 + 16];
+            tokenStarts = new int[tokens.length];
+        }
+
+        /**
+         * Counts the words of the sentence starting at {@code start}, records
+         * its candidate words for phrase counting, and returns where the
+         * sentence ends. Phrases never span punctuation or stop words.
+         */
+        private int indexSentence(int sentence, int start) {
+            if (sentence == sentenceTokens.length) {
+                sentenceTokens = Arrays.copyOf(sentenceTokens, sentence * 2);
+            }
+            sentenceTokens[sentence] = tokenCount;
+            sentenceCount = sentence + 1;
+
+            int length = text.length();
+            int previousWord = -1;
+            int beforePreviousWord = -1;
+            boolean sentenceInitial = true;
+
+            int i = start;
+            while (i < length) {
+                char c = text.charAt(i);
+                if (!Character.isLetterOrDigit(c)) {
+                    int end = sentenceEndAt(text, i);
+                    if (end >= 0) {
+                        return end;
+                    }
+                    if (!Character.isWhitespace(c)) {
+                        // Punctuation breaks phrases
+                        record(BREAK, i);
+                    }
+                    i++;
+                    continue;
+                }
+                int wordStart = i;
+                int hash = 0;
+                long code = 0;
+                while (i < length && (Character.isLetterOrDigit(c = text.charAt(i)) || isInnerJoiner(text, i, length))) {
+                    char lower = toLowerCase(c);
+                    hash = 31 * hash + lower;
+                    code = code >= 0 && code < 1L << 56 && lower < 128 ? code << 7 | lower : -1;
+                    i++;
+                }
+                int word = intern(wordStart, i, hash, code);
+                boolean introduced = previousWord >= 0 && ((kind(previousWord) & INTRODUCER) != 0
+                        || (beforePreviousWord >= 0 && introducesPair(beforePreviousWord, previousWord)));
+
+                if ((kind(word) & CANDIDATE) != 0) {
+                    // Every candidate is counted, so that its counts bound those of its phrases
+                    countWord(word, sentence, wordStart, sentenceInitial, introduced);
+                    record(word << TOKEN_FLAGS | (introduced ? TOKEN_INTRODUCED : 0)
+                            | (sentenceInitial ? TOKEN_INITIAL : 0), wordStart);
+                } else {
+                    record(BREAK, wordStart);
+                }
+
+                beforePreviousWord = previousWord;
+                previousWord = word;
+                sentenceInitial = false;
+            }
+            return length;
+        }
+
+        private void countWord(int word, int sentence, int start, boolean sentenceInitial, boolean introduced) {
+            int run = words.get(word, Stats.FREQUENCY) > 0 && words.get(word, Stats.LAST_SENTENCE) == sentence
+                    ? words.get(word, RUN) + 1 : 1;
+            words.set(word, RUN, run);
+            if (run > words.get(word, MAX_RUN)) {
+                words.set(word, MAX_RUN, run);
+            }
+            words.count(word, sentence, start, sentenceInitial, introduced);
+        }
+
+        private void record(int token, int start) {
+            if (token == BREAK && (tokenCount == 0 || tokens[tokenCount - 1] == BREAK)) {
+                return;
+            }
+            if (tokenCount == tokens.length) {
+                tokens = Arrays.copyOf(tokens, tokenCount * 2);
+                tokenStarts = Arrays.copyOf(tokenStarts, tokenCount * 2);
+            }
+            tokens[tokenCount] = token;
+            tokenStarts[tokenCount] = start;
+            tokenCount++;
+        }
+
+        private int kind(int word) {
+            return words.get(word, KIND);
+        }
+
+        private boolean introducesPair(int first, int second) {
+            return (kind(first) & PAIR_FIRST) != 0 && (kind(second) & PAIR_SECOND) != 0
+                    && INTRODUCERS.contains(wordKeys[first] + " " + wordKeys[second]);
+        }
+
+        /**
+         * Id of the word at {@code [start, end)}, whose lowercase spelling
+         * hashes to {@code hash}; a string is only created the first time a
+         * word is seen. Short ASCII words, most of them, also have an exact
+         * {@code code} of 7 bits a character, which saves comparing the text.
+         */
+        private int intern(int start, int end, int hash, long code) {
+            int mask = wordTable.length - 1;
+            int slot = mix(hash) & mask;
+            while (wordTable[slot] != 0) {
+                int id = wordTable[slot] - 1;
+                if (code >= 0 ? wordCodes[id] == code : wordCodes[id] < 0 && regionMatches(start, end, wordKeys[id])) {
+                    return id;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            char[] chars = new char[end - start];
+            for (int i = start; i < end; i++) {
+                chars[i - start] = toLowerCase(text.charAt(i));
+            }
+            String key = new String(chars);
+            int id = words.add();
+            if (id == wordKeys.length) {
+                wordKeys = Arrays.copyOf(wordKeys, id * 2);
+                wordCodes = Arrays.copyOf(wordCodes, id * 2);
+            }
+            wordKeys[id] = key;
+            wordCodes[id] = code;
+            words.set(id, KIND, kindOf(key));
+            wordTable[slot] = id + 1;
+            if (words.size() * 2 > wordTable.length) {
+                // The hash of the lowercase spelling is the key's own
+                wordTable = grow(wordTable, words.size(), word -> mix(wordKeys[word].hashCode()));
+            }
+            return id;
+        }
+
+        private boolean regionMatches(int start, int end, String key) {
+            if (key.length() != end - start) {
+                return false;
+            }
+            for (int i = start; i < end; i++) {
+                if (toLowerCase(text.charAt(i)) != key.charAt(i - start)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int kindOf(String key) {
+            int kind = 0;
+            if (isCandidate(key, 3)) {
+                kind |= CANDIDATE;
+                if (key.length() >= 4) {
+                    kind |= LONG;
+                }
+            }
+            if (INTRODUCERS.contains(key)) {
+                kind |= INTRODUCER;
+            }
+            if (INTRODUCER_FIRST_WORDS.contains(key)) {
+                kind |= PAIR_FIRST;
+            }
+            if (INTRODUCER_SECOND_WORDS.contains(key)) {
+                kind |= PAIR_SECOND;
+            }
+            return kind;
+        }
+
+        /**
+         * Counts, from the token stream, the phrases that could score at
+         * least {@code threshold}. A phrase occurs no more often than either
+         * of its words, and in at least as many sentences as that count
+         * divided by the most times the word occurs in one sentence, which
+         * bounds its score by one computed for each word.
+         */
+        private void countPhrases(double threshold, double sentences) {
+            boolean[] eligible = new boolean[words.size()];
+            for (int word = 0; word < eligible.length; word++) {
+                int frequency = words.get(word, Stats.FREQUENCY);
+                if (frequency > 0) {
+                    double fewestSentences = Math.max(1, (double) frequency / words.get(word, MAX_RUN));
+                    double bound = frequency * Math.log(1 + sentences / fewestSentences)
+                            * PHRASE_BOOST * INTRODUCED_BOOST;
+                    // A hair of slack for rounding
+                    eligible[word] = bound * (1 + 1e-9) >= threshold;
+                }
+            }
+
+            phrases = new Stats();
+            phraseTable = new int[512];
+            for (int sentence = 0; sentence < sentenceCount; sentence++) {
+                int end = sentence + 1 < sentenceCount ? sentenceTokens[sentence + 1] : tokenCount;
+                for (int t = sentenceTokens[sentence] + 1; t < end; t++) {
+                    int first = tokens[t - 1];
+                    int second = tokens[t];
+                    if (first == BREAK || second == BREAK
+                            || !eligible[first >>> TOKEN_FLAGS] || !eligible[second >>> TOKEN_FLAGS]) {
+                        continue;
+                    }
+                    int phrase = phrase(first >>> TOKEN_FLAGS, second >>> TOKEN_FLAGS);
+                    if (phrases.count(phrase, sentence, tokenStarts[t - 1], (first & TOKEN_INITIAL) != 0,
+                            (first & TOKEN_INTRODUCED) != 0)) {
+                        phrases.set(phrase, SECOND_SURFACE, tokenStarts[t]);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Id of the phrase made of two word ids.
+         */
+        private int phrase(int first, int second) {
+            int mask = phraseTable.length - 1;
+            int slot = mix(first, second) & mask;
+            while (phraseTable[slot] != 0) {
+                int id = phraseTable[slot] - 1;
+                if (phrases.get(id, FIRST_WORD) == first && phrases.get(id, SECOND_WORD) == second) {
+                    return id;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            int id = phrases.add();
+            phrases.set(id, FIRST_WORD, first);
+            phrases.set(id, SECOND_WORD, second);
+            phraseTable[slot] = id + 1;
+            if (phrases.size() * 2 > phraseTable.length) {
+                phraseTable = grow(phraseTable, phrases.size(),
+                        phrase -> mix(phrases.get(phrase, FIRST_WORD), phrases.get(phrase, SECOND_WORD)));
+            }
+            return id;
+        }
+
+        private static int[] grow(int[] table, int size, IntUnaryOperator hash) {
+            int[] grown = new int[table.length * 2];
+            int mask = grown.length - 1;
+            for (int id = 0; id < size; id++) {
+                int slot = hash.applyAsInt(id) & mask;
+                while (grown[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                grown[slot] = id + 1;
+            }
+            return grown;
+        }
+
+        private static int mix(int hash) {
+            int mixed = hash * 0x9E3779B9;
+            return mixed ^ (mixed >>> 16);
+        }
+
+        private static int mix(int first, int second) {
+            return mix(first * 0x9E3779B9 + second);
+        }
+
+        /**
+         * Ranks the terms and selects {@code limit} of them. The cutoff starts
+         * at the score of the {@code RANK_FACTOR * limit}-th best word: only
+         * phrases that could reach it are counted, and only terms above it are
+         * sorted and turned into strings. Another round with a lower cutoff
+         * follows only if the skipping rules use them all up.
+         */
+        private List<String> top(int limit, double sentences) {
+            int wordCount = words.size();
+            double[] wordScores = new double[wordCount];
+            int scored = 0;
+            for (int word = 0; word < wordCount; word++) {
+                if ((kind(word) & LONG) == 0) {
+                    wordScores[word] = Double.NaN;
+                    continue;
+                }
+                wordScores[word] = score(words, word, sentences, false);
+                scored++;
+            }
+
+            for (int share = Math.max(limit, 1) * RANK_FACTOR; ; share *= 2) {
+                double threshold = share >= scored ? Double.NEGATIVE_INFINITY : kthLargest(wordScores, share);
+                countPhrases(threshold, sentences);
+
+                List<Ranked> ranked = new ArrayList<>();
+                for (int word = 0; word < wordCount; word++) {
+                    if (wordScores[word] >= threshold) {
+                        ranked.add(new Ranked(word, wordScores[word], wordKeys[word]));
+                    }
+                }
+                for (int phrase = 0; phrase < phrases.size(); phrase++) {
+                    double score = score(phrases, phrase, sentences, true);
+                    if (score >= threshold) {
+                        ranked.add(new Ranked(wordCount + phrase, score, wordKeys[phrases.get(phrase, FIRST_WORD)]
+                                + " " + wordKeys[phrases.get(phrase, SECOND_WORD)]));
+                    }
+                }
+                ranked.sort(Comparator.comparingDouble(Ranked::score).reversed().thenComparing(Ranked::key));
+
+                List<String> selected = select(ranked, limit);
+                if (selected != null || share >= scored) {
+                    return selected != null ? selected : select(ranked, ranked.size());
+                }
+            }
+        }
+
+        private static double score(Stats stats, int term, double sentences, boolean phrase) {
+            int frequency = stats.get(term, Stats.FREQUENCY);
+            double score = frequency * Math.log(1 + sentences / stats.get(term, Stats.SENTENCE_FREQUENCY));
+            if (phrase && frequency > 1) {
+                score *= PHRASE_BOOST;
+            }
+            if ((stats.get(term, Stats.FLAGS) & Stats.INTRODUCED) != 0) {
+                score *= INTRODUCED_BOOST;
+            }
+            return score;
+        }
+
+        /**
+         * Applies the skipping rules in rank order; returns {@code null} when
+         * the ranked terms run out before {@code limit} are selected.
+         */
+        private List<String> select(List<Ranked> ranked, int limit) {
+            List<String> selected = new ArrayList<>();
+            int[] covered = new int[words.size()];
+            for (Ranked term : ranked) {
+                if (selected.size() >= limit) {
+                    return selected;
+                }
+                if (term.id() < words.size()) {
+                    int word = term.id();
+                    int frequency = words.get(word, Stats.FREQUENCY);
+                    if (covered[word] >= frequency) {
+                        continue;
+                    }
+                    covered[word] = frequency;
+                    selected.add(surface(word, words.get(word, Stats.SURFACE)));
+                } else {
+                    int phrase = term.id() - words.size();
+                    int first = phrases.get(phrase, FIRST_WORD);
+                    int second = phrases.get(phrase, SECOND_WORD);
+                    if (covered[first] > 0 && covered[second] > 0) {
+                        continue;
+                    }
+                    int frequency = phrases.get(phrase, Stats.FREQUENCY);
+                    covered[first] = Math.max(covered[first], frequency);
+                    covered[second] = Math.max(covered[second], frequency);
+                    selected.add(surface(first, phrases.get(phrase, Stats.SURFACE)) + " "
+                            + surface(second, phrases.get(phrase, SECOND_SURFACE)));
+                }
+            }
+            return selected.size() >= limit ? selected : null;
+        }
+
+        private String surface(int word, int start) {
+            return text.substring(start, start + wordKeys[word].length());
+        }
+
+        /**
+         * The {@code k}-th largest score, found with a bounded min-heap.
+         */
+        private static double kthLargest(double[] scores, int k) {
+            double[] heap = new double[k];
+            int size = 0;
+            for (double score : scores) {
+                if (Double.isNaN(score)) {
+                    continue;
+                }
+                if (size < k) {
+                    heap[size] = score;
+                    for (int i = size++; i > 0 && heap[(i - 1) / 2] > heap[i]; i = (i - 1) / 2) {
+                        double swap = heap[i];
+                        heap[i] = heap[(i - 1) / 2];
+                        heap[(i - 1) / 2] = swap;
+                    }
+                } else if (score > heap[0]) {
+                    heap[0] = score;
+                    for (int i = 0; ; ) {
+                        int smallest = i;
+                        int left = 2 * i + 1;
+                        int right = left + 1;
+                        if (left < k && heap[left] < heap[smallest]) {
+                            smallest = left;
+                        }
+                        if (right < k && heap[right] < heap[smallest]) {
+                            smallest = right;
+                        }
+                        if (smallest == i) {
+                            break;
+                        }
+                        double swap = heap[i];
+                        heap[i] = heap[smallest];
+                        heap[smallest] = swap;
+                        i = smallest;
+                    }
+                }
+            }
+            return heap[0];
+        }
+    }
+
+    /**
+     * Per-term counters in fixed-size blocks of one int array, so counting an
+     * occurrence touches a single cache line. {@code SURFACE} is the offset of
+     * the spelling shown for the term (of its first word, for a phrase),
+     * preferring one used mid-sentence, where capitalization means something.
+     */
+    private static final class Stats {
+        static final int FREQUENCY = 0;
+        static final int SENTENCE_FREQUENCY = 1;
+        static final int LAST_SENTENCE = 2;
+        static final int SURFACE = 3;
+        static final int FLAGS = 4;
+        static final int FIELDS = 5;
+        private static final int BLOCK = 8;
+
+        static final int INTRODUCED = 1;
+        private static final int SURFACE_INITIAL = 2;
+
+        private int[] values = new int[256 * BLOCK];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        int add() {
+            if ((size + 1) * BLOCK > values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            return size++;
+        }
+
+        int get(int id, int field) {
+            return values[id * BLOCK + field];
+        }
+
+        void set(int id, int field, int value) {
+            values[id * BLOCK + field] = value;
+        }
+
+        /**
+         * Counts an occurrence; returns whether {@code surface} became the
+         * term's surface.
+         */
+        boolean count(int id, int sentence, int surface, boolean sentenceInitial, boolean introduced) {
+            int block = id * BLOCK;
+            boolean surfaced = false;
+            if (values[block + FREQUENCY]++ == 0) {
+                values[block + SENTENCE_FREQUENCY] = 1;
+                values[block + LAST_SENTENCE] = sentence;
+                values[block + SURFACE] = surface;
+                values[block + FLAGS] = sentenceInitial ? SURFACE_INITIAL : 0;
+                surfaced = true;
+            } else {
+                if (values[block + LAST_SENTENCE] != sentence) {
+                    values[block + LAST_SENTENCE] = sentence;
+                    values[block + SENTENCE_FREQUENCY]++;
+                }
+                if ((values[block + FLAGS] & SURFACE_INITIAL) != 0 && !sentenceInitial) {
+                    values[block + SURFACE] = surface;
+                    values[block + FLAGS] &= ~SURFACE_INITIAL;
+                    surfaced = true;
+                }
+            }
+            if (introduced) {
+                values[block + FLAGS] |= INTRODUCED;
+            }
+            return surfaced;
+        }
+    }
+
+    private record Ranked(int id, double score, String key) {
+    }
+}
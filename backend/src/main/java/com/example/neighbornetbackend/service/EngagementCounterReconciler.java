@@ -0,0 +1,47 @@
+package com.example.neighbornetbackend.service;
+
+import com.example.neighbornetbackend.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Recomputes the post and comment engagement counters from the underlying
+ * like, comment and share rows. Counters are maintained incrementally on
+ * every write; this only repairs drift from bulk deletes (e.g. account
+ * removal) and fills the columns the first time they are added.
+ */
+@Service
+public class EngagementCounterReconciler {
+    private static final Logger logger = LoggerFactory.getLogger(EngagementCounterReconciler.class);
+
+    private final PostRepository postRepository;
+
+    public EngagementCounterReconciler(PostRepository postRepository) {
+        this.postRepository = postRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        reconcile();
+    }
+
+    @Scheduled(cron = "${app.posts.counter-reconcile-cron:0 15 4 * * *}")
+    public void reconcile() {
+        try {
+            long start = System.currentTimeMillis();
+            int likes = postRepository.reconcileLikeCounts();
+            int comments = postRepository.reconcileCommentCounts();
+            int shares = postRepository.reconcileShareCounts();
+            int commentLikes = postRepository.reconcileCommentLikeCounts();
+
+            logger.info("Reconciled engagement counters in {} ms (corrected {} like, {} comment, {} share, {} comment-like counts)",
+                    System.currentTimeMillis() - start, likes, comments, shares, commentLikes);
+        } catch (Exception e) {
+            logger.error("Error reconciling engagement counters: {}", e.getMessage());
+        }
+    }
+}
@@ -1,40 +1,22 @@
 package com.example.neighbornetbackend.service;
 
-import com.google.firebase.messaging.FirebaseMessaging;
-import com.google.firebase.messaging.Message;
-import com.google.firebase.messaging.Notification;
 import org.springframework.stereotype.Service;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class FCMService {
-    private final FirebaseMessaging firebaseMessaging;
+    private final FcmPushDispatcher pushDispatcher;
 
-    private final Logger logger = LoggerFactory.getLogger(FCMService.class);
-
-    public FCMService(FirebaseMessaging firebaseMessaging) {
-        this.firebaseMessaging = firebaseMessaging;
+    public FCMService(FcmPushDispatcher pushDispatcher) {
+        this.pushDispatcher = pushDispatcher;
     }
 
-    public void sendNotification(String token, String title, String body, String type) {
-        try {
-            Message message = Message.builder()
-                    .setToken(token)
-                    .setNotification(Notification.builder()
-                            .setTitle(title)
-                            .setBody(body)
-                            .build())
-                    .putData("type", type)
-                    .build();
-
-            String response = firebaseMessaging.send(message);
-            logger.info("Successfully sent notification: {}", response);
-        } catch (Exception e) {
-            logger.error("Failed to send FCM notification", e);
-        }
+    public CompletableFuture<Boolean> sendNotification(String token, String title, String body, String type) {
+        return pushDispatcher.submit(token, type, title, body, Map.of("type", type));
     }
 
     public void sendChatNotification(String token, String senderName, String message) {
@@ -42,20 +24,23 @@ public class FCMService {
         data.put("type", "CHAT_MESSAGE");
         data.put("senderName", senderName);
 
-        try {
-            Message fcmMessage = Message.builder()
-                    .setToken(token)
-                    .setNotification(Notification.builder()
-                            .setTitle("New message from " + senderName)
-                            .setBody(message)
-                            .build())
-                    .putAllData(data)
-                    .build();
-
-            String response = firebaseMessaging.send(fcmMessage);
-            logger.info("Successfully sent chat notification: {}", response);
-        } catch (Exception e) {
-            logger.error("Failed to send chat notification", e);
+        // Messages from different senders stay separate pushes
+        pushDispatcher.submit(token, "CHAT_MESSAGE:" + senderName, "New message from " + senderName, message, data);
+    }
+
+    /**
+     * Queues the pushes; each future completes once FCM has answered for that
+     * push (see {@link FcmPushDispatcher#submit}).
+     */
+    public List<CompletableFuture<Boolean>> sendNotifications(List<PushNotification> notifications) {
+        List<CompletableFuture<Boolean>> completions = new ArrayList<>(notifications.size());
+        for (PushNotification notification : notifications) {
+            completions.add(sendNotification(
+                    notification.token(), notification.title(), notification.body(), notification.type()));
         }
+        return completions;
+    }
+
+    public record PushNotification(String token, String title, String body, String type) {
     }
-}
\ No newline at end of file
+}
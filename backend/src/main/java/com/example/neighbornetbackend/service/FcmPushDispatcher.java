@@ -0,0 +1,271 @@
+package com.example.neighbornetbackend.service;
+
+import com.example.neighbornetbackend.repository.UserRepository;
+import com.google.firebase.messaging.BatchResponse;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.google.firebase.messaging.Notification;
+import com.google.firebase.messaging.SendResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends FCM pushes in bulk. Pushes are held per device token and collapse key
+ * (the notification type, or the conversation for chat messages) for a short
+ * window; if more arrive for the same token and key in that window only the
+ * latest is sent, carrying the number of pushes it replaces in its
+ * {@code count} data field. Pushes with different keys are all delivered. Each flush sends the pending pushes with {@code sendEach} in batches
+ * of up to 500 and clears tokens FCM reports as no longer registered.
+ *
+ * <p>{@link #submit} returns a future that completes once FCM has answered
+ * for the push, or for the push that replaced it, so callers such as the
+ * notification outbox can record delivery.</p>
+ */
+@Component
+public class FcmPushDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(FcmPushDispatcher.class);
+
+    // FCM accepts at most 500 messages per sendEach call
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final FirebaseMessaging firebaseMessaging;
+    private final UserRepository userRepository;
+    private final Map<PushKey, PendingPush> pending = new ConcurrentHashMap<>();
+
+    private final Counter submittedCounter;
+    private final Counter coalescedCounter;
+    private final Counter droppedCounter;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter invalidTokenCounter;
+    private final Timer sendTimer;
+
+    @Value("${app.push.coalesce-window-ms:250}")
+    private long coalesceWindowMs;
+
+    @Value("${app.push.max-pending:50000}")
+    private int maxPending;
+
+    private ScheduledExecutorService flusher;
+
+    public FcmPushDispatcher(FirebaseMessaging firebaseMessaging,
+                             UserRepository userRepository,
+                             MeterRegistry meterRegistry) {
+        this.firebaseMessaging = firebaseMessaging;
+        this.userRepository = userRepository;
+
+        meterRegistry.gaugeMapSize("push.pending", List.of(), pending);
+        this.submittedCounter = meterRegistry.counter("push.submitted");
+        this.coalescedCounter = meterRegistry.counter("push.coalesced");
+        this.droppedCounter = meterRegistry.counter("push.dropped");
+        this.sentCounter = meterRegistry.counter("push.sent");
+        this.failedCounter = meterRegistry.counter("push.failed");
+        this.invalidTokenCounter = meterRegistry.counter("push.invalid_tokens");
+        this.sendTimer = meterRegistry.timer("push.send");
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "FcmPushDispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushSafely, coalesceWindowMs, coalesceWindowMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a push; a later push with the same {@code token} and
+     * {@code collapseKey} inside the coalescing window replaces it. The
+     * returned future completes with {@code true} once FCM has accepted the
+     * push or rejected it for good (an unregistered token, an invalid
+     * message), and with {@code false} if it was dropped or kept failing.
+     */
+    public CompletableFuture<Boolean> submit(String token, String collapseKey, String title, String body,
+                                             Map<String, String> data) {
+        if (token == null || token.isEmpty()) {
+            return CompletableFuture.completedFuture(false);
+        }
+        PushKey key = new PushKey(token, collapseKey);
+        if (pending.size() >= maxPending && !pending.containsKey(key)) {
+            droppedCounter.increment();
+            logger.warn("Push queue full, dropped push for token");
+            return CompletableFuture.completedFuture(false);
+        }
+        submittedCounter.increment();
+        CompletableFuture<Boolean> completion = new CompletableFuture<>();
+        pending.merge(key, new PendingPush(key, title, body, data, 1, 0, List.of(completion)), (previous, latest) -> {
+            coalescedCounter.increment();
+            return new PendingPush(key, latest.title(), latest.body(), latest.data(),
+                    previous.count() + latest.count(), 0, concat(previous.completions(), latest.completions()));
+        });
+        return completion;
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Error flushing push notifications: {}", e.getMessage());
+        }
+    }
+
+    void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<PendingPush> batch = new ArrayList<>();
+        for (PushKey key : pending.keySet()) {
+            PendingPush push = pending.remove(key);
+            if (push != null) {
+                batch.add(push);
+            }
+        }
+
+        for (int from = 0; from < batch.size(); from += MAX_BATCH_SIZE) {
+            send(batch.subList(from, Math.min(from + MAX_BATCH_SIZE, batch.size())));
+        }
+    }
+
+    private void send(List<PendingPush> pushes) {
+        List<Message> messages = new ArrayList<>(pushes.size());
+        for (PendingPush push : pushes) {
+            messages.add(toMessage(push));
+        }
+
+        BatchResponse response;
+        Timer.Sample sample = Timer.start();
+        try {
+            response = firebaseMessaging.sendEach(messages);
+        } catch (FirebaseMessagingException e) {
+            logger.error("Failed to send {} push notifications: {}", pushes.size(), e.getMessage());
+            pushes.forEach(this::retryOrFail);
+            return;
+        } catch (RuntimeException e) {
+            pushes.forEach(push -> complete(push, false));
+            throw e;
+        } finally {
+            sample.stop(sendTimer);
+        }
+
+        Set<String> invalidTokens = new HashSet<>();
+        List<SendResponse> responses = response.getResponses();
+        for (int i = 0; i < responses.size(); i++) {
+            SendResponse sendResponse = responses.get(i);
+            PendingPush push = pushes.get(i);
+            if (sendResponse.isSuccessful()) {
+                sentCounter.increment();
+                complete(push, true);
+                continue;
+            }
+            MessagingErrorCode errorCode = sendResponse.getException() != null
+                    ? sendResponse.getException().getMessagingErrorCode()
+                    : null;
+            if (errorCode == MessagingErrorCode.UNREGISTERED || errorCode == MessagingErrorCode.SENDER_ID_MISMATCH) {
+                invalidTokens.add(push.key().token());
+                complete(push, true);
+            } else if (errorCode == MessagingErrorCode.UNAVAILABLE || errorCode == MessagingErrorCode.INTERNAL
+                    || errorCode == MessagingErrorCode.QUOTA_EXCEEDED) {
+                retryOrFail(push);
+            } else {
+                failedCounter.increment();
+                complete(push, true);
+                logger.debug("Push notification rejected: {}", errorCode);
+            }
+        }
+
+        if (!invalidTokens.isEmpty()) {
+            invalidTokenCounter.increment(invalidTokens.size());
+            failedCounter.increment(invalidTokens.size());
+            try {
+                int cleared = userRepository.clearFcmTokens(invalidTokens);
+                logger.info("Cleared {} unregistered FCM tokens", cleared);
+            } catch (Exception e) {
+                logger.error("Error clearing unregistered FCM tokens: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Puts a transiently failed push back for the next flush, unless a newer
+     * push for the same token and collapse key has arrived in the meantime.
+     */
+    private void retryOrFail(PendingPush push) {
+        if (push.attempts() + 1 >= MAX_ATTEMPTS) {
+            failedCounter.increment();
+            complete(push, false);
+            return;
+        }
+        PendingPush retry = new PendingPush(push.key(), push.title(), push.body(), push.data(),
+                push.count(), push.attempts() + 1, push.completions());
+        // A newer push takes over the waiting callers
+        pending.merge(push.key(), retry, (newer, failed) -> new PendingPush(newer.key(), newer.title(), newer.body(),
+                newer.data(), newer.count(), newer.attempts(), concat(failed.completions(), newer.completions())));
+    }
+
+    private static void complete(PendingPush push, boolean settled) {
+        push.completions().forEach(completion -> completion.complete(settled));
+    }
+
+    private static <T> List<T> concat(List<T> first, List<T> second) {
+        List<T> combined = new ArrayList<>(first.size() + second.size());
+        combined.addAll(first);
+        combined.addAll(second);
+        return combined;
+    }
+
+    private static Message toMessage(PendingPush push) {
+        Message.Builder builder = Message.builder()
+                .setToken(push.key().token())
+                .setNotification(Notification.builder()
+                        .setTitle(push.title())
+                        .setBody(push.body())
+                        .build());
+        if (push.data() != null) {
+            builder.putAllData(push.data());
+        }
+        if (push.count() > 1) {
+            builder.putData("count", String.valueOf(push.count()));
+        }
+        return builder.build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushSafely();
+    }
+
+    private record PushKey(String token, String collapseKey) {
+    }
+
+    private record PendingPush(PushKey key, String title, String body, Map<String, String> data,
+                               int count, int attempts, List<CompletableFuture<Boolean>> completions) {
+    }
+}
@@ -1,7 +1,13 @@
 package com.example.neighbornetbackend.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.xslf.usermodel.XMLSlideShow;
 import org.apache.poi.xslf.usermodel.XSLFShape;
 import org.apache.poi.xslf.usermodel.XSLFSlide;
@@ -10,72 +16,192 @@ import org.apache.poi.xwpf.usermodel.XWPFDocument;
 import org.apache.poi.xwpf.usermodel.XWPFParagraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+/**
+ * Extracts text from uploaded PDF, DOCX, PPTX and plain-text files. Text is
+ * produced as a sequence of chunks (page ranges, paragraphs, slides) and
+ * extraction stops as soon as {@code app.extraction.max-chars} characters have
+ * been collected, so the rest of a long document is never parsed.
+ *
+ * <p>Uploads are copied to a temp file and parsed from there. PDFs are loaded
+ * with temp-file-only buffering and split into ranges of
+ * {@code app.extraction.pages-per-task} pages, stripped on a bounded pool of
+ * {@code app.extraction.workers} threads, each worker opening its own copy of
+ * the document since PDFBox documents are not thread-safe. Results are cached
+ * by the SHA-256 of the file content, so uploading the same document again
+ * returns immediately.</p>
+ */
 @Service
 public class FileProcessingService {
     private static final Logger logger = LoggerFactory.getLogger(FileProcessingService.class);
 
+    private static final String PDF = "application/pdf";
+    private static final String DOCX = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+    private static final String PPTX = "application/vnd.openxmlformats-officedocument.presentationml.presentation";
+    private static final String TEXT = "text/plain";
+
+    @Value("${app.extraction.max-chars:50000}")
+    private int maxChars;
+
+    @Value("${app.extraction.workers:2}")
+    private int workers;
+
+    @Value("${app.extraction.pages-per-task:10}")
+    private int pagesPerTask;
+
+    @Value("${app.extraction.cache-max-chars:20000000}")
+    private long cacheMaxChars;
+
+    private final AsyncTaskExecutor executor;
+    private Cache<String, ExtractedText> results;
+
+    public FileProcessingService(@Qualifier("textExtractionExecutor") AsyncTaskExecutor executor) {
+        this.executor = executor;
+    }
+
+    @PostConstruct
+    public void init() {
+        results = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxChars)
+                .weigher((String key, ExtractedText text) -> Math.max(1, text.length()))
+                .build();
+    }
+
     public String extractTextFromFile(MultipartFile file) {
+        return extract(file).content();
+    }
+
+    public ExtractedText extract(MultipartFile file) {
         String fileName = file.getOriginalFilename();
-        try {
-            String contentType = file.getContentType();
-            InputStream inputStream = file.getInputStream();
+        String contentType = file.getContentType();
+        if (contentType == null) {
+            return ExtractedText.message("Could not determine file type");
+        }
+        if (!contentType.equals(PDF) && !contentType.equals(DOCX) && !contentType.equals(PPTX) && !contentType.equals(TEXT)) {
+            return ExtractedText.message("Unsupported file type: " + contentType);
+        }
 
-            if (contentType == null) {
-                return "Could not determine file type";
+        Path temp = null;
+        try {
+            temp = Files.createTempFile("extract-", ".upload");
+            String key = copyAndHash(file, temp) + ":" + maxChars;
+            ExtractedText cached = results.getIfPresent(key);
+            if (cached != null) {
+                logger.debug("Returning cached text for {}", fileName);
+                return cached;
             }
 
-            if (contentType.equals("application/pdf")) {
-                return extractTextFromPdf(inputStream);
-            } else if (contentType.equals("application/vnd.openxmlformats-officedocument.wordprocessingml.document")) {
-                return extractTextFromDocx(inputStream);
-            } else if (contentType.equals("application/vnd.openxmlformats-officedocument.presentationml.presentation")) {
-                return extractTextFromPptx(inputStream);
-            } else if (contentType.equals("text/plain")) {
-                return new String(file.getBytes());
-            } else {
-                return "Unsupported file type: " + contentType;
+            TextSink sink = new TextSink(maxChars);
+            switch (contentType) {
+                case PDF -> extractTextFromPdf(temp.toFile(), sink);
+                case DOCX -> extractTextFromDocx(temp.toFile(), sink);
+                case PPTX -> extractTextFromPptx(temp.toFile(), sink);
+                default -> extractPlainText(temp, sink);
             }
+            ExtractedText result = sink.result();
+            results.put(key, result);
+            return result;
         } catch (Exception e) {
             logger.error("Error extracting text from file: " + fileName, e);
-            return "Failed to process file: " + e.getMessage();
+            return ExtractedText.message("Failed to process file: " + e.getMessage());
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    logger.warn("Could not delete temp file {}: {}", temp, e.getMessage());
+                }
+            }
         }
     }
 
-    private String extractTextFromPdf(InputStream inputStream) throws Exception {
-        try (PDDocument document = PDDocument.load(inputStream)) {
+    /**
+     * Strips page ranges in parallel, keeping at most two ranges per worker in
+     * flight and consuming them in page order, so nothing past the character
+     * cap is parsed.
+     */
+    private void extractTextFromPdf(File file, TextSink sink) throws Exception {
+        int pageCount;
+        try (PDDocument document = PDDocument.load(file, MemoryUsageSetting.setupTempFileOnly())) {
+            pageCount = document.getNumberOfPages();
+        }
+
+        Deque<Future<String>> inFlight = new ArrayDeque<>();
+        int nextPage = 1;
+        try {
+            while (nextPage <= pageCount || !inFlight.isEmpty()) {
+                while (nextPage <= pageCount && inFlight.size() < workers * 2) {
+                    int startPage = nextPage;
+                    int endPage = Math.min(pageCount, startPage + pagesPerTask - 1);
+                    inFlight.add(executor.submit(() -> stripPages(file, startPage, endPage)));
+                    nextPage = endPage + 1;
+                }
+                if (!sink.append(await(inFlight.poll()))) {
+                    return;
+                }
+            }
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private static String stripPages(File file, int startPage, int endPage) throws IOException {
+        try (PDDocument document = PDDocument.load(file, MemoryUsageSetting.setupTempFileOnly())) {
             PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setStartPage(startPage);
+            stripper.setEndPage(endPage);
             return stripper.getText(document);
         }
     }
 
-    private String extractTextFromDocx(InputStream inputStream) throws Exception {
-        try (XWPFDocument document = new XWPFDocument(inputStream)) {
-            List<XWPFParagraph> paragraphs = document.getParagraphs();
-
-            return paragraphs.stream()
-                    .map(XWPFParagraph::getText)
-                    .filter(text -> !text.trim().isEmpty())
-                    .collect(Collectors.joining("\n"));
+    private void extractTextFromDocx(File file, TextSink sink) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ);
+             XWPFDocument document = new XWPFDocument(pkg)) {
+            for (XWPFParagraph paragraph : document.getParagraphs()) {
+                String text = paragraph.getText();
+                if (text.trim().isEmpty()) {
+                    continue;
+                }
+                if (!sink.append(sink.isEmpty() ? text : "\n" + text)) {
+                    return;
+                }
+            }
         }
     }
 
-    private String extractTextFromPptx(InputStream inputStream) throws Exception {
-        try (XMLSlideShow ppt = new XMLSlideShow(inputStream)) {
-            StringBuilder sb = new StringBuilder();
-
+    private void extractTextFromPptx(File file, TextSink sink) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ);
+             XMLSlideShow ppt = new XMLSlideShow(pkg)) {
             for (XSLFSlide slide : ppt.getSlides()) {
+                StringBuilder sb = new StringBuilder();
                 sb.append("--- Slide ").append(slide.getSlideNumber()).append(" ---\n");
 
                 for (XSLFShape shape : slide.getShapes()) {
-                    if (shape instanceof XSLFTextShape) {
-                        XSLFTextShape textShape = (XSLFTextShape) shape;
+                    if (shape instanceof XSLFTextShape textShape) {
                         String text = textShape.getText();
                         if (text != null && !text.trim().isEmpty()) {
                             sb.append(text).append("\n");
@@ -83,9 +209,117 @@ public class FileProcessingService {
                     }
                 }
                 sb.append("\n");
+
+                if (!sink.append(sb.toString())) {
+                    return;
+                }
             }
+        }
+    }
+
+    /**
+     * Decodes as UTF-8, replacing malformed bytes rather than failing, since
+     * uploaded .txt files are often Latin-1 or Windows-1252.
+     */
+    private void extractPlainText(Path file, TextSink sink) throws IOException {
+        try (Reader reader = new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8)) {
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                if (!sink.append(new String(buffer, 0, read))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the upload to {@code target} and returns the SHA-256 of its
+     * content, reading it once.
+     */
+    private static String copyAndHash(MultipartFile file, Path target) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = file.getInputStream();
+             OutputStream out = Files.newOutputStream(target)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static <T> T await(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    /**
+     * Extracted text as the chunks it was produced in. {@code truncated} is
+     * set when the document held more text than the character cap.
+     */
+    public record ExtractedText(List<String> chunks, boolean truncated) {
+        static ExtractedText message(String message) {
+            return new ExtractedText(List.of(message), false);
+        }
+
+        public String content() {
+            return String.join("", chunks);
+        }
+
+        public int length() {
+            return chunks.stream().mapToInt(String::length).sum();
+        }
+    }
+
+    /**
+     * Collects chunks up to a character cap; {@link #append} returns false
+     * once the cap is reached.
+     */
+    private static final class TextSink {
+        private final int maxChars;
+        private final List<String> chunks = new ArrayList<>();
+        private int length;
+        private boolean truncated;
+
+        private TextSink(int maxChars) {
+            this.maxChars = maxChars;
+        }
+
+        boolean append(String text) {
+            if (text == null || text.isEmpty()) {
+                return true;
+            }
+            int remaining = maxChars - length;
+            if (text.length() > remaining) {
+                if (remaining > 0) {
+                    chunks.add(text.substring(0, remaining));
+                    length = maxChars;
+                }
+                truncated = true;
+                return false;
+            }
+            chunks.add(text);
+            length += text.length();
+            return true;
+        }
+
+        boolean isEmpty() {
+            return length == 0;
+        }
 
-            return sb.toString();
+        ExtractedText result() {
+            return new ExtractedText(List.copyOf(chunks), truncated);
         }
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,5 @@
 package com.example.neighbornetbackend.service;
 
-import com.google.cloud.storage.BlobId;
-import com.google.cloud.storage.BlobInfo;
 import com.google.cloud.storage.Storage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,37 +7,26 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.UUID;
 
 @Service
 public class FileStorageService {
     private final Storage storage;
     private final String bucketName;
+    private final ImageDerivativeService imageDerivativeService;
 
     @Value("${gcp.storage.public-url:https://storage.googleapis.com}")
     private String publicUrl;
 
     @Autowired
-    public FileStorageService(Storage storage, @Value("${gcp.storage.bucket-name}") String bucketName) {
+    public FileStorageService(Storage storage, @Value("${gcp.storage.bucket-name}") String bucketName,
+                              ImageDerivativeService imageDerivativeService) {
         this.storage = storage;
         this.bucketName = bucketName;
+        this.imageDerivativeService = imageDerivativeService;
     }
 
     public String storeFile(MultipartFile file) throws IOException {
-        String originalFilename = file.getOriginalFilename();
-        String fileExtension = originalFilename != null ?
-                originalFilename.substring(originalFilename.lastIndexOf(".")) : ".jpg";
-        String filename = UUID.randomUUID().toString() + fileExtension;
-        String objectName = "thumbnails/" + filename;
-
-        BlobId blobId = BlobId.of(bucketName, objectName);
-        BlobInfo blobInfo = BlobInfo.newBuilder(blobId)
-                .setContentType(file.getContentType())
-                .build();
-
-        storage.create(blobInfo, file.getBytes());
-
-        return "/api/classes/thumbnail/" + filename;
+        return imageDerivativeService.store(file, "thumbnails/", "/api/classes/thumbnail/");
     }
 
     public String getThumbnailUrl(String filename) {
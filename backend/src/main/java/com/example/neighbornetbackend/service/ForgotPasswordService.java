@@ -5,6 +5,7 @@ import com.example.neighbornetbackend.model.EmailVerificationToken;
 import com.example.neighbornetbackend.model.User;
 import com.example.neighbornetbackend.repository.EmailVerificationTokenRepository;
 import com.example.neighbornetbackend.repository.UserRepository;
+import com.example.neighbornetbackend.security.PrincipalCache;
 import jakarta.mail.MessagingException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -22,17 +23,20 @@ public class ForgotPasswordService {
     private final EmailVerificationService emailVerificationService;
     private final PasswordEncoder passwordEncoder;
     private final EmailVerificationTokenRepository tokenRepository;
+    private final PrincipalCache principalCache;
 
     public ForgotPasswordService(
             UserRepository userRepository,
             EmailService emailService,
             EmailVerificationService emailVerificationService,
-            PasswordEncoder passwordEncoder, EmailVerificationTokenRepository tokenRepository) {
+            PasswordEncoder passwordEncoder, EmailVerificationTokenRepository tokenRepository,
+            PrincipalCache principalCache) {
         this.userRepository = userRepository;
         this.emailService = emailService;
         this.emailVerificationService = emailVerificationService;
         this.passwordEncoder = passwordEncoder;
         this.tokenRepository = tokenRepository;
+        this.principalCache = principalCache;
     }
 
     @Transactional
@@ -108,6 +112,7 @@ public class ForgotPasswordService {
 
             user.setPassword(passwordEncoder.encode(newPassword));
             userRepository.save(user);
+            principalCache.invalidate(user);
 
             token.setVerified(true);
             tokenRepository.save(token);
@@ -40,27 +40,61 @@ public class GeminiService {
     }
 
     public QuizRequest generateQuiz(QuizGenerationRequest request) {
+        return generate(request).quiz();
+    }
+
+    /**
+     * Generates a quiz with Gemini, falling back to {@link LocalQuizGenerator}
+     * when the API is not configured or the call fails.
+     */
+    public GeneratedQuiz generate(QuizGenerationRequest request) {
         if (geminiConfig.getApiKey().isEmpty()) {
             logger.info("Gemini API key not configured. Using local quiz generation.");
-            return localQuizGenerator.generateLocalQuiz(request);
+            return new GeneratedQuiz(localQuizGenerator.generateLocalQuiz(request), false);
         }
 
         try {
             // Try to use Gemini API first
             logger.info("Attempting to generate quiz using Gemini API");
-            return generateQuizWithGemini(request);
+            return new GeneratedQuiz(generateQuizWithGemini(request), true);
         } catch (RestClientException e) {
             logger.warn("Gemini API request failed: {}", e.getMessage());
             logger.info("Using fallback local quiz generation");
-            return localQuizGenerator.generateLocalQuiz(request);
+            return new GeneratedQuiz(localQuizGenerator.generateLocalQuiz(request), false);
         } catch (Exception e) {
             logger.error("Unexpected error during quiz generation", e);
-            return localQuizGenerator.generateLocalQuiz(request);
+            return new GeneratedQuiz(localQuizGenerator.generateLocalQuiz(request), false);
+        }
+    }
+
+    public boolean isConfigured() {
+        return !geminiConfig.getApiKey().isEmpty();
+    }
+
+    /**
+     * Asks Gemini for questions grounded in {@code excerpt}. Unlike
+     * {@link #generateQuiz}, there is no local fallback: failures are thrown
+     * so callers combining several excerpts can tell which ones failed.
+     */
+    public List<QuestionRequest> generateQuestionsFromExcerpt(String excerpt, int numberOfQuestions,
+                                                              String difficulty, String quizType) {
+        if (!isConfigured()) {
+            throw new IllegalStateException("Gemini API key not configured");
+        }
+        String responseBody = callGemini(buildExcerptPrompt(excerpt, numberOfQuestions, difficulty, quizType));
+        try {
+            JsonNode questionsNode = objectMapper.readTree(extractResponseText(responseBody).trim()).get("questions");
+            return questionsNode != null ? parseQuestions(questionsNode) : List.of();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse Gemini response", e);
         }
     }
 
     private QuizRequest generateQuizWithGemini(QuizGenerationRequest request) {
-        String prompt = buildPrompt(request);
+        return processGeminiResponse(callGemini(buildPrompt(request)), request);
+    }
+
+    private String callGemini(String prompt) {
         String apiKey = geminiConfig.getApiKey();
         String url = geminiConfig.getApiUrl() + "?key=" + apiKey;
 
@@ -88,12 +122,36 @@ public class GeminiService {
 
         HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
 
+        // The URL carries the API key, so only the endpoint is logged
+        logger.info("Calling Gemini API at URL: {}", geminiConfig.getApiUrl());
         ResponseEntity<String> response = restTemplate.postForEntity(url, entity, String.class);
 
-        logger.info("Calling Gemini API at URL: {}", url);
-        logger.info("Using model: gemini-pro");
+        return response.getBody();
+    }
+
+    private String buildExcerptPrompt(String excerpt, int numberOfQuestions, String difficulty, String quizType) {
+        String questionType = quizType != null ? quizType : "mixed";
 
-        return processGeminiResponse(response.getBody(), request);
+        return "Using only the information in the excerpt below, create " + numberOfQuestions + " " + questionType +
+                " quiz questions at " + difficulty + " difficulty level.\n" +
+                "Each question must be answerable from the excerpt alone.\n\n" +
+                "Excerpt:\n\"\"\"\n" + excerpt + "\n\"\"\"\n\n" +
+                "Each question should include the question text, its type (MULTIPLE_CHOICE, TRUE_FALSE, or ESSAY), " +
+                "four options for multiple choice questions, two options for true/false questions, " +
+                "a clear correct answer and a 1-2 sentence explanation.\n\n" +
+                "Format your response as a JSON object with this structure:\n" +
+                "{\n" +
+                "  \"questions\": [\n" +
+                "    {\n" +
+                "      \"content\": \"[Question text]\",\n" +
+                "      \"type\": \"[MULTIPLE_CHOICE or TRUE_FALSE or ESSAY]\",\n" +
+                "      \"points\": 1,\n" +
+                "      \"options\": [\"option1\", \"option2\", \"option3\", \"option4\"],\n" +
+                "      \"correctAnswer\": \"[correct option text]\",\n" +
+                "      \"explanation\": \"[Explanation why this is correct]\"\n" +
+                "    }\n" +
+                "  ]\n" +
+                "}\n";
     }
 
     private String buildPrompt(QuizGenerationRequest request) {
@@ -126,19 +184,28 @@ public class GeminiService {
                 "}\n";
     }
 
+    /**
+     * Returns the generated text of a Gemini response, without any markdown
+     * code fence around it.
+     */
+    private String extractResponseText(String responseBody) throws JsonProcessingException {
+        JsonNode rootNode = objectMapper.readTree(responseBody);
+        String content = rootNode.path("candidates").get(0)
+                .path("content").path("parts").get(0)
+                .path("text").asText();
+
+        // Extract the JSON part from potential markdown code blocks
+        if (content.contains("```json")) {
+            content = content.substring(content.indexOf("```json") + 7, content.lastIndexOf("```"));
+        } else if (content.contains("```")) {
+            content = content.substring(content.indexOf("```") + 3, content.lastIndexOf("```"));
+        }
+        return content;
+    }
+
     private QuizRequest processGeminiResponse(String responseBody, QuizGenerationRequest request) {
         try {
-            JsonNode rootNode = objectMapper.readTree(responseBody);
-            String content = rootNode.path("candidates").get(0)
-                    .path("content").path("parts").get(0)
-                    .path("text").asText();
-
-            // Extract the JSON part from potential markdown code blocks
-            if (content.contains("```json")) {
-                content = content.substring(content.indexOf("```json") + 7, content.lastIndexOf("```"));
-            } else if (content.contains("```")) {
-                content = content.substring(content.indexOf("```") + 3, content.lastIndexOf("```"));
-            }
+            String content = extractResponseText(responseBody);
 
             // Parse the actual JSON content
             try {
@@ -150,50 +217,7 @@ public class GeminiService {
                 quiz.setDescription(quizData.has("description") ? quizData.get("description").asText() :
                         "A " + request.getDifficulty() + " quiz about " + request.getTopic());
 
-                List<QuestionRequest> questions = new ArrayList<>();
-                JsonNode questionsNode = quizData.get("questions");
-
-                for (JsonNode questionNode : questionsNode) {
-                    QuestionRequest question = new QuestionRequest();
-                    question.setContent(questionNode.get("content").asText());
-
-                    String typeStr = questionNode.get("type").asText();
-                    Question.QuestionType type;
-                    if (typeStr.equals("MULTIPLE_CHOICE")) {
-                        type = Question.QuestionType.MULTIPLE_CHOICE;
-                    } else if (typeStr.equals("TRUE_FALSE")) {
-                        type = Question.QuestionType.TRUE_FALSE;
-                    } else {
-                        type = Question.QuestionType.ESSAY;
-                    }
-                    question.setType(type);
-
-                    if (questionNode.has("points")) {
-                        question.setPoints(questionNode.get("points").asInt());
-                    } else {
-                        question.setPoints(1); // Default to 1 point
-                    }
-
-                    if (type != Question.QuestionType.ESSAY && questionNode.has("options")) {
-                        List<String> options = new ArrayList<>();
-                        for (JsonNode option : questionNode.get("options")) {
-                            options.add(option.asText());
-                        }
-                        question.setOptions(options);
-                    }
-
-                    if (questionNode.has("correctAnswer")) {
-                        question.setCorrectAnswer(questionNode.get("correctAnswer").asText());
-                    }
-
-                    if (questionNode.has("explanation")) {
-                        question.setExplanation(questionNode.get("explanation").asText());
-                    }
-
-                    questions.add(question);
-                }
-
-                quiz.setQuestions(questions);
+                quiz.setQuestions(parseQuestions(quizData.get("questions")));
                 return quiz;
             } catch (JsonProcessingException e) {
                 logger.error("Failed to parse Gemini JSON response", e);
@@ -205,4 +229,53 @@ public class GeminiService {
             throw new RuntimeException("Failed to parse Gemini response", e);
         }
     }
-}
\ No newline at end of file
+
+    private List<QuestionRequest> parseQuestions(JsonNode questionsNode) {
+        List<QuestionRequest> questions = new ArrayList<>();
+
+        for (JsonNode questionNode : questionsNode) {
+            QuestionRequest question = new QuestionRequest();
+            question.setContent(questionNode.get("content").asText());
+
+            String typeStr = questionNode.get("type").asText();
+            Question.QuestionType type;
+            if (typeStr.equals("MULTIPLE_CHOICE")) {
+                type = Question.QuestionType.MULTIPLE_CHOICE;
+            } else if (typeStr.equals("TRUE_FALSE")) {
+                type = Question.QuestionType.TRUE_FALSE;
+            } else {
+                type = Question.QuestionType.ESSAY;
+            }
+            question.setType(type);
+
+            if (questionNode.has("points")) {
+                question.setPoints(questionNode.get("points").asInt());
+            } else {
+                question.setPoints(1); // Default to 1 point
+            }
+
+            if (type != Question.QuestionType.ESSAY && questionNode.has("options")) {
+                List<String> options = new ArrayList<>();
+                for (JsonNode option : questionNode.get("options")) {
+                    options.add(option.asText());
+                }
+                question.setOptions(options);
+            }
+
+            if (questionNode.has("correctAnswer")) {
+                question.setCorrectAnswer(questionNode.get("correctAnswer").asText());
+            }
+
+            if (questionNode.has("explanation")) {
+                question.setExplanation(questionNode.get("explanation").asText());
+            }
+
+            questions.add(question);
+        }
+
+        return questions;
+    }
+
+    public record GeneratedQuiz(QuizRequest quiz, boolean fromGemini) {
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.neighbornetbackend.service;
+
+import com.example.neighbornetbackend.model.BorrowingAgreement;
+import com.example.neighbornetbackend.model.CourseClass;
+import com.example.neighbornetbackend.model.Item;
+import com.example.neighbornetbackend.model.Post;
+import com.example.neighbornetbackend.model.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA listener that counts inserted and deleted users, classes, posts, items
+ * and borrowing agreements into the daily growth rollup, by the day each row
+ * was created on. The service is looked up
+ * lazily because listeners are created while the entity manager factory is
+ * still being built.
+ */
+@Component
+public class GrowthRollupListener {
+    private final ObjectProvider<GrowthRollupService> growthRollupService;
+
+    public GrowthRollupListener(ObjectProvider<GrowthRollupService> growthRollupService) {
+        this.growthRollupService = growthRollupService;
+    }
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        GrowthRollupService service = growthRollupService.getIfAvailable();
+        if (service != null) {
+            Created created = created(entity);
+            if (created != null) {
+                service.record(created.metric(), created.at());
+            }
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        GrowthRollupService service = growthRollupService.getIfAvailable();
+        if (service != null) {
+            Created created = created(entity);
+            if (created != null) {
+                service.recordDelete(created.metric(), created.at());
+            }
+        }
+    }
+
+    private static Created created(Object entity) {
+        if (entity instanceof User user) {
+            return new Created(GrowthRollupService.Metric.USERS, user.getCreatedDate());
+        } else if (entity instanceof CourseClass courseClass) {
+            return new Created(GrowthRollupService.Metric.CLASSES, courseClass.getCreatedAt());
+        } else if (entity instanceof Post post) {
+            return new Created(GrowthRollupService.Metric.POSTS, post.getCreatedAt());
+        } else if (entity instanceof Item item) {
+            return new Created(GrowthRollupService.Metric.ITEMS, item.getCreatedAt());
+        } else if (entity instanceof BorrowingAgreement agreement) {
+            return new Created(GrowthRollupService.Metric.BORROWS, agreement.getCreatedAt());
+        }
+        return null;
+    }
+
+    private record Created(GrowthRollupService.Metric metric, LocalDateTime at) {
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.neighbornetbackend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-day counts of the users, classes, posts, items and borrowing agreements
+ * created on each day that still exist, in {@code daily_growth_rollups}.
+ * Inserts and deletes are counted by {@link GrowthRollupListener} after
+ * commit, and bulk deletes by {@link #recordBulkDelete}; the changes are
+ * buffered in memory and added to the table every {@code app.growth.flush-ms}.
+ * Because deleted rows are subtracted from the day they were created on, the
+ * sum of a column is the live row count, so totals and running totals are
+ * read from the rollup instead of counting the source tables.
+ *
+ * <p>Days are cut in the JVM's zone, the zone the entities' creation
+ * timestamps are written in with {@code LocalDateTime.now()}; callers use
+ * {@link #today()} rather than their own clock.</p>
+ *
+ * <p>The table is backfilled from the source tables the first time it is
+ * empty. A nightly job recomputes the last {@code app.growth.reconcile-days}
+ * complete days, which also repairs changes lost in a crash.</p>
+ */
+@Service
+public class GrowthRollupService {
+    private static final Logger logger = LoggerFactory.getLogger(GrowthRollupService.class);
+
+    private static final String TABLE = "daily_growth_rollups";
+
+    public enum Metric {
+        USERS("new_users", "users", "created_date"),
+        CLASSES("new_classes", "classes", "created_at"),
+        POSTS("new_posts", "posts", "created_at"),
+        ITEMS("new_items", "items", "created_at"),
+        BORROWS("new_borrows", "borrowing_agreement", "created_at");
+
+        private final String column;
+        private final String sourceTable;
+        private final String sourceColumn;
+
+        Metric(String column, String sourceTable, String sourceColumn) {
+            this.column = column;
+            this.sourceTable = sourceTable;
+            this.sourceColumn = sourceColumn;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<PendingKey, Long> pending = new ConcurrentHashMap<>();
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    @Value("${app.growth.reconcile-days:400}")
+    private int reconcileDays;
+
+    public GrowthRollupService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + TABLE, Long.class);
+            if (rows != null && rows > 0) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            recompute(LocalDate.of(1970, 1, 1), today().plusDays(1));
+            logger.info("Backfilled daily growth rollups in {} ms", System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Error backfilling daily growth rollups: {}", e.getMessage());
+        }
+    }
+
+    public LocalDate today() {
+        return LocalDate.now(zone);
+    }
+
+    /**
+     * Counts one new row of the given kind, created at {@code createdAt}.
+     * Inside a transaction the count is taken after commit.
+     */
+    public void record(Metric metric, LocalDateTime createdAt) {
+        add(Map.of(dayOf(createdAt), 1L), metric);
+    }
+
+    /**
+     * Counts one deleted row of the given kind against the day it was created
+     * on. Inside a transaction the count is taken after commit.
+     */
+    public void recordDelete(Metric metric, LocalDateTime createdAt) {
+        add(Map.of(dayOf(createdAt), -1L), metric);
+    }
+
+    /**
+     * Counts the rows of the metric's table matching {@code condition} as
+     * deleted, for bulk deletes that bypass the entity listener. Must be
+     * called in the deleting transaction, before the delete runs.
+     */
+    public void recordBulkDelete(Metric metric, String condition, Object... args) {
+        Map<LocalDate, Long> deleted = new HashMap<>();
+        jdbcTemplate.query("SELECT DATE(" + metric.sourceColumn + "), COUNT(*) FROM " + metric.sourceTable +
+                        " WHERE " + condition + " GROUP BY DATE(" + metric.sourceColumn + ")",
+                rs -> {
+                    Date day = rs.getDate(1);
+                    deleted.merge(day != null ? day.toLocalDate() : today(), -rs.getLong(2), Long::sum);
+                },
+                args);
+        if (!deleted.isEmpty()) {
+            add(deleted, metric);
+        }
+    }
+
+    private void add(Map<LocalDate, Long> counts, Metric metric) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    counts.forEach((day, count) -> pending.merge(new PendingKey(metric, day), count, Long::sum));
+                }
+            });
+        } else {
+            counts.forEach((day, count) -> pending.merge(new PendingKey(metric, day), count, Long::sum));
+        }
+    }
+
+    private LocalDate dayOf(LocalDateTime createdAt) {
+        return createdAt != null ? createdAt.toLocalDate() : today();
+    }
+
+    @Scheduled(fixedDelayString = "${app.growth.flush-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Metric, List<Object[]>> increments = new EnumMap<>(Metric.class);
+        Map<PendingKey, Long> drained = new HashMap<>();
+        for (PendingKey key : pending.keySet()) {
+            Long count = pending.remove(key);
+            if (count != null) {
+                drained.put(key, count);
+                increments.computeIfAbsent(key.metric(), metric -> new ArrayList<>())
+                        .add(new Object[]{Date.valueOf(key.date()), count});
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> increments.forEach((metric, args) ->
+                    jdbcTemplate.batchUpdate("INSERT INTO " + TABLE + " (stat_date, " + metric.column + ") VALUES (?, ?) " +
+                            "ON DUPLICATE KEY UPDATE " + metric.column + " = " + metric.column + " + VALUES(" + metric.column + ")",
+                            args)));
+        } catch (Exception e) {
+            logger.error("Error flushing daily growth rollups: {}", e.getMessage());
+            drained.forEach((key, count) -> pending.merge(key, count, Long::sum));
+        }
+    }
+
+    @Scheduled(cron = "${app.growth.reconcile-cron:0 20 4 * * *}")
+    public void reconcile() {
+        try {
+            long start = System.currentTimeMillis();
+            LocalDate today = today();
+            recompute(today.minusDays(reconcileDays), today);
+            logger.info("Reconciled daily growth rollups for the last {} days in {} ms",
+                    reconcileDays, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Error reconciling daily growth rollups: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the counts of days in {@code [from, to)} with counts grouped
+     * from the source tables.
+     */
+    private void recompute(LocalDate from, LocalDate to) {
+        Date fromDate = Date.valueOf(from);
+        Date toDate = Date.valueOf(to);
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Metric metric : Metric.values()) {
+                jdbcTemplate.update("UPDATE " + TABLE + " SET " + metric.column + " = 0 WHERE stat_date >= ? AND stat_date < ?",
+                        fromDate, toDate);
+                jdbcTemplate.update("INSERT INTO " + TABLE + " (stat_date, " + metric.column + ") " +
+                                "SELECT DATE(" + metric.sourceColumn + "), COUNT(*) FROM " + metric.sourceTable +
+                                " WHERE " + metric.sourceColumn + " >= ? AND " + metric.sourceColumn + " < ?" +
+                                " GROUP BY DATE(" + metric.sourceColumn + ") " +
+                                "ON DUPLICATE KEY UPDATE " + metric.column + " = VALUES(" + metric.column + ")",
+                        fromDate, toDate);
+            }
+        });
+    }
+
+    /**
+     * Rows created per day from {@code from} through today that still exist,
+     * with days without any included as zero.
+     */
+    public NavigableMap<LocalDate, Long> getDailyCounts(Metric metric, LocalDate from) {
+        NavigableMap<LocalDate, Long> counts = new TreeMap<>();
+        LocalDate today = today();
+        for (LocalDate day = from; !day.isAfter(today); day = day.plusDays(1)) {
+            counts.put(day, 0L);
+        }
+        jdbcTemplate.query("SELECT stat_date, " + metric.column + " FROM " + TABLE + " WHERE stat_date >= ? AND stat_date <= ?",
+                rs -> {
+                    counts.put(rs.getDate(1).toLocalDate(), rs.getLong(2));
+                },
+                Date.valueOf(from), Date.valueOf(today));
+        return counts;
+    }
+
+    /**
+     * Running totals at the end of each day from {@code from} through today:
+     * the rows created before {@code from} plus those created since, counting
+     * only rows that still exist.
+     */
+    public NavigableMap<LocalDate, Long> getCumulativeCounts(Metric metric, LocalDate from) {
+        Long before = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(" + metric.column + "), 0) FROM " + TABLE +
+                " WHERE stat_date < ?", Long.class, Date.valueOf(from));
+        long total = before != null ? before : 0;
+        NavigableMap<LocalDate, Long> cumulative = new TreeMap<>();
+        for (Map.Entry<LocalDate, Long> entry : getDailyCounts(metric, from).entrySet()) {
+            total += entry.getValue();
+            cumulative.put(entry.getKey(), Math.max(total, 0));
+        }
+        return cumulative;
+    }
+
+    /**
+     * Current number of rows per metric, summed from the rollup. Changes made
+     * in the last {@code app.growth.flush-ms} may not be included yet.
+     */
+    public Map<Metric, Long> getTotals() {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        Metric[] metrics = Metric.values();
+        for (int i = 0; i < metrics.length; i++) {
+            sql.append(i > 0 ? ", " : "").append("COALESCE(SUM(").append(metrics[i].column).append("), 0)");
+        }
+        sql.append(" FROM ").append(TABLE);
+        Map<Metric, Long> totals = new EnumMap<>(Metric.class);
+        jdbcTemplate.query(sql.toString(), rs -> {
+            for (int i = 0; i < metrics.length; i++) {
+                totals.put(metrics[i], Math.max(rs.getLong(i + 1), 0));
+            }
+        });
+        return totals;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private record PendingKey(Metric metric, LocalDate date) {
+    }
+}
@@ -0,0 +1,382 @@
+package com.example.neighbornetbackend.service;
+
+import com.example.neighbornetbackend.dto.ImageVariants;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Stores uploaded images together with their responsive variants. Each image
+ * is decoded once (subsampled while decoding when it is much larger than
+ * needed), turned upright according to its EXIF orientation and re-encoded,
+ * which drops EXIF and other metadata. Besides the full-size copy, one copy
+ * per {@link ImageVariants#WIDTHS} entry is written, plus WebP copies when an
+ * ImageIO WebP writer is on the classpath. See {@link ImageVariants} for the
+ * naming scheme.
+ *
+ * <p>Processing runs on a dedicated pool of {@code app.images.workers}
+ * threads with a bounded queue; when the queue is full the uploading thread
+ * does the work itself. Formats ImageIO cannot decode, and GIFs (to keep
+ * animations), are stored unchanged.</p>
+ */
+@Service
+public class ImageDerivativeService {
+    private static final Logger logger = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private final Storage storage;
+    private final String bucketName;
+
+    @Value("${app.images.max-dimension:2048}")
+    private int maxDimension;
+
+    @Value("${app.images.max-decoded-pixels:16000000}")
+    private long maxDecodedPixels;
+
+    @Value("${app.images.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    private final AsyncTaskExecutor executor;
+    private boolean webpSupported;
+
+    public ImageDerivativeService(Storage storage,
+                                  @Value("${gcp.storage.bucket-name}") String bucketName,
+                                  @Qualifier("imageDerivativeExecutor") AsyncTaskExecutor executor) {
+        this.storage = storage;
+        this.bucketName = bucketName;
+        this.executor = executor;
+    }
+
+    @PostConstruct
+    public void init() {
+        webpSupported = ImageIO.getImageWritersByFormatName("webp").hasNext();
+        logger.info("Image derivatives: WebP {}", webpSupported ? "enabled" : "not available");
+    }
+
+    /**
+     * Stores {@code file} under {@code objectPrefix} and returns
+     * {@code urlPrefix} followed by the stored filename.
+     */
+    public String store(MultipartFile file, String objectPrefix, String urlPrefix) throws IOException {
+        return await(executor.submit(() -> process(file, objectPrefix, urlPrefix)));
+    }
+
+    /**
+     * Stores several images in parallel, returning their URLs in order.
+     * Empty files are skipped.
+     */
+    public List<String> storeAll(List<MultipartFile> files, String objectPrefix, String urlPrefix) throws IOException {
+        List<Future<String>> futures = new ArrayList<>();
+        for (MultipartFile file : files) {
+            if (!file.isEmpty()) {
+                futures.add(executor.submit(() -> process(file, objectPrefix, urlPrefix)));
+            }
+        }
+        List<String> urls = new ArrayList<>(futures.size());
+        for (Future<String> future : futures) {
+            urls.add(await(future));
+        }
+        return urls;
+    }
+
+    /**
+     * Deletes the variants stored beside {@code filename}. The image itself is
+     * deleted by the caller.
+     */
+    public void deleteVariants(String objectPrefix, String filename) {
+        for (String variant : ImageVariants.variantFilenames(filename)) {
+            try {
+                storage.delete(BlobId.of(bucketName, objectPrefix + variant));
+            } catch (Exception e) {
+                logger.warn("Error deleting image variant {}: {}", variant, e.getMessage());
+            }
+        }
+    }
+
+    private String process(MultipartFile file, String objectPrefix, String urlPrefix) throws IOException {
+        BufferedImage image = decode(file);
+        if (image == null) {
+            String filename = UUID.randomUUID() + originalExtension(file.getOriginalFilename());
+            upload(objectPrefix + filename, file.getContentType(), file.getBytes());
+            return urlPrefix + filename;
+        }
+
+        boolean alpha = image.getColorModel().hasAlpha();
+        String format = alpha ? "png" : "jpg";
+        String contentType = alpha ? "image/png" : "image/jpeg";
+        String baseName = UUID.randomUUID() + (webpSupported ? ImageVariants.WEBP_MARKER : ImageVariants.MARKER);
+
+        // Variants are written first so the image never appears without them
+        for (int width : ImageVariants.WIDTHS) {
+            BufferedImage variant = scaleToFit(image, width);
+            upload(objectPrefix + ImageVariants.variantFilename(baseName, width, format), contentType,
+                    encode(variant, format));
+            if (webpSupported) {
+                upload(objectPrefix + ImageVariants.variantFilename(baseName, width, "webp"), "image/webp",
+                        encode(variant, "webp"));
+            }
+        }
+
+        String filename = baseName + "." + format;
+        upload(objectPrefix + filename, contentType, encode(scaleToFit(image, maxDimension), format));
+        return urlPrefix + filename;
+    }
+
+    /**
+     * Decodes the image upright, or returns {@code null} when it should be
+     * stored as uploaded.
+     */
+    private BufferedImage decode(MultipartFile file) throws IOException {
+        int orientation;
+        try (InputStream in = file.getInputStream()) {
+            orientation = readExifOrientation(in);
+        }
+
+        try (InputStream in = file.getInputStream();
+             ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                if ("gif".equalsIgnoreCase(reader.getFormatName())) {
+                    return null;
+                }
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+
+                // Skip source pixels while decoding when the image is far larger than the biggest copy
+                int subsampling = Math.max(1, Math.max(width, height) / maxDimension);
+                while ((long) (width / subsampling) * (height / subsampling) > maxDecodedPixels) {
+                    subsampling++;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+
+                return orient(toStandardType(reader.read(0, param)), orientation);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not decode image {}, storing it unchanged: {}", file.getOriginalFilename(), e.getMessage());
+                return null;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage toStandardType(BufferedImage image) {
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        if (image.getType() == type) {
+            return image;
+        }
+        BufferedImage converted = new BufferedImage(image.getWidth(), image.getHeight(), type);
+        Graphics2D g = converted.createGraphics();
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return converted;
+    }
+
+    /**
+     * Scales the image down so its longest side is at most {@code size},
+     * halving repeatedly first to keep downscaling smooth. Smaller images are
+     * returned as they are.
+     */
+    private static BufferedImage scaleToFit(BufferedImage image, int size) {
+        int longest = Math.max(image.getWidth(), image.getHeight());
+        if (longest <= size) {
+            return image;
+        }
+        double scale = (double) size / longest;
+        int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+        BufferedImage current = image;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, image.getType());
+            Graphics2D g = next.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(current, 0, 0, width, height, null);
+            g.dispose();
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private byte[] encode(BufferedImage image, String format) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+        if (!writers.hasNext()) {
+            throw new IOException("No image writer for " + format);
+        }
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (!"png".equals(format) && param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionType() == null && param.getCompressionTypes() != null) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(jpegQuality);
+            }
+            // Writing without metadata leaves EXIF (location, camera) behind
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private void upload(String objectName, String contentType, byte[] bytes) {
+        BlobInfo blobInfo = BlobInfo.newBuilder(BlobId.of(bucketName, objectName))
+                .setContentType(contentType)
+                .setCacheControl(CACHE_CONTROL)
+                .build();
+        storage.create(blobInfo, bytes);
+    }
+
+    /**
+     * Applies an EXIF orientation (1-8) so the image is stored upright.
+     */
+    private static BufferedImage orient(BufferedImage image, int orientation) {
+        if (orientation < 2 || orientation > 8) {
+            return image;
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        boolean swap = orientation >= 5;
+        AffineTransform transform = new AffineTransform();
+        switch (orientation) {
+            case 2 -> { transform.scale(-1, 1); transform.translate(-width, 0); }
+            case 3 -> { transform.translate(width, height); transform.rotate(Math.PI); }
+            case 4 -> { transform.scale(1, -1); transform.translate(0, -height); }
+            case 5 -> { transform.rotate(-Math.PI / 2); transform.scale(-1, 1); }
+            case 6 -> { transform.translate(height, 0); transform.rotate(Math.PI / 2); }
+            case 7 -> { transform.scale(-1, 1); transform.translate(-height, 0); transform.translate(0, width); transform.rotate(3 * Math.PI / 2); }
+            case 8 -> { transform.translate(0, width); transform.rotate(3 * Math.PI / 2); }
+            default -> { }
+        }
+        BufferedImage oriented = new BufferedImage(swap ? height : width, swap ? width : height, image.getType());
+        Graphics2D g = oriented.createGraphics();
+        g.drawImage(image, transform, null);
+        g.dispose();
+        return oriented;
+    }
+
+    /**
+     * Reads the orientation tag from a JPEG's EXIF segment, returning 1
+     * (upright) when there is none.
+     */
+    private static int readExifOrientation(InputStream stream) {
+        try {
+            DataInputStream in = new DataInputStream(stream);
+            if (in.readUnsignedShort() != 0xFFD8) {
+                return 1;
+            }
+            while (true) {
+                int marker = in.readUnsignedShort();
+                int length = in.readUnsignedShort() - 2;
+                if (marker == 0xFFDA || (marker & 0xFF00) != 0xFF00 || length < 0) {
+                    return 1;
+                }
+                if (marker != 0xFFE1) {
+                    in.skipNBytes(length);
+                    continue;
+                }
+                byte[] segment = in.readNBytes(length);
+                if (segment.length < 14 || segment[0] != 'E' || segment[1] != 'x' || segment[2] != 'i' || segment[3] != 'f') {
+                    return 1;
+                }
+                int tiff = 6;
+                boolean littleEndian = segment[tiff] == 'I';
+                int ifd = tiff + readInt(segment, tiff + 4, littleEndian);
+                int entries = readShort(segment, ifd, littleEndian);
+                for (int i = 0; i < entries; i++) {
+                    int entry = ifd + 2 + i * 12;
+                    if (entry + 12 > segment.length) {
+                        return 1;
+                    }
+                    if (readShort(segment, entry, littleEndian) == 0x0112) {
+                        return readShort(segment, entry + 8, littleEndian);
+                    }
+                }
+                return 1;
+            }
+        } catch (IOException | RuntimeException e) {
+            return 1;
+        }
+    }
+
+    private static int readShort(byte[] data, int offset, boolean littleEndian) {
+        int b0 = data[offset] & 0xFF;
+        int b1 = data[offset + 1] & 0xFF;
+        return littleEndian ? (b1 << 8) | b0 : (b0 << 8) | b1;
+    }
+
+    private static int readInt(byte[] data, int offset, boolean littleEndian) {
+        int high = readShort(data, littleEndian ? offset + 2 : offset, littleEndian);
+        int low = readShort(data, littleEndian ? offset : offset + 2, littleEndian);
+        return (high << 16) | low;
+    }
+
+    private static String originalExtension(String originalFilename) {
+        return originalFilename != null && originalFilename.lastIndexOf(".") >= 0
+                ? originalFilename.substring(originalFilename.lastIndexOf("."))
+                : ".jpg";
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while processing image", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Error processing image: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.neighbornetbackend.service;
+
+import com.example.neighbornetbackend.model.Item;
+import com.example.neighbornetbackend.repository.ItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Sends the "expiring soon" and "expired" owner notifications for items.
+ * Each item records which notice it has already received in
+ * {@code expiry_notice_status}. A notice is only sent after a conditional
+ * update has claimed it, so overlapping sweeps or several nodes never notify
+ * the same item twice, and catalog reads no longer have to write activities.
+ * Expired notices are limited to items that expired within the last
+ * {@code app.items.expired-notice-window-days} days, so items that expired
+ * before the sweeper existed are not all notified at once.
+ */
+@Service
+public class ItemExpiryService {
+    private static final Logger logger = LoggerFactory.getLogger(ItemExpiryService.class);
+
+    public static final String NOTICE_EXPIRING = "EXPIRING_SOON";
+    public static final String NOTICE_EXPIRED = "EXPIRED";
+
+    private static final int EXPIRING_THRESHOLD_DAYS = 3;
+    private static final int BATCH_SIZE = 200;
+
+    private final ItemRepository itemRepository;
+    private final ActivityService activityService;
+
+    @Value("${app.items.expired-notice-window-days:7}")
+    private int expiredNoticeWindowDays;
+
+    public ItemExpiryService(ItemRepository itemRepository, ActivityService activityService) {
+        this.itemRepository = itemRepository;
+        this.activityService = activityService;
+    }
+
+    @Scheduled(cron = "${app.items.expiry-sweep-cron:0 */15 * * * *}")
+    @Transactional
+    public void sweepExpiringItems() {
+        LocalDate today = LocalDate.now();
+        try {
+            int expired = notifyExpiredItems(today);
+            int expiring = notifyExpiringItems(today, today.plusDays(EXPIRING_THRESHOLD_DAYS));
+            if (expired > 0 || expiring > 0) {
+                logger.info("Item expiry sweep sent {} expired and {} expiring notices", expired, expiring);
+            }
+        } catch (Exception e) {
+            logger.error("Error during item expiry sweep: {}", e.getMessage());
+        }
+    }
+
+    private int notifyExpiredItems(LocalDate today) {
+        int notified = 0;
+        long afterId = 0L;
+        List<Item> batch;
+        do {
+            batch = itemRepository.findExpiredPendingNotice(today, today.minusDays(expiredNoticeWindowDays),
+                    afterId, PageRequest.of(0, BATCH_SIZE));
+            for (Item item : batch) {
+                if (itemRepository.claimExpiredNotice(item.getId()) != 1) {
+                    continue;
+                }
+                notified++;
+                activityService.trackActivity(
+                        item.getOwner().getId(),
+                        "item_expired",
+                        "Your item has expired",
+                        item.getName(),
+                        "Warning",
+                        item.getId()
+                );
+            }
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == BATCH_SIZE);
+        return notified;
+    }
+
+    private int notifyExpiringItems(LocalDate today, LocalDate threshold) {
+        int notified = 0;
+        long afterId = 0L;
+        List<Item> batch;
+        do {
+            batch = itemRepository.findExpiringPendingNotice(today, threshold, afterId, PageRequest.of(0, BATCH_SIZE));
+            for (Item item : batch) {
+                if (itemRepository.claimExpiringNotice(item.getId()) != 1) {
+                    continue;
+                }
+                notified++;
+                activityService.trackActivity(
+                        item.getOwner().getId(),
+                        "item_expiring",
+                        "Your item will expire soon",
+                        item.getName(),
+                        "Info",
+                        item.getId()
+                );
+            }
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == BATCH_SIZE);
+        return notified;
+    }
+}
@@ -1,7 +1,6 @@
 package com.example.neighbornetbackend.service;
 
 import com.google.cloud.storage.BlobId;
-import com.google.cloud.storage.BlobInfo;
 import com.google.cloud.storage.Storage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,47 +8,27 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 @Service
 public class ItemImageStorageService {
     private final Storage storage;
     private final String bucketName;
+    private final ImageDerivativeService imageDerivativeService;
 
     @Value("${gcp.storage.public-url:https://storage.googleapis.com}")
     private String publicUrl;
 
     @Autowired
-    public ItemImageStorageService(Storage storage, @Value("${gcp.storage.bucket-name}") String bucketName) {
+    public ItemImageStorageService(Storage storage, @Value("${gcp.storage.bucket-name}") String bucketName,
+                                   ImageDerivativeService imageDerivativeService) {
         this.storage = storage;
         this.bucketName = bucketName;
+        this.imageDerivativeService = imageDerivativeService;
     }
 
     public List<String> storeItemImages(List<MultipartFile> files) throws IOException {
-        List<String> imageUrls = new ArrayList<>();
-
-        for (MultipartFile file : files) {
-            if (file.isEmpty()) continue;
-
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = originalFilename != null ?
-                    originalFilename.substring(originalFilename.lastIndexOf(".")) : ".jpg";
-            String filename = UUID.randomUUID().toString() + fileExtension;
-            String objectName = "item-images/" + filename;
-
-            BlobId blobId = BlobId.of(bucketName, objectName);
-            BlobInfo blobInfo = BlobInfo.newBuilder(blobId)
-                    .setContentType(file.getContentType())
-                    .build();
-
-            storage.create(blobInfo, file.getBytes());
-
-            imageUrls.add("/api/borrowing/items/images/" + filename);
-        }
-
-        return imageUrls;
+        return imageDerivativeService.storeAll(files, "item-images/", "/api/borrowing/items/images/");
     }
 
     public String getItemImageUrl(String filename) {
@@ -66,6 +45,7 @@ public class ItemImageStorageService {
 
             BlobId blobId = BlobId.of(bucketName, objectName);
             boolean deleted = storage.delete(blobId);
+            imageDerivativeService.deleteVariants("item-images/", filename);
 
             if (deleted) {
                 System.out.println("Successfully deleted item image: " + objectName);
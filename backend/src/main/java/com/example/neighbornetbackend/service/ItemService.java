@@ -2,7 +2,10 @@ package com.example.neighbornetbackend.service;
 
 import com.example.neighbornetbackend.dto.BorrowRequestDTO;
 import com.example.neighbornetbackend.dto.CreatorDTO;
+import com.example.neighbornetbackend.dto.CursorPageResponse;
 import com.example.neighbornetbackend.dto.ItemDTO;
+import com.example.neighbornetbackend.dto.ItemSummaryDTO;
+import com.example.neighbornetbackend.dto.SearchPageResponse;
 import com.example.neighbornetbackend.exception.ResourceNotFoundException;
 import com.example.neighbornetbackend.model.BorrowingAgreement;
 import com.example.neighbornetbackend.model.Item;
@@ -13,6 +16,7 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -20,7 +24,9 @@ import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -38,10 +44,21 @@ public class ItemService {
     private final ActivityService activityService;
     private final ItemRatingRepository itemRatingRepository;
     private final ChatMessageRepository chatMessageRepository;
+    private final ItemSpatialIndex itemSpatialIndex;
+    private final SearchIndexService searchIndexService;
+    private final GrowthRollupService growthRollupService;
 
     private static final Logger logger = LoggerFactory.getLogger(ItemService.class);
 
-    public ItemService(ItemRepository itemRepository, UserRepository userRepository, ItemImageStorageService itemImageStorageService, BorrowingAgreementRepository borrowingAgreementRepository, ActivityService activityService, ItemRatingRepository itemRatingRepository,  ChatMessageRepository chatMessageRepository) {
+    private static final List<String> ACTIVE_AGREEMENT_STATUSES = List.of(
+            "ACCEPTED",
+            "RETURN_PENDING",
+            "RETURN_REQUESTED",
+            "RETURN_REJECTED"
+    );
+    private static final int MAX_CATALOG_PAGE_SIZE = 100;
+
+    public ItemService(ItemRepository itemRepository, UserRepository userRepository, ItemImageStorageService itemImageStorageService, BorrowingAgreementRepository borrowingAgreementRepository, ActivityService activityService, ItemRatingRepository itemRatingRepository,  ChatMessageRepository chatMessageRepository, ItemSpatialIndex itemSpatialIndex, SearchIndexService searchIndexService, GrowthRollupService growthRollupService) {
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
         this.itemImageStorageService = itemImageStorageService;
@@ -49,6 +66,9 @@ public class ItemService {
         this.activityService = activityService;
         this.itemRatingRepository = itemRatingRepository;
         this.chatMessageRepository = chatMessageRepository;
+        this.itemSpatialIndex = itemSpatialIndex;
+        this.searchIndexService = searchIndexService;
+        this.growthRollupService = growthRollupService;
     }
 
     public ItemDTO createItem(Item item, List<MultipartFile> images, Long userId) throws IOException {
@@ -60,6 +80,9 @@ public class ItemService {
         item.setOwner(user);
 
         Item savedItem = itemRepository.save(item);
+        itemSpatialIndex.put(savedItem.getId(), savedItem.getLatitude(), savedItem.getLongitude());
+        searchIndexService.indexItem(savedItem.getId(), savedItem.getName(),
+                savedItem.getDescription(), savedItem.getCategory(), savedItem.getAvailableUntil());
 
         activityService.trackActivity(
                 userId,
@@ -74,40 +97,18 @@ public class ItemService {
     }
 
     public List<ItemDTO> findNearbyItems(double latitude, double longitude, double radiusInKm) {
-        return itemRepository.findItemsWithinRadius(latitude, longitude, radiusInKm)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        if (!itemSpatialIndex.isReady()) {
+            return itemRepository.findItemsWithinRadius(latitude, longitude, radiusInKm)
+                    .stream()
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toList());
+        }
+        return loadInOrder(itemSpatialIndex.findWithinRadius(latitude, longitude, radiusInKm));
     }
 
     @Transactional(readOnly = true)
     public List<ItemDTO> getAllItems() {
-        LocalDate today = LocalDate.now();
-        LocalDate nearExpirationThreshold = today.plusDays(3);
-
-        return itemRepository.findAll().stream()
-                .filter(item -> {
-                    LocalDate availableUntil = item.getAvailableUntil();
-                    if (availableUntil == null || availableUntil.isBefore(today)) {
-                        if (availableUntil != null && availableUntil.isBefore(today)) {
-                            notifyOwnerAboutExpiredItem(item);
-                        }
-                        return false;
-                    }
-
-                    if (availableUntil.isBefore(nearExpirationThreshold) || availableUntil.isEqual(nearExpirationThreshold)) {
-                        notifyOwnerAboutExpiringItem(item);
-                    }
-
-                    return true;
-                })
-                .map(item -> {
-                    ItemDTO dto = convertToDTO(item);
-                    dto.setExpirationStatus(getExpirationStatus(item.getAvailableUntil()));
-                    dto.setImageUrls(new ArrayList<>(item.getImageUrls()));
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        return getAllItemsWithoutActivityLogging();
     }
 
     private String getExpirationStatus(LocalDate availableUntil) {
@@ -124,28 +125,6 @@ public class ItemService {
     }
 
 
-    private void notifyOwnerAboutExpiredItem(Item item) {
-        activityService.trackActivity(
-                item.getOwner().getId(),
-                "item_expired",
-                "Your item has expired",
-                item.getName(),
-                "Warning",
-                item.getId()
-        );
-    }
-
-    private void notifyOwnerAboutExpiringItem(Item item) {
-        activityService.trackActivity(
-                item.getOwner().getId(),
-                "item_expiring",
-                "Your item will expire soon",
-                item.getName(),
-                "Info",
-                item.getId()
-        );
-    }
-
     public List<ItemDTO> getItemsByUser(Long userId) {
         return itemRepository.findByOwnerId(userId).stream()
                 .map(this::convertToDTO)
@@ -153,13 +132,41 @@ public class ItemService {
     }
 
     public List<ItemDTO> findItemsWithinBounds(double minLat, double maxLat, double minLng, double maxLng) {
-        return itemRepository.findItemsWithinBounds(minLat, maxLat, minLng, maxLng)
-                .stream()
-                .map(this::convertToDTO)
+        if (!itemSpatialIndex.isReady()) {
+            return itemRepository.findItemsWithinBounds(minLat, maxLat, minLng, maxLng)
+                    .stream()
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toList());
+        }
+        return loadInOrder(itemSpatialIndex.findWithinBounds(minLat, maxLat, minLng, maxLng));
+    }
+
+    private List<ItemDTO> loadInOrder(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Item> itemsById = new HashMap<>();
+        itemRepository.findAllById(itemIds).forEach(item -> itemsById.put(item.getId(), item));
+
+        List<Item> items = itemIds.stream()
+                .map(itemsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        Map<Long, Long> agreementIds = findActiveAgreementIds(items);
+        return items.stream()
+                .map(item -> convertToDTO(item, agreementIds.get(item.getId())))
                 .collect(Collectors.toList());
     }
 
     private ItemDTO convertToDTO(Item item) {
+        Long agreementId = null;
+        if (item.getBorrower() != null) {
+            agreementId = findActiveAgreementId(item.getId(), item.getBorrower().getId());
+        }
+        return convertToDTO(item, agreementId);
+    }
+
+    private ItemDTO convertToDTO(Item item, Long borrowingAgreementId) {
         ItemDTO dto = new ItemDTO();
         dto.setId(item.getId());
         dto.setName(item.getName());
@@ -185,8 +192,7 @@ public class ItemService {
         if (item.getBorrower() != null) {
             CreatorDTO borrowerDTO = CreatorDTO.fromUser(item.getBorrower());
             dto.setBorrower(borrowerDTO);
-            Long agreementId = findActiveAgreementId(item.getId(), item.getBorrower().getId());
-            dto.setBorrowingAgreementId(agreementId);
+            dto.setBorrowingAgreementId(borrowingAgreementId);
         }
 
         return dto;
@@ -223,6 +229,8 @@ public class ItemService {
         }
 
         itemRepository.delete(item);
+        itemSpatialIndex.remove(itemId);
+        searchIndexService.remove(SearchIndexService.ITEMS, itemId);
     }
 
     public ItemDTO updateItem(Long itemId, Item updatedItem, Long userId) {
@@ -240,12 +248,18 @@ public class ItemService {
         existingItem.setAvailabilityPeriod(updatedItem.getAvailabilityPeriod());
         existingItem.setTerms(updatedItem.getTerms());
         existingItem.setAvailableFrom(updatedItem.getAvailableFrom());
+        if (!Objects.equals(existingItem.getAvailableUntil(), updatedItem.getAvailableUntil())) {
+            existingItem.setExpiryNoticeStatus(null);
+        }
         existingItem.setAvailableUntil(updatedItem.getAvailableUntil());
         existingItem.setContactPreference(updatedItem.getContactPreference());
         existingItem.setEmail(updatedItem.getEmail());
         existingItem.setPhone(updatedItem.getPhone());
 
         Item savedItem = itemRepository.save(existingItem);
+        itemSpatialIndex.put(savedItem.getId(), savedItem.getLatitude(), savedItem.getLongitude());
+        searchIndexService.indexItem(savedItem.getId(), savedItem.getName(),
+                savedItem.getDescription(), savedItem.getCategory(), savedItem.getAvailableUntil());
 
         activityService.trackActivity(
                 userId,
@@ -275,14 +289,7 @@ public class ItemService {
 
     public List<ItemDTO> getAllCurrentlyBorrowedItems() {
         List<BorrowingAgreement> activeAgreements = borrowingAgreementRepository
-                .findByStatusInAndBorrowingEndGreaterThan(
-                        List.of(
-                                "ACCEPTED",
-                                "RETURN_PENDING",
-                                "RETURN_REQUESTED",
-                                "RETURN_REJECTED"
-                        ),
-                        LocalDateTime.now());
+                .findByStatusInAndBorrowingEndGreaterThan(ACTIVE_AGREEMENT_STATUSES, LocalDateTime.now());
 
         return activeAgreements.stream()
                 .map(agreement -> {
@@ -305,16 +312,7 @@ public class ItemService {
 
     private Long findActiveAgreementId(Long itemId, Long borrowerId) {
         BorrowingAgreement agreement = borrowingAgreementRepository
-                .findFirstByItemIdAndBorrowerIdAndStatusIn(
-                        itemId,
-                        borrowerId,
-                        List.of(
-                                "ACCEPTED",
-                                "RETURN_PENDING",
-                                "RETURN_REQUESTED",
-                                "RETURN_REJECTED"
-                        )
-                )
+                .findFirstByItemIdAndBorrowerIdAndStatusIn(itemId, borrowerId, ACTIVE_AGREEMENT_STATUSES)
                 .orElse(null);
         return agreement != null ? agreement.getId() : null;
     }
@@ -354,12 +352,14 @@ public class ItemService {
                 .executeUpdate();
 
         // Delete borrowing agreements
+        growthRollupService.recordBulkDelete(GrowthRollupService.Metric.BORROWS, "item_id = ?", itemId);
         entityManager.createNativeQuery(
                         "DELETE FROM borrowing_agreement WHERE item_id = ?")
                 .setParameter(1, itemId)
                 .executeUpdate();
 
         // Finally delete the item
+        growthRollupService.recordBulkDelete(GrowthRollupService.Metric.ITEMS, "id = ?", itemId);
         entityManager.createNativeQuery(
                         "DELETE FROM items WHERE id = ?")
                 .setParameter(1, itemId)
@@ -367,6 +367,8 @@ public class ItemService {
 
         // Ensure all changes are synchronized
         entityManager.flush();
+        itemSpatialIndex.remove(itemId);
+        searchIndexService.remove(SearchIndexService.ITEMS, itemId);
     }
 
     public double getOverallAverageRating() {
@@ -376,35 +378,96 @@ public class ItemService {
                 .orElse(0.0);
     }
 
+    @Transactional(readOnly = true)
     public List<ItemDTO> searchItems(String query) {
-        return getAllItems().stream()
-                .filter(item ->
-                        item.getName().toLowerCase().contains(query.toLowerCase()) ||
-                                item.getDescription().toLowerCase().contains(query.toLowerCase()) ||
-                                item.getCategory().toLowerCase().contains(query.toLowerCase())
-                )
+        if (!searchIndexService.isReady()) {
+            return getAllItems().stream()
+                    .filter(item ->
+                            item.getName().toLowerCase().contains(query.toLowerCase()) ||
+                                    item.getDescription().toLowerCase().contains(query.toLowerCase()) ||
+                                    item.getCategory().toLowerCase().contains(query.toLowerCase())
+                    )
+                    .collect(Collectors.toList());
+        }
+
+        SearchIndexService.SearchHits hits = searchIndexService.search(
+                SearchIndexService.ITEMS, query, null, 0, Integer.MAX_VALUE);
+        LocalDate today = LocalDate.now();
+        List<ItemDTO> items = loadInOrder(hits.ids()).stream()
+                .filter(item -> item.getAvailableUntil() != null && !item.getAvailableUntil().isBefore(today))
                 .collect(Collectors.toList());
+        items.forEach(item -> item.setExpirationStatus(getExpirationStatus(item.getAvailableUntil())));
+        return items;
+    }
+
+    @Transactional(readOnly = true)
+    public SearchPageResponse<ItemDTO> searchItemsRanked(String query, String category, int page, int size) {
+        SearchIndexService.SearchHits hits = searchIndexService.search(
+                SearchIndexService.ITEMS, query, category, page, size);
+        List<ItemDTO> items = loadInOrder(hits.ids());
+        items.forEach(item -> item.setExpirationStatus(getExpirationStatus(item.getAvailableUntil())));
+        return new SearchPageResponse<>(items, hits.totalHits(), page, size, hits.facets());
     }
 
     @Transactional(readOnly = true)
     public List<ItemDTO> getAllItemsWithoutActivityLogging() {
-        LocalDate today = LocalDate.now();
-        LocalDate nearExpirationThreshold = today.plusDays(3);
+        List<Item> items = itemRepository.findAvailableWithUsers(LocalDate.now());
+        Map<Long, Long> agreementIds = findActiveAgreementIds(items);
 
-        return itemRepository.findAll().stream()
-                .filter(item -> {
-                    LocalDate availableUntil = item.getAvailableUntil();
-                    if (availableUntil == null || availableUntil.isBefore(today)) {
-                        return false;
-                    }
-                    return true;
-                })
+        return items.stream()
                 .map(item -> {
-                    ItemDTO dto = convertToDTO(item);
+                    ItemDTO dto = convertToDTO(item, agreementIds.get(item.getId()));
                     dto.setExpirationStatus(getExpirationStatus(item.getAvailableUntil()));
-                    dto.setImageUrls(new ArrayList<>(item.getImageUrls()));
                     return dto;
                 })
                 .collect(Collectors.toList());
     }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ItemSummaryDTO> getCatalogPage(Long cursor, int size, String category) {
+        int pageSize = Math.max(1, Math.min(size, MAX_CATALOG_PAGE_SIZE));
+        String categoryFilter = (category == null || category.isBlank()) ? null : category.trim();
+
+        List<ItemSummaryDTO> rows = itemRepository.findCatalogPage(
+                LocalDate.now(),
+                categoryFilter,
+                cursor,
+                ACTIVE_AGREEMENT_STATUSES,
+                PageRequest.of(0, pageSize + 1)
+        );
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ItemSummaryDTO> page = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+
+        if (!page.isEmpty()) {
+            Map<Long, ItemSummaryDTO> byId = new HashMap<>();
+            page.forEach(summary -> {
+                summary.setExpirationStatus(getExpirationStatus(summary.getAvailableUntil()));
+                byId.put(summary.getId(), summary);
+            });
+            for (Object[] row : itemRepository.findImageUrlsByItemIds(new ArrayList<>(byId.keySet()))) {
+                byId.get((Long) row[0]).getImageUrls().add((String) row[1]);
+            }
+        }
+
+        Long nextCursor = hasMore ? page.get(page.size() - 1).getId() : null;
+        return new CursorPageResponse<>(page, nextCursor, hasMore);
+    }
+
+    private Map<Long, Long> findActiveAgreementIds(List<Item> items) {
+        Map<Long, Long> borrowerByItem = new HashMap<>();
+        items.stream()
+                .filter(item -> item.getBorrower() != null)
+                .forEach(item -> borrowerByItem.put(item.getId(), item.getBorrower().getId()));
+        if (borrowerByItem.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, Long> agreementIds = new HashMap<>();
+        borrowingAgreementRepository.findByItemIdInAndStatusIn(new ArrayList<>(borrowerByItem.keySet()), ACTIVE_AGREEMENT_STATUSES)
+                .stream()
+                .filter(agreement -> agreement.getBorrowerId().equals(borrowerByItem.get(agreement.getItemId())))
+                .forEach(agreement -> agreementIds.merge(agreement.getItemId(), agreement.getId(), Math::min));
+        return agreementIds;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,224 @@
+package com.example.neighbornetbackend.service;
+
+import com.example.neighbornetbackend.repository.ItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory grid index over item coordinates. Items are bucketed into fixed
+ * lat/lng cells so radius and bounding-box lookups only visit the cells that
+ * overlap the query area before doing exact distance checks.
+ *
+ * <p>Changes made inside a transaction are applied once it commits, so a
+ * rolled-back create or move never leaves an entry behind.</p>
+ */
+@Component
+public class ItemSpatialIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ItemSpatialIndex.class);
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE_LAT = 111.32;
+    private static final double CELL_SIZE_DEGREES = 0.05;
+
+    private final ItemRepository itemRepository;
+
+    private volatile Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+    private volatile Map<Long, double[]> positions = new ConcurrentHashMap<>();
+    private volatile boolean ready = false;
+
+    public ItemSpatialIndex(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.items.spatial-index-rebuild-ms:3600000}",
+            initialDelayString = "${app.items.spatial-index-rebuild-ms:3600000}")
+    public synchronized void rebuild() {
+        try {
+            long start = System.currentTimeMillis();
+            List<Object[]> rows = itemRepository.findAllCoordinates();
+
+            Map<Long, Set<Long>> newCells = new ConcurrentHashMap<>();
+            Map<Long, double[]> newPositions = new ConcurrentHashMap<>();
+            for (Object[] row : rows) {
+                if (row[1] != null && row[2] != null) {
+                    insert(newCells, newPositions, (Long) row[0], (Double) row[1], (Double) row[2]);
+                }
+            }
+            cells = newCells;
+            positions = newPositions;
+            ready = true;
+
+            logger.info("Rebuilt item spatial index with {} items in {} ms",
+                    positions.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Error rebuilding item spatial index: {}", e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void put(Long itemId, Double latitude, Double longitude) {
+        if (itemId == null || latitude == null || longitude == null) {
+            return;
+        }
+        afterCommit(() -> applyPut(itemId, latitude, longitude));
+    }
+
+    public void remove(Long itemId) {
+        if (itemId == null) {
+            return;
+        }
+        afterCommit(() -> applyRemove(itemId));
+    }
+
+    private synchronized void applyPut(Long itemId, double latitude, double longitude) {
+        removeFromCell(itemId);
+        insert(cells, positions, itemId, latitude, longitude);
+    }
+
+    private synchronized void applyRemove(Long itemId) {
+        removeFromCell(itemId);
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    /**
+     * Returns the ids of items within {@code radiusKm} of the given point,
+     * nearest first.
+     */
+    public List<Long> findWithinRadius(double latitude, double longitude, double radiusKm) {
+        double latDelta = radiusKm / KM_PER_DEGREE_LAT;
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        double lngDelta = cosLat > 1e-6 ? radiusKm / (KM_PER_DEGREE_LAT * cosLat) : 180.0;
+
+        List<Match> matches = new ArrayList<>();
+        for (Long itemId : candidates(latitude - latDelta, latitude + latDelta,
+                longitude - lngDelta, longitude + lngDelta)) {
+            double[] position = positions.get(itemId);
+            if (position == null) {
+                continue;
+            }
+            double distance = haversineKm(latitude, longitude, position[0], position[1]);
+            if (distance < radiusKm) {
+                matches.add(new Match(itemId, distance));
+            }
+        }
+
+        matches.sort(Comparator.comparingDouble(Match::distance));
+        return matches.stream().map(Match::itemId).toList();
+    }
+
+    public List<Long> findWithinBounds(double minLat, double maxLat, double minLng, double maxLng) {
+        List<Long> matches = new ArrayList<>();
+        for (Long itemId : candidates(minLat, maxLat, minLng, maxLng)) {
+            double[] position = positions.get(itemId);
+            if (position != null
+                    && position[0] >= minLat && position[0] <= maxLat
+                    && position[1] >= minLng && position[1] <= maxLng) {
+                matches.add(itemId);
+            }
+        }
+        return matches;
+    }
+
+    private Iterable<Long> candidates(double minLat, double maxLat, double minLng, double maxLng) {
+        Map<Long, Set<Long>> cells = this.cells;
+        long minLatCell = cellCoordinate(Math.max(minLat, -90.0));
+        long maxLatCell = cellCoordinate(Math.min(maxLat, 90.0));
+        long minLngCell = cellCoordinate(Math.max(minLng, -180.0));
+        long maxLngCell = cellCoordinate(Math.min(maxLng, 180.0));
+
+        long cellCount = (maxLatCell - minLatCell + 1) * (maxLngCell - minLngCell + 1);
+        if (cellCount <= 0) {
+            return List.of();
+        }
+        // Very large query areas touch more cells than there are items; scanning positions is cheaper then
+        if (cellCount > cells.size()) {
+            return new ArrayList<>(positions.keySet());
+        }
+
+        List<Long> result = new ArrayList<>();
+        for (long latCell = minLatCell; latCell <= maxLatCell; latCell++) {
+            for (long lngCell = minLngCell; lngCell <= maxLngCell; lngCell++) {
+                Set<Long> cell = cells.get(cellKey(latCell, lngCell));
+                if (cell != null) {
+                    result.addAll(cell);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void insert(Map<Long, Set<Long>> cells, Map<Long, double[]> positions,
+                               Long itemId, double latitude, double longitude) {
+        positions.put(itemId, new double[]{latitude, longitude});
+        cells.computeIfAbsent(cellKey(cellCoordinate(latitude), cellCoordinate(longitude)),
+                key -> ConcurrentHashMap.newKeySet()).add(itemId);
+    }
+
+    private void removeFromCell(Long itemId) {
+        double[] previous = positions.remove(itemId);
+        if (previous == null) {
+            return;
+        }
+        long key = cellKey(cellCoordinate(previous[0]), cellCoordinate(previous[1]));
+        Set<Long> cell = cells.get(key);
+        if (cell != null) {
+            cell.remove(itemId);
+            if (cell.isEmpty()) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    private record Match(Long itemId, double distance) {
+    }
+
+    private static long cellCoordinate(double degrees) {
+        return (long) Math.floor(degrees / CELL_SIZE_DEGREES);
+    }
+
+    private static long cellKey(long latCell, long lngCell) {
+        return (latCell << 32) | (lngCell & 0xffffffffL);
+    }
+
+    private static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
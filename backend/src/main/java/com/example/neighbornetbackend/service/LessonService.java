@@ -40,7 +40,9 @@ public class LessonService {
             String title,
             String description,
             MultipartFile videoFile,
-            Long parentLessonId
+            String videoUploadId,
+            Long parentLessonId,
+            Long userId
     ) throws IOException {
         CourseClass classEntity = classRepository.findById(classId)
                 .orElseThrow(() -> new RuntimeException("Class not found"));
@@ -59,6 +61,8 @@ public class LessonService {
         if (videoFile != null && !videoFile.isEmpty()) {
             String videoUrl = videoStorageService.storeVideo(videoFile);
             lesson.setVideoUrl(videoUrl);
+        } else if (videoUploadId != null) {
+            lesson.setVideoUrl(videoStorageService.claimUpload(videoUploadId, userId));
         }
 
         return lessonRepository.save(lesson);
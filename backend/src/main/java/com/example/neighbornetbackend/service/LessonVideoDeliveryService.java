@@ -0,0 +1,302 @@
+package com.example.neighbornetbackend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.google.cloud.ReadChannel;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.Storage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers lesson videos in one of three modes ({@code app.videos.delivery-mode}):
+ * <ul>
+ *     <li>{@code public} redirects to the public bucket URL;</li>
+ *     <li>{@code signed} redirects to a V4 signed URL. Signed URLs are cached
+ *     and re-signed in the background once half their lifetime has passed,
+ *     and dropped at three quarters, so a served URL always has at least a
+ *     quarter of {@code app.videos.signed-url-ttl-minutes} left;</li>
+ *     <li>{@code proxy} streams the requested byte range itself. Objects are
+ *     read in fixed-size chunks that are kept in a size-bounded disk cache;
+ *     its frequency-based admission keeps the chunks of the most-watched
+ *     lessons, and concurrent viewers of a chunk share one fetch. Cached
+ *     chunks are sent with {@link FileChannel#transferTo}.</li>
+ * </ul>
+ */
+@Service
+public class LessonVideoDeliveryService {
+    private static final Logger logger = LoggerFactory.getLogger(LessonVideoDeliveryService.class);
+
+    private static final String OBJECT_PREFIX = "videos/";
+
+    public enum Mode { PUBLIC, SIGNED, PROXY }
+
+    private final Storage storage;
+    private final String bucketName;
+    private final VideoStorageService videoStorageService;
+
+    private final Counter chunkHits;
+    private final Counter chunkMisses;
+
+    @Value("${app.videos.delivery-mode:signed}")
+    private String deliveryMode;
+
+    @Value("${app.videos.signed-url-ttl-minutes:360}")
+    private int signedUrlTtlMinutes;
+
+    @Value("${app.videos.signed-url-cache-size:5000}")
+    private long signedUrlCacheSize;
+
+    @Value("${app.videos.chunk-size:1048576}")
+    private int chunkSize;
+
+    @Value("${app.videos.chunk-cache-dir:${java.io.tmpdir}/neighbornet-video-chunks}")
+    private String chunkCacheDir;
+
+    @Value("${app.videos.chunk-cache-max-bytes:2147483648}")
+    private long chunkCacheMaxBytes;
+
+    @Value("${app.videos.metadata-cache-minutes:10}")
+    private long metadataCacheMinutes;
+
+    private Mode mode;
+    private Path chunkDirectory;
+    private LoadingCache<String, String> signedUrls;
+    private Cache<String, Optional<VideoObject>> objects;
+    private Cache<ChunkKey, Path> chunks;
+
+    public LessonVideoDeliveryService(Storage storage, String bucketName,
+                                      VideoStorageService videoStorageService,
+                                      MeterRegistry meterRegistry) {
+        this.storage = storage;
+        this.bucketName = bucketName;
+        this.videoStorageService = videoStorageService;
+        this.chunkHits = meterRegistry.counter("videos.chunks.hits");
+        this.chunkMisses = meterRegistry.counter("videos.chunks.misses");
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        mode = Mode.valueOf(deliveryMode.trim().toUpperCase());
+
+        Duration ttl = Duration.ofMinutes(signedUrlTtlMinutes);
+        signedUrls = Caffeine.newBuilder()
+                .maximumSize(signedUrlCacheSize)
+                .refreshAfterWrite(ttl.dividedBy(2))
+                .expireAfterWrite(ttl.multipliedBy(3).dividedBy(4))
+                .build(filename -> videoStorageService.getSignedVideoUrl(filename, signedUrlTtlMinutes));
+
+        objects = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(metadataCacheMinutes, TimeUnit.MINUTES)
+                .build();
+
+        if (mode == Mode.PROXY) {
+            // Chunks are not tracked across restarts, so start from an empty directory
+            chunkDirectory = Path.of(chunkCacheDir);
+            FileSystemUtils.deleteRecursively(chunkDirectory);
+            Files.createDirectories(chunkDirectory);
+            chunks = Caffeine.newBuilder()
+                    .maximumWeight(chunkCacheMaxBytes)
+                    .weigher((ChunkKey key, Path path) -> key.length())
+                    .removalListener((ChunkKey key, Path path, RemovalCause cause) -> deleteQuietly(path))
+                    .build();
+        }
+        logger.info("Lesson videos delivered in {} mode", mode);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public String getRedirectUrl(String filename) {
+        return mode == Mode.PUBLIC
+                ? videoStorageService.getVideoUrl(filename)
+                : signedUrls.get(filename);
+    }
+
+    /**
+     * Writes the video, or the byte range named by {@code rangeHeader}, to
+     * the response. Only the first range of a multi-range request is served.
+     */
+    public void stream(String filename, String rangeHeader, boolean headOnly, HttpServletResponse response)
+            throws IOException {
+        VideoObject object = objects.get(filename, this::lookup).orElse(null);
+        if (object == null) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        long start = 0;
+        long end = object.size() - 1;
+        boolean partial = false;
+        if (rangeHeader != null && !rangeHeader.isBlank()) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                if (!ranges.isEmpty()) {
+                    start = ranges.get(0).getRangeStart(object.size());
+                    end = ranges.get(0).getRangeEnd(object.size());
+                    partial = true;
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + object.size());
+                response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+        }
+
+        long length = end - start + 1;
+        response.setStatus(partial ? HttpStatus.PARTIAL_CONTENT.value() : HttpStatus.OK.value());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(object.contentType() != null ? object.contentType() : "video/mp4");
+        response.setContentLengthLong(length);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=86400");
+        response.setHeader(HttpHeaders.ETAG, "\"" + object.generation() + "\"");
+        if (partial) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + object.size());
+        }
+        if (headOnly || length == 0) {
+            return;
+        }
+
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        long position = start;
+        while (position <= end) {
+            long index = position / chunkSize;
+            long chunkStart = index * chunkSize;
+            long offset = position - chunkStart;
+            long count = Math.min(end + 1, chunkStart + chunkSize) - position;
+            transferChunk(object, index, offset, count, out);
+            position += count;
+        }
+        response.flushBuffer();
+    }
+
+    private void transferChunk(VideoObject object, long index, long offset, long count, WritableByteChannel out)
+            throws IOException {
+        int length = (int) Math.min(chunkSize, object.size() - index * chunkSize);
+        ChunkKey key = new ChunkKey(object.filename(), object.generation(), index, length);
+        for (int attempt = 0; ; attempt++) {
+            Path path = chunk(key);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long transferred = 0;
+                while (transferred < count) {
+                    transferred += channel.transferTo(offset + transferred, count - transferred, out);
+                }
+                return;
+            } catch (NoSuchFileException e) {
+                // Evicted between lookup and open; fetch it again once
+                chunks.invalidate(key);
+                if (attempt > 0) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private Path chunk(ChunkKey key) throws IOException {
+        Path cached = chunks.getIfPresent(key);
+        if (cached != null) {
+            chunkHits.increment();
+            return cached;
+        }
+        try {
+            return chunks.get(key, this::fetchChunk);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Path fetchChunk(ChunkKey key) {
+        chunkMisses.increment();
+        // Unique per fetch: the removal listener runs asynchronously, so deleting an evicted chunk's file
+        // must never hit the file of a later fetch of the same chunk
+        Path target = chunkDirectory.resolve(key.fileName() + "." + UUID.randomUUID());
+        try {
+            Path temp = Files.createTempFile(chunkDirectory, "fetch-", ".part");
+            try (ReadChannel reader = storage.reader(BlobId.of(bucketName, OBJECT_PREFIX + key.filename(), key.generation()));
+                 FileChannel file = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                reader.setChunkSize(key.length());
+                reader.seek(key.index() * chunkSize);
+                ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+                long remaining = key.length();
+                while (remaining > 0) {
+                    buffer.clear();
+                    if (remaining < buffer.capacity()) {
+                        buffer.limit((int) remaining);
+                    }
+                    int read = reader.read(buffer);
+                    if (read < 0) {
+                        throw new IOException("Video ended early at chunk " + key.index());
+                    }
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        file.write(buffer);
+                    }
+                    remaining -= read;
+                }
+            } catch (IOException | RuntimeException e) {
+                deleteQuietly(temp);
+                throw e;
+            }
+            return Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Optional<VideoObject> lookup(String filename) {
+        Blob blob = storage.get(BlobId.of(bucketName, OBJECT_PREFIX + filename));
+        if (blob == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new VideoObject(filename, blob.getSize(), blob.getContentType(), blob.getGeneration()));
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Error deleting cached video chunk {}: {}", path, e.getMessage());
+        }
+    }
+
+    private record VideoObject(String filename, long size, String contentType, Long generation) {
+    }
+
+    private record ChunkKey(String filename, Long generation, long index, int length) {
+        String fileName() {
+            return filename.replaceAll("[^A-Za-z0-9._-]", "_") + "." + generation + "." + index;
+        }
+    }
+}
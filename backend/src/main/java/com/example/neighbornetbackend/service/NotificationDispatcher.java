@@ -0,0 +1,466 @@
+package com.example.neighbornetbackend.service;
+
+import com.example.neighbornetbackend.dto.NotificationDTO;
+import com.example.neighbornetbackend.model.NotificationOutboxEntry;
+import com.example.neighbornetbackend.model.User;
+import com.example.neighbornetbackend.repository.NotificationOutboxRepository;
+import com.example.neighbornetbackend.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Outbox for user notifications. Callers write each notification to the
+ * {@code notification_outbox} table in their own transaction, so it is
+ * delivered exactly when their change commits and survives a crash. A
+ * dedicated pool of workers drains the table in batches: due entries are
+ * leased with a conditional update (so several nodes never work on the same
+ * entry), the notification rows are inserted with one JDBC batch, then pushed
+ * to the users' WebSocket queues and sent to FCM. An entry is marked sent
+ * once FCM has answered for its push; entries whose push failed are retried
+ * with exponential backoff, and entries abandoned by a crashed node become
+ * due again when their lease runs out.
+ */
+@Component
+public class NotificationDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notifications (user_id, title, message, type, is_read, created_at) VALUES (?, ?, ?, ?, false, ?)";
+    private static final String LINK_SQL = "UPDATE notification_outbox SET notification_id = ? WHERE id = ?";
+    private static final String NOTIFICATIONS_CACHE = "userNotifications";
+    private static final String UNREAD_COUNT_CACHE = "unreadNotificationsCount";
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserRepository userRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final FCMService fcmService;
+    private final CacheManager cacheManager;
+    // Released after a commit that wrote outbox entries, so workers need not wait for the next poll
+    private final Semaphore wakeUps = new Semaphore(0);
+
+    private final Counter enqueuedCounter;
+    private final Counter deliveredCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
+
+    @Value("${app.notifications.workers:2}")
+    private int workerCount;
+
+    @Value("${app.notifications.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.notifications.poll-ms:1000}")
+    private long pollMs;
+
+    @Value("${app.notifications.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${app.notifications.push-timeout-ms:30000}")
+    private long pushTimeoutMs;
+
+    @Value("${app.notifications.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.notifications.retry-base-delay-ms:500}")
+    private long retryBaseDelayMs;
+
+    @Value("${app.notifications.outbox-retention-hours:24}")
+    private long retentionHours;
+
+    private final AsyncTaskExecutor workers;
+    private CountDownLatch workersStopped;
+    private volatile boolean running = false;
+
+    public NotificationDispatcher(NotificationOutboxRepository outboxRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  UserRepository userRepository,
+                                  SimpMessagingTemplate messagingTemplate,
+                                  FCMService fcmService,
+                                  CacheManager cacheManager,
+                                  MeterRegistry meterRegistry,
+                                  @Qualifier("notificationWorkerExecutor") AsyncTaskExecutor workers) {
+        this.outboxRepository = outboxRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userRepository = userRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.fcmService = fcmService;
+        this.cacheManager = cacheManager;
+        this.workers = workers;
+
+        this.enqueuedCounter = meterRegistry.counter("notifications.enqueued");
+        this.deliveredCounter = meterRegistry.counter("notifications.delivered");
+        this.retriedCounter = meterRegistry.counter("notifications.retried");
+        this.failedCounter = meterRegistry.counter("notifications.failed");
+        this.batchTimer = meterRegistry.timer("notifications.batch");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+
+        workersStopped = new CountDownLatch(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(() -> {
+                try {
+                    runWorker();
+                } finally {
+                    workersStopped.countDown();
+                }
+            });
+        }
+    }
+
+    /**
+     * Writes a notification to the outbox. Inside a transaction the entry
+     * commits or rolls back with the caller's work, so rolled-back work never
+     * notifies anyone and committed work always does.
+     */
+    public void enqueue(Long userId, String title, String message, String type) {
+        outboxRepository.save(new NotificationOutboxEntry(userId, title, message, type));
+        enqueuedCounter.increment();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeUps.release();
+                }
+            });
+        } else {
+            wakeUps.release();
+        }
+    }
+
+    private void runWorker() {
+        while (running) {
+            try {
+                wakeUps.tryAcquire(pollMs, TimeUnit.MILLISECONDS);
+                wakeUps.drainPermits();
+                // A full batch means more entries are probably due
+                int found;
+                do {
+                    found = drain();
+                } while (running && found == batchSize);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Error draining notification outbox: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Leases and delivers one batch of due entries.
+     *
+     * @return the number of due entries found, claimed by this node or not
+     */
+    int drain() throws InterruptedException {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> due = outboxRepository.findDueIds(now, PageRequest.of(0, batchSize));
+        if (due.isEmpty()) {
+            return 0;
+        }
+        String claimToken = UUID.randomUUID().toString();
+        if (outboxRepository.claim(due, claimToken, now.plus(leaseMs, ChronoUnit.MILLIS), now) > 0) {
+            process(outboxRepository.findByClaimTokenOrderByIdAsc(claimToken));
+        }
+        return due.size();
+    }
+
+    private void process(List<NotificationOutboxEntry> batch) throws InterruptedException {
+        Timer.Sample sample = Timer.start();
+        try {
+            Set<Long> userIds = batch.stream().map(NotificationOutboxEntry::getUserId).collect(Collectors.toSet());
+            Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                    .collect(Collectors.toMap(User::getId, Function.identity()));
+
+            List<Long> finished = new ArrayList<>();
+            List<NotificationOutboxEntry> deliverable = new ArrayList<>(batch.size());
+            for (NotificationOutboxEntry entry : batch) {
+                if (users.containsKey(entry.getUserId())) {
+                    deliverable.add(entry);
+                } else {
+                    failedCounter.increment();
+                    finished.add(entry.getId());
+                    logger.warn("Dropping notification for missing user {}", entry.getUserId());
+                }
+            }
+
+            // Entries retried after a failed push already have their notification row
+            List<NotificationOutboxEntry> unstored = deliverable.stream()
+                    .filter(entry -> entry.getNotificationId() == null)
+                    .toList();
+            if (!unstored.isEmpty()) {
+                List<NotificationDTO> saved;
+                try {
+                    saved = transactionTemplate.execute(status -> store(unstored));
+                } catch (Exception e) {
+                    logger.error("Error saving {} notifications: {}", unstored.size(), e.getMessage());
+                    markSent(finished);
+                    scheduleRetry(deliverable);
+                    return;
+                }
+                for (int i = 0; i < unstored.size(); i++) {
+                    unstored.get(i).setNotificationId(saved.get(i).getId());
+                }
+                evictCaches(unstored.stream().map(NotificationOutboxEntry::getUserId).collect(Collectors.toSet()));
+                sendOverWebSocket(unstored, saved);
+            }
+
+            Map<NotificationOutboxEntry, CompletableFuture<Boolean>> pushes = new LinkedHashMap<>();
+            for (NotificationOutboxEntry entry : deliverable) {
+                String fcmToken = users.get(entry.getUserId()).getFcmToken();
+                if (fcmToken == null || fcmToken.isEmpty()) {
+                    finished.add(entry.getId());
+                } else {
+                    pushes.put(entry, fcmService.sendNotification(
+                            fcmToken, entry.getTitle(), entry.getMessage(), entry.getType()));
+                }
+            }
+
+            List<NotificationOutboxEntry> failed = new ArrayList<>();
+            awaitPushes(pushes.values());
+            pushes.forEach((entry, push) -> {
+                if (Boolean.TRUE.equals(push.getNow(false))) {
+                    finished.add(entry.getId());
+                } else {
+                    failed.add(entry);
+                }
+            });
+
+            markSent(finished);
+            deliveredCounter.increment(finished.size());
+            scheduleRetry(failed);
+        } finally {
+            sample.stop(batchTimer);
+        }
+    }
+
+    /**
+     * Inserts the notification rows and links each outbox entry to its row in
+     * one transaction, so a retried entry never inserts a second row.
+     */
+    private List<NotificationDTO> store(List<NotificationOutboxEntry> entries) {
+        Timestamp createdAt = Timestamp.from(Instant.now());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        NotificationOutboxEntry entry = entries.get(i);
+                        ps.setLong(1, entry.getUserId());
+                        ps.setString(2, entry.getTitle());
+                        ps.setString(3, entry.getMessage());
+                        ps.setString(4, entry.getType());
+                        ps.setTimestamp(5, createdAt);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return entries.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != entries.size()) {
+            throw new IllegalStateException("Expected " + entries.size() + " generated keys, got " + keys.size());
+        }
+        List<Long> notificationIds = new ArrayList<>(entries.size());
+        List<NotificationDTO> saved = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            NotificationOutboxEntry entry = entries.get(i);
+            notificationIds.add(firstKey(keys.get(i)));
+            saved.add(new NotificationDTO(notificationIds.get(i), entry.getTitle(), entry.getMessage(),
+                    entry.getType(), false, createdAt.toInstant()));
+        }
+
+        jdbcTemplate.batchUpdate(LINK_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, notificationIds.get(i));
+                ps.setLong(2, entries.get(i).getId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+        return saved;
+    }
+
+    private void sendOverWebSocket(List<NotificationOutboxEntry> entries, List<NotificationDTO> saved) {
+        for (int i = 0; i < entries.size(); i++) {
+            try {
+                messagingTemplate.convertAndSendToUser(
+                        entries.get(i).getUserId().toString(),
+                        "/queue/notifications",
+                        saved.get(i)
+                );
+            } catch (Exception e) {
+                logger.error("Error sending notification over WebSocket: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Waits up to {@code app.notifications.push-timeout-ms} for FCM; pushes
+     * still pending after that are retried later.
+     */
+    private void awaitPushes(Iterable<CompletableFuture<Boolean>> pushes) throws InterruptedException {
+        List<CompletableFuture<Boolean>> all = new ArrayList<>();
+        pushes.forEach(all::add);
+        if (all.isEmpty()) {
+            return;
+        }
+        try {
+            CompletableFuture.allOf(all.toArray(new CompletableFuture[0])).get(pushTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Timed out waiting for FCM on {} pushes", all.stream().filter(push -> !push.isDone()).count());
+        } catch (ExecutionException e) {
+            logger.error("Error sending FCM notifications: {}", e.getMessage());
+        }
+    }
+
+    private void markSent(List<Long> ids) {
+        if (!ids.isEmpty()) {
+            outboxRepository.markSent(ids, LocalDateTime.now());
+        }
+    }
+
+    private void scheduleRetry(List<NotificationOutboxEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> abandoned = new ArrayList<>();
+        List<NotificationOutboxEntry> retries = new ArrayList<>();
+        for (NotificationOutboxEntry entry : entries) {
+            int attempts = entry.getAttempts() + 1;
+            if (attempts >= maxAttempts) {
+                failedCounter.increment();
+                abandoned.add(entry.getId());
+                logger.error("Giving up on notification for user {} after {} attempts", entry.getUserId(), attempts);
+                continue;
+            }
+            retriedCounter.increment();
+            entry.setAttempts(attempts);
+            entry.setNextAttemptAt(now.plus(retryBaseDelayMs << Math.min(attempts - 1, 10), ChronoUnit.MILLIS));
+            entry.setClaimToken(null);
+            retries.add(entry);
+        }
+        markSent(abandoned);
+        if (!retries.isEmpty()) {
+            outboxRepository.saveAll(retries);
+        }
+    }
+
+    @Scheduled(cron = "${app.notifications.outbox-cleanup-cron:0 15 * * * *}")
+    public void cleanup() {
+        try {
+            int deleted = outboxRepository.deleteSentBefore(LocalDateTime.now().minusHours(retentionHours));
+            if (deleted > 0) {
+                logger.info("Deleted {} sent notification outbox entries", deleted);
+            }
+        } catch (Exception e) {
+            logger.error("Error cleaning up notification outbox: {}", e.getMessage());
+        }
+    }
+
+    private void evictCaches(Set<Long> userIds) {
+        Cache notifications = cacheManager.getCache(NOTIFICATIONS_CACHE);
+        Cache unreadCounts = cacheManager.getCache(UNREAD_COUNT_CACHE);
+        for (Long userId : new HashSet<>(userIds)) {
+            if (notifications != null) {
+                notifications.evict(userId);
+                notifications.evict("dto-" + userId);
+            }
+            if (unreadCounts != null) {
+                unreadCounts.evict(userId);
+            }
+        }
+    }
+
+    private static Long firstKey(Map<String, Object> keys) {
+        for (Object value : keys.values()) {
+            if (value instanceof Number number) {
+                return number.longValue();
+            }
+        }
+        throw new IllegalStateException("No generated notification id");
+    }
+
+    /**
+     * Stops the workers. Entries they had not finished stay in the outbox and
+     * are picked up again once their lease runs out.
+     */
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        wakeUps.release(workerCount);
+        try {
+            workersStopped.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
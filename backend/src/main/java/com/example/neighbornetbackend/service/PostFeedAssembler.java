@@ -0,0 +1,172 @@
+package com.example.neighbornetbackend.service;
+
+import com.example.neighbornetbackend.dto.CommentDTO;
+import com.example.neighbornetbackend.dto.PostDTO;
+import com.example.neighbornetbackend.dto.UserDTO;
+import com.example.neighbornetbackend.model.Comment;
+import com.example.neighbornetbackend.model.Post;
+import com.example.neighbornetbackend.model.User;
+import com.example.neighbornetbackend.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds {@link PostDTO}s for a page of posts with a fixed number of queries:
+ * engagement counts come from the posts' counter columns, "liked by me" is a
+ * single membership query, and only the first few comments of each post are
+ * loaded (the rest are served by the paged comments endpoint).
+ * Expects the posts' authors and original posts to be fetched already.
+ */
+@Component
+public class PostFeedAssembler {
+    private final PostRepository postRepository;
+
+    @Value("${app.posts.feed-comments-per-post:20}")
+    private int commentsPerPost;
+
+    public PostFeedAssembler(PostRepository postRepository) {
+        this.postRepository = postRepository;
+    }
+
+    public List<PostDTO> assemble(List<Post> posts, Long currentUserId) {
+        return assemble(posts, currentUserId, commentsPerPost);
+    }
+
+    /**
+     * Builds the DTO for a single post with all of its comments, as returned
+     * by the post write endpoints.
+     */
+    public PostDTO assembleWithAllComments(Post post, Long currentUserId) {
+        return assemble(List.of(post), currentUserId, Integer.MAX_VALUE).get(0);
+    }
+
+    public List<CommentDTO> assembleComments(List<Comment> comments, Long currentUserId) {
+        List<Long> commentIds = comments.stream().map(Comment::getId).toList();
+        Set<Long> likedCommentIds = currentUserId != null && !commentIds.isEmpty()
+                ? new HashSet<>(postRepository.findCommentIdsLikedByUser(commentIds, currentUserId))
+                : Set.of();
+        return comments.stream()
+                .map(comment -> toCommentDTO(comment, likedCommentIds))
+                .toList();
+    }
+
+    private List<PostDTO> assemble(List<Post> posts, Long currentUserId, int commentLimit) {
+        if (posts.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<Long> idSet = new LinkedHashSet<>();
+        for (Post post : posts) {
+            idSet.add(post.getId());
+            if (post.getOriginalPost() != null) {
+                idSet.add(post.getOriginalPost().getId());
+            }
+        }
+        List<Long> postIds = new ArrayList<>(idSet);
+
+        Set<Long> likedPostIds = currentUserId != null
+                ? new HashSet<>(postRepository.findPostIdsLikedByUser(postIds, currentUserId))
+                : Set.of();
+
+        Map<Long, List<CommentDTO>> commentsByPost = loadFirstComments(postIds, currentUserId, commentLimit);
+
+        List<PostDTO> result = new ArrayList<>(posts.size());
+        for (Post post : posts) {
+            result.add(toPostDTO(post, likedPostIds, commentsByPost));
+        }
+        return result;
+    }
+
+    private Map<Long, List<CommentDTO>> loadFirstComments(List<Long> postIds, Long currentUserId, int commentLimit) {
+        Map<Long, List<CommentDTO>> commentsByPost = new HashMap<>();
+        if (commentLimit <= 0) {
+            return commentsByPost;
+        }
+
+        List<Long> commentIds = postRepository.findFirstCommentIdsPerPost(postIds, commentLimit);
+        if (commentIds.isEmpty()) {
+            return commentsByPost;
+        }
+
+        List<Comment> comments = postRepository.findCommentsWithUserByIdIn(commentIds);
+        Set<Long> likedCommentIds = currentUserId != null
+                ? new HashSet<>(postRepository.findCommentIdsLikedByUser(commentIds, currentUserId))
+                : Set.of();
+
+        for (Comment comment : comments) {
+            commentsByPost.computeIfAbsent(comment.getPost().getId(), key -> new ArrayList<>())
+                    .add(toCommentDTO(comment, likedCommentIds));
+        }
+        return commentsByPost;
+    }
+
+    private CommentDTO toCommentDTO(Comment comment, Set<Long> likedCommentIds) {
+        return new CommentDTO(
+                comment.getId(),
+                toAuthorDTO(comment.getUser()),
+                comment.getContent(),
+                comment.getLikeCount(),
+                likedCommentIds.contains(comment.getId()),
+                comment.getCreatedAt()
+        );
+    }
+
+    private PostDTO toPostDTO(Post post, Set<Long> likedPostIds, Map<Long, List<CommentDTO>> commentsByPost) {
+        PostDTO originalPostDTO = null;
+        UserDTO sharedByDTO = null;
+
+        Post original = post.getOriginalPost();
+        if (original != null) {
+            originalPostDTO = new PostDTO(
+                    original.getId(),
+                    toAuthorDTO(original.getUser()),
+                    original.getContent(),
+                    original.getImageUrl(),
+                    original.getLikeCount(),
+                    original.getCommentCount(),
+                    original.getShareCount(),
+                    original.getCreatedAt(),
+                    likedPostIds.contains(original.getId()),
+                    false,
+                    commentsByPost.getOrDefault(original.getId(), new ArrayList<>()),
+                    null,
+                    null,
+                    original.isEdited()
+            );
+            sharedByDTO = toAuthorDTO(post.getUser());
+        }
+
+        return new PostDTO(
+                post.getId(),
+                toAuthorDTO(post.getUser()),
+                post.getContent(),
+                post.getImageUrl(),
+                post.getLikeCount(),
+                post.getCommentCount(),
+                post.getShareCount(),
+                post.getCreatedAt(),
+                likedPostIds.contains(post.getId()),
+                original != null,
+                commentsByPost.getOrDefault(post.getId(), new ArrayList<>()),
+                originalPostDTO,
+                sharedByDTO,
+                post.isEdited()
+        );
+    }
+
+    private static UserDTO toAuthorDTO(User user) {
+        return new UserDTO(
+                user.getId(),
+                user.getUsername(),
+                user.getImageUrl()
+        );
+    }
+}
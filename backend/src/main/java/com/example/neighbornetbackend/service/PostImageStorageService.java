@@ -1,7 +1,6 @@
 package com.example.neighbornetbackend.service;
 
 import com.google.cloud.storage.BlobId;
-import com.google.cloud.storage.BlobInfo;
 import com.google.cloud.storage.Storage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,20 +8,22 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.UUID;
 
 @Service
 public class PostImageStorageService {
     private final Storage storage;
     private final String bucketName;
+    private final ImageDerivativeService imageDerivativeService;
 
     @Value("${gcp.storage.public-url:https://storage.googleapis.com}")
     private String publicUrl;
 
     @Autowired
-    public PostImageStorageService(Storage storage, @Value("${gcp.storage.bucket-name}") String bucketName) {
+    public PostImageStorageService(Storage storage, @Value("${gcp.storage.bucket-name}") String bucketName,
+                                   ImageDerivativeService imageDerivativeService) {
         this.storage = storage;
         this.bucketName = bucketName;
+        this.imageDerivativeService = imageDerivativeService;
     }
 
     public String storePostImage(MultipartFile file) throws IOException {
@@ -30,20 +31,7 @@ public class PostImageStorageService {
             return null;
         }
 
-        String originalFilename = file.getOriginalFilename();
-        String fileExtension = originalFilename != null ?
-                originalFilename.substring(originalFilename.lastIndexOf(".")) : ".jpg";
-        String filename = UUID.randomUUID().toString() + fileExtension;
-        String objectName = "post-images/" + filename;
-
-        BlobId blobId = BlobId.of(bucketName, objectName);
-        BlobInfo blobInfo = BlobInfo.newBuilder(blobId)
-                .setContentType(file.getContentType())
-                .build();
-
-        storage.create(blobInfo, file.getBytes());
-
-        return "/api/posts/images/" + filename;
+        return imageDerivativeService.store(file, "post-images/", "/api/posts/images/");
     }
 
     public String getPostImageUrl(String filename) {
@@ -60,6 +48,7 @@ public class PostImageStorageService {
 
             BlobId blobId = BlobId.of(bucketName, objectName);
             boolean deleted = storage.delete(blobId);
+            imageDerivativeService.deleteVariants("post-images/", filename);
 
             if (deleted) {
                 System.out.println("Successfully deleted image: " + objectName);
@@ -2,7 +2,7 @@ package com.example.neighbornetbackend.service;
 
 import com.example.neighbornetbackend.dto.CommentDTO;
 import com.example.neighbornetbackend.dto.PostDTO;
-import com.example.neighbornetbackend.dto.UserDTO;
+import com.example.neighbornetbackend.dto.SearchPageResponse;
 import com.example.neighbornetbackend.exception.ResourceNotFoundException;
 import com.example.neighbornetbackend.exception.UnauthorizedException;
 import com.example.neighbornetbackend.model.Comment;
@@ -20,10 +20,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,6 +37,9 @@ public class PostService {
     private final UserService userService;
     private final NotificationService notificationService;
     private final PostImageStorageService postImageStorageService;
+    private final SearchIndexService searchIndexService;
+    private final PostFeedAssembler postFeedAssembler;
+    private final CommunityFeedService communityFeedService;
 
     private static final Logger logger = LoggerFactory.getLogger(PostService.class);
 
@@ -44,78 +48,29 @@ public class PostService {
             UserService userService,
             NotificationService notificationService,
             PostImageStorageService postImageStorageService,
+            SearchIndexService searchIndexService,
+            PostFeedAssembler postFeedAssembler,
+            CommunityFeedService communityFeedService,
             @Qualifier("notificationTaskExecutor") AsyncTaskExecutor notificationExecutor) {
         this.postRepository = postRepository;
         this.userService = userService;
         this.notificationService = notificationService;
         this.postImageStorageService = postImageStorageService;
+        this.searchIndexService = searchIndexService;
+        this.postFeedAssembler = postFeedAssembler;
+        this.communityFeedService = communityFeedService;
         this.notificationExecutor = notificationExecutor;
     }
 
-    private UserDTO convertToAuthorDTO(User user) {
-        return new UserDTO(
-                user.getId(),
-                user.getUsername(),
-                user.getImageUrl()
-        );
-    }
-
     private PostDTO convertToDTO(Post post, Long currentUserId) {
-        PostDTO originalPostDTO = null;
-        UserDTO sharedByDTO = null;
-
-        if (post.getOriginalPost() != null) {
-            originalPostDTO = new PostDTO(
-                    post.getOriginalPost().getId(),
-                    convertToAuthorDTO(post.getOriginalPost().getUser()),
-                    post.getOriginalPost().getContent(),
-                    post.getOriginalPost().getImageUrl(),
-                    post.getOriginalPost().getLikes().size(),
-                    post.getOriginalPost().getComments().size(),
-                    post.getOriginalPost().getShares().size(),
-                    post.getOriginalPost().getCreatedAt(),
-                    isLikedByUser(post.getOriginalPost(), currentUserId),
-                    false,
-                    post.getOriginalPost().getComments().stream()
-                            .map(comment -> convertToCommentDTO(comment, currentUserId))
-                            .collect(Collectors.toList()),
-                    null,
-                    null,
-                    post.getOriginalPost().isEdited()
-            );
-            sharedByDTO = convertToAuthorDTO(post.getUser());
-        }
-
-        return new PostDTO(
-                post.getId(),
-                convertToAuthorDTO(post.getUser()),
-                post.getContent(),
-                post.getImageUrl(),
-                post.getLikes().size(),
-                post.getComments().size(),
-                post.getShares().size(),
-                post.getCreatedAt(),
-                isLikedByUser(post, currentUserId),
-                post.getOriginalPost() != null,
-                post.getComments().stream()
-                        .map(comment -> convertToCommentDTO(comment, currentUserId))
-                        .collect(Collectors.toList()),
-                originalPostDTO,
-                sharedByDTO,
-                post.isEdited()
-        );
+        return postFeedAssembler.assembleWithAllComments(post, currentUserId);
     }
 
-
-    private CommentDTO convertToCommentDTO(Comment comment, Long currentUserId) {
-        return new CommentDTO(
-                comment.getId(),
-                convertToAuthorDTO(comment.getUser()),
-                comment.getContent(),
-                comment.getLikes().size(),
-                isCommentLikedByUser(comment, currentUserId),
-                comment.getCreatedAt()
-        );
+    private PostDTO loadPostDTO(Long postId, Long currentUserId) {
+        Post post = postRepository.findFeedPostsByIdIn(List.of(postId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
+        return convertToDTO(post, currentUserId);
     }
 
     @Caching(evict = {
@@ -129,8 +84,9 @@ public class PostService {
         post.setUser(user);
         post.setContent(content);
         post.setImageUrl(imageUrl);
-        post.setCreatedAt(LocalDateTime.now(ZoneOffset.UTC));
         Post savedPost = postRepository.save(post);
+        searchIndexService.indexPost(savedPost.getId(), savedPost.getContent(), user.getUsername());
+        communityFeedService.recordPost(user, savedPost);
         return convertToDTO(savedPost, userId);
     }
 
@@ -138,70 +94,46 @@ public class PostService {
     @CacheEvict(value = "posts", key = "'post_' + #postId")
     @Transactional
     public PostDTO likePost(Long postId, Long userId) {
-        Post post = postRepository.findByIdWithLikes(postId)
+        Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
-        User user = userService.getUserById(userId);
 
-        boolean wasLiked = post.getLikes().removeIf(likedUser -> likedUser.getId().equals(userId));
-        if (!wasLiked) {
-            post.getLikes().add(user);
-            if (!post.getUser().getId().equals(userId)) {
+        if (postRepository.deletePostLike(postId, userId) > 0) {
+            postRepository.adjustLikeCount(postId, -1);
+        } else if (postRepository.insertPostLike(postId, userId) > 0) {
+            User user = userService.getUserById(userId);
+            Long ownerId = post.getUser().getId();
+            String postContent = post.getContent();
+            postRepository.adjustLikeCount(postId, 1);
+            if (!ownerId.equals(userId)) {
                 sendNotificationAsync(
-                        post.getUser().getId(),
+                        ownerId,
                         "New Like",
-                        user.getUsername() + " liked your post: " + truncateContent(post.getContent()),
+                        user.getUsername() + " liked your post: " + truncateContent(postContent),
                         "POST_LIKE"
                 );
             }
         }
 
-        Post savedPost = postRepository.save(post);
-        return convertToDTO(savedPost, userId);
-    }
-
-
-    private boolean isLikedByUser(Post post, Long userId) {
-        return post.getLikes().stream()
-                .anyMatch(user -> user.getId().equals(userId));
+        return loadPostDTO(postId, userId);
     }
 
     @Transactional(readOnly = true)
     public Page<PostDTO> getPosts(int page, int size, Long currentUserId) {
         try {
             Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-            Page<Post> posts = postRepository.findAllPosts(pageable);
-
-            List<Long> postIds = posts.getContent().stream()
-                    .map(Post::getId)
-                    .collect(Collectors.toList());
-
-            List<Post> detailedPosts = new ArrayList<>();
-            for (Long id : postIds) {
-                postRepository.findByIdWithDetails(id)
-                        .ifPresent(detailedPosts::add);
-            }
+            Page<Post> posts = postRepository.findFeedPage(pageable);
 
-            int start = (int) pageable.getOffset();
-            int end = Math.min((start + pageable.getPageSize()), detailedPosts.size());
-
-            Page<Post> detailedPage = new PageImpl<>(
-                    detailedPosts.subList(start, end),
+            return new PageImpl<>(
+                    postFeedAssembler.assemble(posts.getContent(), currentUserId),
                     pageable,
                     posts.getTotalElements()
             );
-
-            return detailedPage.map(post -> convertToDTO(post, currentUserId));
         } catch (Exception e) {
             logger.error("Error fetching posts", e);
             return Page.empty(PageRequest.of(page, size));
         }
     }
 
-    private boolean isCommentLikedByUser(Comment comment, Long userId) {
-        return comment.getLikes().stream()
-                .anyMatch(user -> user.getId().equals(userId));
-    }
-
     @CacheEvict(value = "posts", key = "'post_' + #postId")
     @Transactional
     public PostDTO addComment(Long postId, String content, Long userId) {
@@ -224,57 +156,50 @@ public class PostService {
             );
         }
 
-        Post savedPost = postRepository.save(post);
-        return convertToDTO(savedPost, userId);
+        postRepository.save(post);
+        postRepository.adjustCommentCount(postId, 1);
+        return loadPostDTO(postId, userId);
     }
 
     @CacheEvict(value = "posts", key = "'post_' + #postId")
     @Transactional
     public PostDTO deleteComment(Long postId, Long commentId, Long userId) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
-
-        boolean removed = post.getComments().removeIf(comment ->
-                comment.getId().equals(commentId) &&
-                        (comment.getUser().getId().equals(userId) || post.getUser().getId().equals(userId))
-        );
-
-        if (!removed) {
-            throw new ResourceNotFoundException("Comment not found or you don't have permission to delete it");
-        }
-
-        Post savedPost = postRepository.save(post);
-        return convertToDTO(savedPost, userId);
+        Comment comment = postRepository.findCommentOnPost(postId, commentId)
+                .filter(c -> c.getUser().getId().equals(userId) || c.getPost().getUser().getId().equals(userId))
+                .orElseThrow(() -> new ResourceNotFoundException("Comment not found or you don't have permission to delete it"));
+
+        postRepository.deleteAllCommentLikes(comment.getId());
+        postRepository.deleteCommentById(comment.getId());
+        postRepository.adjustCommentCount(postId, -1);
+        return loadPostDTO(postId, userId);
     }
 
 
     @CacheEvict(value = "posts", key = "'post_' + #postId")
     @Transactional
     public PostDTO likeComment(Long postId, Long commentId, Long userId) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
-        User user = userService.getUserById(userId);
-
-        Comment comment = post.getComments().stream()
-                .filter(c -> c.getId().equals(commentId))
-                .findFirst()
+        Comment comment = postRepository.findCommentOnPost(postId, commentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Comment not found"));
 
-        boolean wasLiked = comment.getLikes().removeIf(likedUser -> likedUser.getId().equals(userId));
-        if (!wasLiked) {
-            comment.getLikes().add(user);
-            if (!comment.getUser().getId().equals(userId)) {
+        if (postRepository.deleteCommentLike(commentId, userId) > 0) {
+            postRepository.adjustCommentLikeCount(commentId, -1);
+        } else if (postRepository.insertCommentLike(commentId, userId) > 0) {
+            User user = userService.getUserById(userId);
+            Long commentAuthorId = comment.getUser().getId();
+            Long postOwnerId = comment.getPost().getUser().getId();
+            String postContent = comment.getPost().getContent();
+            postRepository.adjustCommentLikeCount(commentId, 1);
+            if (!commentAuthorId.equals(userId)) {
                 sendNotificationAsync(
-                        post.getUser().getId(),
+                        postOwnerId,
                         "Comment Liked",
-                        user.getUsername() + " liked your post: " + truncateContent(post.getContent()),
+                        user.getUsername() + " liked your post: " + truncateContent(postContent),
                         "COMMENT_LIKED"
                 );
             }
         }
 
-        Post savedPost = postRepository.save(post);
-        return convertToDTO(savedPost, userId);
+        return loadPostDTO(postId, userId);
     }
 
     @CacheEvict(value = "postPages", allEntries = true)
@@ -301,7 +226,9 @@ public class PostService {
         );
 
         Post savedPost = postRepository.save(sharedPost);
-        return convertToDTO(savedPost, userId);
+        searchIndexService.indexPost(savedPost.getId(), savedPost.getContent(), user.getUsername());
+        postRepository.adjustShareCount(postId, 1);
+        return loadPostDTO(savedPost.getId(), userId);
     }
 
     @Caching(evict = {
@@ -321,12 +248,19 @@ public class PostService {
             postImageStorageService.deletePostImage(post.getImageUrl());
         }
 
+        Long originalPostId = post.getOriginalPost() != null ? post.getOriginalPost().getId() : null;
+
         post.getShare().clear();
         post.getShares().clear();
         post.getLikes().clear();
         post.getComments().clear();
 
         postRepository.delete(post);
+        if (originalPostId != null) {
+            postRepository.adjustShareCount(originalPostId, -1);
+        }
+        searchIndexService.remove(SearchIndexService.POSTS, postId);
+        communityFeedService.removeSubject(CommunityFeedService.TYPE_POST, postId);
     }
 
     @Caching(evict = {
@@ -345,17 +279,13 @@ public class PostService {
         post.setContent(content);
         post.setEdited(true);
         Post updatedPost = postRepository.save(post);
+        searchIndexService.indexPost(updatedPost.getId(), updatedPost.getContent(), updatedPost.getUser().getUsername());
         return convertToDTO(updatedPost, userId);
     }
 
     @Transactional
     public PostDTO updateComment(Long postId, Long commentId, String content, Long userId) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
-
-        Comment comment = post.getComments().stream()
-                .filter(c -> c.getId().equals(commentId))
-                .findFirst()
+        Comment comment = postRepository.findCommentOnPost(postId, commentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Comment not found"));
 
         if (!comment.getUser().getId().equals(userId)) {
@@ -363,8 +293,7 @@ public class PostService {
         }
 
         comment.setContent(content);
-        Post savedPost = postRepository.save(post);
-        return convertToDTO(savedPost, userId);
+        return convertToDTO(comment.getPost(), userId);
     }
 
     private String truncateContent(String content) {
@@ -379,9 +308,9 @@ public class PostService {
     public Page<PostDTO> getAllPosts(int page, int size) {
         try {
             Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-            Page<Post> posts = postRepository.findAllPosts(pageable);
+            Page<Post> posts = postRepository.findFeedPage(pageable);
 
-            return posts.map(post -> convertToDTO(post, null));
+            return new PageImpl<>(postFeedAssembler.assemble(posts.getContent(), null), pageable, posts.getTotalElements());
         } catch (Exception e) {
             logger.error("Error fetching all posts: ", e);
             throw new RuntimeException("Error fetching posts: " + e.getMessage());
@@ -393,34 +322,53 @@ public class PostService {
     public Page<PostDTO> searchPosts(String query, int page, int size) {
         try {
             Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+
+            if (searchIndexService.isReady()) {
+                SearchIndexService.SearchHits hits = searchIndexService.search(
+                        SearchIndexService.POSTS, query, null, page, size);
+                return new PageImpl<>(loadPostsInOrder(hits.ids(), null), pageable, hits.totalHits());
+            }
+
             Page<Post> posts = postRepository.searchPosts(query, pageable);
 
-            return posts.map(post -> convertToDTO(post, null));
+            return new PageImpl<>(postFeedAssembler.assemble(posts.getContent(), null), pageable, posts.getTotalElements());
         } catch (Exception e) {
             logger.error("Error searching posts: ", e);
             throw new RuntimeException("Error searching posts: " + e.getMessage());
         }
     }
 
-    public Page<CommentDTO> getPostComments(Long postId, int page, int size, Long userId) {
-        Pageable pageable = PageRequest.of(page, size);
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
-
-        int start = page * size;
-        int end = Math.min(start + size, post.getComments().size());
+    @Transactional(readOnly = true)
+    public SearchPageResponse<PostDTO> searchPostsRanked(String query, int page, int size, Long currentUserId) {
+        SearchIndexService.SearchHits hits = searchIndexService.search(
+                SearchIndexService.POSTS, query, null, page, size);
+        return new SearchPageResponse<>(loadPostsInOrder(hits.ids(), currentUserId), hits.totalHits(), page, size, hits.facets());
+    }
 
-        if (start >= post.getComments().size()) {
-            return Page.empty(pageable);
+    private List<PostDTO> loadPostsInOrder(List<Long> postIds, Long currentUserId) {
+        if (postIds.isEmpty()) {
+            return new ArrayList<>();
         }
+        Map<Long, Post> postsById = new HashMap<>();
+        postRepository.findFeedPostsByIdIn(postIds).forEach(post -> postsById.put(post.getId(), post));
 
-        List<CommentDTO> commentDTOs = post.getComments().stream()
-                .skip(start)
-                .limit(size)
-                .map(comment -> convertToCommentDTO(comment, userId))
+        List<Post> posts = postIds.stream()
+                .map(postsById::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+        return postFeedAssembler.assemble(posts, currentUserId);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<CommentDTO> getPostComments(Long postId, int page, int size, Long userId) {
+        if (!postRepository.existsById(postId)) {
+            throw new ResourceNotFoundException("Post not found");
+        }
 
-        return new PageImpl<>(commentDTOs, pageable, post.getComments().size());
+        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").ascending().and(Sort.by("id").ascending()));
+        Page<Comment> comments = postRepository.findCommentsByPostId(postId, pageable);
+        return new PageImpl<>(postFeedAssembler.assembleComments(comments.getContent(), userId),
+                pageable, comments.getTotalElements());
     }
 
     private void sendNotificationAsync(Long userId, String title, String message, String type) {
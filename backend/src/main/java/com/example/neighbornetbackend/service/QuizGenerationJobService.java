@@ -0,0 +1,337 @@
+package com.example.neighbornetbackend.service;
+
+import com.example.neighbornetbackend.dto.ContentImportRequest;
+import com.example.neighbornetbackend.dto.QuizGenerationJobResponse;
+import com.example.neighbornetbackend.dto.QuizGenerationRequest;
+import com.example.neighbornetbackend.dto.QuizRequest;
+import com.example.neighbornetbackend.exception.QuizGenerationCapacityException;
+import com.example.neighbornetbackend.exception.ResourceNotFoundException;
+import com.example.neighbornetbackend.model.QuizGenerationJob;
+import com.example.neighbornetbackend.repository.QuizGenerationJobRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs quiz generation off the request thread. {@link #submit} returns a job
+ * at once; the job's status can be polled and is pushed to its owner on
+ * {@code /user/queue/quiz-jobs} when it finishes. Job state is kept in
+ * {@code quiz_generation_jobs}, so a poll can land on any node, not only the
+ * one running the job.
+ *
+ * <p>Generation runs on {@code app.quiz-generation.workers} threads with a
+ * bounded queue, and a job that is not done after
+ * {@code app.quiz-generation.timeout-ms} gets a locally generated quiz
+ * instead. Requests are keyed by their normalized topic, difficulty, type
+ * and question count: identical requests in flight share one generation,
+ * and Gemini results are cached for {@code app.quiz-generation.cache-minutes}.
+ * Local fallback quizzes are never cached, so Gemini is tried again next
+ * time.</p>
+ *
+ * <p>Quizzes from imported content ({@link #submitFromContent}) run on the
+ * same workers. They are neither shared nor cached, and are bounded by
+ * {@link ChunkedQuizGenerator}'s document timeout rather than
+ * {@code timeout-ms}.</p>
+ */
+@Service
+public class QuizGenerationJobService {
+    private static final Logger logger = LoggerFactory.getLogger(QuizGenerationJobService.class);
+
+    private static final String PENDING = "PENDING";
+    private static final String COMPLETED = "COMPLETED";
+    private static final String FAILED = "FAILED";
+
+    private final GeminiService geminiService;
+    private final LocalQuizGenerator localQuizGenerator;
+    private final ContentProcessingService contentProcessingService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final QuizGenerationJobRepository jobRepository;
+    private final Map<String, CompletableFuture<GeminiService.GeneratedQuiz>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter cacheHits;
+    private final Counter collapsed;
+
+    @Value("${app.quiz-generation.timeout-ms:60000}")
+    private long timeoutMs;
+
+    @Value("${app.quiz-generation.cache-minutes:60}")
+    private long cacheMinutes;
+
+    @Value("${app.quiz-generation.cache-size:500}")
+    private long cacheSize;
+
+    @Value("${app.quiz-generation.job-ttl-minutes:30}")
+    private long jobTtlMinutes;
+
+    private final AsyncTaskExecutor executor;
+    private Cache<String, QuizRequest> results;
+
+    public QuizGenerationJobService(GeminiService geminiService,
+                                    LocalQuizGenerator localQuizGenerator,
+                                    ContentProcessingService contentProcessingService,
+                                    SimpMessagingTemplate messagingTemplate,
+                                    QuizGenerationJobRepository jobRepository,
+                                    MeterRegistry meterRegistry,
+                                    @Qualifier("quizGenerationExecutor") AsyncTaskExecutor executor) {
+        this.geminiService = geminiService;
+        this.localQuizGenerator = localQuizGenerator;
+        this.contentProcessingService = contentProcessingService;
+        this.messagingTemplate = messagingTemplate;
+        this.jobRepository = jobRepository;
+        this.executor = executor;
+        this.cacheHits = meterRegistry.counter("quiz.generation.cache.hits");
+        this.collapsed = meterRegistry.counter("quiz.generation.collapsed");
+    }
+
+    @PostConstruct
+    public void init() {
+        results = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheMinutes, TimeUnit.MINUTES)
+                .build();
+    }
+
+    /**
+     * Starts generating a quiz for {@code userId}. With {@code refresh} the
+     * cached result is skipped and a new quiz is generated.
+     */
+    public QuizGenerationJobResponse submit(QuizGenerationRequest request, Long userId, boolean refresh) {
+        String key = normalizedKey(request);
+        Job job = new Job(UUID.randomUUID().toString(), userId, () -> localQuizGenerator.generateLocalQuiz(request));
+
+        QuizRequest cached = refresh ? null : results.getIfPresent(key);
+        if (cached != null) {
+            cacheHits.increment();
+            job.complete(cached, false);
+            jobRepository.save(job.toEntity());
+            return job.toResponse();
+        }
+
+        CompletableFuture<GeminiService.GeneratedQuiz> generation = generation(key, request, refresh);
+        // Saved before the job can finish, so the result is never overwritten
+        jobRepository.save(job.toEntity());
+        generation.whenComplete((generated, error) -> finish(job, generated, error));
+        return job.toResponse();
+    }
+
+    /**
+     * Starts generating a quiz from imported text or a web page for
+     * {@code userId}.
+     */
+    public QuizGenerationJobResponse submitFromContent(ContentImportRequest request, Long userId) {
+        Job job = new Job(UUID.randomUUID().toString(), userId, null);
+        CompletableFuture<GeminiService.GeneratedQuiz> generation = contentGeneration(request);
+        jobRepository.save(job.toEntity());
+        generation.whenComplete((generated, error) -> finish(job, generated, error));
+        return job.toResponse();
+    }
+
+    /**
+     * Generates a quiz from imported content for a caller that waits for it,
+     * on the same bounded workers as jobs.
+     */
+    public QuizRequest generateFromContent(ContentImportRequest request) {
+        try {
+            return contentGeneration(request).join().quiz();
+        } catch (CompletionException e) {
+            logger.error("Error generating quiz from content: {}", e.getMessage());
+            throw new IllegalStateException("Failed to generate quiz from content", e.getCause());
+        }
+    }
+
+    public QuizGenerationJobResponse getJob(String jobId, Long userId) {
+        QuizGenerationJob job = jobRepository.findByIdAndUserId(jobId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Quiz generation job not found: " + jobId));
+        return new QuizGenerationJobResponse(job.getId(), job.getStatus(), job.getQuiz(), job.isFallback(),
+                job.getMessage());
+    }
+
+    /**
+     * Generates a quiz for a caller that waits for it, sharing the cache and
+     * in-flight generations with jobs. Throws
+     * {@link QuizGenerationCapacityException} when the workers and their
+     * queue are full, rather than generating on the request thread.
+     */
+    public QuizRequest generate(QuizGenerationRequest request) {
+        String key = normalizedKey(request);
+        QuizRequest cached = results.getIfPresent(key);
+        if (cached != null) {
+            cacheHits.increment();
+            return cached;
+        }
+
+        try {
+            return generation(key, request, false).join().quiz();
+        } catch (CompletionException e) {
+            logger.warn("Quiz generation did not finish: {}", e.getMessage());
+            return localQuizGenerator.generateLocalQuiz(request);
+        }
+    }
+
+    /**
+     * Drops jobs older than {@code app.quiz-generation.job-ttl-minutes}.
+     */
+    @Scheduled(fixedDelayString = "${app.quiz-generation.job-sweep-ms:60000}")
+    public void expireJobs() {
+        jobRepository.deleteCreatedBefore(LocalDateTime.now().minusMinutes(jobTtlMinutes));
+    }
+
+    /**
+     * Returns the generation in flight for {@code key}, starting one if there
+     * is none or if {@code refresh} is set. A refreshed generation replaces
+     * the previous one for later identical requests.
+     */
+    private CompletableFuture<GeminiService.GeneratedQuiz> generation(String key, QuizGenerationRequest request,
+                                                                      boolean refresh) {
+        CompletableFuture<GeminiService.GeneratedQuiz> generation = new CompletableFuture<>();
+        if (refresh) {
+            inFlight.put(key, generation);
+        } else {
+            CompletableFuture<GeminiService.GeneratedQuiz> existing = inFlight.putIfAbsent(key, generation);
+            if (existing != null) {
+                collapsed.increment();
+                return existing;
+            }
+        }
+
+        try {
+            executor.execute(() -> run(key, request, generation));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, generation);
+            throw new QuizGenerationCapacityException("Too many quizzes being generated, please retry shortly");
+        }
+        generation.orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .whenComplete((generated, error) -> inFlight.remove(key, generation));
+        return generation;
+    }
+
+    private CompletableFuture<GeminiService.GeneratedQuiz> contentGeneration(ContentImportRequest request) {
+        CompletableFuture<GeminiService.GeneratedQuiz> generation = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    generation.complete(contentProcessingService.generate(request));
+                } catch (Exception e) {
+                    generation.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new QuizGenerationCapacityException("Too many quizzes being generated, please retry shortly");
+        }
+        return generation;
+    }
+
+    private void run(String key, QuizGenerationRequest request, CompletableFuture<GeminiService.GeneratedQuiz> generation) {
+        if (generation.isDone()) {
+            return;
+        }
+        try {
+            GeminiService.GeneratedQuiz generated = geminiService.generate(request);
+            if (generated.fromGemini()) {
+                results.put(key, generated.quiz());
+            }
+            generation.complete(generated);
+        } catch (Exception e) {
+            generation.completeExceptionally(e);
+        }
+    }
+
+    private void finish(Job job, GeminiService.GeneratedQuiz generated, Throwable error) {
+        if (error == null) {
+            job.complete(generated.quiz(), !generated.fromGemini());
+        } else {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof TimeoutException) {
+                logger.warn("Quiz generation job {} timed out, using local quiz generation", job.id);
+            } else {
+                logger.error("Error in quiz generation job {}: {}", job.id, cause.getMessage());
+            }
+            if (job.fallback == null) {
+                job.fail("Failed to generate quiz");
+            } else {
+                try {
+                    job.complete(job.fallback.get(), true);
+                } catch (Exception e) {
+                    logger.error("Local quiz generation failed for job {}: {}", job.id, e.getMessage());
+                    job.fail("Failed to generate quiz");
+                }
+            }
+        }
+
+        try {
+            jobRepository.save(job.toEntity());
+        } catch (Exception e) {
+            logger.error("Error saving quiz generation job {}: {}", job.id, e.getMessage());
+        }
+        try {
+            messagingTemplate.convertAndSendToUser(job.userId.toString(), "/queue/quiz-jobs", job.toResponse());
+        } catch (Exception e) {
+            logger.error("Error sending quiz job update over WebSocket: {}", e.getMessage());
+        }
+    }
+
+    private static String normalizedKey(QuizGenerationRequest request) {
+        String topic = request.getTopic() == null ? "" : request.getTopic().trim().replaceAll("\\s+", " ").toLowerCase();
+        String difficulty = request.getDifficulty() == null ? "" : request.getDifficulty().trim().toLowerCase();
+        String quizType = request.getQuizType() == null ? "mixed" : request.getQuizType().trim().toLowerCase();
+        return topic + "|" + difficulty + "|" + quizType + "|" + request.getNumberOfQuestions();
+    }
+
+    private static final class Job {
+        private final String id;
+        private final Long userId;
+        // Local quiz used when generation fails or times out, or null to fail the job
+        private final Supplier<QuizRequest> fallback;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile String status = PENDING;
+        private volatile QuizRequest quiz;
+        private volatile boolean usedFallback;
+        private volatile String message;
+
+        private Job(String id, Long userId, Supplier<QuizRequest> fallback) {
+            this.id = id;
+            this.userId = userId;
+            this.fallback = fallback;
+        }
+
+        private void complete(QuizRequest quiz, boolean usedFallback) {
+            this.quiz = quiz;
+            this.usedFallback = usedFallback;
+            this.status = COMPLETED;
+        }
+
+        private void fail(String message) {
+            this.message = message;
+            this.status = FAILED;
+        }
+
+        private QuizGenerationJobResponse toResponse() {
+            return new QuizGenerationJobResponse(id, status, quiz, usedFallback, message);
+        }
+
+        private QuizGenerationJob toEntity() {
+            return new QuizGenerationJob(id, userId, status, quiz, usedFallback, message, createdAt);
+        }
+    }
+}
@@ -12,7 +12,6 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -78,16 +77,14 @@ public class QuizServiceImpl implements QuizService {
 
         questionRepository.saveAll(questions);
 
-        CompletableFuture.runAsync(() -> {
-            activityService.trackActivity(
-                    userId,
-                    "quiz_created",
-                    "Created a new quiz",
-                    savedQuiz.getTitle(),
-                    "ClipboardCheck",
-                    savedQuiz.getId()
-            );
-        });
+        activityService.trackActivity(
+                userId,
+                "quiz_created",
+                "Created a new quiz",
+                savedQuiz.getTitle(),
+                "ClipboardCheck",
+                savedQuiz.getId()
+        );
 
         return QuizResponse.fromEntity(savedQuiz);
     }
@@ -0,0 +1,397 @@
+package com.example.neighbornetbackend.service;
+
+import com.example.neighbornetbackend.config.CacheInvalidationBus;
+import com.example.neighbornetbackend.repository.ClassRepository;
+import com.example.neighbornetbackend.repository.ItemRepository;
+import com.example.neighbornetbackend.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * Embedded inverted index for class, post and item search. Each document type
+ * keeps its own postings lists (term -> document -> weighted term frequency),
+ * results are ranked with BM25 and the last query token is treated as a prefix
+ * so partially typed words still match.
+ *
+ * <p>Incremental updates are applied once the surrounding transaction commits,
+ * so a rollback never leaves phantom documents behind. Updates that arrive
+ * while {@link #rebuild()} is reading the database are also recorded and
+ * replayed onto the rebuilt indexes before they are swapped in.</p>
+ *
+ * <p>Every committed change is also announced on the
+ * {@link CacheInvalidationBus} under a {@code search:<type>} name with the
+ * document id as key. Other nodes reload that one document from the database
+ * and index or remove it, so their indexes follow within one bus poll rather
+ * than waiting for the nightly rebuild.</p>
+ */
+@Service
+public class SearchIndexService {
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexService.class);
+
+    public static final String CLASSES = "classes";
+    public static final String POSTS = "posts";
+    public static final String ITEMS = "items";
+
+    private static final String BUS_PREFIX = "search:";
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int BODY_WEIGHT = 1;
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final double BM25_K1 = 1.2;
+    private static final double BM25_B = 0.75;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it",
+            "of", "on", "or", "that", "the", "this", "to", "was", "with"
+    );
+
+    private final ClassRepository classRepository;
+    private final PostRepository postRepository;
+    private final ItemRepository itemRepository;
+    private final CacheInvalidationBus invalidationBus;
+
+    private final Map<String, TypeIndex> indexes = new ConcurrentHashMap<>();
+    private final Object updateLock = new Object();
+    // Updates made while a rebuild is running, guarded by updateLock; null when no rebuild is running
+    private List<PendingUpdate> updatesDuringRebuild;
+    private volatile boolean ready = false;
+
+    public SearchIndexService(ClassRepository classRepository,
+                              PostRepository postRepository,
+                              ItemRepository itemRepository,
+                              CacheInvalidationBus invalidationBus) {
+        this.classRepository = classRepository;
+        this.postRepository = postRepository;
+        this.itemRepository = itemRepository;
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(this::onRemoteChange);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild();
+    }
+
+    @Scheduled(cron = "${app.search.rebuild-cron:0 30 3 * * *}")
+    public synchronized void rebuild() {
+        synchronized (updateLock) {
+            updatesDuringRebuild = new ArrayList<>();
+        }
+        try {
+            long start = System.currentTimeMillis();
+
+            Map<String, TypeIndex> rebuilt = new HashMap<>();
+            TypeIndex classIndex = new TypeIndex();
+            for (Object[] row : classRepository.findAllSearchFields()) {
+                classIndex.put((Long) row[0], (String) row[1], (String) row[2], (String) row[3], null);
+            }
+            rebuilt.put(CLASSES, classIndex);
+
+            TypeIndex postIndex = new TypeIndex();
+            for (Object[] row : postRepository.findAllSearchFields()) {
+                postIndex.put((Long) row[0], (String) row[2], (String) row[1], null, null);
+            }
+            rebuilt.put(POSTS, postIndex);
+
+            TypeIndex itemIndex = new TypeIndex();
+            for (Object[] row : itemRepository.findAllSearchFields()) {
+                itemIndex.put((Long) row[0], (String) row[1], (String) row[2], (String) row[3], (LocalDate) row[4]);
+            }
+            rebuilt.put(ITEMS, itemIndex);
+
+            synchronized (updateLock) {
+                // Updates are idempotent, so replaying one the snapshot already contains is harmless
+                for (PendingUpdate update : updatesDuringRebuild) {
+                    update.change().accept(rebuilt.computeIfAbsent(update.type(), key -> new TypeIndex()));
+                }
+                indexes.putAll(rebuilt);
+            }
+            ready = true;
+
+            logger.info("Rebuilt search index ({} classes, {} posts, {} items) in {} ms",
+                    classIndex.size(), postIndex.size(), itemIndex.size(),
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Error rebuilding search index: {}", e.getMessage());
+        } finally {
+            synchronized (updateLock) {
+                updatesDuringRebuild = null;
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void indexClass(Long classId, String title, String description, String category) {
+        update(CLASSES, classId, index -> index.put(classId, title, description, category, null));
+    }
+
+    public void indexPost(Long postId, String content, String authorUsername) {
+        update(POSTS, postId, index -> index.put(postId, authorUsername, content, null, null));
+    }
+
+    /**
+     * Indexes an item that stops showing up in searches after
+     * {@code availableUntil}.
+     */
+    public void indexItem(Long itemId, String name, String description, String category, LocalDate availableUntil) {
+        update(ITEMS, itemId, index -> index.put(itemId, name, description, category, availableUntil));
+    }
+
+    public void remove(String type, Long documentId) {
+        update(type, documentId, index -> index.remove(documentId));
+    }
+
+    /**
+     * Runs a ranked search over one document type. {@code page} and
+     * {@code size} slice the ranked hits; facets are computed over all hits
+     * before the category filter is applied.
+     */
+    public SearchHits search(String type, String query, String category, int page, int size) {
+        return index(type).search(tokenize(query), category, page, size);
+    }
+
+    private TypeIndex index(String type) {
+        return indexes.computeIfAbsent(type, key -> new TypeIndex());
+    }
+
+    private void update(String type, Long documentId, Consumer<TypeIndex> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(type, change);
+                    invalidationBus.publish(BUS_PREFIX + type, documentId);
+                }
+            });
+        } else {
+            apply(type, change);
+            invalidationBus.publish(BUS_PREFIX + type, documentId);
+        }
+    }
+
+    /**
+     * Applies a change announced by another node by reading the document's
+     * committed fields; a document that no longer exists is removed.
+     */
+    private void onRemoteChange(String name, Object key) {
+        if (!name.startsWith(BUS_PREFIX) || !(key instanceof Long documentId)) {
+            return;
+        }
+        String type = name.substring(BUS_PREFIX.length());
+        List<Object[]> rows = switch (type) {
+            case CLASSES -> classRepository.findSearchFieldsById(documentId);
+            case POSTS -> postRepository.findSearchFieldsById(documentId);
+            case ITEMS -> itemRepository.findSearchFieldsById(documentId);
+            default -> null;
+        };
+        if (rows == null) {
+            return;
+        }
+        if (rows.isEmpty()) {
+            apply(type, index -> index.remove(documentId));
+            return;
+        }
+        Object[] row = rows.get(0);
+        switch (type) {
+            case CLASSES -> apply(type, index ->
+                    index.put(documentId, (String) row[1], (String) row[2], (String) row[3], null));
+            case POSTS -> apply(type, index ->
+                    index.put(documentId, (String) row[2], (String) row[1], null, null));
+            default -> apply(type, index ->
+                    index.put(documentId, (String) row[1], (String) row[2], (String) row[3], (LocalDate) row[4]));
+        }
+    }
+
+    private void apply(String type, Consumer<TypeIndex> change) {
+        synchronized (updateLock) {
+            change.accept(index(type));
+            if (updatesDuringRebuild != null) {
+                updatesDuringRebuild.add(new PendingUpdate(type, change));
+            }
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.length() >= MIN_TOKEN_LENGTH && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    public record SearchHits(List<Long> ids, long totalHits, Map<String, Long> facets) {
+    }
+
+    private record PendingUpdate(String type, Consumer<TypeIndex> change) {
+    }
+
+    private record IndexedDocument(Map<String, Integer> termFrequencies, int length, String category,
+                                   LocalDate expiresAfter) {
+    }
+
+    private static final class TypeIndex {
+        private final NavigableMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+        private final Map<Long, IndexedDocument> documents = new ConcurrentHashMap<>();
+        private volatile long totalLength = 0;
+
+        int size() {
+            return documents.size();
+        }
+
+        synchronized void put(Long id, String title, String body, String category, LocalDate expiresAfter) {
+            if (id == null) {
+                return;
+            }
+            remove(id);
+
+            Map<String, Integer> frequencies = new HashMap<>();
+            addTerms(frequencies, title, TITLE_WEIGHT);
+            addTerms(frequencies, category, CATEGORY_WEIGHT);
+            addTerms(frequencies, body, BODY_WEIGHT);
+
+            int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+            String normalizedCategory = category == null || category.isBlank()
+                    ? null : category.trim().toLowerCase(Locale.ROOT);
+            documents.put(id, new IndexedDocument(frequencies, length, normalizedCategory, expiresAfter));
+            totalLength += length;
+
+            frequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, key -> new ConcurrentHashMap<>()).put(id, frequency));
+        }
+
+        synchronized void remove(Long id) {
+            IndexedDocument previous = documents.remove(id);
+            if (previous == null) {
+                return;
+            }
+            totalLength -= previous.length();
+            for (String term : previous.termFrequencies().keySet()) {
+                Map<Long, Integer> docs = postings.get(term);
+                if (docs != null) {
+                    docs.remove(id);
+                    if (docs.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+
+        SearchHits search(List<String> queryTokens, String category, int page, int size) {
+            if (queryTokens.isEmpty() || documents.isEmpty()) {
+                return new SearchHits(List.of(), 0, Map.of());
+            }
+
+            int documentCount = Math.max(documents.size(), 1);
+            double averageLength = Math.max((double) totalLength / documentCount, 1.0);
+            Map<Long, Double> scores = null;
+
+            for (int i = 0; i < queryTokens.size(); i++) {
+                boolean prefix = i == queryTokens.size() - 1;
+                Map<Long, Double> tokenScores = scoreToken(queryTokens.get(i), prefix, documentCount, averageLength);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    // Every query token has to match
+                    Map<Long, Double> combined = new HashMap<>();
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        Double tokenScore = tokenScores.get(entry.getKey());
+                        if (tokenScore != null) {
+                            combined.put(entry.getKey(), entry.getValue() + tokenScore);
+                        }
+                    }
+                    scores = combined;
+                }
+                if (scores.isEmpty()) {
+                    return new SearchHits(List.of(), 0, Map.of());
+                }
+            }
+
+            Map<String, Long> facets = new LinkedHashMap<>();
+            String categoryFilter = category == null || category.isBlank()
+                    ? null : category.trim().toLowerCase(Locale.ROOT);
+            LocalDate today = LocalDate.now();
+            List<Map.Entry<Long, Double>> hits = new ArrayList<>();
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                IndexedDocument document = documents.get(entry.getKey());
+                if (document == null || (document.expiresAfter() != null && document.expiresAfter().isBefore(today))) {
+                    continue;
+                }
+                if (document.category() != null) {
+                    facets.merge(document.category(), 1L, Long::sum);
+                }
+                if (categoryFilter == null || categoryFilter.equals(document.category())) {
+                    hits.add(entry);
+                }
+            }
+
+            hits.sort(Map.Entry.<Long, Double>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())));
+
+            int from = (int) Math.min((long) page * size, hits.size());
+            int to = (int) Math.min((long) from + size, hits.size());
+            List<Long> ids = hits.subList(from, to).stream().map(Map.Entry::getKey).toList();
+            return new SearchHits(ids, hits.size(), facets);
+        }
+
+        private Map<Long, Double> scoreToken(String token, boolean prefix, int documentCount, double averageLength) {
+            Map<String, Map<Long, Integer>> matchingTerms;
+            if (prefix) {
+                matchingTerms = postings.subMap(token, true, token + Character.MAX_VALUE, false);
+            } else {
+                Map<Long, Integer> docs = postings.get(token);
+                matchingTerms = docs != null ? Map.of(token, docs) : Map.of();
+            }
+
+            Map<Long, Double> tokenScores = new HashMap<>();
+            for (Map<Long, Integer> docs : matchingTerms.values()) {
+                double idf = Math.log(1 + (documentCount - docs.size() + 0.5) / (docs.size() + 0.5));
+                for (Map.Entry<Long, Integer> posting : docs.entrySet()) {
+                    IndexedDocument document = documents.get(posting.getKey());
+                    if (document == null) {
+                        continue;
+                    }
+                    double tf = posting.getValue();
+                    double norm = BM25_K1 * (1 - BM25_B + BM25_B * document.length() / averageLength);
+                    double score = idf * (tf * (BM25_K1 + 1)) / (tf + norm);
+                    tokenScores.merge(posting.getKey(), score, Math::max);
+                }
+            }
+            return tokenScores;
+        }
+
+        private static void addTerms(Map<String, Integer> frequencies, String text, int weight) {
+            for (String token : tokenize(text)) {
+                frequencies.merge(token, weight, Integer::sum);
+            }
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.example.neighbornetbackend.exception.ResourceNotFoundException;
 import com.example.neighbornetbackend.exception.UnauthorizedException;
 import com.example.neighbornetbackend.model.User;
 import com.example.neighbornetbackend.repository.*;
+import com.example.neighbornetbackend.security.PrincipalCache;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
@@ -33,6 +34,8 @@ public class UserDeletionService {
     private final ClassRepository classRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
+    private final GrowthRollupService growthRollupService;
 
     private static final int DELETION_DELAY_DAYS = 10;
 
@@ -47,7 +50,9 @@ public class UserDeletionService {
             LessonRepository lessonRepository,
             FeedbackRepository feedbackRepository,
             ClassRepository classRepository,
-            UserRepository userRepository,PasswordEncoder passwordEncoder) {
+            UserRepository userRepository,PasswordEncoder passwordEncoder,
+            PrincipalCache principalCache,
+            GrowthRollupService growthRollupService) {
         this.postRepository = postRepository;
         this.refreshTokenService = refreshTokenService;
         this.activityRepository = activityRepository;
@@ -60,12 +65,15 @@ public class UserDeletionService {
         this.classRepository = classRepository;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.principalCache = principalCache;
+        this.growthRollupService = growthRollupService;
     }
 
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void deleteUserAndRelatedData(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        principalCache.invalidate(user);
 
         // Delete email verification tokens first
         entityManager.createNativeQuery(
@@ -91,6 +99,16 @@ public class UserDeletionService {
                 .setParameter(1, userId)
                 .executeUpdate();
 
+        entityManager.createNativeQuery("DELETE FROM community_feed WHERE actor_id = ?")
+                .setParameter(1, userId)
+                .executeUpdate();
+
+        entityManager.createNativeQuery(
+                        "DELETE FROM conversation_summaries WHERE owner_id = ? OR partner_id = ?")
+                .setParameter(1, userId)
+                .setParameter(2, userId)
+                .executeUpdate();
+
         // Handle posts deletion using temporary table approach
         entityManager.createNativeQuery(
                         "CREATE TEMPORARY TABLE IF NOT EXISTS temp_user_posts AS (SELECT id FROM posts WHERE user_id = ?)")
@@ -117,6 +135,7 @@ public class UserDeletionService {
                 .executeUpdate();
 
         // Delete the posts
+        growthRollupService.recordBulkDelete(GrowthRollupService.Metric.POSTS, "user_id = ?", userId);
         entityManager.createNativeQuery(
                         "DELETE FROM posts WHERE user_id = ?")
                 .setParameter(1, userId)
@@ -131,6 +150,7 @@ public class UserDeletionService {
         activityRepository.deleteByUserId(userId);
         borrowRequestRepository.deleteByUserInvolvement(userId);
         itemRepository.clearBorrowerByUserId(userId);
+        growthRollupService.recordBulkDelete(GrowthRollupService.Metric.ITEMS, "user_id = ?", userId);
         itemRepository.deleteByOwnerId(userId);
 
         classEnrollmentRepository.deleteByCreatorOrEnrolledUserId(userId);
@@ -140,6 +160,7 @@ public class UserDeletionService {
         classRepository.deleteByCreatorOrEnrolledUserId(userId);
 
         // Finally delete the user
+        growthRollupService.recordBulkDelete(GrowthRollupService.Metric.USERS, "id = ?", userId);
         entityManager.createNativeQuery(
                         "DELETE FROM users WHERE id = ?")
                 .setParameter(1, userId)
@@ -171,6 +192,7 @@ public class UserDeletionService {
         user.setDeletionDate(now);
         user.setScheduledDeletionDate(now.plusDays(DELETION_DELAY_DAYS));
         userRepository.save(user);
+        principalCache.invalidate(user);
     }
 
     @Transactional
@@ -182,6 +204,7 @@ public class UserDeletionService {
         user.setDeletionDate(null);
         user.setScheduledDeletionDate(null);
         userRepository.save(user);
+        principalCache.invalidate(user);
     }
 
     @Scheduled(cron = "0 0 0 * * *")
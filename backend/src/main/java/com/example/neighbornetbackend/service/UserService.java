@@ -8,6 +8,7 @@ import com.example.neighbornetbackend.model.UserInterest;
 import com.example.neighbornetbackend.model.UserSkill;
 import com.example.neighbornetbackend.repository.EmailVerificationTokenRepository;
 import com.example.neighbornetbackend.repository.UserRepository;
+import com.example.neighbornetbackend.security.PrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -20,15 +21,18 @@ public class UserService {
     private final UserRepository userRepository;
     private final RefreshTokenService refreshTokenService;
     private final EmailVerificationTokenRepository emailVerificationTokenRepository;
+    private final PrincipalCache principalCache;
 
 
     @Autowired
     private PasswordEncoder passwordEncoder;
 
-    public UserService(UserRepository userRepository, RefreshTokenService refreshTokenService, EmailVerificationTokenRepository emailVerificationTokenRepository) {
+    public UserService(UserRepository userRepository, RefreshTokenService refreshTokenService, EmailVerificationTokenRepository emailVerificationTokenRepository,
+                       PrincipalCache principalCache) {
         this.userRepository = userRepository;
         this.refreshTokenService = refreshTokenService;
         this.emailVerificationTokenRepository = emailVerificationTokenRepository;
+        this.principalCache = principalCache;
     }
 
     @Transactional(readOnly = true)
@@ -102,6 +106,7 @@ public class UserService {
 
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        principalCache.invalidate(user);
     }
 
     @Transactional
@@ -127,6 +132,7 @@ public class UserService {
             userRepository.save(user);
 
             userRepository.delete(user);
+            principalCache.invalidate(user);
         } catch (Exception e) {
             throw new RuntimeException("Failed to delete account: " + e.getMessage());
         }
@@ -1,45 +1,254 @@
 package com.example.neighbornetbackend.service;
 
+import com.example.neighbornetbackend.dto.VideoUploadStatus;
+import com.example.neighbornetbackend.exception.ResourceNotFoundException;
+import com.example.neighbornetbackend.exception.UnauthorizedException;
+import com.example.neighbornetbackend.exception.UploadCapacityException;
+import com.example.neighbornetbackend.exception.UploadOffsetMismatchException;
+import com.google.cloud.WriteChannel;
 import com.google.cloud.storage.BlobId;
 import com.google.cloud.storage.BlobInfo;
 import com.google.cloud.storage.Storage;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
 
+/**
+ * Stores lesson videos in GCS. Uploads are streamed into a resumable
+ * {@link WriteChannel} through a fixed-size buffer, so heap use per upload is
+ * bounded by {@code app.videos.upload-chunk-size} whatever the video size, and
+ * at most {@code app.videos.max-concurrent-uploads} uploads write at a time.
+ *
+ * <p>Large videos can also be sent in chunks: {@link #startUpload} opens a
+ * session, {@link #writeChunk} appends a chunk after checking its offset and
+ * CRC32C, and the session finalizes the object when the last byte arrives.
+ * A chunk is spooled to a temp file and only written to GCS once its checksum
+ * matches, so a corrupted chunk can simply be resent. Sessions belong to the
+ * user who started them, live on the node that started them and are dropped
+ * after {@code app.videos.upload-session-ttl-minutes} of inactivity.</p>
+ *
+ * <p>An open session keeps its channel's buffer between chunks, outside the
+ * upload slots, so sessions use the smaller
+ * {@code app.videos.session-chunk-size} and each holds one of
+ * {@code app.videos.max-upload-sessions} permits until it is claimed or
+ * dropped.</p>
+ */
 @Service
 public class VideoStorageService {
+    private static final Logger logger = LoggerFactory.getLogger(VideoStorageService.class);
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
 
     private final Storage storage;
     private final String bucketName;
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
 
     @Value("${gcp.storage.public-url}")
     private String publicUrl;
 
+    // GCS requires resumable chunks to be a multiple of 256 KiB
+    @Value("${app.videos.upload-chunk-size:8388608}")
+    private int uploadChunkSize;
+
+    @Value("${app.videos.session-chunk-size:262144}")
+    private int sessionChunkSize;
+
+    @Value("${app.videos.max-concurrent-uploads:4}")
+    private int maxConcurrentUploads;
+
+    @Value("${app.videos.upload-wait-ms:10000}")
+    private long uploadWaitMs;
+
+    @Value("${app.videos.max-upload-sessions:50}")
+    private int maxUploadSessions;
+
+    @Value("${app.videos.max-upload-bytes:4294967296}")
+    private long maxUploadBytes;
+
+    @Value("${app.videos.max-chunk-bytes:33554432}")
+    private long maxChunkBytes;
+
+    @Value("${app.videos.upload-session-ttl-minutes:60}")
+    private long sessionTtlMinutes;
+
+    private Semaphore uploadSlots;
+    private Semaphore sessionSlots;
+
     @Autowired
     public VideoStorageService(Storage storage, String bucketName) {
         this.storage = storage;
         this.bucketName = bucketName;
     }
 
-    public String storeVideo(MultipartFile file) throws IOException {
-        String originalFilename = file.getOriginalFilename();
-        String fileExtension = originalFilename != null ?
-                originalFilename.substring(originalFilename.lastIndexOf(".")) : ".mp4";
-        String filename = "videos/" + UUID.randomUUID().toString() + fileExtension;
+    @PostConstruct
+    public void init() {
+        uploadSlots = new Semaphore(maxConcurrentUploads, true);
+        sessionSlots = new Semaphore(maxUploadSessions);
+    }
 
-        BlobId blobId = BlobId.of(bucketName, filename);
-        BlobInfo blobInfo = BlobInfo.newBuilder(blobId)
+    public String storeVideo(MultipartFile file) throws IOException {
+        String filename = newObjectName(file.getOriginalFilename());
+        BlobInfo blobInfo = BlobInfo.newBuilder(BlobId.of(bucketName, filename))
                 .setContentType(file.getContentType())
                 .build();
 
-        storage.create(blobInfo, file.getBytes());
+        acquireUploadSlot();
+        try (InputStream in = file.getInputStream();
+             WriteChannel writer = openWriter(blobInfo, uploadChunkSize)) {
+            copy(in, writer);
+        } finally {
+            uploadSlots.release();
+        }
+
+        return toVideoUrl(filename);
+    }
+
+    public VideoUploadStatus startUpload(Long ownerId, String originalFilename, String contentType, long totalBytes) {
+        if (totalBytes <= 0 || totalBytes > maxUploadBytes) {
+            throw new IllegalArgumentException("Video size must be between 1 and " + maxUploadBytes + " bytes");
+        }
+        if (!sessionSlots.tryAcquire()) {
+            throw new UploadCapacityException("Too many uploads in progress, please retry shortly");
+        }
+
+        try {
+            String filename = newObjectName(originalFilename);
+            BlobInfo blobInfo = BlobInfo.newBuilder(BlobId.of(bucketName, filename))
+                    .setContentType(contentType)
+                    .build();
+            UploadSession session = new UploadSession(UUID.randomUUID().toString(), ownerId, filename, totalBytes,
+                    openWriter(blobInfo, sessionChunkSize));
+            sessions.put(session.uploadId, session);
+            return session.toStatus();
+        } catch (RuntimeException e) {
+            sessionSlots.release();
+            throw e;
+        }
+    }
+
+    public VideoUploadStatus getUploadStatus(String uploadId, Long userId) {
+        UploadSession session = getSession(uploadId, userId);
+        session.lock.lock();
+        try {
+            return session.toStatus();
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Appends {@code length} bytes read from {@code body} at {@code offset}.
+     * A chunk the session already has is acknowledged without writing it
+     * again, so clients can safely retry. {@code crc32c} is the base64
+     * big-endian CRC32C of the chunk, as used by GCS.
+     */
+    public VideoUploadStatus writeChunk(String uploadId, Long userId, long offset, long length, String crc32c,
+                                        InputStream body) throws IOException {
+        UploadSession session = getSession(uploadId, userId);
+        if (!session.lock.tryLock()) {
+            // Another chunk of this upload is being written; the client resumes from the status
+            throw new UploadOffsetMismatchException(session.toStatus());
+        }
+        try {
+            session.touch();
+            if (session.complete || (offset < session.receivedBytes && offset + length <= session.receivedBytes)) {
+                return session.toStatus();
+            }
+            if (offset != session.receivedBytes) {
+                throw new UploadOffsetMismatchException(session.toStatus());
+            }
+            if (length <= 0 || length > maxChunkBytes || offset + length > session.totalBytes) {
+                throw new IllegalArgumentException("Invalid chunk length " + length);
+            }
+            if (crc32c == null || crc32c.isBlank()) {
+                throw new IllegalArgumentException("Chunk checksum is required");
+            }
+
+            Path spool = Files.createTempFile("video-chunk-", ".part");
+            try {
+                String actual = spoolChunk(body, length, spool);
+                if (!actual.equals(crc32c.trim())) {
+                    throw new IllegalArgumentException("Chunk checksum mismatch");
+                }
+
+                acquireUploadSlot();
+                try (InputStream in = Files.newInputStream(spool)) {
+                    copy(in, session.writer);
+                    session.receivedBytes += length;
+                    if (session.receivedBytes == session.totalBytes) {
+                        session.writer.close();
+                        session.complete = true;
+                    }
+                } catch (IOException e) {
+                    // The channel's state is unknown after a failed write, so the upload cannot continue
+                    removeSession(session);
+                    logger.error("Error writing chunk of upload {}: {}", uploadId, e.getMessage());
+                    throw e;
+                } finally {
+                    uploadSlots.release();
+                }
+            } finally {
+                Files.deleteIfExists(spool);
+            }
+            return session.toStatus();
+        } finally {
+            session.lock.unlock();
+        }
+    }
 
-        return "/api/classes/lessons/video/" + filename.substring(7);
+    /**
+     * Returns the URL of a completed chunked upload and forgets its session.
+     * Only the user who started the upload can claim it.
+     */
+    public String claimUpload(String uploadId, Long userId) {
+        UploadSession session = getSession(uploadId, userId);
+        session.lock.lock();
+        try {
+            if (!session.complete) {
+                throw new IllegalStateException("Video upload is not complete");
+            }
+            removeSession(session);
+            return toVideoUrl(session.objectName);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Drops sessions that have been idle for too long. The writer is not
+     * closed, as that would finalize a partial video; GCS discards the
+     * unfinished resumable upload by itself.
+     */
+    @Scheduled(fixedDelayString = "${app.videos.upload-session-sweep-ms:60000}")
+    public void expireUploads() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(sessionTtlMinutes);
+        for (UploadSession session : sessions.values()) {
+            if (session.lastActivity < cutoff && removeSession(session)) {
+                logger.info("Expired video upload {} after {} of {} bytes",
+                        session.uploadId, session.receivedBytes, session.totalBytes);
+            }
+        }
     }
 
     public String getVideoUrl(String filename) {
@@ -56,4 +265,116 @@ public class VideoStorageService {
                 Storage.SignUrlOption.withV4Signature()
         ).toString();
     }
-}
\ No newline at end of file
+
+    private UploadSession getSession(String uploadId, Long userId) {
+        UploadSession session = sessions.get(uploadId);
+        if (session == null) {
+            throw new ResourceNotFoundException("Video upload not found: " + uploadId);
+        }
+        if (!Objects.equals(session.ownerId, userId)) {
+            throw new UnauthorizedException("You can only use your own video uploads");
+        }
+        return session;
+    }
+
+    /**
+     * Forgets the session and returns its permit, once, however many callers
+     * race to drop it.
+     */
+    private boolean removeSession(UploadSession session) {
+        if (sessions.remove(session.uploadId, session)) {
+            sessionSlots.release();
+            return true;
+        }
+        return false;
+    }
+
+    private WriteChannel openWriter(BlobInfo blobInfo, int chunkSize) {
+        WriteChannel writer = storage.writer(blobInfo);
+        writer.setChunkSize(chunkSize);
+        return writer;
+    }
+
+    private void acquireUploadSlot() {
+        try {
+            if (!uploadSlots.tryAcquire(uploadWaitMs, TimeUnit.MILLISECONDS)) {
+                throw new UploadCapacityException("Too many video uploads in progress, please retry shortly");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UploadCapacityException("Interrupted while waiting for an upload slot");
+        }
+    }
+
+    private static void copy(InputStream in, WriteChannel writer) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+            while (chunk.hasRemaining()) {
+                writer.write(chunk);
+            }
+        }
+    }
+
+    /**
+     * Copies exactly {@code length} bytes of the request body to the spool
+     * file and returns their base64 big-endian CRC32C.
+     */
+    private static String spoolChunk(InputStream body, long length, Path spool) throws IOException {
+        CRC32C crc = new CRC32C();
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long remaining = length;
+        try (OutputStream out = Files.newOutputStream(spool)) {
+            while (remaining > 0) {
+                int read = body.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read == -1) {
+                    throw new IllegalArgumentException("Chunk ended after " + (length - remaining) + " of " + length + " bytes");
+                }
+                crc.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+        return Base64.getEncoder().encodeToString(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+    }
+
+    private static String newObjectName(String originalFilename) {
+        String fileExtension = originalFilename != null && originalFilename.lastIndexOf(".") >= 0 ?
+                originalFilename.substring(originalFilename.lastIndexOf(".")) : ".mp4";
+        return "videos/" + UUID.randomUUID().toString() + fileExtension;
+    }
+
+    private static String toVideoUrl(String objectName) {
+        return "/api/classes/lessons/video/" + objectName.substring(7);
+    }
+
+    private static final class UploadSession {
+        private final String uploadId;
+        private final Long ownerId;
+        private final String objectName;
+        private final long totalBytes;
+        private final WriteChannel writer;
+        private final ReentrantLock lock = new ReentrantLock();
+        private long receivedBytes;
+        private boolean complete;
+        private volatile long lastActivity = System.currentTimeMillis();
+
+        private UploadSession(String uploadId, Long ownerId, String objectName, long totalBytes, WriteChannel writer) {
+            this.uploadId = uploadId;
+            this.ownerId = ownerId;
+            this.objectName = objectName;
+            this.totalBytes = totalBytes;
+            this.writer = writer;
+        }
+
+        private void touch() {
+            lastActivity = System.currentTimeMillis();
+        }
+
+        private VideoUploadStatus toStatus() {
+            return new VideoUploadStatus(uploadId, receivedBytes, totalBytes, complete,
+                    complete ? toVideoUrl(objectName) : null);
+        }
+    }
+}
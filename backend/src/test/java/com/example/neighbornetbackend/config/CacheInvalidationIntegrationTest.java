@@ -0,0 +1,103 @@
+package com.example.neighbornetbackend.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs two application contexts in one JVM, standing in for two backend
+ * nodes connected by the in-memory invalidation bus.
+ */
+class CacheInvalidationIntegrationTest {
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+
+    @BeforeEach
+    void startNodes() {
+        nodeA = startNode();
+        nodeB = startNode();
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    void evictionOnOneNodeIsSeenOnTheOther() {
+        Cache cacheA = cache(nodeA, "classes");
+        Cache cacheB = cache(nodeB, "classes");
+        cacheA.put(1L, "class 1 on A");
+        cacheB.put(1L, "class 1 on B");
+        cacheB.put(2L, "class 2 on B");
+
+        cacheA.evict(1L);
+
+        assertThat(cacheA.get(1L)).isNull();
+        assertThat(cacheB.get(1L)).isNull();
+        assertThat(cacheB.get(2L).get()).isEqualTo("class 2 on B");
+    }
+
+    @Test
+    void clearOnOneNodeClearsTheOther() {
+        Cache cacheB = cache(nodeB, "userProfiles");
+        cacheB.put("alice", "profile");
+        cacheB.put("bob", "profile");
+
+        cache(nodeA, "userProfiles").clear();
+
+        assertThat(cacheB.get("alice")).isNull();
+        assertThat(cacheB.get("bob")).isNull();
+    }
+
+    @Test
+    void writesStayLocalAndOtherCachesAreUntouched() {
+        cache(nodeA, "classes").put(1L, "class 1 on A");
+        cache(nodeB, "posts").put(1L, "post 1 on B");
+
+        cache(nodeA, "classes").evict(1L);
+
+        assertThat(cache(nodeB, "classes").get(1L)).isNull();
+        assertThat(cache(nodeB, "posts").get(1L).get()).isEqualTo("post 1 on B");
+
+        cache(nodeB, "classes").put(3L, "class 3 on B");
+        assertThat(cache(nodeA, "classes").get(3L)).isNull();
+    }
+
+    @Test
+    void closedNodeNoLongerReceivesEvents() {
+        Cache cacheB = cache(nodeB, "classes");
+        cacheB.put(1L, "class 1 on B");
+        nodeB.close();
+
+        cache(nodeA, "classes").evict(1L);
+
+        assertThat(cacheB.get(1L).get()).isEqualTo("class 1 on B");
+    }
+
+    private static Cache cache(ConfigurableApplicationContext node, String name) {
+        return node.getBean(CacheManager.class).getCache(name);
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(CacheNode.class)
+                .web(WebApplicationType.NONE)
+                .run("--app.cache.invalidation.mode=memory", "--spring.main.banner-mode=off");
+    }
+
+    @Configuration
+    @Import({CacheConfig.class, InMemoryCacheInvalidationBus.class})
+    static class CacheNode {
+    }
+}
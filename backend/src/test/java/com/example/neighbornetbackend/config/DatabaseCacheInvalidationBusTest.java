@@ -0,0 +1,196 @@
+package com.example.neighbornetbackend.config;
+
+import com.example.neighbornetbackend.model.CacheInvalidationEvent;
+import com.example.neighbornetbackend.repository.CacheInvalidationEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DatabaseCacheInvalidationBusTest {
+
+    private final List<CacheInvalidationEvent> table = new CopyOnWriteArrayList<>();
+    private final List<String> delivered = new ArrayList<>();
+    private final List<Long> readPositions = new ArrayList<>();
+    private CacheInvalidationEventRepository repository;
+    private DatabaseCacheInvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(CacheInvalidationEventRepository.class);
+        when(repository.findMaxId()).thenReturn(10L);
+        when(repository.findAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            readPositions.add(afterId);
+            return table.stream()
+                    .filter(event -> event.getId() > afterId)
+                    .sorted(Comparator.comparing(CacheInvalidationEvent::getId))
+                    .toList();
+        });
+        when(repository.saveAll(any())).thenAnswer(invocation -> {
+            Iterable<CacheInvalidationEvent> events = invocation.getArgument(0);
+            long nextId = table.stream().mapToLong(CacheInvalidationEvent::getId).max().orElse(10L) + 1;
+            for (CacheInvalidationEvent event : events) {
+                ReflectionTestUtils.setField(event, "id", nextId++);
+                table.add(event);
+            }
+            return events;
+        });
+
+        bus = new DatabaseCacheInvalidationBus(repository);
+        ReflectionTestUtils.setField(bus, "gapTimeoutMs", 200L);
+        // Tests below poll by hand; keep the bus's own poller out of the way
+        ReflectionTestUtils.setField(bus, "pollMs", 60_000L);
+        bus.subscribe((cacheName, key) -> delivered.add(cacheName + ":" + key));
+        bus.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bus.shutdown();
+    }
+
+    @Test
+    void deliversEventsFromOtherNodesOnce() {
+        insert(11, "classes", "l:5", "node-b");
+        insert(12, "userProfiles", "s:alice", "node-b");
+
+        bus.poll();
+        bus.poll();
+
+        assertThat(delivered).containsExactly("classes:5", "userProfiles:alice");
+    }
+
+    @Test
+    void ownEventsAreRecognisedByNodeIdNotDelivered() {
+        bus.publish("classes", 7L);
+
+        bus.poll();
+        bus.poll();
+
+        assertThat(table).hasSize(1);
+        assertThat(delivered).isEmpty();
+        // The own event still counts as read, so the position moves past it
+        assertThat(readPositions.get(readPositions.size() - 1)).isEqualTo(11L);
+    }
+
+    @Test
+    void eventCommittedLateIntoAGapIsStillDelivered() {
+        insert(12, "posts", "l:2", "node-b");
+
+        bus.poll();
+        assertThat(delivered).containsExactly("posts:2");
+
+        // Id 11 was taken by a transaction on another node that commits after id 12
+        insert(11, "posts", "l:1", "node-c");
+        bus.poll();
+
+        assertThat(delivered).containsExactly("posts:2", "posts:1");
+        assertThat(readPositions.get(readPositions.size() - 1)).isEqualTo(10L);
+    }
+
+    @Test
+    void gapIsSkippedAfterTheTimeout() throws InterruptedException {
+        insert(12, "posts", "l:2", "node-b");
+
+        bus.poll();
+        Thread.sleep(250);
+        bus.poll();
+        bus.poll();
+
+        assertThat(delivered).containsExactly("posts:2");
+        assertThat(readPositions.get(readPositions.size() - 1)).isEqualTo(12L);
+    }
+
+    @Test
+    void contiguousEventsSettleImmediately() {
+        insert(11, "posts", "l:1", "node-b");
+        insert(12, "posts", "l:2", "node-c");
+
+        bus.poll();
+        bus.poll();
+
+        assertThat(readPositions).containsExactly(10L, 12L);
+    }
+
+    @Test
+    void invalidationsArriveWhileALongScheduledJobRuns() throws InterruptedException {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.getEnvironment().getPropertySources().addFirst(
+                    new MapPropertySource("test", Map.of("app.cache.invalidation.poll-ms", "50")));
+            context.registerBean(CacheInvalidationEventRepository.class, () -> repository);
+            context.register(LongJobConfig.class, DatabaseCacheInvalidationBus.class);
+            context.refresh();
+
+            LongJob job = context.getBean(LongJob.class);
+            try {
+                // The job now holds Spring's single default scheduler thread
+                assertThat(job.started.await(5, TimeUnit.SECONDS)).isTrue();
+
+                DatabaseCacheInvalidationBus scheduledBus = context.getBean(DatabaseCacheInvalidationBus.class);
+                CountDownLatch received = new CountDownLatch(1);
+                scheduledBus.subscribe((cacheName, key) -> received.countDown());
+                scheduledBus.initialize();
+                insert(11, "classes", "l:5", "node-b");
+
+                assertThat(received.await(2, TimeUnit.SECONDS)).isTrue();
+                assertThat(job.finished.getCount()).isEqualTo(1);
+            } finally {
+                job.release.countDown();
+            }
+        }
+    }
+
+    private void insert(long id, String cacheName, String cacheKey, String originNode) {
+        CacheInvalidationEvent event = new CacheInvalidationEvent(cacheName, cacheKey, originNode);
+        ReflectionTestUtils.setField(event, "id", id);
+        table.add(event);
+    }
+
+    @Configuration
+    @EnableScheduling
+    static class LongJobConfig {
+        @Bean
+        LongJob longJob() {
+            return new LongJob();
+        }
+    }
+
+    /**
+     * Stands in for the nightly rebuild or reconcile jobs that run on the
+     * shared scheduler.
+     */
+    static class LongJob {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(1);
+
+        @Scheduled(fixedDelay = 60_000)
+        void run() throws InterruptedException {
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            finished.countDown();
+        }
+    }
+}
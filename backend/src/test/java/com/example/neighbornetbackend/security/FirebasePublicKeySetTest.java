@@ -0,0 +1,207 @@
+package com.example.neighbornetbackend.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class FirebasePublicKeySetTest {
+
+    private static final String KEYS_URL = "https://keys.test/x509";
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicInteger downloads = new AtomicInteger();
+    private final List<FirebasePublicKeySet> started = new ArrayList<>();
+    private Path keysFile;
+    private Path cacheFile;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        keysFile = tempDir.resolve("keys.json");
+        cacheFile = tempDir.resolve("cache.json");
+        publishKeys("/firebase/public-keys-1.json");
+    }
+
+    @AfterEach
+    void tearDown() {
+        started.forEach(FirebasePublicKeySet::shutdown);
+    }
+
+    @Test
+    void keysAreLoadedInTheBackgroundAndServedFromMemory() throws Exception {
+        FirebasePublicKeySet keySet = start(keySet("file:" + keysFile));
+        await(keySet::isAvailable);
+
+        assertThat(keySet.getKey("kid-1")).isNotNull();
+        assertThat(keySet.getKey("kid-1")).isNotNull();
+        assertThat(downloads).hasValue(1);
+    }
+
+    @Test
+    void unknownKidTriggersAtMostOneBackgroundRefreshPerInterval() throws Exception {
+        FirebasePublicKeySet keySet = start(keySet("file:" + keysFile));
+        await(keySet::isAvailable);
+
+        assertThat(keySet.getKey("forged")).isNull();
+        assertThat(keySet.getKey("forged")).isNull();
+        await(() -> downloads.get() == 2);
+        Thread.sleep(100);
+
+        assertThat(downloads).hasValue(2);
+    }
+
+    @Test
+    void rotatedKidIsPickedUpByTheBackgroundRefresh() throws Exception {
+        FirebasePublicKeySet keySet = start(keySet("file:" + keysFile));
+        await(keySet::isAvailable);
+        publishKeys("/firebase/public-keys-2.json");
+
+        // The caller is not held up; the rotated key arrives shortly after
+        assertThat(keySet.getKey("kid-2")).isNull();
+        await(() -> keySet.getKey("kid-2") != null);
+
+        assertThat(keySet.getKey("kid-1")).isNotNull();
+        assertThat(downloads).hasValue(2);
+    }
+
+    @Test
+    void slowEndpointDoesNotBlockCallers() throws Exception {
+        FirebasePublicKeySet keySet = keySet(KEYS_URL);
+        RestTemplate restTemplate = new RestTemplate();
+        CountDownLatch release = new CountDownLatch(1);
+        MockRestServiceServer.bindTo(restTemplate).build()
+                .expect(ExpectedCount.manyTimes(), requestTo(KEYS_URL))
+                .andRespond(request -> {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return withSuccess(keysJson(), MediaType.APPLICATION_JSON).createResponse(request);
+                });
+        ReflectionTestUtils.setField(keySet, "restTemplate", restTemplate);
+        start(keySet);
+
+        long begin = System.nanoTime();
+        assertThat(keySet.getKey("kid-1")).isNull();
+        assertThat(keySet.isAvailable()).isFalse();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin)).isLessThan(500);
+
+        release.countDown();
+        await(keySet::isAvailable);
+        assertThat(keySet.getKey("kid-1")).isNotNull();
+    }
+
+    @Test
+    void nextRefreshIsScheduledBeforeMaxAgeRunsOut() {
+        FirebasePublicKeySet keySet = keySet(KEYS_URL);
+
+        assertThat(keySet.refreshDelayMs("public, max-age=20000, must-revalidate, no-transform"))
+                .isEqualTo(16_000_000L);
+        // Very short lifetimes are not polled more than once a minute
+        assertThat(keySet.refreshDelayMs("max-age=10")).isEqualTo(60_000L);
+        assertThat(keySet.refreshDelayMs(null)).isEqualTo(60 * 60_000L);
+    }
+
+    @Test
+    void cacheControlFromTheEndpointDrivesTheSchedule() throws Exception {
+        FirebasePublicKeySet keySet = keySet(KEYS_URL);
+        RestTemplate restTemplate = new RestTemplate();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl("public, max-age=20000");
+        MockRestServiceServer.bindTo(restTemplate).build()
+                .expect(ExpectedCount.once(), requestTo(KEYS_URL))
+                .andRespond(withSuccess(keysJson(), MediaType.APPLICATION_JSON).headers(headers));
+        ReflectionTestUtils.setField(keySet, "restTemplate", restTemplate);
+        start(keySet);
+        await(() -> ReflectionTestUtils.getField(keySet, "scheduledRefresh") != null);
+
+        ScheduledFuture<?> next = (ScheduledFuture<?>) ReflectionTestUtils.getField(keySet, "scheduledRefresh");
+        assertThat(keySet.isAvailable()).isTrue();
+        assertThat(next.getDelay(TimeUnit.SECONDS)).isBetween(15_900L, 16_000L);
+    }
+
+    @Test
+    void cacheFileServesKeysWhileTheEndpointIsUnreachable() throws Exception {
+        FirebasePublicKeySet online = start(keySet("file:" + keysFile));
+        await(() -> Files.exists(cacheFile));
+        online.shutdown();
+
+        FirebasePublicKeySet offline = start(keySet("file:" + tempDir.resolve("missing.json")));
+
+        assertThat(offline.isAvailable()).isTrue();
+        assertThat(offline.getKey("kid-1")).isNotNull();
+    }
+
+    private FirebasePublicKeySet keySet(String location) {
+        DefaultResourceLoader countingLoader = new DefaultResourceLoader() {
+            @Override
+            public Resource getResource(String resourceLocation) {
+                downloads.incrementAndGet();
+                return super.getResource(resourceLocation);
+            }
+        };
+        FirebasePublicKeySet keySet = new FirebasePublicKeySet(countingLoader, new ObjectMapper());
+        ReflectionTestUtils.setField(keySet, "location", location);
+        ReflectionTestUtils.setField(keySet, "cacheFile", cacheFile.toString());
+        ReflectionTestUtils.setField(keySet, "refreshMinutes", 60L);
+        ReflectionTestUtils.setField(keySet, "connectTimeoutMs", 2000);
+        ReflectionTestUtils.setField(keySet, "readTimeoutMs", 5000);
+        return keySet;
+    }
+
+    private FirebasePublicKeySet start(FirebasePublicKeySet keySet) {
+        keySet.start();
+        started.add(keySet);
+        return keySet;
+    }
+
+    private String keysJson() {
+        try {
+            return Files.readString(keysFile);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void publishKeys(String resource) throws Exception {
+        try (InputStream in = getClass().getResourceAsStream(resource)) {
+            Files.copy(in, keysFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.neighbornetbackend.security;
+
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.auth.FirebaseAuth;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Base64;
+import java.util.Date;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FirebaseTokenVerifierTest {
+
+    private static String projectId;
+    private static PrivateKey signingKey1;
+    private static PrivateKey signingKey2;
+    private static PublicKey publicKey1;
+    private static PublicKey publicKey2;
+
+    private FirebasePublicKeySet publicKeySet;
+    private FirebaseTokenVerifier verifier;
+
+    @BeforeAll
+    static void setUpFirebase() throws Exception {
+        if (FirebaseApp.getApps().isEmpty()) {
+            FirebaseApp.initializeApp(FirebaseOptions.builder()
+                    .setProjectId("neighbornet-test")
+                    .setCredentials(GoogleCredentials.create(new AccessToken("test-token", null)))
+                    .build());
+        }
+        projectId = FirebaseApp.getInstance().getOptions().getProjectId();
+
+        signingKey1 = readPrivateKey("/firebase/signing-key-1.pem");
+        signingKey2 = readPrivateKey("/firebase/signing-key-2.pem");
+        publicKey1 = publicKeyOf(signingKey1);
+        publicKey2 = publicKeyOf(signingKey2);
+    }
+
+    @BeforeEach
+    void setUp() {
+        publicKeySet = mock(FirebasePublicKeySet.class);
+        when(publicKeySet.isAvailable()).thenReturn(true);
+        when(publicKeySet.getKey("kid-1")).thenReturn(publicKey1);
+
+        verifier = new FirebaseTokenVerifier(mock(FirebaseAuth.class), publicKeySet);
+        ReflectionTestUtils.setField(verifier, "verificationMode", "local");
+        ReflectionTestUtils.setField(verifier, "tokenCacheSize", 100L);
+        verifier.init();
+    }
+
+    @Test
+    void validTokenYieldsIdentity() throws Exception {
+        FirebaseTokenVerifier.FirebaseIdentity identity = verifier.verify(token("kid-1", signingKey1, builder -> {}));
+
+        assertThat(identity.uid()).isEqualTo("uid-1");
+        assertThat(identity.email()).isEqualTo("alice@example.com");
+        assertThat(identity.expiresAtMillis()).isGreaterThan(System.currentTimeMillis());
+    }
+
+    @Test
+    void verifiedTokenIsServedFromCache() throws Exception {
+        String token = token("kid-1", signingKey1, builder -> {});
+
+        FirebaseTokenVerifier.FirebaseIdentity first = verifier.verify(token);
+        FirebaseTokenVerifier.FirebaseIdentity second = verifier.verify(token);
+
+        assertThat(second).isSameAs(first);
+        verify(publicKeySet, times(1)).getKey("kid-1");
+    }
+
+    @Test
+    void tokenSignedWithRotatedKeyIsAcceptedOnceTheKeySetKnowsIt() throws Exception {
+        String token = token("kid-2", signingKey2, builder -> {});
+        assertThatThrownBy(() -> verifier.verify(token)).isInstanceOf(BadCredentialsException.class);
+
+        when(publicKeySet.getKey("kid-2")).thenReturn(publicKey2);
+
+        assertThat(verifier.verify(token).uid()).isEqualTo("uid-1");
+    }
+
+    @Test
+    void tokenSignedWithAnotherKeyIsRejected() {
+        String token = token("kid-1", signingKey2, builder -> {});
+
+        assertThatThrownBy(() -> verifier.verify(token)).isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        long now = System.currentTimeMillis();
+        String token = token("kid-1", signingKey1, builder -> builder
+                .setIssuedAt(new Date(now - 3_600_000))
+                .setExpiration(new Date(now - 300_000)));
+
+        assertThatThrownBy(() -> verifier.verify(token)).isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void wrongAudienceIsRejected() {
+        String token = token("kid-1", signingKey1, builder -> builder.setAudience("another-project"));
+
+        assertThatThrownBy(() -> verifier.verify(token)).isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void wrongIssuerIsRejected() {
+        String token = token("kid-1", signingKey1,
+                builder -> builder.setIssuer("https://securetoken.google.com/another-project"));
+
+        assertThatThrownBy(() -> verifier.verify(token)).isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void tokenIssuedInTheFutureIsRejected() {
+        String token = token("kid-1", signingKey1,
+                builder -> builder.setIssuedAt(new Date(System.currentTimeMillis() + 600_000)));
+
+        assertThatThrownBy(() -> verifier.verify(token))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessageContaining("iat");
+    }
+
+    @Test
+    void authenticationTimeInTheFutureIsRejected() {
+        String token = token("kid-1", signingKey1,
+                builder -> builder.claim("auth_time", System.currentTimeMillis() / 1000 + 600));
+
+        assertThatThrownBy(() -> verifier.verify(token))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessageContaining("auth_time");
+    }
+
+    @Test
+    void missingAuthenticationTimeIsRejected() {
+        String token = token("kid-1", signingKey1, builder -> builder.claim("auth_time", null));
+
+        assertThatThrownBy(() -> verifier.verify(token))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessageContaining("auth_time");
+    }
+
+    private static String token(String kid, PrivateKey key, Consumer<JwtBuilder> customizer) {
+        long now = System.currentTimeMillis();
+        JwtBuilder builder = Jwts.builder()
+                .setHeaderParam("kid", kid)
+                .setIssuer("https://securetoken.google.com/" + projectId)
+                .setAudience(projectId)
+                .setSubject("uid-1")
+                .setIssuedAt(new Date(now - 60_000))
+                .setExpiration(new Date(now + 3_600_000))
+                .claim("auth_time", (now - 120_000) / 1000)
+                .claim("email", "alice@example.com")
+                .claim("name", "Alice");
+        customizer.accept(builder);
+        return builder.signWith(key, SignatureAlgorithm.RS256).compact();
+    }
+
+    private static PrivateKey readPrivateKey(String resource) throws Exception {
+        String pem;
+        try (InputStream in = FirebaseTokenVerifierTest.class.getResourceAsStream(resource)) {
+            pem = new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+        }
+        String base64 = pem.replaceAll("-----(BEGIN|END) PRIVATE KEY-----", "").replaceAll("\\s", "");
+        return KeyFactory.getInstance("RSA").generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(base64)));
+    }
+
+    private static PublicKey publicKeyOf(PrivateKey privateKey) throws Exception {
+        RSAPrivateCrtKey crtKey = (RSAPrivateCrtKey) privateKey;
+        return KeyFactory.getInstance("RSA").generatePublic(
+                new RSAPublicKeySpec(crtKey.getModulus(), crtKey.getPublicExponent()));
+    }
+}
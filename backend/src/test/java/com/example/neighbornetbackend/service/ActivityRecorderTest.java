@@ -0,0 +1,113 @@
+package com.example.neighbornetbackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ActivityRecorderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<String> inserted = new ArrayList<>();
+    private final AtomicInteger batches = new AtomicInteger();
+    private int failingBatch = -1;
+    private Path spillFile;
+    private ActivityRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    if (batches.incrementAndGet() == failingBatch) {
+                        throw new DataAccessResourceFailureException("Connection lost");
+                    }
+                    Collection<ActivityRecorder.ActivityEvent> events = invocation.getArgument(1);
+                    events.forEach(event -> inserted.add(event.title()));
+                    return new int[][]{new int[events.size()]};
+                });
+
+        spillFile = tempDir.resolve("activities.spill");
+        recorder = new ActivityRecorder(jdbcTemplate, mock(PlatformTransactionManager.class), objectMapper,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(recorder, "capacity", 100);
+        ReflectionTestUtils.setField(recorder, "flushSize", 2);
+        ReflectionTestUtils.setField(recorder, "spillFile", spillFile.toString());
+    }
+
+    @Test
+    void spilledEventsAreReplayedInBatchesAndTheFilesRemoved() throws Exception {
+        writeSpill("a", "b", "c", "d", "e");
+
+        recorder.replaySpill();
+
+        assertThat(inserted).containsExactly("a", "b", "c", "d", "e");
+        assertThat(batches).hasValue(3);
+        assertThat(tempDir).isEmptyDirectory();
+    }
+
+    @Test
+    void replayResumesAfterTheLastWrittenBatchWithoutDuplicates() throws Exception {
+        writeSpill("a", "b", "c", "d", "e");
+        failingBatch = 2;
+
+        recorder.replaySpill();
+
+        assertThat(inserted).containsExactly("a", "b");
+        assertThat(Path.of(spillFile + ".replay")).exists();
+
+        recorder.replaySpill();
+
+        assertThat(inserted).containsExactly("a", "b", "c", "d", "e");
+        assertThat(tempDir).isEmptyDirectory();
+    }
+
+    @Test
+    void eventsSpilledWhileAReplayIsPendingAreReplayedInFullAfterIt() throws Exception {
+        writeSpill("a", "b", "c");
+        failingBatch = 2;
+        recorder.replaySpill();
+        writeSpill("x", "y", "z");
+
+        recorder.replaySpill();
+        recorder.replaySpill();
+
+        assertThat(inserted).containsExactly("a", "b", "c", "x", "y", "z");
+        assertThat(tempDir).isEmptyDirectory();
+    }
+
+    private void writeSpill(String... titles) throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (String title : titles) {
+            lines.add(objectMapper.writeValueAsString(new ActivityRecorder.ActivityEvent(
+                    1L, "POST", title, "description", "icon", null, LocalDateTime.now())));
+        }
+        Files.write(spillFile, lines, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.neighbornetbackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AhoCorasickMatcherTest {
+
+    @Test
+    void overlappingPatternsAreAllReported() {
+        List<String> matches = scan(List.of("she", "he", "hers", "his"), "she hers his he");
+
+        assertThat(matches).containsExactly("she@0-3", "hers@4-8", "his@9-12", "he@13-15");
+    }
+
+    @Test
+    void patternsNestedInsideLongerOnesMatchOnTheirOwn() {
+        List<String> matches = scan(List.of("cell", "cell wall", "wall"), "The cell wall surrounds the cell.");
+
+        assertThat(matches).containsExactly("cell@4-8", "cell wall@4-13", "wall@9-13", "cell@28-32");
+    }
+
+    @Test
+    void matchesInsideLongerWordsAreIgnored() {
+        assertThat(scan(List.of("he", "she", "hers"), "ushers")).isEmpty();
+        assertThat(scan(List.of("cat"), "concatenate cats cat")).containsExactly("cat@17-20");
+        assertThat(scan(List.of("abc", "bcd"), "abcd")).isEmpty();
+    }
+
+    @Test
+    void matchesAtBothEndsOfTheTextAreFound() {
+        List<String> matches = scan(List.of("osmosis", "roots"), "osmosis moves water into roots");
+
+        assertThat(matches).containsExactly("osmosis@0-7", "roots@25-30");
+    }
+
+    @Test
+    void caseIsIgnoredInPatternsAndText() {
+        List<String> matches = scan(List.of("Photosynthesis", "light"), "PHOTOSYNTHESIS needs Light");
+
+        assertThat(matches).containsExactly("Photosynthesis@0-14", "light@21-26");
+    }
+
+    @Test
+    void runsOfWhitespaceMatchASingleSpace() {
+        String text = "A CELL\n\t  WALL is rigid";
+
+        List<String> matches = scan(List.of("cell  wall "), text);
+
+        assertThat(matches).containsExactly("cell  wall @2-14");
+        assertThat(text.substring(2, 14)).isEqualTo("CELL\n\t  WALL");
+    }
+
+    @Test
+    void handlerCanStopTheScan() {
+        List<String> seen = new ArrayList<>();
+        new AhoCorasickMatcher(List.of("one", "two")).scan("one two one two", (pattern, start, end) -> {
+            seen.add(start + "-" + end);
+            return seen.size() < 2;
+        });
+
+        assertThat(seen).containsExactly("0-3", "4-7");
+    }
+
+    @Test
+    void emptyPatternsAndEmptyTextMatchNothing() {
+        assertThat(scan(List.of("", "  "), "anything at all")).isEmpty();
+        assertThat(scan(List.of("word"), "")).isEmpty();
+    }
+
+    private static List<String> scan(List<String> patterns, String text) {
+        List<String> matches = new ArrayList<>();
+        new AhoCorasickMatcher(patterns).scan(text, (pattern, start, end) -> {
+            matches.add(patterns.get(pattern) + "@" + start + "-" + end);
+            return true;
+        });
+        return matches;
+    }
+}
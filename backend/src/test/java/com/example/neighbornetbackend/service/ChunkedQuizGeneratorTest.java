@@ -0,0 +1,195 @@
+package com.example.neighbornetbackend.service;
+
+import com.example.neighbornetbackend.dto.QuestionRequest;
+import com.example.neighbornetbackend.model.Question;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChunkedQuizGeneratorTest {
+
+    private final List<String> excerpts = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, Integer> questionsAsked = new ConcurrentHashMap<>();
+    private Function<String, List<QuestionRequest>> gemini;
+    private ThreadPoolTaskExecutor executor;
+    private SimpleMeterRegistry meterRegistry;
+    private ChunkedQuizGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        GeminiService geminiService = mock(GeminiService.class);
+        when(geminiService.isConfigured()).thenReturn(true);
+        when(geminiService.generateQuestionsFromExcerpt(anyString(), anyInt(), any(), any())).thenAnswer(invocation -> {
+            String excerpt = invocation.getArgument(0);
+            excerpts.add(excerpt);
+            questionsAsked.put(excerpt, invocation.getArgument(1));
+            return gemini.apply(excerpt);
+        });
+        gemini = excerpt -> List.of(multipleChoice("Question about " + excerpt));
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(100);
+        executor.initialize();
+
+        meterRegistry = new SimpleMeterRegistry();
+        generator = new ChunkedQuizGenerator(geminiService, meterRegistry, executor);
+        // Chunks of at most 40 characters, which fit one topic sentence each
+        ReflectionTestUtils.setField(generator, "chunkTokens", 10);
+        ReflectionTestUtils.setField(generator, "charsPerToken", 4);
+        ReflectionTestUtils.setField(generator, "maxChunks", 12);
+        ReflectionTestUtils.setField(generator, "documentTimeoutMs", 2000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void documentIsSplitIntoSentenceAlignedChunksWithinTheTokenBudget() {
+        generator.generate(document(5), 4, "easy", "mixed");
+
+        assertThat(excerpts).hasSize(5).allSatisfy(excerpt -> assertThat(excerpt.length()).isLessThanOrEqualTo(40));
+        assertThat(excerpts).containsExactlyInAnyOrder(
+                "Topic 00 covers idea 00.", "Topic 01 covers idea 01.", "Topic 02 covers idea 02.",
+                "Topic 03 covers idea 03.", "Topic 04 covers idea 04.");
+        // 4 questions with 1.5 candidates each, spread over 5 chunks
+        assertThat(questionsAsked.values()).containsOnly(2);
+    }
+
+    @Test
+    void candidatesPerChunkAreCapped() {
+        generator.generate(document(1), 20, "easy", "mixed");
+
+        assertThat(questionsAsked.values()).containsExactly(10);
+    }
+
+    @Test
+    void longDocumentsAreSampledEvenly() {
+        ReflectionTestUtils.setField(generator, "maxChunks", 6);
+
+        generator.generate(document(30), 6, "easy", "mixed");
+
+        assertThat(excerpts).containsExactlyInAnyOrder(
+                "Topic 00 covers idea 00.", "Topic 05 covers idea 05.", "Topic 10 covers idea 10.",
+                "Topic 15 covers idea 15.", "Topic 20 covers idea 20.", "Topic 25 covers idea 25.");
+    }
+
+    @Test
+    void failedChunkIsSkippedAndTheOthersAreKept() {
+        gemini = excerpt -> {
+            if (excerpt.contains("Topic 01")) {
+                throw new IllegalStateException("Gemini returned 500");
+            }
+            return List.of(multipleChoice("Question about " + excerpt));
+        };
+
+        List<QuestionRequest> questions = generator.generate(document(3), 3, "easy", "mixed");
+
+        assertThat(questions).extracting(QuestionRequest::getContent).containsExactly(
+                "Question about Topic 00 covers idea 00.", "Question about Topic 02 covers idea 02.");
+        assertThat(meterRegistry.counter("quiz.generation.chunks.failed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void chunkStillRunningAtTheDocumentTimeoutIsSkipped() {
+        ReflectionTestUtils.setField(generator, "documentTimeoutMs", 300L);
+        gemini = excerpt -> {
+            if (excerpt.contains("Topic 01")) {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return List.of(multipleChoice("Question about " + excerpt));
+        };
+
+        long start = System.currentTimeMillis();
+        List<QuestionRequest> questions = generator.generate(document(3), 3, "easy", "mixed");
+
+        assertThat(System.currentTimeMillis() - start).isLessThan(3000);
+        assertThat(questions).hasSize(2);
+        assertThat(meterRegistry.counter("quiz.generation.chunks.failed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void questionsArePickedRoundRobinAcrossChunks() {
+        gemini = excerpt -> {
+            String topic = excerpt.substring(0, 8);
+            return List.of(multipleChoice(topic + " first"), multipleChoice(topic + " second"),
+                    multipleChoice(topic + " third"));
+        };
+
+        List<QuestionRequest> questions = generator.generate(document(2), 4, "easy", "mixed");
+
+        assertThat(questions).extracting(QuestionRequest::getContent).containsExactly(
+                "Topic 00 first", "Topic 01 first", "Topic 00 second", "Topic 01 second");
+    }
+
+    @Test
+    void mergeDropsNearDuplicatesMalformedQuestionsAndOtherTypes() {
+        gemini = excerpt -> excerpt.contains("Topic 00")
+                ? List.of(
+                        multipleChoice("What organelle produces energy in the cell"),
+                        question("Which option is right", Question.QuestionType.MULTIPLE_CHOICE,
+                                List.of("A", "B"), "C"),
+                        multipleChoice("How do plants make glucose"))
+                : List.of(
+                        multipleChoice("What organelle produces the energy in a cell"),
+                        question("Describe the nucleus", Question.QuestionType.ESSAY, null, null),
+                        multipleChoice("Why do leaves look green"));
+
+        List<QuestionRequest> questions = generator.generate(document(2), 5, "easy", "multiple-choice");
+
+        assertThat(questions).extracting(QuestionRequest::getContent).containsExactly(
+                "What organelle produces energy in the cell", "How do plants make glucose", "Why do leaves look green");
+    }
+
+    @Test
+    void emptyDocumentMakesNoGeminiCalls() {
+        assertThat(generator.generate("   ", 5, "easy", "mixed")).isEmpty();
+        assertThat(excerpts).isEmpty();
+    }
+
+    private static String document(int sentences) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < sentences; i++) {
+            text.append(String.format("Topic %02d covers idea %02d. ", i, i));
+        }
+        return text.toString();
+    }
+
+    private static QuestionRequest multipleChoice(String content) {
+        return question(content, Question.QuestionType.MULTIPLE_CHOICE, List.of("A", "B", "C", "D"), "A");
+    }
+
+    private static QuestionRequest question(String content, Question.QuestionType type, List<String> options,
+                                            String correctAnswer) {
+        QuestionRequest question = new QuestionRequest();
+        question.setContent(content);
+        question.setType(type);
+        question.setOptions(options);
+        question.setCorrectAnswer(correctAnswer);
+        return question;
+    }
+}
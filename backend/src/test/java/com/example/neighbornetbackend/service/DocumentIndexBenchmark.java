@@ -0,0 +1,158 @@
+package com.example.neighbornetbackend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares indexing a document and locating the sentence for each key term
+ * against the per-call regexes and per-term rescans they replaced. Run
+ * {@link #main} after {@code mvn test-compile}; it is not part of the test
+ * suite.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DocumentIndexBenchmark {
+
+    private static final String[] SYLLABLES = {
+            "ba", "ce", "di", "fo", "gu", "ha", "ki", "lo", "mu", "ne", "pi", "ro", "sa", "te", "vi", "zo"};
+    private static final String[] FUNCTION_WORDS = {"the", "of", "and", "is", "a", "in", "to", "by", "with"};
+
+    @Param({"100000", "1000000"})
+    public int documentChars;
+
+    private String text;
+    private DocumentIndex index;
+    private List<String> keyTerms;
+
+    /**
+     * Builds a document over a 5000-word vocabulary with Zipf-like word
+     * frequencies, so most key terms first occur well into the text.
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String[] vocabulary = new String[5000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int s = 2 + random.nextInt(3); s > 0; s--) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            vocabulary[i] = random.nextInt(8) == 0
+                    ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word.toString();
+        }
+
+        StringBuilder sb = new StringBuilder(documentChars + 200);
+        while (sb.length() < documentChars) {
+            int words = 6 + random.nextInt(14);
+            for (int i = 0; i < words; i++) {
+                String word = random.nextInt(3) == 0
+                        ? FUNCTION_WORDS[random.nextInt(FUNCTION_WORDS.length)]
+                        : vocabulary[(int) (Math.pow(random.nextDouble(), 3) * vocabulary.length)];
+                sb.append(i == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word);
+                sb.append(i == words - 1 ? ". " : " ");
+            }
+            if (random.nextInt(20) == 0) {
+                sb.append("A process called ").append(vocabulary[random.nextInt(vocabulary.length)])
+                        .append(" is a key step.\n\n");
+            }
+        }
+        text = sb.toString();
+        index = DocumentIndex.of(text);
+        keyTerms = index.topTerms(20);
+    }
+
+    /**
+     * Indexing, ranking and sentence lookup for one import, as done by
+     * ContentProcessingService.
+     */
+    @Benchmark
+    public Map<String, String> documentIndex() {
+        DocumentIndex index = DocumentIndex.of(text);
+        List<String> terms = index.topTerms(20);
+        index.definitionSentences(15);
+        return index.firstSentencesContaining(terms);
+    }
+
+    /**
+     * The replaced extraction, which stops after the first 30 candidate terms.
+     */
+    @Benchmark
+    public Map<String, String> regexRescans() {
+        Set<String> terms = new HashSet<>();
+        Matcher capitalized = Pattern.compile("\\b[A-Z][a-z]{3,}(\\s+[A-Z][a-z]{3,}){0,2}\\b").matcher(text);
+        while (capitalized.find() && terms.size() < 30) {
+            terms.add(capitalized.group());
+        }
+        Matcher introduced = Pattern.compile(
+                "(known as|called|termed|defined as|such as)\\s+([A-Za-z][A-Za-z\\s-]{3,}?)(\\.|,|\\s|$)").matcher(text);
+        while (introduced.find() && terms.size() < 30) {
+            terms.add(introduced.group(2).trim());
+        }
+        Matcher definitions = Pattern.compile(
+                "([A-Z][^.!?]*?(is a|are the|refers to|consists of|means)[^.!?]*?)\\.?").matcher(text);
+        for (int found = 0; definitions.find() && found < 15; found++) {
+            definitions.group(1);
+        }
+
+        Map<String, String> sentences = new LinkedHashMap<>();
+        for (String term : terms) {
+            String sentence = regexSentenceContaining(term);
+            if (!sentence.isEmpty()) {
+                sentences.put(term, sentence);
+            }
+        }
+        return sentences;
+    }
+
+    @Benchmark
+    public Map<String, String> sentenceLookupSingleScan() {
+        return index.firstSentencesContaining(keyTerms);
+    }
+
+    @Benchmark
+    public Map<String, String> sentenceLookupPerTermRegex() {
+        Map<String, String> sentences = new LinkedHashMap<>();
+        for (String term : keyTerms) {
+            String sentence = regexSentenceContaining(term);
+            if (!sentence.isEmpty()) {
+                sentences.put(term, sentence);
+            }
+        }
+        return sentences;
+    }
+
+    private String regexSentenceContaining(String term) {
+        Matcher sentence = Pattern.compile("([^.!?]*?" + Pattern.quote(term) + "[^.!?]*?[.!?])").matcher(text);
+        return sentence.find() ? sentence.group(1).trim() : "";
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DocumentIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
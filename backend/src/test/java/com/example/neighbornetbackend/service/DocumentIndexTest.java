@@ -0,0 +1,114 @@
+package com.example.neighbornetbackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class DocumentIndexTest {
+
+    @Test
+    void termConcentratedInOneSentenceOutranksOneSpreadOut() {
+        DocumentIndex index = DocumentIndex.of("Ribosomes build ribosomes quickly. Proteins fold. Proteins bind.");
+
+        assertThat(index.topTerms(2)).containsExactly("ribosomes", "Proteins");
+    }
+
+    @Test
+    void introducedTermIsBoosted() {
+        DocumentIndex index = DocumentIndex.of("Water moves into roots by a process called osmosis. Sunlight reaches leaves.");
+
+        assertThat(index.topTerms(1)).containsExactly("osmosis");
+    }
+
+    @Test
+    void repeatedPhraseCoversItsWords() {
+        DocumentIndex index = DocumentIndex.of("Gravity pulls planets. Gravity pulls moons. Gravity pulls comets.");
+
+        List<String> terms = index.topTerms(4);
+
+        assertThat(terms).containsExactly("Gravity pulls", "comets", "moons", "planets");
+    }
+
+    @Test
+    void wordMoreFrequentThanItsPhraseIsKept() {
+        DocumentIndex index = DocumentIndex.of("Carbon dioxide enters leaves. Oxygen leaves plants. "
+                + "Carbon dioxide exits animals. Carbon bonds easily.");
+
+        List<String> terms = index.topTerms(4);
+
+        assertThat(terms).startsWith("Carbon dioxide", "Carbon").doesNotContain("dioxide");
+    }
+
+    @Test
+    void stopWordsAndShortWordsAreNotTerms() {
+        DocumentIndex index = DocumentIndex.of("The the and of it is was. Cat dog ox are here.");
+
+        // Three-letter words still form phrases
+        assertThat(index.topTerms(10)).containsExactly("Cat dog");
+    }
+
+    @Test
+    void termKeepsItsMidSentenceSpelling() {
+        DocumentIndex index = DocumentIndex.of("Photosynthesis uses light. Plants rely on photosynthesis. "
+                + "Newton found gravity. Laws by Newton hold.");
+
+        assertThat(index.topTerms(10)).contains("photosynthesis", "Newton");
+    }
+
+    @Test
+    void sentencesEndAtTerminatorsClosingQuotesAndParagraphBreaks() {
+        DocumentIndex index = DocumentIndex.of("He said \"Stop.\" Then (it ended.) Done?! Version 2.5 shipped\n\nNext para");
+
+        List<String> sentences = new ArrayList<>();
+        for (int i = 0; i < index.sentenceCount(); i++) {
+            sentences.add(index.sentence(i));
+        }
+
+        assertThat(sentences).containsExactly(
+                "He said \"Stop.\"", "Then (it ended.)", "Done?!", "Version 2.5 shipped", "Next para");
+        assertThat(index.sentenceAt(0)).isZero();
+        assertThat(index.sentenceAt(17)).isEqualTo(1);
+    }
+
+    @Test
+    void chunksKeepSentencesWholeAndCutOnlyLongOnes() {
+        DocumentIndex index = DocumentIndex.of(
+                "Short one. alpha beta gamma delta epsilon zeta eta theta iota kappa. End.");
+
+        assertThat(index.chunks(20)).containsExactly(
+                "Short one.", "alpha beta gamma", "delta epsilon zeta", "eta theta iota", "kappa. End.");
+        assertThat(index.chunks(1000)).hasSize(1);
+    }
+
+    @Test
+    void definitionSentencesStartWithACapitalAndLoseTheirFullStop() {
+        DocumentIndex index = DocumentIndex.of("One two three. A cell is a unit of life. "
+                + "Mitochondria are the powerhouse of the cell! it is a lowercase start. Diffusion refers to movement.");
+
+        assertThat(index.definitionSentences(10)).containsExactly(
+                "A cell is a unit of life", "Mitochondria are the powerhouse of the cell", "Diffusion refers to movement");
+        assertThat(index.definitionSentences(1)).hasSize(1);
+    }
+
+    @Test
+    void firstSentenceContainingEachPhraseIsFoundInOneScan() {
+        DocumentIndex index = DocumentIndex.of("The walls are high. The CELL Wall is rigid. A cell wall again.");
+
+        Map<String, String> found = index.firstSentencesContaining(List.of("cell wall", "wall", "absent"));
+
+        assertThat(found).containsExactly(
+                entry("cell wall", "The CELL Wall is rigid."), entry("wall", "The CELL Wall is rigid."));
+    }
+
+    @Test
+    void emptyDocumentHasNoSentencesOrTerms() {
+        assertThat(DocumentIndex.of(null).sentenceCount()).isZero();
+        assertThat(DocumentIndex.of("   ").chunks(10)).isEmpty();
+        assertThat(DocumentIndex.of("").topTerms(3)).isEmpty();
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.neighbornetbackend.service;
+
+import com.example.neighbornetbackend.repository.UserRepository;
+import com.google.firebase.messaging.BatchResponse;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.google.firebase.messaging.SendResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FcmPushDispatcherTest {
+
+    private final List<List<Message>> sentBatches = new ArrayList<>();
+    private final Map<String, MessagingErrorCode> errorsByToken = new HashMap<>();
+    private FirebaseMessaging firebaseMessaging;
+    private UserRepository userRepository;
+    private FcmPushDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        firebaseMessaging = mock(FirebaseMessaging.class);
+        userRepository = mock(UserRepository.class);
+        when(firebaseMessaging.sendEach(anyList())).thenAnswer(invocation -> {
+            List<Message> messages = new ArrayList<>(invocation.getArgument(0));
+            sentBatches.add(messages);
+            List<SendResponse> responses = new ArrayList<>();
+            for (Message message : messages) {
+                responses.add(response(errorsByToken.get(token(message))));
+            }
+            BatchResponse batchResponse = mock(BatchResponse.class);
+            when(batchResponse.getResponses()).thenReturn(responses);
+            return batchResponse;
+        });
+
+        dispatcher = new FcmPushDispatcher(firebaseMessaging, userRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(dispatcher, "maxPending", 1000);
+    }
+
+    @Test
+    void burstForOneTokenAndTypeIsSentOnceWithItsCount() {
+        for (int i = 1; i <= 5; i++) {
+            dispatcher.submit("token-a", "NEW_FOLLOWER", "New follower", "Follower " + i, Map.of("type", "NEW_FOLLOWER"));
+        }
+
+        dispatcher.flush();
+
+        assertThat(sentBatches).hasSize(1);
+        assertThat(sentBatches.get(0)).hasSize(1);
+        Message message = sentBatches.get(0).get(0);
+        assertThat(token(message)).isEqualTo("token-a");
+        assertThat(data(message)).containsEntry("type", "NEW_FOLLOWER").containsEntry("count", "5");
+    }
+
+    @Test
+    void differentCollapseKeysForOneTokenAreAllSent() {
+        dispatcher.submit("token-a", "NEW_FOLLOWER", "New follower", "Bob", Map.of("type", "NEW_FOLLOWER"));
+        dispatcher.submit("token-a", "CHAT_MESSAGE:Carol", "New message from Carol", "hi", Map.of("type", "CHAT_MESSAGE"));
+        dispatcher.submit("token-a", "CHAT_MESSAGE:Dave", "New message from Dave", "hey", Map.of("type", "CHAT_MESSAGE"));
+        dispatcher.submit("token-b", "NEW_FOLLOWER", "New follower", "Erin", Map.of("type", "NEW_FOLLOWER"));
+
+        dispatcher.flush();
+
+        assertThat(sentBatches).hasSize(1);
+        assertThat(sentBatches.get(0)).hasSize(4);
+        assertThat(sentBatches.get(0)).allSatisfy(message -> assertThat(data(message)).doesNotContainKey("count"));
+    }
+
+    @Test
+    void unregisteredTokensArePruned() {
+        errorsByToken.put("token-stale", MessagingErrorCode.UNREGISTERED);
+        errorsByToken.put("token-foreign", MessagingErrorCode.SENDER_ID_MISMATCH);
+        dispatcher.submit("token-stale", "NEW_FOLLOWER", "New follower", "Bob", Map.of("type", "NEW_FOLLOWER"));
+        dispatcher.submit("token-stale", "CHAT_MESSAGE:Carol", "New message from Carol", "hi", Map.of("type", "CHAT_MESSAGE"));
+        dispatcher.submit("token-foreign", "NEW_FOLLOWER", "New follower", "Bob", Map.of("type", "NEW_FOLLOWER"));
+        dispatcher.submit("token-ok", "NEW_FOLLOWER", "New follower", "Bob", Map.of("type", "NEW_FOLLOWER"));
+
+        dispatcher.flush();
+
+        verify(userRepository).clearFcmTokens(Set.of("token-stale", "token-foreign"));
+    }
+
+    @Test
+    void transientFailureIsRetriedOnNextFlush() {
+        errorsByToken.put("token-a", MessagingErrorCode.UNAVAILABLE);
+        dispatcher.submit("token-a", "NEW_FOLLOWER", "New follower", "Bob", Map.of("type", "NEW_FOLLOWER"));
+
+        dispatcher.flush();
+        errorsByToken.clear();
+        dispatcher.flush();
+
+        assertThat(sentBatches).hasSize(2);
+        assertThat(token(sentBatches.get(1).get(0))).isEqualTo("token-a");
+        verify(userRepository, never()).clearFcmTokens(any());
+    }
+
+    @Test
+    void completionsFollowTheFcmAnswer() {
+        errorsByToken.put("token-busy", MessagingErrorCode.UNAVAILABLE);
+        CompletableFuture<Boolean> first = dispatcher.submit("token-a", "NEW_FOLLOWER", "New follower", "Bob",
+                Map.of("type", "NEW_FOLLOWER"));
+        CompletableFuture<Boolean> coalesced = dispatcher.submit("token-a", "NEW_FOLLOWER", "New follower", "Carol",
+                Map.of("type", "NEW_FOLLOWER"));
+        CompletableFuture<Boolean> busy = dispatcher.submit("token-busy", "NEW_FOLLOWER", "New follower", "Dave",
+                Map.of("type", "NEW_FOLLOWER"));
+
+        dispatcher.flush();
+
+        assertThat(first).isCompletedWithValue(true);
+        assertThat(coalesced).isCompletedWithValue(true);
+        // Still waiting on its retry
+        assertThat(busy).isNotDone();
+        assertThat(dispatcher.submit(null, "NEW_FOLLOWER", "New follower", "Erin", Map.of()))
+                .isCompletedWithValue(false);
+    }
+
+    @Test
+    void nothingIsSentWhenNothingIsPending() throws Exception {
+        dispatcher.flush();
+
+        verify(firebaseMessaging, never()).sendEach(anyList());
+    }
+
+    private static SendResponse response(MessagingErrorCode errorCode) {
+        SendResponse response = mock(SendResponse.class);
+        if (errorCode == null) {
+            when(response.isSuccessful()).thenReturn(true);
+        } else {
+            FirebaseMessagingException exception = mock(FirebaseMessagingException.class);
+            when(exception.getMessagingErrorCode()).thenReturn(errorCode);
+            when(response.isSuccessful()).thenReturn(false);
+            when(response.getException()).thenReturn(exception);
+        }
+        return response;
+    }
+
+    private static String token(Message message) {
+        return (String) ReflectionTestUtils.getField(message, "token");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> data(Message message) {
+        Map<String, String> data = (Map<String, String>) ReflectionTestUtils.getField(message, "data");
+        return data != null ? data : Map.of();
+    }
+}
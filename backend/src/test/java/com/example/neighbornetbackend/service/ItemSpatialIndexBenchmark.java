@@ -0,0 +1,153 @@
+package com.example.neighbornetbackend.service;
+
+import com.example.neighbornetbackend.repository.ItemRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares grid radius lookups against the native findItemsWithinRadius
+ * query they replaced, run on an in-memory H2 database, and against a plain
+ * in-memory haversine scan. Run {@link #main} after {@code mvn test-compile};
+ * it is not part of the test suite.
+ *
+ * <p>H2 rejects {@code HAVING} on a select alias without {@code GROUP BY},
+ * so the query's distance filter is moved into an outer select. The
+ * expression and the full-table scan are the same as in ItemRepository.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemSpatialIndexBenchmark {
+
+    @Param({"10000", "100000"})
+    public int itemCount;
+
+    private static final String RADIUS_QUERY =
+            "SELECT * FROM (SELECT i.*, " +
+                    "(6371 * acos(cos(radians(?)) * cos(radians(i.latitude)) * " +
+                    "cos(radians(i.longitude) - radians(?)) + " +
+                    "sin(radians(?)) * sin(radians(i.latitude)))) AS distance " +
+                    "FROM items i) d " +
+                    "WHERE distance < ? " +
+                    "ORDER BY distance";
+
+    private ItemSpatialIndex index;
+    private double[][] positions;
+    private Connection connection;
+    private PreparedStatement radiusQuery;
+
+    @Setup
+    public void setUp() throws SQLException {
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>(itemCount);
+        positions = new double[itemCount][];
+        for (int i = 0; i < itemCount; i++) {
+            double latitude = 10.3 + random.nextGaussian() * 0.5;
+            double longitude = 123.9 + random.nextGaussian() * 0.5;
+            rows.add(new Object[]{(long) i, latitude, longitude});
+            positions[i] = new double[]{latitude, longitude};
+        }
+        ItemRepository itemRepository = mock(ItemRepository.class);
+        when(itemRepository.findAllCoordinates()).thenReturn(rows);
+        index = new ItemSpatialIndex(itemRepository);
+        index.rebuild();
+
+        connection = DriverManager.getConnection("jdbc:h2:mem:items_benchmark");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE items (id BIGINT PRIMARY KEY, name VARCHAR(255), " +
+                    "latitude DOUBLE, longitude DOUBLE)");
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO items (id, name, latitude, longitude) VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < itemCount; i++) {
+                insert.setLong(1, i);
+                insert.setString(2, "Item " + i);
+                insert.setDouble(3, positions[i][0]);
+                insert.setDouble(4, positions[i][1]);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        radiusQuery = connection.prepareStatement(RADIUS_QUERY);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        radiusQuery.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public List<Long> gridRadius() {
+        return index.findWithinRadius(10.3, 123.9, 5);
+    }
+
+    @Benchmark
+    public List<Long> nativeRadiusQuery() throws SQLException {
+        radiusQuery.setDouble(1, 10.3);
+        radiusQuery.setDouble(2, 123.9);
+        radiusQuery.setDouble(3, 10.3);
+        radiusQuery.setDouble(4, 5);
+        List<Long> matches = new ArrayList<>();
+        try (ResultSet rows = radiusQuery.executeQuery()) {
+            while (rows.next()) {
+                matches.add(rows.getLong("id"));
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public List<Long> bruteForceRadius() {
+        List<Long> matches = new ArrayList<>();
+        for (int i = 0; i < positions.length; i++) {
+            if (haversineKm(10.3, 123.9, positions[i][0], positions[i][1]) < 5) {
+                matches.add((long) i);
+            }
+        }
+        return matches;
+    }
+
+    private static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * 6371.0 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ItemSpatialIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
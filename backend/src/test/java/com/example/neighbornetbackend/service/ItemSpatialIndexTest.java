@@ -0,0 +1,142 @@
+package com.example.neighbornetbackend.service;
+
+import com.example.neighbornetbackend.repository.ItemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemSpatialIndexTest {
+
+    private static final int ITEM_COUNT = 5_000;
+
+    private final List<Object[]> rows = new ArrayList<>();
+    private ItemSpatialIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // Items clustered around Cebu City, plus a few far away
+        Random random = new Random(42);
+        for (long id = 1; id <= ITEM_COUNT; id++) {
+            double latitude = id % 50 == 0 ? -60 + random.nextDouble() * 120 : 10.3 + random.nextGaussian() * 0.2;
+            double longitude = id % 50 == 0 ? -170 + random.nextDouble() * 340 : 123.9 + random.nextGaussian() * 0.2;
+            rows.add(new Object[]{id, latitude, longitude});
+        }
+        rows.add(new Object[]{ITEM_COUNT + 1L, null, null});
+
+        ItemRepository itemRepository = mock(ItemRepository.class);
+        when(itemRepository.findAllCoordinates()).thenReturn(rows);
+        index = new ItemSpatialIndex(itemRepository);
+        index.rebuild();
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void radiusSearchMatchesBruteForce() {
+        Random random = new Random(7);
+        for (int query = 0; query < 200; query++) {
+            double latitude = 10.3 + random.nextGaussian() * 0.3;
+            double longitude = 123.9 + random.nextGaussian() * 0.3;
+            double radiusKm = 0.5 + random.nextDouble() * 30;
+
+            assertThat(index.findWithinRadius(latitude, longitude, radiusKm))
+                    .containsExactlyElementsOf(bruteForceRadius(latitude, longitude, radiusKm));
+        }
+    }
+
+    @Test
+    void boundsSearchMatchesBruteForce() {
+        Random random = new Random(11);
+        for (int query = 0; query < 200; query++) {
+            double minLat = 10.0 + random.nextDouble() * 0.5;
+            double minLng = 123.6 + random.nextDouble() * 0.5;
+            double maxLat = minLat + random.nextDouble() * 0.4;
+            double maxLng = minLng + random.nextDouble() * 0.4;
+
+            assertThat(index.findWithinBounds(minLat, maxLat, minLng, maxLng))
+                    .containsExactlyInAnyOrderElementsOf(bruteForceBounds(minLat, maxLat, minLng, maxLng));
+        }
+    }
+
+    @Test
+    void worldSizedQueryFallsBackToFullScan() {
+        assertThat(index.findWithinBounds(-90, 90, -180, 180))
+                .containsExactlyInAnyOrderElementsOf(bruteForceBounds(-90, 90, -180, 180));
+    }
+
+    @Test
+    void putMovesAndRemoveDropsItems() {
+        index.put(1L, 48.8566, 2.3522);
+        assertThat(index.findWithinRadius(48.8566, 2.3522, 1)).containsExactly(1L);
+        assertThat(index.findWithinRadius(10.3, 123.9, 200)).doesNotContain(1L);
+
+        index.remove(1L);
+        assertThat(index.findWithinRadius(48.8566, 2.3522, 1)).isEmpty();
+    }
+
+    @Test
+    void changesInsideTransactionApplyOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        index.put(9_999L, 35.6762, 139.6503);
+        assertThat(index.findWithinRadius(35.6762, 139.6503, 1)).isEmpty();
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertThat(index.findWithinRadius(35.6762, 139.6503, 1)).containsExactly(9_999L);
+    }
+
+    @Test
+    void changesInsideRolledBackTransactionAreDiscarded() {
+        TransactionSynchronizationManager.initSynchronization();
+        index.put(9_999L, 35.6762, 139.6503);
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        assertThat(index.findWithinRadius(35.6762, 139.6503, 1)).isEmpty();
+    }
+
+    private List<Long> bruteForceRadius(double latitude, double longitude, double radiusKm) {
+        return rows.stream()
+                .filter(row -> row[1] != null)
+                .filter(row -> haversineKm(latitude, longitude, (Double) row[1], (Double) row[2]) < radiusKm)
+                .sorted(Comparator.comparingDouble(row -> haversineKm(latitude, longitude, (Double) row[1], (Double) row[2])))
+                .map(row -> (Long) row[0])
+                .toList();
+    }
+
+    private List<Long> bruteForceBounds(double minLat, double maxLat, double minLng, double maxLng) {
+        return rows.stream()
+                .filter(row -> row[1] != null)
+                .filter(row -> (Double) row[1] >= minLat && (Double) row[1] <= maxLat
+                        && (Double) row[2] >= minLng && (Double) row[2] <= maxLng)
+                .map(row -> (Long) row[0])
+                .toList();
+    }
+
+    private static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * 6371.0 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.neighbornetbackend.service;
+
+import com.example.neighbornetbackend.dto.NotificationDTO;
+import com.example.neighbornetbackend.model.NotificationOutboxEntry;
+import com.example.neighbornetbackend.model.User;
+import com.example.neighbornetbackend.repository.NotificationOutboxRepository;
+import com.example.neighbornetbackend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationDispatcherTest {
+
+    private final List<NotificationOutboxEntry> claimed = new ArrayList<>();
+    private NotificationOutboxRepository outboxRepository;
+    private JdbcTemplate jdbcTemplate;
+    private UserRepository userRepository;
+    private SimpMessagingTemplate messagingTemplate;
+    private FCMService fcmService;
+    private NotificationDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository = mock(NotificationOutboxRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        userRepository = mock(UserRepository.class);
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        fcmService = mock(FCMService.class);
+
+        when(outboxRepository.findDueIds(any(), any())).thenAnswer(invocation ->
+                claimed.stream().map(NotificationOutboxEntry::getId).toList());
+        when(outboxRepository.claim(anyCollection(), anyString(), any(), any())).thenAnswer(invocation -> claimed.size());
+        when(outboxRepository.findByClaimTokenOrderByIdAsc(anyString())).thenAnswer(invocation -> claimed);
+
+        dispatcher = new NotificationDispatcher(outboxRepository, jdbcTemplate, mock(PlatformTransactionManager.class),
+                userRepository, messagingTemplate, fcmService, mock(CacheManager.class), new SimpleMeterRegistry(),
+                mock(AsyncTaskExecutor.class));
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 100);
+        ReflectionTestUtils.setField(dispatcher, "leaseMs", 60_000L);
+        ReflectionTestUtils.setField(dispatcher, "pushTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "retryBaseDelayMs", 500L);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void enqueueWritesTheOutboxEntryInsideTheCallersTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        dispatcher.enqueue(7L, "New follower", "Bob followed you", "NEW_FOLLOWER");
+
+        // Written before commit, so it commits or rolls back with the caller
+        ArgumentCaptor<NotificationOutboxEntry> saved = ArgumentCaptor.forClass(NotificationOutboxEntry.class);
+        verify(outboxRepository).save(saved.capture());
+        assertThat(saved.getValue().getUserId()).isEqualTo(7L);
+        assertThat(saved.getValue().getSentAt()).isNull();
+    }
+
+    @Test
+    void newEntryIsStoredLinkedAndMarkedSentOnceFcmAccepts() throws Exception {
+        claimed.add(entry(1L, 7L, null));
+        users(user(7L, "token-7"));
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+                any(KeyHolder.class))).thenAnswer(invocation -> {
+            KeyHolder keyHolder = invocation.getArgument(2);
+            keyHolder.getKeyList().add(Map.of("GENERATED_KEY", 42L));
+            return new int[]{1};
+        });
+        when(fcmService.sendNotification("token-7", "Title 1", "Message 1", "TEST"))
+                .thenReturn(CompletableFuture.completedFuture(true));
+
+        dispatcher.drain();
+
+        ArgumentCaptor<BatchPreparedStatementSetter> link = ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(eq("UPDATE notification_outbox SET notification_id = ? WHERE id = ?"),
+                link.capture());
+        PreparedStatement statement = mock(PreparedStatement.class);
+        link.getValue().setValues(statement, 0);
+        verify(statement).setLong(1, 42L);
+        verify(statement).setLong(2, 1L);
+
+        ArgumentCaptor<NotificationDTO> pushed = ArgumentCaptor.forClass(NotificationDTO.class);
+        verify(messagingTemplate).convertAndSendToUser(eq("7"), eq("/queue/notifications"), pushed.capture());
+        assertThat(pushed.getValue().getId()).isEqualTo(42L);
+        verify(outboxRepository).markSent(eq(List.of(1L)), any());
+    }
+
+    @Test
+    void failedPushIsRetriedWithoutStoringTheNotificationAgain() throws Exception {
+        claimed.add(entry(1L, 7L, 42L));
+        users(user(7L, "token-7"));
+        when(fcmService.sendNotification(anyString(), anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(false));
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatcher.drain();
+
+        verify(outboxRepository, never()).markSent(eq(List.of(1L)), any());
+        verify(jdbcTemplate, never()).batchUpdate(any(PreparedStatementCreator.class),
+                any(BatchPreparedStatementSetter.class), any(KeyHolder.class));
+        verify(messagingTemplate, never()).convertAndSendToUser(anyString(), anyString(), any());
+        NotificationOutboxEntry retried = claimed.get(0);
+        assertThat(retried.getAttempts()).isEqualTo(1);
+        assertThat(retried.getNextAttemptAt()).isAfter(before);
+        assertThat(retried.getClaimToken()).isNull();
+        verify(outboxRepository).saveAll(List.of(retried));
+    }
+
+    @Test
+    void unansweredPushIsRetriedAfterTheTimeout() throws Exception {
+        claimed.add(entry(1L, 7L, 42L));
+        users(user(7L, "token-7"));
+        when(fcmService.sendNotification(anyString(), anyString(), anyString(), anyString()))
+                .thenReturn(new CompletableFuture<>());
+
+        dispatcher.drain();
+
+        verify(outboxRepository, never()).markSent(eq(List.of(1L)), any());
+        assertThat(claimed.get(0).getAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    void entryIsGivenUpAfterMaxAttempts() throws Exception {
+        NotificationOutboxEntry entry = entry(1L, 7L, 42L);
+        entry.setAttempts(2);
+        claimed.add(entry);
+        users(user(7L, "token-7"));
+        when(fcmService.sendNotification(anyString(), anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(false));
+
+        dispatcher.drain();
+
+        verify(outboxRepository).markSent(eq(List.of(1L)), any());
+        verify(outboxRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void usersWithoutADeviceAreMarkedSentAfterStoring() throws Exception {
+        claimed.add(entry(1L, 7L, 42L));
+        users(user(7L, null));
+
+        dispatcher.drain();
+
+        verify(fcmService, never()).sendNotification(any(), any(), any(), any());
+        verify(outboxRepository).markSent(eq(List.of(1L)), any());
+    }
+
+    private void users(User... users) {
+        when(userRepository.findAllById(any())).thenReturn(List.of(users));
+    }
+
+    private static NotificationOutboxEntry entry(Long id, Long userId, Long notificationId) {
+        NotificationOutboxEntry entry = new NotificationOutboxEntry(userId, "Title " + id, "Message " + id, "TEST");
+        ReflectionTestUtils.setField(entry, "id", id);
+        entry.setNotificationId(notificationId);
+        entry.setClaimToken("claim");
+        return entry;
+    }
+
+    private static User user(Long id, String fcmToken) {
+        User user = new User();
+        user.setId(id);
+        user.setFcmToken(fcmToken);
+        return user;
+    }
+}
@@ -0,0 +1,313 @@
+package com.example.neighbornetbackend.service;
+
+import com.example.neighbornetbackend.config.GeminiConfig;
+import com.example.neighbornetbackend.dto.ContentImportRequest;
+import com.example.neighbornetbackend.dto.QuizGenerationJobResponse;
+import com.example.neighbornetbackend.dto.QuizGenerationRequest;
+import com.example.neighbornetbackend.dto.QuizRequest;
+import com.example.neighbornetbackend.exception.QuizGenerationCapacityException;
+import com.example.neighbornetbackend.exception.ResourceNotFoundException;
+import com.example.neighbornetbackend.model.QuizGenerationJob;
+import com.example.neighbornetbackend.repository.QuizGenerationJobRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.ResponseCreator;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class QuizGenerationJobServiceTest {
+
+    private static final String GEMINI_URL = "https://gemini.test/v1/models/test:generateContent";
+
+    private MockRestServiceServer gemini;
+    private ThreadPoolTaskExecutor executor;
+    private SimpleMeterRegistry meterRegistry;
+    private ContentProcessingService contentProcessingService;
+    private QuizGenerationJobRepository jobRepository;
+    private final Map<String, QuizGenerationJob> storedJobs = new ConcurrentHashMap<>();
+    private QuizGenerationJobService service;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        gemini = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+
+        GeminiConfig geminiConfig = new GeminiConfig();
+        ReflectionTestUtils.setField(geminiConfig, "apiKey", "test-key");
+        ReflectionTestUtils.setField(geminiConfig, "apiUrl", GEMINI_URL);
+
+        LocalQuizGenerator localQuizGenerator = mock(LocalQuizGenerator.class);
+        when(localQuizGenerator.generateLocalQuiz(any())).thenAnswer(invocation -> quiz("Local quiz"));
+
+        // One worker and no queue, so a second concurrent generation is rejected
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+
+        meterRegistry = new SimpleMeterRegistry();
+        contentProcessingService = mock(ContentProcessingService.class);
+        // Stands in for the shared table
+        jobRepository = mock(QuizGenerationJobRepository.class);
+        when(jobRepository.save(any())).thenAnswer(invocation -> {
+            QuizGenerationJob job = invocation.getArgument(0);
+            storedJobs.put(job.getId(), job);
+            return job;
+        });
+        when(jobRepository.findByIdAndUserId(anyString(), anyLong())).thenAnswer(invocation ->
+                Optional.ofNullable(storedJobs.get(invocation.<String>getArgument(0)))
+                        .filter(job -> job.getUserId().equals(invocation.getArgument(1))));
+
+        service = newService(new GeminiService(restTemplate, geminiConfig, localQuizGenerator), localQuizGenerator);
+    }
+
+    private QuizGenerationJobService newService(GeminiService geminiService, LocalQuizGenerator localQuizGenerator) {
+        QuizGenerationJobService service = new QuizGenerationJobService(geminiService, localQuizGenerator,
+                contentProcessingService, mock(SimpMessagingTemplate.class), jobRepository, meterRegistry, executor);
+        ReflectionTestUtils.setField(service, "timeoutMs", 2000L);
+        ReflectionTestUtils.setField(service, "cacheMinutes", 60L);
+        ReflectionTestUtils.setField(service, "cacheSize", 100L);
+        ReflectionTestUtils.setField(service, "jobTtlMinutes", 30L);
+        service.init();
+        return service;
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void identicalRequestIsServedFromCache() {
+        gemini.expect(ExpectedCount.once(), requestTo(startsWith(GEMINI_URL)))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(geminiQuiz("Cells"));
+
+        QuizRequest first = service.generate(request("Cells"));
+        // Same topic, differently spaced and cased
+        QuizRequest second = service.generate(request("  cells "));
+
+        assertThat(first.getTitle()).isEqualTo("Cells");
+        assertThat(second).isSameAs(first);
+        assertThat(meterRegistry.counter("quiz.generation.cache.hits").count()).isEqualTo(1);
+        gemini.verify();
+    }
+
+    @Test
+    void cachedResultCompletesAJobImmediately() {
+        gemini.expect(ExpectedCount.once(), requestTo(startsWith(GEMINI_URL))).andRespond(geminiQuiz("Cells"));
+        service.generate(request("Cells"));
+
+        QuizGenerationJobResponse job = service.submit(request("Cells"), 7L, false);
+
+        assertThat(job.getStatus()).isEqualTo("COMPLETED");
+        assertThat(job.isFallback()).isFalse();
+        assertThat(job.getQuiz().getTitle()).isEqualTo("Cells");
+        gemini.verify();
+    }
+
+    @Test
+    void slowGeminiResponseFallsBackToLocalQuiz() {
+        ReflectionTestUtils.setField(service, "timeoutMs", 100L);
+        gemini.expect(ExpectedCount.once(), requestTo(startsWith(GEMINI_URL)))
+                .andRespond(delayed(500, geminiQuiz("Too late")));
+
+        QuizRequest quiz = service.generate(request("Cells"));
+
+        assertThat(quiz.getTitle()).isEqualTo("Local quiz");
+        assertThat(meterRegistry.counter("quiz.generation.cache.hits").count()).isZero();
+    }
+
+    @Test
+    void slowGeminiResponseCompletesTheJobWithAFallback() throws Exception {
+        ReflectionTestUtils.setField(service, "timeoutMs", 100L);
+        gemini.expect(ExpectedCount.once(), requestTo(startsWith(GEMINI_URL)))
+                .andRespond(delayed(500, geminiQuiz("Too late")));
+
+        String jobId = service.submit(request("Cells"), 7L, false).getJobId();
+        QuizGenerationJobResponse job = awaitJob(jobId, 7L);
+
+        assertThat(job.getStatus()).isEqualTo("COMPLETED");
+        assertThat(job.isFallback()).isTrue();
+        assertThat(job.getQuiz().getTitle()).isEqualTo("Local quiz");
+    }
+
+    @Test
+    void fullWorkerPoolRejectsInsteadOfGeneratingOnTheCaller() throws Exception {
+        CountDownLatch geminiCalled = new CountDownLatch(1);
+        CountDownLatch releaseGemini = new CountDownLatch(1);
+        gemini.expect(ExpectedCount.once(), requestTo(startsWith(GEMINI_URL))).andRespond(request -> {
+            geminiCalled.countDown();
+            try {
+                releaseGemini.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return geminiQuiz("Cells").createResponse(request);
+        });
+
+        CompletableFuture<QuizRequest> first = CompletableFuture.supplyAsync(() -> service.generate(request("Cells")));
+        assertThat(geminiCalled.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> service.generate(request("Planets")))
+                .isInstanceOf(QuizGenerationCapacityException.class);
+        assertThatThrownBy(() -> service.submit(request("Planets"), 7L, false))
+                .isInstanceOf(QuizGenerationCapacityException.class);
+
+        releaseGemini.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).getTitle()).isEqualTo("Cells");
+        // Only the first request reached Gemini
+        gemini.verify();
+    }
+
+    @Test
+    void identicalRequestsInFlightShareOneGeminiCall() throws Exception {
+        CountDownLatch releaseGemini = new CountDownLatch(1);
+        gemini.expect(ExpectedCount.once(), requestTo(startsWith(GEMINI_URL))).andRespond(request -> {
+            try {
+                releaseGemini.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return geminiQuiz("Cells").createResponse(request);
+        });
+
+        String first = service.submit(request("Cells"), 7L, false).getJobId();
+        String second = service.submit(request("Cells"), 8L, false).getJobId();
+        releaseGemini.countDown();
+
+        assertThat(awaitJob(first, 7L).getQuiz().getTitle()).isEqualTo("Cells");
+        assertThat(awaitJob(second, 8L).getQuiz().getTitle()).isEqualTo("Cells");
+        assertThat(meterRegistry.counter("quiz.generation.collapsed").count()).isEqualTo(1);
+        gemini.verify();
+    }
+
+    @Test
+    void contentJobCompletesOnTheWorkers() throws Exception {
+        when(contentProcessingService.generate(any()))
+                .thenReturn(new GeminiService.GeneratedQuiz(quiz("From content"), false));
+
+        QuizGenerationJobResponse submitted = service.submitFromContent(new ContentImportRequest(), 7L);
+        QuizGenerationJobResponse job = awaitJob(submitted.getJobId(), 7L);
+
+        assertThat(job.getStatus()).isEqualTo("COMPLETED");
+        assertThat(job.getQuiz().getTitle()).isEqualTo("From content");
+        // Some questions were made up locally
+        assertThat(job.isFallback()).isTrue();
+    }
+
+    @Test
+    void failedContentJobIsReportedAsFailed() throws Exception {
+        when(contentProcessingService.generate(any())).thenThrow(new IllegalStateException("boom"));
+
+        QuizGenerationJobResponse submitted = service.submitFromContent(new ContentImportRequest(), 7L);
+
+        assertThat(awaitJob(submitted.getJobId(), 7L).getStatus()).isEqualTo("FAILED");
+    }
+
+    @Test
+    void jobCanBePolledOnAnotherNode() throws Exception {
+        when(contentProcessingService.generate(any()))
+                .thenReturn(new GeminiService.GeneratedQuiz(quiz("From content"), false));
+        QuizGenerationJobService otherNode = newService(mock(GeminiService.class), mock(LocalQuizGenerator.class));
+
+        String jobId = service.submitFromContent(new ContentImportRequest(), 7L).getJobId();
+
+        assertThat(awaitJob(otherNode, jobId, 7L).getQuiz().getTitle()).isEqualTo("From content");
+        assertThatThrownBy(() -> otherNode.getJob(jobId, 8L)).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private QuizGenerationJobResponse awaitJob(String jobId, Long userId) throws InterruptedException {
+        return awaitJob(service, jobId, userId);
+    }
+
+    private static QuizGenerationJobResponse awaitJob(QuizGenerationJobService service, String jobId, Long userId)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        QuizGenerationJobResponse job = service.getJob(jobId, userId);
+        while ("PENDING".equals(job.getStatus()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            job = service.getJob(jobId, userId);
+        }
+        return job;
+    }
+
+    private static ResponseCreator delayed(long millis, ResponseCreator response) {
+        return request -> {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return response.createResponse(request);
+        };
+    }
+
+    private static ResponseCreator geminiQuiz(String title) {
+        try {
+            ObjectMapper objectMapper = new ObjectMapper();
+            String quizJson = objectMapper.writeValueAsString(Map.of(
+                    "title", title,
+                    "description", "About " + title,
+                    "questions", List.of(Map.of(
+                            "content", "What is the unit of life?",
+                            "type", "MULTIPLE_CHOICE",
+                            "points", 1,
+                            "options", List.of("Cell", "Atom", "Organ", "Tissue"),
+                            "correctAnswer", "Cell",
+                            "explanation", "All living things are made of cells."))));
+            String body = objectMapper.writeValueAsString(Map.of("candidates", List.of(
+                    Map.of("content", Map.of("parts", List.of(Map.of("text", quizJson)))))));
+            return withSuccess(body, MediaType.APPLICATION_JSON);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static QuizGenerationRequest request(String topic) {
+        QuizGenerationRequest request = new QuizGenerationRequest();
+        request.setTopic(topic);
+        request.setDifficulty("easy");
+        request.setNumberOfQuestions(1);
+        request.setQuizType("mixed");
+        return request;
+    }
+
+    private static QuizRequest quiz(String title) {
+        QuizRequest quiz = new QuizRequest();
+        quiz.setTitle(title);
+        return quiz;
+    }
+}
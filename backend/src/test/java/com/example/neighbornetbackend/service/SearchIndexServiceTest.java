@@ -0,0 +1,145 @@
+package com.example.neighbornetbackend.service;
+
+import com.example.neighbornetbackend.config.CacheInvalidationBus;
+import com.example.neighbornetbackend.config.InMemoryCacheInvalidationBus;
+import com.example.neighbornetbackend.repository.ClassRepository;
+import com.example.neighbornetbackend.repository.ItemRepository;
+import com.example.neighbornetbackend.repository.PostRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SearchIndexServiceTest {
+
+    private final List<Object[]> itemRows = new ArrayList<>();
+    private final List<InMemoryCacheInvalidationBus> buses = new ArrayList<>();
+    private ClassRepository classRepository;
+    private PostRepository postRepository;
+    private ItemRepository itemRepository;
+    private SearchIndexService searchIndexService;
+
+    @BeforeEach
+    void setUp() {
+        LocalDate nextWeek = LocalDate.now().plusDays(7);
+        itemRows.add(new Object[]{1L, "Cordless drill", "18V drill with two batteries", "Tools", nextWeek});
+        itemRows.add(new Object[]{2L, "Hammer drill", "Drills through concrete", "Tools", nextWeek});
+        itemRows.add(new Object[]{3L, "Camping tent", "Four person tent", "Outdoors", nextWeek});
+
+        classRepository = mock(ClassRepository.class);
+        postRepository = mock(PostRepository.class);
+        itemRepository = mock(ItemRepository.class);
+        when(classRepository.findAllSearchFields()).thenReturn(List.of());
+        when(postRepository.findAllSearchFields()).thenReturn(List.of());
+        when(itemRepository.findAllSearchFields()).thenReturn(itemRows);
+
+        searchIndexService = new SearchIndexService(classRepository, postRepository, itemRepository,
+                mock(CacheInvalidationBus.class));
+        searchIndexService.rebuild();
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        buses.forEach(InMemoryCacheInvalidationBus::close);
+    }
+
+    @Test
+    void ranksTitleMatchesFirst() {
+        SearchIndexService.SearchHits hits = searchIndexService.search(SearchIndexService.ITEMS, "drill", null, 0, 10);
+
+        assertThat(hits.ids()).containsExactly(1L, 2L);
+        assertThat(hits.facets()).containsEntry("tools", 2L);
+    }
+
+    @Test
+    void expiredItemsAreLeftOutBeforePaging() {
+        searchIndexService.indexItem(1L, "Cordless drill", "18V drill with two batteries", "Tools",
+                LocalDate.now().minusDays(1));
+
+        SearchIndexService.SearchHits hits = searchIndexService.search(SearchIndexService.ITEMS, "drill", null, 0, 1);
+
+        assertThat(hits.ids()).containsExactly(2L);
+        assertThat(hits.totalHits()).isEqualTo(1);
+        assertThat(hits.facets()).containsEntry("tools", 1L);
+    }
+
+    @Test
+    void updatesWaitForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        searchIndexService.indexItem(4L, "Pressure washer", "Electric", "Tools", LocalDate.now().plusDays(3));
+        searchIndexService.remove(SearchIndexService.ITEMS, 3L);
+
+        assertThat(searchIndexService.search(SearchIndexService.ITEMS, "washer", null, 0, 10).ids()).isEmpty();
+        assertThat(searchIndexService.search(SearchIndexService.ITEMS, "tent", null, 0, 10).ids()).containsExactly(3L);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(searchIndexService.search(SearchIndexService.ITEMS, "washer", null, 0, 10).ids()).containsExactly(4L);
+        assertThat(searchIndexService.search(SearchIndexService.ITEMS, "tent", null, 0, 10).ids()).isEmpty();
+    }
+
+    @Test
+    void rolledBackUpdatesAreDiscarded() {
+        TransactionSynchronizationManager.initSynchronization();
+        searchIndexService.indexItem(4L, "Pressure washer", "Electric", "Tools", LocalDate.now().plusDays(3));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(searchIndexService.search(SearchIndexService.ITEMS, "washer", null, 0, 10).ids()).isEmpty();
+    }
+
+    @Test
+    void committedChangesReachTheOtherNodesIndex() {
+        SearchIndexService nodeA = node();
+        SearchIndexService nodeB = node();
+
+        LocalDate nextWeek = LocalDate.now().plusDays(7);
+        when(itemRepository.findSearchFieldsById(4L)).thenReturn(
+                List.<Object[]>of(new Object[]{4L, "Pressure washer", "Electric", "Tools", nextWeek}));
+        nodeA.indexItem(4L, "Pressure washer", "Electric", "Tools", nextWeek);
+        when(itemRepository.findSearchFieldsById(3L)).thenReturn(List.of());
+        nodeA.remove(SearchIndexService.ITEMS, 3L);
+
+        assertThat(nodeB.search(SearchIndexService.ITEMS, "washer", null, 0, 10).ids()).containsExactly(4L);
+        assertThat(nodeB.search(SearchIndexService.ITEMS, "tent", null, 0, 10).ids()).isEmpty();
+    }
+
+    @Test
+    void updatesMadeDuringRebuildSurviveTheSwap() {
+        // The snapshot is read before these updates commit, so it still has the tent and no washer
+        when(itemRepository.findAllSearchFields()).thenAnswer(invocation -> {
+            searchIndexService.indexItem(4L, "Pressure washer", "Electric", "Tools", LocalDate.now().plusDays(3));
+            searchIndexService.remove(SearchIndexService.ITEMS, 3L);
+            return itemRows;
+        });
+
+        searchIndexService.rebuild();
+
+        assertThat(searchIndexService.search(SearchIndexService.ITEMS, "washer", null, 0, 10).ids()).containsExactly(4L);
+        assertThat(searchIndexService.search(SearchIndexService.ITEMS, "tent", null, 0, 10).ids()).isEmpty();
+    }
+
+    private SearchIndexService node() {
+        InMemoryCacheInvalidationBus bus = new InMemoryCacheInvalidationBus();
+        buses.add(bus);
+        SearchIndexService node = new SearchIndexService(classRepository, postRepository, itemRepository, bus);
+        node.rebuild();
+        return node;
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.neighbornetbackend.service;
+
+import com.example.neighbornetbackend.dto.VideoUploadStatus;
+import com.example.neighbornetbackend.exception.UnauthorizedException;
+import com.example.neighbornetbackend.exception.UploadCapacityException;
+import com.example.neighbornetbackend.exception.UploadOffsetMismatchException;
+import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VideoStorageServiceTest {
+
+    private static final long OWNER = 1L;
+    private static final long OTHER_USER = 2L;
+
+    private final Map<String, FakeObject> objects = new HashMap<>();
+    private VideoStorageService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Storage storage = mock(Storage.class);
+        when(storage.writer(any(BlobInfo.class))).thenAnswer(invocation -> {
+            BlobInfo blobInfo = invocation.getArgument(0);
+            FakeObject object = new FakeObject();
+            objects.put(blobInfo.getName(), object);
+            return object.channel();
+        });
+
+        service = new VideoStorageService(storage, "bucket");
+        ReflectionTestUtils.setField(service, "publicUrl", "https://storage.example.com");
+        ReflectionTestUtils.setField(service, "uploadChunkSize", 8 * 1024 * 1024);
+        ReflectionTestUtils.setField(service, "sessionChunkSize", 256 * 1024);
+        ReflectionTestUtils.setField(service, "maxConcurrentUploads", 2);
+        ReflectionTestUtils.setField(service, "uploadWaitMs", 100L);
+        ReflectionTestUtils.setField(service, "maxUploadSessions", 2);
+        ReflectionTestUtils.setField(service, "maxUploadBytes", 1024L * 1024);
+        ReflectionTestUtils.setField(service, "maxChunkBytes", 64L * 1024);
+        ReflectionTestUtils.setField(service, "sessionTtlMinutes", 60L);
+        service.init();
+    }
+
+    @Test
+    void singleRequestUploadIsStreamedToStorage() throws Exception {
+        byte[] video = bytes(200_000);
+
+        String url = service.storeVideo(new MockMultipartFile("videoFile", "clip.mp4", "video/mp4", video));
+
+        FakeObject object = onlyObject();
+        assertThat(url).startsWith("/api/classes/lessons/video/").endsWith(".mp4");
+        assertThat(object.content.toByteArray()).isEqualTo(video);
+        assertThat(object.closed).isTrue();
+        assertThat(object.chunkSize).isEqualTo(8 * 1024 * 1024);
+    }
+
+    @Test
+    void chunkedUploadIsFinalizedOnTheLastByteAndClaimedByItsOwner() throws Exception {
+        byte[] video = bytes(100_000);
+        VideoUploadStatus started = service.startUpload(OWNER, "clip.mp4", "video/mp4", video.length);
+
+        VideoUploadStatus first = writeChunk(started.getUploadId(), OWNER, video, 0, 60_000);
+        assertThat(first.getReceivedBytes()).isEqualTo(60_000);
+        assertThat(first.isComplete()).isFalse();
+        assertThat(onlyObject().closed).isFalse();
+
+        VideoUploadStatus last = writeChunk(started.getUploadId(), OWNER, video, 60_000, video.length);
+        assertThat(last.isComplete()).isTrue();
+        assertThat(onlyObject().closed).isTrue();
+        assertThat(onlyObject().content.toByteArray()).isEqualTo(video);
+
+        assertThat(service.claimUpload(started.getUploadId(), OWNER)).isEqualTo(last.getVideoUrl());
+    }
+
+    @Test
+    void sessionsUseTheSmallerSessionChunkSize() {
+        service.startUpload(OWNER, "clip.mp4", "video/mp4", 1000);
+
+        assertThat(onlyObject().chunkSize).isEqualTo(256 * 1024);
+    }
+
+    @Test
+    void chunkWithWrongChecksumIsRejectedWithoutWriting() {
+        byte[] video = bytes(1000);
+        String uploadId = service.startUpload(OWNER, "clip.mp4", "video/mp4", video.length).getUploadId();
+
+        assertThatThrownBy(() -> service.writeChunk(uploadId, OWNER, 0, video.length,
+                crc32c(bytes(999)), new ByteArrayInputStream(video)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(onlyObject().content.size()).isZero();
+        assertThat(service.getUploadStatus(uploadId, OWNER).getReceivedBytes()).isZero();
+    }
+
+    @Test
+    void retriedChunkIsAcknowledgedWithoutWritingItAgain() throws Exception {
+        byte[] video = bytes(2000);
+        String uploadId = service.startUpload(OWNER, "clip.mp4", "video/mp4", video.length).getUploadId();
+
+        writeChunk(uploadId, OWNER, video, 0, 1000);
+        VideoUploadStatus retried = writeChunk(uploadId, OWNER, video, 0, 1000);
+
+        assertThat(retried.getReceivedBytes()).isEqualTo(1000);
+        assertThat(onlyObject().content.size()).isEqualTo(1000);
+    }
+
+    @Test
+    void chunkPastTheReceivedOffsetIsAConflict() throws Exception {
+        byte[] video = bytes(2000);
+        String uploadId = service.startUpload(OWNER, "clip.mp4", "video/mp4", video.length).getUploadId();
+        writeChunk(uploadId, OWNER, video, 0, 500);
+
+        assertThatThrownBy(() -> writeChunk(uploadId, OWNER, video, 1000, 2000))
+                .isInstanceOfSatisfying(UploadOffsetMismatchException.class,
+                        e -> assertThat(e.getStatus().getReceivedBytes()).isEqualTo(500));
+    }
+
+    @Test
+    void anotherUserCannotWriteOrClaimTheUpload() throws Exception {
+        byte[] video = bytes(1000);
+        String uploadId = service.startUpload(OWNER, "clip.mp4", "video/mp4", video.length).getUploadId();
+
+        assertThatThrownBy(() -> writeChunk(uploadId, OTHER_USER, video, 0, video.length))
+                .isInstanceOf(UnauthorizedException.class);
+        writeChunk(uploadId, OWNER, video, 0, video.length);
+        assertThatThrownBy(() -> service.claimUpload(uploadId, OTHER_USER))
+                .isInstanceOf(UnauthorizedException.class);
+
+        assertThat(service.claimUpload(uploadId, OWNER)).startsWith("/api/classes/lessons/video/");
+    }
+
+    @Test
+    void openSessionsAreLimitedAndClaimingFreesTheirPermit() throws Exception {
+        byte[] video = bytes(1000);
+        String first = service.startUpload(OWNER, "a.mp4", "video/mp4", video.length).getUploadId();
+        service.startUpload(OWNER, "b.mp4", "video/mp4", video.length);
+
+        assertThatThrownBy(() -> service.startUpload(OWNER, "c.mp4", "video/mp4", video.length))
+                .isInstanceOf(UploadCapacityException.class);
+
+        writeChunk(first, OWNER, video, 0, video.length);
+        service.claimUpload(first, OWNER);
+
+        assertThat(service.startUpload(OWNER, "c.mp4", "video/mp4", video.length).getUploadId()).isNotBlank();
+    }
+
+    @Test
+    void expiredSessionsFreeTheirPermit() {
+        service.startUpload(OWNER, "a.mp4", "video/mp4", 1000);
+        service.startUpload(OWNER, "b.mp4", "video/mp4", 1000);
+        ReflectionTestUtils.setField(service, "sessionTtlMinutes", -1L);
+
+        service.expireUploads();
+
+        assertThat(service.startUpload(OWNER, "c.mp4", "video/mp4", 1000).getUploadId()).isNotBlank();
+    }
+
+    private VideoUploadStatus writeChunk(String uploadId, Long userId, byte[] video, int from, int to) throws Exception {
+        byte[] chunk = Arrays.copyOfRange(video, from, to);
+        return service.writeChunk(uploadId, userId, from, chunk.length, crc32c(chunk), new ByteArrayInputStream(chunk));
+    }
+
+    private FakeObject onlyObject() {
+        assertThat(objects).hasSize(1);
+        return objects.values().iterator().next();
+    }
+
+    private static byte[] bytes(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (i * 31 + 7);
+        }
+        return bytes;
+    }
+
+    private static String crc32c(byte[] bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        return Base64.getEncoder().encodeToString(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+    }
+
+    /**
+     * One object being written through a resumable channel.
+     */
+    private static final class FakeObject {
+        private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        private int chunkSize;
+        private boolean closed;
+
+        private WriteChannel channel() throws Exception {
+            WriteChannel channel = mock(WriteChannel.class);
+            doAnswer(invocation -> {
+                chunkSize = invocation.getArgument(0);
+                return null;
+            }).when(channel).setChunkSize(anyInt());
+            when(channel.write(any(ByteBuffer.class))).thenAnswer(invocation -> {
+                ByteBuffer source = invocation.getArgument(0);
+                int written = source.remaining();
+                byte[] bytes = new byte[written];
+                source.get(bytes);
+                content.write(bytes);
+                return written;
+            });
+            doAnswer(invocation -> {
+                closed = true;
+                return null;
+            }).when(channel).close();
+            return channel;
+        }
+    }
+}
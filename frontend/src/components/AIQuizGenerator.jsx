@@ -45,7 +45,26 @@ const AIQuizGenerator = ({ onAddGeneratedQuiz, classId }) => {
     }));
   };
   
-  const handleGenerate = async () => {
+  const waitForJob = async (job, headers) => {
+    const deadline = Date.now() + 120000;
+    while (job.status === "PENDING") {
+      if (Date.now() > deadline) {
+        throw new Error("Quiz generation is taking too long. Please try again.");
+      }
+      await new Promise(resolve => setTimeout(resolve, 1500));
+      const response = await axios.get(
+        `https://it342-g3-neighbornet.onrender.com/api/classes/${classId}/quizzes/generate/jobs/${job.jobId}`,
+        { headers }
+      );
+      job = response.data;
+    }
+    if (job.status !== "COMPLETED") {
+      throw new Error(job.message || "Failed to generate quiz. Please try again.");
+    }
+    return job.quiz;
+  };
+
+  const handleGenerate = async (refresh = false) => {
     if (!generationData.topic) {
       toast.error("Please enter a topic for your quiz!");
       return;
@@ -55,17 +74,19 @@ const AIQuizGenerator = ({ onAddGeneratedQuiz, classId }) => {
     setError(null);
     
     try {
+      const headers = {
+        Authorization: `Bearer ${localStorage.getItem("token")}`,
+      };
       const response = await axios.post(
-        `https://it342-g3-neighbornet.onrender.com/api/classes/${classId}/quizzes/generate/preview`,
+        `https://it342-g3-neighbornet.onrender.com/api/classes/${classId}/quizzes/generate/jobs`,
         generationData,
         {
-          headers: {
-            Authorization: `Bearer ${localStorage.getItem("token")}`,
-          },
+          headers,
+          params: { refresh },
         }
       );
       
-      setGeneratedQuiz(response.data);
+      setGeneratedQuiz(await waitForJob(response.data, headers));
       toast.success("Quiz generated successfully! 🎉", {
         style: {
           border: '1px solid #8b5cf6',
@@ -75,7 +96,7 @@ const AIQuizGenerator = ({ onAddGeneratedQuiz, classId }) => {
       });
     } catch (err) {
       console.error("Error generating quiz:", err);
-      setError(err.response?.data?.message || "Failed to generate quiz. Please try again.");
+      setError(err.response?.data?.message || err.message || "Failed to generate quiz. Please try again.");
       toast.error("Failed to generate quiz. Please try again.");
     } finally {
       setIsLoading(false);
@@ -98,7 +119,7 @@ const AIQuizGenerator = ({ onAddGeneratedQuiz, classId }) => {
   };
   
   const handleRegenerate = () => {
-    handleGenerate();
+    handleGenerate(true);
   };
 
   return (
@@ -194,7 +215,7 @@ const AIQuizGenerator = ({ onAddGeneratedQuiz, classId }) => {
         <motion.button
           whileHover={{ scale: 1.01 }}
           whileTap={{ scale: 0.99 }}
-          onClick={handleGenerate}
+          onClick={() => handleGenerate()}
           disabled={isLoading || !generationData.topic}
           className={`mt-6 w-full py-3.5 ${
             !generationData.topic
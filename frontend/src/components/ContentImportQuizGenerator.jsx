@@ -15,6 +15,25 @@ const ContentImportQuizGenerator = ({ onAddGeneratedQuiz, classId }) => {
     quizType: "mixed"
   });
 
+  const waitForJob = async (job, headers) => {
+    const deadline = Date.now() + 180000;
+    while (job.status === "PENDING") {
+      if (Date.now() > deadline) {
+        throw new Error("Quiz generation is taking too long. Please try again.");
+      }
+      await new Promise(resolve => setTimeout(resolve, 2000));
+      const response = await axios.get(
+        `https://it342-g3-neighbornet.onrender.com/api/classes/${classId}/quizzes/generate/jobs/${job.jobId}`,
+        { headers }
+      );
+      job = response.data;
+    }
+    if (job.status !== "COMPLETED") {
+      throw new Error(job.message || "Failed to generate quiz from content");
+    }
+    return job.quiz;
+  };
+
   const handleGenerate = async () => {
     if ((!content && contentType === "text") || (!url && contentType === "url")) {
       toast.error("Please provide content for quiz generation");
@@ -30,17 +49,16 @@ const ContentImportQuizGenerator = ({ onAddGeneratedQuiz, classId }) => {
         content: contentType === "text" ? content : url
       };
       
+      const headers = {
+        Authorization: `Bearer ${localStorage.getItem("token")}`,
+      };
       const response = await axios.post(
-        `https://it342-g3-neighbornet.onrender.com/api/classes/${classId}/quizzes/generate/from-content`,
+        `https://it342-g3-neighbornet.onrender.com/api/classes/${classId}/quizzes/generate/from-content/jobs`,
         requestData,
-        {
-          headers: {
-            Authorization: `Bearer ${localStorage.getItem("token")}`,
-          },
-        }
+        { headers }
       );
       
-      onAddGeneratedQuiz(response.data);
+      onAddGeneratedQuiz(await waitForJob(response.data, headers));
       toast.success("Quiz successfully generated from your content!");
     } catch (error) {
       console.error("Error generating quiz:", error);